@@ -16,6 +16,8 @@
  */
 package edu.cornell.gdiac.assets;
 
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.*;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
@@ -27,8 +29,10 @@ import com.badlogic.gdx.graphics.g2d.*;
 import com.badlogic.gdx.graphics.g2d.freetype.*;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
 import edu.cornell.gdiac.audio.*;
 import edu.cornell.gdiac.util.*;
 
@@ -56,6 +60,17 @@ import edu.cornell.gdiac.util.*;
  * audio assets, fonts, and other JSON files.  To add more assets, you will need to
  * extend this class.
  *
+ * Textures may also be packed into a {@link TextureAtlas} at build time, listed
+ * in the "atlases" section of the directory. Textures whose files were packed are
+ * not loaded on their own. Instead, {@link #getEntry} resolves texture regions and
+ * film strips of those files to the matching atlas region. A packed file that is
+ * requested as a {@link Texture} is loaded on demand, so prefer asking for a
+ * {@link TextureRegion}, which works for any texture key.
+ *
+ * Entries may also be deferred, by listing their keys by category (e.g. "jsons")
+ * in the "deferred" section of the directory. Deferred entries are not loaded with
+ * the directory, but {@link #getEntry} loads them on demand.
+ *
  * We have decided not implement this class as a singleton. It is possible that you 
  * may want more than one asset manager (for managing separate scenes).  If you
  * need to globalize access to this asset manager, use {@link ResourceManager}.
@@ -69,6 +84,20 @@ public class AssetDirectory extends AssetManager {
     protected Index contents;
     /** The dedicated loader for the {@link Index} class */
     protected DirectoryLoader topLoader;
+    /** The atlas file of every packed image, by file name without the extension */
+    protected ObjectMap<String, String> packed;
+    /** The load parameters of packed textures, in case they are requested as textures */
+    protected ObjectMap<String, TextureLoader.TextureParameter> packedTextures;
+    /** The packed texture regions and film strips, by their directory file name */
+    protected ObjectMap<String, PackedRegion> packedRegions;
+    /** The atlas region of every packed image requested so far */
+    protected ObjectMap<String, TextureAtlas.AtlasRegion> atlasRegions;
+    /** The packed texture regions and film strips built so far */
+    protected ObjectMap<String, TextureRegion> packedCache;
+    /** The files listed in the deferred section of the directory, which are not loaded with it */
+    protected ObjectSet<String> deferredFiles;
+    /** The load descriptor of every deferred file, by file name */
+    protected ObjectMap<String, AssetDescriptor<?>> deferred;
 
     /**
      * This class represents the top level index of an asset directory.
@@ -91,6 +120,22 @@ public class AssetDirectory extends AssetManager {
         }
     }
 
+    /**
+     * A texture region or film strip of an image that was packed into an atlas.
+     *
+     * The rectangle is relative to the original image, as in the directory JSON.
+     */
+    protected static class PackedRegion {
+        /** The original image file */
+        String file;
+        /** The rectangle in the image (a negative size is the remaining size) */
+        int x, y, width, height;
+        /** Whether this is a film strip */
+        boolean strip;
+        /** The film strip rows, columns and number of frames */
+        int rows, cols, size;
+    }
+
     /** 
      * A callback function for the directory loader
      *
@@ -135,6 +180,13 @@ public class AssetDirectory extends AssetManager {
         super( resolver, false );
         filename = directory;
         this.resolver = resolver;
+        packed = new ObjectMap<String, String>();
+        packedTextures = new ObjectMap<String, TextureLoader.TextureParameter>();
+        packedRegions = new ObjectMap<String, PackedRegion>();
+        atlasRegions = new ObjectMap<String, TextureAtlas.AtlasRegion>();
+        packedCache = new ObjectMap<String, TextureRegion>();
+        deferredFiles = new ObjectSet<String>();
+        deferred = new ObjectMap<String, AssetDescriptor<?>>();
 
         // Add the default loaders
         topLoader = new DirectoryLoader( resolver );
@@ -162,7 +214,8 @@ public class AssetDirectory extends AssetManager {
         setLoader( ParticleEffect.class, new ParticleEffectLoader( resolver ) );
         setLoader( PolygonRegion.class, new PolygonRegionLoader( resolver ) );
 
-        // And now the default parsers
+        // And now the default parsers (atlases must come before textures)
+        topLoader.addParser( new TextureAtlasParser() );
         topLoader.addParser( new JsonValueParser() );
         topLoader.addParser( new TextureParser() );
         topLoader.addParser( new TextureRegionParser() );
@@ -222,10 +275,42 @@ public class AssetDirectory extends AssetManager {
         }
         for (ObjectMap<String, String> category : contents.keymap.values()) {
             for (String filename : category.values()) {
-                unload( filename );
+                // Packed textures and deferred files are only loaded on request
+                boolean requested = deferred.containsKey( filename ) ? contains( filename ) : !isPackedEntry( filename );
+                if (isLoaded( filename ) || requested) {
+                    unload( filename );
+                }
             }
         }
         contents = null;
+        packed.clear();
+        packedTextures.clear();
+        packedRegions.clear();
+        atlasRegions.clear();
+        packedCache.clear();
+        deferredFiles.clear();
+        deferred.clear();
+    }
+
+    /**
+     * Queues an asset for loading, unless it is deferred.
+     *
+     * Files listed in the deferred section of the directory are only recorded when the
+     * directory is parsed, and are loaded once they are requested.
+     *
+     * @param fileName  the file name of the asset
+     * @param type      the asset type
+     * @param parameter the parameters to load the asset with
+     */
+    @Override
+    public synchronized <T> void load(String fileName, Class<T> type, AssetLoaderParameters<T> parameter) {
+        if (deferredFiles.contains( fileName )) {
+            if (!deferred.containsKey( fileName )) {
+                deferred.put( fileName, new AssetDescriptor<T>( fileName, type, parameter ) );
+            }
+            return;
+        }
+        super.load( fileName, type, parameter );
     }
     
     /**
@@ -276,20 +361,41 @@ public class AssetDirectory extends AssetManager {
      * The method {@link #loadAssets} must have been called for this method to
      * return a value.
      *
+     * Texture regions and film strips of packed images are built from their atlas
+     * region (and shared, like any other asset). A texture key may also be used
+     * to get a {@link TextureRegion}, in which case the result is a new region
+     * covering the whole image, taken from the atlas if the image was packed.
+     *
+     * Deferred and packed entries are loaded on their first request, so this holds
+     * the lock of the asset manager (like {@link #readDeferred} and {@link #update}).
+     * Loading a texture still needs the GL thread, so entries that are not loaded yet
+     * must be requested from the thread that loaded the directory.
+     *
      * @param key  the asset directory key
      * @param type the asset type
      *
      * @return the asset associated with the given directory key
      */
-    public <T> T getEntry(String key, Class<T> type) {
+    public synchronized <T> T getEntry(String key, Class<T> type) {
         ObjectMap<String, String> keys = contents.keymap.get( type, null );
-        if (keys == null) {
-            return null;
-        }
-        String filename = keys.get( key, null );
+        String filename = keys == null ? null : keys.get( key, null );
         if (filename == null) {
+            if (type == TextureRegion.class) {
+                return type.cast( getImageRegion( key ) );
+            }
             return null;
         }
+        if (packedRegions.containsKey( filename )) {
+            return type.cast( getPackedRegion( filename ) );
+        }
+        if (type == Texture.class && packedTextures.containsKey( filename ) && !isLoaded( filename )) {
+            load( filename, Texture.class, packedTextures.get( filename ) );
+            finishLoadingAsset( filename );
+        }
+        if (deferred.containsKey( filename ) && !isLoaded( filename )) {
+            queueDeferred( filename );
+            finishLoadingAsset( filename );
+        }
         return get( filename, type );
     }
 
@@ -304,7 +410,7 @@ public class AssetDirectory extends AssetManager {
      *
      * @return true if there is an asset associated with the given directory key
      */
-    public <T> boolean hasEntry(String key, Class<T> type) {
+    public synchronized <T> boolean hasEntry(String key, Class<T> type) {
         ObjectMap<String, String> keys = contents.keymap.get( type, null );
         if (keys == null) {
             return false;
@@ -313,6 +419,247 @@ public class AssetDirectory extends AssetManager {
         if (filename == null) {
             return false;
         }
-        return contains( filename, type );
+        return isPackedEntry( filename ) || deferred.containsKey( filename ) || contains( filename, type );
+    }
+
+    /**
+     * Returns the file of the given directory key
+     *
+     * @param key  the asset directory key
+     * @param type the asset type
+     *
+     * @return the file of the given directory key, or null if there is no such key
+     */
+    public String getFile(String key, Class<?> type) {
+        ObjectMap<String, String> keys = contents.keymap.get( type, null );
+        return keys == null ? null : keys.get( key, null );
+    }
+
+    /**
+     * Reads the "deferred" section of the directory, deferring the files it lists.
+     *
+     * This is called by {@link DirectoryLoader} before the entries are parsed.
+     *
+     * @param directory the JSON representation of the asset directory
+     */
+    public synchronized void readDeferred(JsonValue directory) {
+        JsonValue category = directory.getChild( "deferred" );
+        while (category != null) {
+            JsonValue section = directory.get( category.name() );
+            for (JsonValue key = category.child(); key != null; key = key.next()) {
+                JsonValue value = section == null ? null : section.get( key.asString() );
+                String file = null;
+                if (value != null) {
+                    file = value.isString() ? value.asString() : value.getString( "file", null );
+                }
+                if (file == null) {
+                    throw new GdxRuntimeException( "Deferred entry "+key.asString()+" is not in "+category.name() );
+                }
+                deferredFiles.add( file );
+            }
+            category = category.next();
+        }
+    }
+
+    /**
+     * Records that an image was packed into the given atlas.
+     *
+     * This is called by {@link TextureAtlasParser} while the directory is parsed.
+     *
+     * @param region    the atlas region name (the image file without its extension)
+     * @param atlas     the atlas file
+     */
+    public synchronized void addPacked(String region, String atlas) {
+        packed.put( region, atlas );
+    }
+
+    /**
+     * Returns true if the given image file was packed into an atlas.
+     *
+     * @param file  the image file
+     *
+     * @return true if the given image file was packed into an atlas.
+     */
+    public synchronized boolean isPacked(String file) {
+        return packed.containsKey( stripExtension( file ) );
+    }
+
+    /**
+     * Registers a texture that is served from an atlas, if its file was packed.
+     *
+     * If this method returns false, the texture must be loaded normally.
+     *
+     * @param file      the image file
+     * @param params    the parameters to load the texture with, if requested
+     *
+     * @return true if the file was packed and does not need to be loaded
+     */
+    public synchronized boolean addPackedTexture(String file, TextureLoader.TextureParameter params) {
+        if (!isPacked( file )) {
+            return false;
+        }
+        packedTextures.put( file, params );
+        return true;
+    }
+
+    /**
+     * Registers a texture region that is served from an atlas, if its file was packed.
+     *
+     * If this method returns false, the region must be loaded normally.
+     *
+     * @param alias     the file name of the region in the directory
+     * @param file      the image file
+     * @param x         the x-coordinate of the region in the image
+     * @param y         the y-coordinate of the region in the image
+     * @param width     the width of the region (-1 for the remaining width)
+     * @param height    the height of the region (-1 for the remaining height)
+     *
+     * @return true if the file was packed and the region does not need to be loaded
+     */
+    public synchronized boolean addPackedRegion(String alias, String file, int x, int y, int width, int height) {
+        if (!isPacked( file )) {
+            return false;
+        }
+        PackedRegion entry = new PackedRegion();
+        entry.file = file;
+        entry.x = x;
+        entry.y = y;
+        entry.width = width;
+        entry.height = height;
+        packedRegions.put( alias, entry );
+        return true;
+    }
+
+    /**
+     * Registers a film strip that is served from an atlas, if its file was packed.
+     *
+     * If this method returns false, the film strip must be loaded normally.
+     *
+     * @param alias     the file name of the film strip in the directory
+     * @param params    the film strip parameters
+     *
+     * @return true if the file was packed and the film strip does not need to be loaded
+     */
+    public synchronized boolean addPackedFilmStrip(String alias, FilmStripLoader.FilmStripParameters params) {
+        if (!addPackedRegion( alias, params.source, params.x, params.y, params.width, params.height )) {
+            return false;
+        }
+        PackedRegion entry = packedRegions.get( alias );
+        entry.strip = true;
+        entry.rows = params.rows;
+        entry.cols = params.cols;
+        entry.size = params.size;
+        return true;
+    }
+
+    /**
+     * Returns true if the given directory file name is served from an atlas
+     *
+     * @param filename  the directory file name
+     *
+     * @return true if the given directory file name is served from an atlas
+     */
+    private synchronized boolean isPackedEntry(String filename) {
+        return packedTextures.containsKey( filename ) || packedRegions.containsKey( filename );
+    }
+
+    /**
+     * Returns a new region covering the whole image of a texture key.
+     *
+     * @param key   the texture key
+     *
+     * @return a new region covering the whole image, or null if there is no such key
+     */
+    private synchronized TextureRegion getImageRegion(String key) {
+        ObjectMap<String, String> keys = contents.keymap.get( Texture.class, null );
+        String filename = keys == null ? null : keys.get( key, null );
+        if (filename == null) {
+            return null;
+        }
+        if (packedTextures.containsKey( filename )) {
+            return new TextureRegion( getAtlasRegion( filename ) );
+        }
+        return new TextureRegion( get( filename, Texture.class ) );
+    }
+
+    /**
+     * Returns the texture region or film strip of a packed image.
+     *
+     * The region is built on its first request and cached, under the same lock as
+     * the packed entries are registered with.
+     *
+     * @param alias the file name of the region in the directory
+     *
+     * @return the texture region or film strip of a packed image.
+     */
+    private synchronized TextureRegion getPackedRegion(String alias) {
+        TextureRegion result = packedCache.get( alias );
+        if (result != null) {
+            return result;
+        }
+        PackedRegion entry = packedRegions.get( alias );
+        TextureAtlas.AtlasRegion source = getAtlasRegion( entry.file );
+        int width  = entry.width  < 0 ? source.getRegionWidth()  - entry.x : entry.width;
+        int height = entry.height < 0 ? source.getRegionHeight() - entry.y : entry.height;
+        if (entry.strip) {
+            result = new FilmStrip( source.getTexture(), entry.rows, entry.cols, entry.size,
+                                    source.getRegionX() + entry.x, source.getRegionY() + entry.y, width, height );
+        } else {
+            result = new TextureRegion( source, entry.x, entry.y, width, height );
+        }
+        packedCache.put( alias, result );
+        return result;
+    }
+
+    /**
+     * Returns the atlas region of a packed image.
+     *
+     * @param file  the image file
+     *
+     * @return the atlas region of a packed image.
+     */
+    private synchronized TextureAtlas.AtlasRegion getAtlasRegion(String file) {
+        TextureAtlas.AtlasRegion region = atlasRegions.get( file );
+        if (region == null) {
+            String name = stripExtension( file );
+            region = get( packed.get( name ), TextureAtlas.class ).findRegion( name );
+            if (region == null) {
+                throw new GdxRuntimeException( "Atlas "+packed.get( name )+" has no region "+name );
+            }
+            atlasRegions.put( file, region );
+        }
+        return region;
+    }
+
+    /**
+     * Queues a deferred file for loading, unless it is already queued or loaded.
+     *
+     * @param filename  the deferred file
+     */
+    private void queueDeferred(String filename) {
+        if (!contains( filename )) {
+            queue( deferred.get( filename ) );
+        }
+    }
+
+    /**
+     * Queues an asset for loading, bypassing the deferred files.
+     *
+     * @param descriptor    the asset to load
+     */
+    private <T> void queue(AssetDescriptor<T> descriptor) {
+        super.load( descriptor.fileName, descriptor.type, descriptor.params );
+    }
+
+    /**
+     * Returns the file name without its extension (the name of its atlas region).
+     *
+     * @param file  the file name
+     *
+     * @return the file name without its extension
+     */
+    private static String stripExtension(String file) {
+        int dot = file.lastIndexOf( '.' );
+        return dot < 0 ? file : file.substring( 0, dot );
     }
 }
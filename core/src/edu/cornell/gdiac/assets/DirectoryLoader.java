@@ -130,6 +130,10 @@ public class DirectoryLoader extends AsynchronousAssetLoader<AssetDirectory.Inde
         cachedData = new AssetDirectory.Index();
         cachedData.directory = reader.parse(file);
         System.out.flush();
+        // The deferred entries must be known before the parsers queue them
+        if (manager instanceof AssetDirectory) {
+            ((AssetDirectory)manager).readDeferred( cachedData.directory );
+        }
         for(AssetParser<?> parser : parsers) {
             ObjectMap<String,String> keys = cachedData.keymap.get( parser.getType(), null );
             if (keys == null) {
@@ -113,7 +113,10 @@ public class FilmStripParser implements AssetParser<FilmStrip> {
 
         String region = ParserUtils.safeConcatenate(file,sprite.name(),ALIAS_SEP,ALIAS_MASK);
         keymap.put(root.name()+"."+sprite.name(),region);
-        manager.load( region, FilmStrip.class, params );
+        // Film strips of packed textures are cut from the atlas instead
+        if (!(manager instanceof AssetDirectory) || !((AssetDirectory)manager).addPackedFilmStrip( region, params )) {
+            manager.load( region, FilmStrip.class, params );
+        }
         advance();
     }
 
@@ -0,0 +1,100 @@
+/*
+ * TextureAtlasParser.java
+ *
+ * This is an interface for parsing a JSON entry into a TextureAtlas asset. The atlases
+ * are packed at build time from the loose textures (see the packTextures Gradle task).
+ * Once an atlas is known to the asset directory, textures, texture regions and film
+ * strips whose files were packed into it are served from the atlas instead of being
+ * loaded as separate textures.
+ *
+ * Atlases that have not been packed are skipped, so the game falls back to the loose
+ * textures.
+ */
+package edu.cornell.gdiac.assets;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * This class parses a JSON entry into a {@link TextureAtlas}.
+ *
+ * Atlases are defined in a subobject called "atlases", and are only specified
+ * by file name. This parser must run before the texture parsers, as they ask
+ * the asset directory whether their files were packed.
+ */
+public class TextureAtlasParser implements AssetParser<TextureAtlas> {
+    /** The current atlas entry in the JSON directory */
+    private JsonValue root;
+
+    /**
+     * Returns the asset type generated by this parser
+     *
+     * @return the asset type generated by this parser
+     */
+    public Class<TextureAtlas> getType() {
+        return TextureAtlas.class;
+    }
+
+    /**
+     * Resets the parser iterator for the given directory.
+     *
+     * The value directory is assumed to be the root of a larger JSON structure.
+     * The individual assets are defined by subtrees in this structure.
+     *
+     * @param directory    The JSON representation of the asset directory
+     */
+    public void reset(JsonValue directory) {
+        root = directory;
+        root = root.getChild( "atlases" );
+    }
+
+    /**
+     * Returns true if there are still assets left to generate
+     *
+     * @return true if there are still assets left to generate
+     */
+    public boolean hasNext() {
+        return root != null;
+    }
+
+    /**
+     * Processes the next available atlas, loading it into the asset manager
+     *
+     * If the manager is an {@link AssetDirectory}, the regions of the atlas are
+     * registered with it right away, so that the textures parsed afterwards know
+     * whether they were packed. Atlas files that do not exist are skipped.
+     *
+     * This method fails silently if there are no available assets to process.
+     *
+     * @param manager   The asset manager to load an asset
+     * @param keymap    The mapping of JSON keys to asset file names
+     */
+    public void processNext(AssetManager manager, ObjectMap<String,String> keymap) {
+        String file = root.asString();
+        FileHandle handle = file == null ? null : manager.getFileHandleResolver().resolve( file );
+        if (handle != null && handle.exists()) {
+            keymap.put(root.name(),file);
+            manager.load( file, TextureAtlas.class );
+            if (manager instanceof AssetDirectory) {
+                TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData( handle, handle.parent(), false );
+                for (TextureAtlas.TextureAtlasData.Region region : data.getRegions()) {
+                    ((AssetDirectory)manager).addPacked( region.name, file );
+                }
+            }
+        }
+        root = root.next();
+    }
+
+    /**
+     * Returns true if o is another TextureAtlasParser
+     *
+     * @return true if o is another TextureAtlasParser
+     */
+    public boolean equals(Object o) {
+        return o instanceof TextureAtlasParser;
+    }
+
+}
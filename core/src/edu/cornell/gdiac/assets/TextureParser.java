@@ -89,7 +89,7 @@ public class TextureParser implements AssetParser<Texture> {
             params.format = Pixmap.Format.RGBA8888;
             String file = root.asString();
             keymap.put(root.name(),file);
-            manager.load( file,Texture.class, params );
+            load( manager, file, params );
 		} else {
             params.genMipMaps = root.getBoolean( "mipmaps",false );
             params.minFilter = ParserUtils.parseFilter(root.get("minFilter"), Texture.TextureFilter.Linear);
@@ -100,12 +100,29 @@ public class TextureParser implements AssetParser<Texture> {
             String file = root.getString( "file", null );
             if (file != null) {
                 keymap.put(root.name(),file);
-                manager.load( file,Texture.class, params );
+                load( manager, file, params );
             }
 		}
         root = root.next();
     }
 
+    /**
+     * Loads a texture into the asset manager, unless it was packed into an atlas
+     *
+     * Packed textures are served from their atlas by the {@link AssetDirectory},
+     * which only loads the file on its own if it is requested as a texture.
+     *
+     * @param manager   The asset manager to load an asset
+     * @param file      The texture file
+     * @param params    The texture parameters
+     */
+    private void load(AssetManager manager, String file, TextureLoader.TextureParameter params) {
+        if (manager instanceof AssetDirectory && ((AssetDirectory)manager).addPackedTexture( file, params )) {
+            return;
+        }
+        manager.load( file,Texture.class, params );
+    }
+
     /**
      * Returns true if o is another TextureParser
      *
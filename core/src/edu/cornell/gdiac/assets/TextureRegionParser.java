@@ -47,7 +47,10 @@ public class TextureRegionParser implements AssetParser<TextureRegion> {
         params.height = params.height == -1 ? -1 : params.height-params.y;
         String region = file+":"+atlas.name();
         keymap.put(root.name()+"."+atlas.name(),region);
-        manager.load( region,TextureRegion.class, params );
+        if (!(manager instanceof AssetDirectory) ||
+            !((AssetDirectory)manager).addPackedRegion( region, file, params.x, params.y, params.width, params.height )) {
+            manager.load( region,TextureRegion.class, params );
+        }
         advance();
     }
 
@@ -1,5 +1,4 @@
 package edu.cornell.gdiac.bubblegumbandit.controllers;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
@@ -20,30 +19,33 @@ import edu.cornell.gdiac.physics.obstacle.Obstacle;
 
 /**
  * Controls Bubblegum objects on the screen.
+ *
+ * All gum state is per instance, so each running level (including headless
+ * simulations on other threads) should own its own controller.
  * */
 public class BubblegumController {
 
     /**The map of stuck Bubblegum obstacles to their joints. */
-    private static ObjectMap<GumModel, ObjectSet<GumJointPair>> stuckBubblegum;
+    private ObjectMap<GumModel, ObjectSet<GumJointPair>> stuckBubblegum;
 
     /** The map of Gummable objects to their joints. */
-    private static ObjectMap<Gummable, ObjectSet<Joint>> stuckToGummable;
+    private ObjectMap<Gummable, ObjectSet<Joint>> stuckToGummable;
 
     /**The queue of non-assembled Bubblegum obstacles and their jointDefs. */
-    private static Queue<GumJointPair> bubblegumAssemblyQueue;
+    private Queue<GumJointPair> bubblegumAssemblyQueue;
 
     /**The queue of joints between gum and objects to remove. */
-    private static Queue<GumJointPair> gumJointsToRemove;
+    private Queue<GumJointPair> gumJointsToRemove;
 
     /**The queue of joints between gummable objects and objects to remove. */
-    private static Queue<Joint> gummableJointsToRemove;
+    private Queue<Joint> gummableJointsToRemove;
 
 
     /**The queue of mid-air Bubblegum obstacles. */
-    private static Queue<GumModel> midAirBubblegumQueue;
+    private Queue<GumModel> midAirBubblegumQueue;
 
     /** Queue of joints between Gummable object and collided object */
-    private static Queue<WeldJointDef> gummableAssemblyQueue;
+    private Queue<WeldJointDef> gummableAssemblyQueue;
 
     /** Stores the stuck gum texture */
     private TextureRegion stuckGumTexture;
@@ -57,16 +59,8 @@ public class BubblegumController {
     private TextureRegion bottomLeftGumTexture;
     private TextureRegion topLeftGumTexture;
 
-    /** Stores outline gum textures */
-    private TextureRegion stuckOutline;
-    private TextureRegion rotatedOutline;
-    private TextureRegion topRightOutline;
-    private TextureRegion bottomRightOutline;
-    private TextureRegion topLeftOutline;
-    private TextureRegion bottomLeftOutline;
-
     /**Amount of active gum. */
-    private static int activeGum;
+    private int activeGum;
 
 
     /**
@@ -85,26 +79,17 @@ public class BubblegumController {
     /** Initialize bubblegumController stats */
     public void initialize(AssetDirectory directory, JsonValue json) {
         String key = json.get("stuckTexture").asString();
-        stuckGumTexture = new TextureRegion(directory.getEntry(key, Texture.class));
+        stuckGumTexture = directory.getEntry(key, TextureRegion.class);
         key = json.get("rotatedStuckTexture").asString();
-        rotatedStuckGumTexture = new TextureRegion(directory.getEntry(key, Texture.class));
+        rotatedStuckGumTexture = directory.getEntry(key, TextureRegion.class);
         key = json.get("topRightStuckTexture").asString();
-        topRightGumTexture = new TextureRegion(directory.getEntry(key, Texture.class));
+        topRightGumTexture = directory.getEntry(key, TextureRegion.class);
         key = json.get("bottomRightStuckTexture").asString();
-        bottomRightGumTexture = new TextureRegion(directory.getEntry(key, Texture.class));
+        bottomRightGumTexture = directory.getEntry(key, TextureRegion.class);
         key= json.get("bottomLeftStuckTexture").asString();
-        bottomLeftGumTexture = new TextureRegion(directory.getEntry(key, Texture.class));
+        bottomLeftGumTexture = directory.getEntry(key, TextureRegion.class);
         key = json.get("topLeftStuckTexture").asString();
-        topLeftGumTexture = new TextureRegion(directory.getEntry(key, Texture.class));
-
-        // Set outline textures
-        stuckOutline = new TextureRegion(directory.getEntry("stuckOutline", Texture.class));
-        rotatedOutline = new TextureRegion(directory.getEntry("rotatedOutline", Texture.class));
-        topLeftOutline = new TextureRegion(directory.getEntry("topLeftOutline", Texture.class));
-        topRightOutline = new TextureRegion(directory.getEntry("topRightOutline", Texture.class));
-        bottomLeftOutline = new TextureRegion(directory.getEntry("bottomLeftOutline", Texture.class));
-        bottomRightOutline = new TextureRegion(directory.getEntry("bottomRightOutline", Texture.class));
-
+        topLeftGumTexture = directory.getEntry(key, TextureRegion.class);
     }
 
     /** Returns the stuck gum texture. */
@@ -155,7 +140,7 @@ public class BubblegumController {
 
         ObjectSet<GumJointPair> gumJoints = stuckBubblegum.get(pair.getGum());
         if (gumJoints == null) {
-            gumJoints = new ObjectSet<>();
+            gumJoints = new OrderedSet<>();
             gumJoints.add(pair);
             stuckBubblegum.put(pair.getGum(), gumJoints);
         } else {
@@ -172,7 +157,7 @@ public class BubblegumController {
 
         ObjectSet<Joint> gummableJoints = stuckToGummable.get(gummable);
         if (gummableJoints == null) {
-            gummableJoints = new ObjectSet<>();
+            gummableJoints = new OrderedSet<>();
             gummableJoints.add(joint);
             stuckToGummable.put(gummable, gummableJoints);
         } else {
@@ -211,16 +196,18 @@ public class BubblegumController {
 
     /**
      * Clears all Bubblegum queues and sets the amount of active gum to 0.
+     *
+     * The pending joint queues are cleared too, as the joints they refer to are
+     * destroyed with the level.
      * */
     public void resetAllBubblegum(){
-        if(activeGum == 0) return;
-        if(bubblegumAssemblyQueue == null) return;
-        if(stuckBubblegum == null) return;
-        if(midAirBubblegumQueue == null) return;
-
         bubblegumAssemblyQueue.clear();
         stuckBubblegum.clear();
         midAirBubblegumQueue.clear();
+        gumJointsToRemove.clear();
+        gummableJointsToRemove.clear();
+        gummableAssemblyQueue.clear();
+        stuckToGummable.clear();
         activeGum = 0;
     }
 
@@ -438,12 +425,5 @@ public class BubblegumController {
         return gum;
     }
 
-    public TextureRegion getStuckOutline() {return stuckOutline;}
-    public TextureRegion getRotatedOutline() {return rotatedOutline;}
-    public TextureRegion getTopLeftOutline() {return topLeftOutline;}
-    public TextureRegion getTopRightOutline() {return topRightOutline;}
-    public TextureRegion getBottomLeftOutline() {return bottomLeftOutline;}
-    public TextureRegion getBottomRightOutline() {return bottomRightOutline;}
-
 
 }
\ No newline at end of file
@@ -4,7 +4,7 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 import com.badlogic.gdx.physics.box2d.joints.WeldJointDef;
-import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Queue;
 import edu.cornell.gdiac.bubblegumbandit.helpers.Damage;
 import edu.cornell.gdiac.bubblegumbandit.helpers.GumJointPair;
@@ -19,6 +19,7 @@ import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCamera;
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
 import edu.cornell.gdiac.physics.obstacle.CapsuleObstacle;
+import edu.cornell.gdiac.physics.obstacle.ContactRegistry;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
 
 
@@ -56,9 +57,9 @@ public class CollisionController implements ContactListener {
     public static final short MASK_SHOCK_BOX = CATEGORY_CRUSHER_BOX;
 
     /**
-     * Mark set to handle more sophisticated collision callbacks
+     * Registry of obstacle contacts, including the bandit's ground contacts
      */
-    protected ObjectSet<Fixture> sensorFixtures;
+    protected ContactRegistry contacts;
 
     /** Bubblegum Controller reference */
     private final BubblegumController bubblegumController;
@@ -77,6 +78,7 @@ public class CollisionController implements ContactListener {
     /** Resets this CollisionController. */
     public void reset(){
         winConditionMet = false;
+        contacts.clear();
     }
 
     /**
@@ -89,7 +91,7 @@ public class CollisionController implements ContactListener {
      * @param controller the bubblegum controller
      */
     public CollisionController(LevelModel levelModel, BubblegumController controller){
-        sensorFixtures = new ObjectSet<Fixture>();
+        contacts = new ContactRegistry();
         bubblegumController = controller;
         this.levelModel = levelModel;
         shouldFlipGravity = false;
@@ -139,20 +141,20 @@ public class CollisionController implements ContactListener {
                 if (obstacleB instanceof DoorModel) {
                    DoorModel door = (DoorModel) obstacleB;
                    if (door.isLocked() && door.isHorizontal() && !fixB.isSensor()) {
-                       obstacleA.startCollision(obstacleB, fixA);
+                       contacts.startContact(obstacleA, obstacleB);
                    }
                 } else {
-                    obstacleA.startCollision(obstacleB, fixA);
+                    contacts.startContact(obstacleA, obstacleB);
                 }
             }
             if ((obstacleB instanceof Gummable || obstacleB instanceof BanditModel) && !(obstacleA instanceof ShockModel)) {
                 if (obstacleA instanceof DoorModel) {
                     DoorModel door = (DoorModel) obstacleA;
                     if (door.isLocked() && door.isHorizontal() && !fixA.isSensor()) {
-                        obstacleB.startCollision(obstacleA, fixB);
+                        contacts.startContact(obstacleB, obstacleA);
                     }
                 } else {
-                    obstacleB.startCollision(obstacleA, fixB);
+                    contacts.startContact(obstacleB, obstacleA);
                 }
             }
 
@@ -224,8 +226,13 @@ public class CollisionController implements ContactListener {
         BanditModel bandit = levelModel.getBandit();
         if (((bandit.getSensorName2().equals(fd2) || bandit.getSensorName().equals(fd2)) && bandit != bd1) ||
                 ((bandit.getSensorName2().equals(fd1) || bandit.getSensorName().equals(fd1)) && bandit != bd2)) {
-            sensorFixtures.remove(bandit == bd1 ? fix2 : fix1);
-            if (sensorFixtures.size == 0 && !bandit.getStuck()) {
+            Fixture groundFix = bandit == bd1 ? fix2 : fix1;
+            Obstacle ground = (Obstacle) groundFix.getBody().getUserData();
+            // Door sensors never count as ground (see resolveGroundContact)
+            if (ground != null && !(groundFix.isSensor() && ground.getName().equals("doorH"))) {
+                contacts.endGround(bandit, ground);
+            }
+            if (contacts.getGroundCount(bandit) == 0 && !bandit.getStuck()) {
                 bandit.setGrounded(false);
             }
         }
@@ -237,10 +244,10 @@ public class CollisionController implements ContactListener {
             resolveWinCondition(ob1, ob2, false);
 
             if (ob1 instanceof Gummable || ob1 instanceof BanditModel) {
-                ob1.endCollision(ob2, fix1);
+                contacts.endContact(ob1, ob2);
             }
             if (ob2 instanceof Gummable || ob2 instanceof BanditModel) {
-                ob2.endCollision(ob1, fix2);
+                contacts.endContact(ob2, ob1);
             }
 
             if (ob1 instanceof ShockModel && (ob2 instanceof WallModel || ob2.getName().equals("glass"))) {
@@ -449,7 +456,6 @@ public class CollisionController implements ContactListener {
             gum.setVX(0);
             gum.setVY(0);
             gum.setTexture(bubblegumController.getStuckGumTexture());
-            gum.setOutline(bubblegumController.getStuckOutline());
             gum.setName("stickyGum");
             // Changing radius resets filter for some reason
             gum.getFilterData().maskBits = MASK_GUM;
@@ -470,14 +476,16 @@ public class CollisionController implements ContactListener {
                 if (!gum.getOnTile()) {
                     gum.markRemoved(true);
                     gummable.setGummed(true);
-                    gummable.endCollision(gum, null);
+                    Obstacle o = (Obstacle) gummable;
+                    contacts.clearContact(o, gum);
 
                     if (!(gummable instanceof DoorModel)) {
-                        if (gummable.getCollisions().size() > 0){
+                        if (gummable.getCollisionCount() > 0){
                             gummable.setStuck(true);
                         }
-                        Obstacle o = (Obstacle) gummable;
-                        for (Obstacle ob : gummable.getCollisions()) {
+                        Array<Obstacle> collisions = gummable.getCollisions();
+                        for (int ii = 0; ii < collisions.size; ii++) {
+                            Obstacle ob = collisions.get(ii);
                             if (!(ob instanceof BanditModel)) {
                                 if (!(gummable instanceof CrusherModel && ob instanceof EnemyModel)) {
                                     bubblegumController.createGummableJoint(gummable, ob);
@@ -557,31 +565,26 @@ public class CollisionController implements ContactListener {
 
         if (x && y) {
             gum.setTexture(bubblegumController.getRotatedGumTexture());
-            gum.setOutline(bubblegumController.getRotatedOutline());
             return 1;
         }
         if (tile.hasCorner()) {
             if (gumPos.x > tilePos.x + 0.35f) {
                 if (tile.topRight() && gumPos.y > tilePos.y + 0.5f) {
                     gum.setTexture(bubblegumController.getTopRightGumTexture());
-                    gum.setOutline(bubblegumController.getTopRightOutline());
                     return 2;
                 }
                 if (tile.bottomRight() && gumPos.y < tilePos.y - 0.5f) {
                     gum.setTexture(bubblegumController.getBottomRightGumTexture());
-                    gum.setOutline(bubblegumController.getBottomRightOutline());
                     return 2;
                 }
             }
             if (gumPos.x < tilePos.x - 0.35f) {
                 if (tile.bottomLeft() && gumPos.y < tilePos.y - 0.5f) {
                     gum.setTexture(bubblegumController.getBottomLeftGumTexture());
-                    gum.setOutline(bubblegumController.getBottomLeftOutline());
                      return 3;
                 }
                 if (tile.topLeft() && gumPos.y > tilePos.y + 0.5f) {
                     gum.setTexture(bubblegumController.getTopLeftGumTexture());
-                    gum.setOutline(bubblegumController.getTopLeftOutline());
                     return 3;
                 }
             }
@@ -935,7 +938,7 @@ public class CollisionController implements ContactListener {
             }
             bandit.setGrounded(true);
             bandit.setKnockback(false);
-            sensorFixtures.add(bandit == bodyA ? fixB : fixA);
+            contacts.startGround(bandit, bandit == bodyA ? bodyB : bodyA);
         }
     }
 
@@ -963,8 +966,18 @@ public class CollisionController implements ContactListener {
         return winConditionMet;
     }
 
+    /** Forgets the bandit's ground contacts, as its ground sensor has changed. */
     public void clearSensorFixtures(){
-        sensorFixtures.clear();
+        contacts.clearGround(levelModel.getBandit());
+    }
+
+    /**
+     * Returns the registry of obstacle contacts for the current level.
+     *
+     * @return the registry of obstacle contacts for the current level.
+     */
+    public ContactRegistry getContacts() {
+        return contacts;
     }
 
     public void resolveFloatingGumCollision(Obstacle bd1, Obstacle bd2){
@@ -3,23 +3,33 @@ package edu.cornell.gdiac.bubblegumbandit.controllers;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.TimeUtils;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.view.AnimationController;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
-
+import edu.cornell.gdiac.util.SimClock;
+
+/**
+ * A pool of short, one-shot animations (sparks, shattering glass, poofs).
+ *
+ * The effects live in a fixed ring of slots that are created with the controller and
+ * reused, so making an effect allocates nothing. All effects of a controller play the
+ * same animation, so they finish in the order they were made: the finished ones are
+ * always at the head of the ring and are retired from there. When every slot is in
+ * use, a new effect takes the slot of the oldest one.
+ */
 public class EffectController {
 
+  /** The number of slots of a controller, unless given */
+  private static final int DEFAULT_CAPACITY = 16;
 
-  /** Holds all active effects */
-  private Array<Effect> effects;
+  /** The effect slots, used as a ring */
+  private final Effect[] slots;
 
-  /** Holds all effects to be discarded */
-  private Array<Effect> trash;
+  /** The slot of the oldest active effect */
+  private int head;
 
-  /** The key for the effect's animation */
-  private String animationKey;
+  /** The number of active effects */
+  private int count;
 
   /** The name of the effect's animation */
   private String animationName;
@@ -33,11 +43,11 @@ public class EffectController {
   /** The time enforced between instantiation of effects in this controller */
   private float delay;
 
-  /** Timer to track the delay */
+  /** Timer to track the delay (in gameplay time) */
   private long delayTimer;
 
-  /** The asset directory */
-  private AssetDirectory assets;
+  /** Whether an effect has been made since the controller was created */
+  private boolean started;
 
 
   /**
@@ -51,15 +61,33 @@ public class EffectController {
    */
   public EffectController (String animationKey, String animationName,AssetDirectory assets,
                            boolean centerX, boolean centerY, float delay) {
-    this.animationKey = animationKey;
-    this.assets = assets;
-    trash = new Array<>();
-    effects = new Array<>();
+    this(animationKey, animationName, assets, centerX, centerY, delay, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an effect controller
+   * @param animationKey the key for the effect's animation
+   * @param animationName the animation's name
+   * @param assets the asset directory
+   * @param centerX whether the x draw origin is centered
+   * @param centerY whether the y draw origin is centered
+   * @param delay the delay between instantiations of this effect
+   * @param capacity the most effects that can be active at once
+   */
+  public EffectController (String animationKey, String animationName,AssetDirectory assets,
+                           boolean centerX, boolean centerY, float delay, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Effect capacity must be positive");
+    }
     this.animationName = animationName;
     this.centerY = centerY;
     this.centerX = centerX;
     this.delay = delay;
-    delayTimer = (long) (delay*1000+1);
+    started = false;
+    slots = new Effect[capacity];
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new Effect(new AnimationController(assets, animationKey));
+    }
 
   }
 
@@ -67,7 +95,8 @@ public class EffectController {
    * Discards all effects in this controller
    */
   public void clear() {
-    effects.clear();
+    head = 0;
+    count = 0;
   }
 
   /**
@@ -79,35 +108,35 @@ public class EffectController {
    *               should be reflected across the x axis
    */
   public void makeEffect(float x, float y, Vector2 scale, boolean reflect) {
-    if(TimeUtils.timeSinceMillis(delayTimer)>delay*1000||delay==0) {
-      effects.add(new Effect(x, y, scale, reflect, animationName));
-      delayTimer = TimeUtils.millis();
+    if(!started||SimClock.timeSinceMillis(delayTimer)>delay*1000||delay==0) {
+      if (count == slots.length) {
+        // Recycle the oldest effect
+        head = (head + 1) % slots.length;
+        count--;
+      }
+      slots[(head + count) % slots.length].start(x, y, scale, reflect, animationName);
+      count++;
+      delayTimer = SimClock.millis();
+      started = true;
     }
   }
 
-  /** Updates all effects */
+  /** Updates all effects, retiring the ones that have finished */
   public void update () {
-    for (Effect effect : effects) {
-      effect.update();
+    for (int i = 0; i < count; i++) {
+      slots[(head + i) % slots.length].update();
+    }
+    while (count > 0 && slots[head].dispose) {
+      head = (head + 1) % slots.length;
+      count--;
     }
   }
 
 
 /** Draws to the game canvas */
   public void draw(GameCanvas canvas) {
-
-
-    if(effects.size==0) return;
-
-    for(int i = 0; i< effects.size; i++) {
-      if(effects.get(i).dispose) trash.add(effects.get(i));
-    }
-    for(Effect effect: trash) {
-      effects.removeValue(effect, false);
-    }
-
-    for(Effect effect: effects) {
-      effect.draw(canvas);
+    for (int i = 0; i < count; i++) {
+      slots[(head + i) % slots.length].draw(canvas);
     }
 
   }
@@ -115,7 +144,7 @@ public class EffectController {
 /** A single instance of an effect */
   private class Effect {
     /** The effect's animation controller */
-    AnimationController ac;
+    final AnimationController ac;
     /** Flag to mark this effect for disposal */
     boolean dispose;
     /** The x pos */
@@ -125,20 +154,26 @@ public class EffectController {
     /** Whether this effect should be reflected across the x axis */
     boolean reflect;
     /** The physics to world scale */
-    Vector2 scale;
+    final Vector2 scale = new Vector2();
 
     /** The current frame from the animation controller */
     TextureRegion curFrame;
 
-    private Effect(float x, float y, Vector2 scale, boolean reflect, String animationName) {
-      this.ac = new AnimationController(assets, animationKey);
+    private Effect(AnimationController ac) {
+      this.ac = ac;
+      this.dispose = true;
+    }
+
+    /** Restarts this slot as a new effect */
+    private void start(float x, float y, Vector2 scale, boolean reflect, String animationName) {
+      ac.reset();
       ac.setAnimation(animationName, false, false);
       this.x = x;
       this.y = y;
       this.reflect = reflect;
-      this.scale = scale;
+      this.scale.set(scale);
       this.dispose = false;
-
+      this.curFrame = null;
     }
 
     /** Updates the effect animation frame */
@@ -21,7 +21,9 @@ import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import edu.cornell.gdiac.assets.AssetDirectory;
+import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.bubblegumbandit.controllers.modes.*;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelPrebuilder;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCamera;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.bubblegumbandit.controllers.modes.GameOverScreen;
@@ -84,6 +86,9 @@ public class GDXRoot extends Game implements ScreenListener {
     /** Whether the game controller and the level select have already gathered assets. */
     private boolean initialized;
 
+    /** Builds the blueprints of the levels on a worker thread */
+    private LevelPrebuilder prebuilder;
+
     /**
      * Creates a new game from the configuration settings.
      */
@@ -133,6 +138,10 @@ public class GDXRoot extends Game implements ScreenListener {
         // Call dispose on our children
         setScreen(null);
 
+        if (prebuilder != null) {
+            prebuilder.dispose();
+            prebuilder = null;
+        }
         controller.dispose();
         loading.dispose();
         levels.dispose();
@@ -184,6 +193,9 @@ public class GDXRoot extends Game implements ScreenListener {
         if (screen == loading && !initialized) {
             directory = loading.getAssets();
             levels.gatherAssets(directory);
+            prebuilder = new LevelPrebuilder(directory, directory.getEntry("constants", JsonValue.class));
+            levels.setPrebuilder(prebuilder);
+            controller.setPrebuilder(prebuilder);
             initialized = true;
         }
 
@@ -228,17 +240,26 @@ public class GDXRoot extends Game implements ScreenListener {
                 controller.setPaused(true);
                 controller.update(0);
             } else {
-                controller.gatherAssets(directory);
+                // Coming back from the game over screen reuses the loaded level and assets
+                if (screen != gameOver) {
+                    controller.gatherAssets(directory);
+                }
                 controller.setScreenListener(this);
                 controller.setCanvas(canvas);
                 if (screen == levels) {
                     controller.setLevelNum(levels.getSelectedLevel());
                 }
                 if (screen == gameOver && gameOver.gameWon()) controller.previousLevel();
-                controller.reset();
+                if (screen == gameOver) {
+                    controller.retry();
+                } else {
+                    controller.reset();
+                }
             }
             setScreen(controller);
         } else if (exitCode == Screens.GAME_WON) {
+            // The controller has moved on to the next level, which is built while this screen shows
+            prebuilder.prebuild(controller.getLevelNum());
             gameOver.initialize(directory, canvas);
             gameOver.setIsLastLevel(controller.getLevelNum() == 1);
             gameOver.gameWon(directory);
@@ -29,23 +29,17 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.audio.SoundEffect;
-import edu.cornell.gdiac.bubblegumbandit.controllers.ai.AIController;
 import edu.cornell.gdiac.bubblegumbandit.controllers.modes.Screens;
-import edu.cornell.gdiac.bubblegumbandit.helpers.Gummable;
 import edu.cornell.gdiac.bubblegumbandit.helpers.SaveData;
-import edu.cornell.gdiac.bubblegumbandit.helpers.Unstickable;
-import edu.cornell.gdiac.bubblegumbandit.models.BackObjModel;
-import edu.cornell.gdiac.bubblegumbandit.models.enemy.EnemyModel;
-import edu.cornell.gdiac.bubblegumbandit.models.enemy.LaserEnemyModel;
-import edu.cornell.gdiac.bubblegumbandit.models.enemy.ShockEnemyModel;
-import edu.cornell.gdiac.bubblegumbandit.models.enemy.RollingEnemyModel;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelBlueprint;
 import edu.cornell.gdiac.bubblegumbandit.models.level.LevelModel;
-import edu.cornell.gdiac.bubblegumbandit.models.level.gum.GumModel;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelPrebuilder;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelSnapshot;
 import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
 import edu.cornell.gdiac.bubblegumbandit.view.*;
-import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.FrameTrace;
 import edu.cornell.gdiac.util.ScreenListener;
-import java.util.HashSet;
+import edu.cornell.gdiac.util.SimClock;
 
 import static edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController.*;
 
@@ -62,8 +56,6 @@ import static edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController.
  */
 public class GameController implements Screen {
 
-    // TODO move this
-    private final int RELOAD_RATE = 30;
     // ASSETS
     /**
      * Need an ongoing reference to the asset directory
@@ -74,9 +66,9 @@ public class GameController implements Screen {
      */
     protected BitmapFont displayFont;
     /**
-     * The JSON defining the level model
+     * Builds the blueprints of the levels ahead of time
      */
-    private JsonValue levelFormat;
+    private LevelPrebuilder prebuilder;
 
     /**
      * The JSON defining game constants
@@ -92,10 +84,9 @@ public class GameController implements Screen {
 
     private Minimap minimap;
 
+    /** The ticks the reload symbol has been shown for, or -1 if it is hidden */
     private long reloadSymbolTimer;
 
-    private int reloadTimer;
-
     /**
      * represents the ship and space backgrounds
      */
@@ -181,7 +172,10 @@ public class GameController implements Screen {
      */
     private ScreenListener listener;
 
-    private CollisionController collisionController;
+    /**
+     * Runs the gameplay of the level
+     */
+    private LevelController levelController;
 
     /**
      * Reference to the game level
@@ -205,22 +199,6 @@ public class GameController implements Screen {
      */
     private int countdown;
 
-    /**
-     * Reference to the GumModel controller instance
-     */
-    private BubblegumController bubblegumController;
-
-
-    /**
-     * A collection of the active projectiles on screen
-     */
-    private ShockController projectileController;
-
-    /**
-     * Reference to LaserController instance
-     */
-    private LaserController laserController;
-
 
     /**
      * The texture of the trajectory projectile
@@ -242,39 +220,43 @@ public class GameController implements Screen {
      */
     private int levelNum;
 
-    public int getLevelNum(){
-        return levelNum;
-    }
-
     /**
-     * The number of levels in the game.
+     * The state of the current level right after it was loaded, for retrying it
      */
-    public final static int NUM_LEVELS = 22;
+    private LevelSnapshot initialState;
 
     /**
-     * Whether the orb has been collected.
+     * The number of the level that initialState belongs to
      */
-    private boolean orbCollected;
+    private int initialStateLevel;
 
-    public static int disableGumMaxLevel = 5;
+    /**
+     * Frame times around the orb pickup, when tracing is enabled
+     */
+    private final FrameTrace frameTrace = new FrameTrace(30);
 
     /**
-     * true if Enemies that should spawn after the orb gets picked up
-     * have been created
+     * The state the level, HUD and minimap draw from, published at the end of each tick
      */
-    private boolean spawnedPostOrbEnemies;
+    private final RenderState renderState = new RenderState();
+
+    public int getLevelNum(){
+        return levelNum;
+    }
 
     /**
-     * Countdown timer after collecting the orb.
+     * The number of levels in the game.
      */
-    private float orbCountdown;
+    public final static int NUM_LEVELS = 22;
 
+    public static int disableGumMaxLevel = 5;
 
     private boolean disableShooting;
+
     /**
-     * Whether the player is reloading gum
+     * The crosshair in world coordinates, clamped to the level
      */
-    private boolean reloadingGum;
+    private final Vector2 aimTarget = new Vector2();
 
     private boolean paused;
 
@@ -393,23 +375,15 @@ public class GameController implements Screen {
         failed = false;
         active = false;
         countdown = -1;
-        orbCountdown = -1;
         levelNum = SaveData.getContinueLevel();
-        reloadingGum = false;
         paused = false;
         reloadSymbolTimer = -1;
         setComplete(false);
         setFailure(false);
 
         //Data Structures && Classes
-        level = new LevelModel();
-
-        setComplete(false);
-        setFailure(false);
-        bubblegumController = new BubblegumController();
-        laserController = new LaserController();
-        collisionController = new CollisionController(level, bubblegumController);
-        projectileController = new ShockController();
+        levelController = new LevelController();
+        level = levelController.getLevel();
 
         pauseScreen = new PauseView();
     }
@@ -419,12 +393,39 @@ public class GameController implements Screen {
      */
     public void dispose() {
         pauseScreen.dispose();
-        level.dispose();
+        levelController.dispose();
+        renderState.reset();
         if (hud != null) hud.dispose();
+        if (minimap != null) minimap.dispose();
         level = null;
         canvas = null;
     }
 
+    /**
+     * Applies the "rendering" settings of the constants to the canvas.
+     * <p>
+     * These choose the resolution the world is drawn at, and whether it adjusts
+     * itself to hold a target frame time.
+     */
+    private void configureRendering() {
+        JsonValue rendering = constantsJson.get("rendering");
+        if (rendering == null) {
+            return;
+        }
+        boolean nearest = "nearest".equals(rendering.getString("upscaleFilter", "linear"));
+        canvas.setUpscaleFilter(nearest ? Texture.TextureFilter.Nearest : Texture.TextureFilter.Linear);
+        float renderScale = rendering.getFloat("renderScale", 1);
+        if (rendering.getBoolean("dynamicResolution", false)) {
+            if (canvas.getDynamicResolution() == null) {
+                canvas.setDynamicResolution(new DynamicResolution(rendering.getFloat("targetFrameTime", 1 / 60f),
+                        rendering.getFloat("minRenderScale", 0.5f), renderScale));
+            }
+        } else {
+            canvas.setDynamicResolution(null);
+            canvas.setRenderScale(renderScale);
+        }
+    }
+
     /**
      * Gather the assets for this controller.
      * <p>
@@ -440,24 +441,28 @@ public class GameController implements Screen {
         directory.finishLoading();
         displayFont = directory.getEntry("display", BitmapFont.class);
 
-
-        // This represents the level but does not BUILD it
-        levelFormat = directory.getEntry("level" + levelNum, JsonValue.class);
         constantsJson = directory.getEntry("constants", JsonValue.class);
         tilesetJson = directory.getEntry("tileset", JsonValue.class);
 
-        bubblegumController.initialize(directory, constantsJson.get("gumProjectile"));
-
-        trajectoryProjectile = new TextureRegion(directory.getEntry("trajectoryProjectile", Texture.class));
-        laserBeam = new TextureRegion(directory.getEntry("laserBeam", Texture.class));
-        laserBeamEnd = new TextureRegion(directory.getEntry("laserBeamEnd", Texture.class));
-        stuckGum = new TextureRegion(directory.getEntry("splatGum", Texture.class));
+        trajectoryProjectile = directory.getEntry("trajectoryProjectile", TextureRegion.class);
+        laserBeam = directory.getEntry("laserBeam", TextureRegion.class);
+        laserBeamEnd = directory.getEntry("laserBeamEnd", TextureRegion.class);
+        stuckGum = directory.getEntry("splatGum", TextureRegion.class);
         hud = new HUDController(directory);
         pauseScreen = new PauseView();
         pauseScreen.initialize(directory.getEntry("codygoonRegular", BitmapFont.class));
         minimap = new Minimap();
-        backgrounds = new Background(new TextureRegion(directory.getEntry("background", Texture.class)),
-                new TextureRegion(directory.getEntry("spaceBg", Texture.class)));
+        backgrounds = new Background(directory.getEntry("background", TextureRegion.class),
+                directory.getEntry("spaceBg", TextureRegion.class));
+    }
+
+    /**
+     * Sets the prebuilder that the blueprints of the levels are taken from.
+     *
+     * @param prebuilder the level prebuilder
+     */
+    public void setPrebuilder(LevelPrebuilder prebuilder) {
+        this.prebuilder = prebuilder;
     }
 
     /**
@@ -480,27 +485,22 @@ public class GameController implements Screen {
     /**
      * Resets the status of the game so that we can play again.
      * <p>
-     * This method disposes of the level and creates a new one. It will
-     * reread from the JSON file, allowing us to make changes on the fly.
+     * This method disposes of the level and creates a new one from the
+     * blueprint of the level.
      */
     public void reset() {
 
-        bubblegumController.resetAllBubblegum();
-        projectileController.reset();
-        collisionController.reset();
         hud.setCaptives(0, 0);
+        frameTrace.clear();
 
-
-        level.dispose();
+        initialState = null;
 
         setComplete(false);
         setFailure(false);
         countdown = -1;
-        orbCountdown = -1;
-        orbCollected = false;
         setPaused(false);
-        spawnedPostOrbEnemies = false;
-        levelFormat = directory.getEntry("level" + levelNum, JsonValue.class);
+        // Usually built while the player was choosing this level
+        LevelBlueprint blueprint = prebuilder.get(levelNum);
         disableShooting = levelNum <= disableGumMaxLevel;
 
         hud.disableShooting(disableShooting);
@@ -509,21 +509,55 @@ public class GameController implements Screen {
         canvas.getCamera().setFixedY(false);
         canvas.getCamera().setZoom(1);
 
-        // Reload the json each time
-        level.populate(directory, levelFormat, constantsJson, tilesetJson, disableShooting, canvas.getCamera());
-        level.getWorld().setContactListener(collisionController);
-        projectileController.initialize(constantsJson.get("projectile"), directory, level.getScale().x, level.getScale().y);
-        collisionController.initialize(canvas.getCamera());
+        // The frames may hold the textures of the last level
+        renderState.reset();
+        levelController.load(directory, blueprint, constantsJson, tilesetJson, disableShooting, canvas.getCamera());
         canvas.getCamera().setLevelSize(level.getBounds().width * level.getScale().x, level.getBounds().height * level.getScale().y);
-        int x = levelFormat.get("width").asInt();
-        int y = levelFormat.get("height").asInt();
-        minimap.initialize(directory, levelFormat, x, y);
-        level.getBandit().resetAmmo();
+        int x = blueprint.getWidth();
+        int y = blueprint.getHeight();
+        minimap.initialize(directory, blueprint.getFloors(), x, y);
 
         SoundController.playMusic("game");
 
         backgrounds.reset();
-        backgrounds.initialize(directory, levelFormat, x, y);
+        backgrounds.initialize(directory, blueprint.getHull(), x, y);
+        configureRendering();
+
+        initialState = level.captureState();
+        initialStateLevel = levelNum;
+        publishRenderState();
+    }
+
+    /**
+     * Restarts the current level.
+     *
+     * If the level is still loaded, this puts it back to the state it had right
+     * after loading, reusing the physics bodies instead of parsing the level again.
+     * Otherwise this is the same as {@link #reset()}.
+     */
+    public void retry() {
+        if (initialState == null || initialStateLevel != levelNum) {
+            reset();
+            return;
+        }
+
+        hud.setCaptives(0, 0);
+        frameTrace.clear();
+
+        setComplete(false);
+        setFailure(false);
+        countdown = -1;
+        setPaused(false);
+
+        canvas.getCamera().setFixedX(false);
+        canvas.getCamera().setFixedY(false);
+        canvas.getCamera().setZoom(1);
+
+        levelController.restore(initialState);
+        minimap.reset();
+
+        SoundController.playMusic("game");
+        publishRenderState();
     }
 
 //    public void respawn() {
@@ -602,11 +636,7 @@ public class GameController implements Screen {
             countdown--;
         }
 
-        if (orbCountdown > 0 && !complete) {
-            orbCountdown -= dt;
-        } else if (orbCollected && orbCountdown <= 0 && !failed) {
-            level.getBandit().kill();
-        }
+        levelController.updateOrbCountdown(dt, complete, failed);
 
         //Check for failure.
         if (!getFailure() && level.getBandit().getHealth() <= 0) {
@@ -640,10 +670,9 @@ public class GameController implements Screen {
     /**
      * The core gameplay loop of this world.
      * <p>
-     * This method contains the specific update code for this mini-game. It does
-     * not handle collisions, as those are managed by the parent class WorldController.
-     * This method is called after input is read, but before collisions are resolved.
-     * The very last thing that it should do is apply forces to the appropriate objects.
+     * The level itself is advanced by the {@link LevelController}, which the headless
+     * simulations use too. This adds what only the player sees: the minimap, the aim
+     * trajectory and the camera.
      *
      * @param dt Number of seconds since last animation frame
      */
@@ -651,181 +680,32 @@ public class GameController implements Screen {
 
         unlockNextLevel();
 
-        if (!orbCollected && level.getBandit().isOrbCollected()) {
-            orbCollected = true;
-            orbCountdown = level.getOrbCountdown();
-            level.startPostOrb();
-            SoundController.playMusic("escape");
-        }
-
         PlayerController inputResults = PlayerController.getInstance();
-
-        //Update Controllers.
-        BanditModel bandit = level.getBandit();
-
-        //move bandit
-
-        // bandit can't move
-        if (bandit.getStunTime() > 0) {
-            // if bandit stunned knockback and hit ground set
-            if (bandit.isGrounded() && bandit.getStunTime() < 100) {
-                bandit.setVY(0);
-                bandit.setVX(.1f);
-            }
-        } else if (level.getBandit().getHealth() > 0 && (countdown > 100 || !complete)) {
-            float movement = inputResults.getHorizontal() * bandit.getForce();
-            bandit.setMovement(movement);
-            bandit.applyForce();
-        } else {
-            bandit.setVX(0f);
-            if (bandit.isGrounded()) bandit.setVY(0);
-        }
-
-        float grav = level.getWorld().getGravity().y;
-        boolean shouldFlip = (bandit.isGrounded() || (!bandit.hasFlipped()) && !bandit.getStuck()) &&
-                ((PlayerController.getInstance().getGravityUp() && grav < 0) ||
-                        (PlayerController.getInstance().getGravityDown() && grav > 0));
-        shouldFlip = shouldFlip && !bandit.isKnockback();
-        shouldFlip = shouldFlip || (collisionController.shouldFlipGravity());
-        if (shouldFlip && !complete && !failed) {
-
-            Vector2 currentGravity = level.getWorld().getGravity();
-            currentGravity.y = -currentGravity.y;
-            jumpId = SoundController.playSound("jump", 0.25f);
-            level.getWorld().setGravity(currentGravity);
-            bandit.flippedGravity();
-            collisionController.clearSensorFixtures();
-
-            if (level.aiControllers() != null) {
-                for (AIController ai : level.aiControllers()) ai.flipEnemy();
-            }
-            if (level.getBackgroundObjects() != null) {
-                for (BackObjModel o : level.getBackgroundObjects()) o.flip();
-            }
-            for (Obstacle flippable : level.getFlippables()) {
-                flippable.flipGravity();
-            }
+        boolean hadOrb = levelController.isOrbCollected();
+        aimTarget.set(level.getAim().getProjTarget(canvas));
+        levelController.update(dt, inputResults, aimTarget, countdown > 100 || !complete, !complete && !failed);
+        if (!hadOrb && levelController.isOrbCollected()) {
+            frameTrace.mark("Orb pickup");
         }
-
-        if (inputResults.didReload() && !bandit.atMaxGum()
-            && bandit.isGrounded()&&!bandit.isKnockback()&&!bandit.isStunned()) {
-            bandit.startReload();
-            reloadTimer += 1;
-            if (reloadTimer % RELOAD_RATE == 0) {
-                bandit.addAmmo(1);
-                reloadSymbolTimer = -1;
-                reloadingGum = true;
-                SoundController.playSound("reloadingGum", 1);
-            }
-        } else {
-            reloadTimer = 0;
-            reloadingGum = false;
-            bandit.stopReload();
+        // Show the reload symbol for a second after shooting without gum
+        if (reloadSymbolTimer != -1 && reloadSymbolTimer < 60) {
+            reloadSymbolTimer++;
         }
-
-
-        if (inputResults.didShoot() && bandit.getAmmo() > 0 && bandit.getHealth() > 0 && !disableShooting) {
-            bandit.setShooting(true);
-            Vector2 cross = level.getAim().getProjTarget(canvas);
-            JsonValue gumJV = constantsJson.get("gumProjectile");
-            BanditModel avatar = level.getBandit();
-            Vector2 origin = level.getAim().getProjOrigin(gumJV, canvas);
-            String key = gumJV.get("texture").asString();
-            Vector2 scale = level.getScale();
-            TextureRegion gumTexture = new TextureRegion(directory.getEntry(key, Texture.class));
-            GumModel gum = bubblegumController.createGumProjectile(cross, gumJV, avatar, origin, scale, gumTexture);
-            if (gum != null) {
-                bandit.fireGum();
-                level.activate(gum);
-            }
-        } else {
-            bandit.setShooting(false);
+        if (level.getBandit().getAmmo() == 0 && inputResults.didShoot()) {
+            reloadSymbolTimer = 0;
+            SoundController.playSound("noGum", 0.75f);
         }
-        if (inputResults.didUnstick() && bandit.getHealth() > 0) {
-            Unstickable unstickable = level.getAim().getSelected();
-            if (unstickable != null) {
-                Obstacle unstickableOb = (Obstacle) unstickable;
-                if (unstickableOb.getName().equals("stickyGum")) {
-                    // Unstick it
-                    bubblegumController.removeGum((GumModel) unstickable);
-                    SoundController.playSound("enemySplat", 1f); // Temp sound
-                } else if (unstickableOb instanceof Gummable) {
-                    Gummable gummable = (Gummable) unstickableOb;
-                    if (gummable.getGummed()) {
-                        // Ungum it
-                        bubblegumController.removeGummable(gummable);
-                        SoundController.playSound("enemySplat", 1f); // Temp sound
-                    }
-
-                    if (gummable instanceof LaserEnemyModel) {
-                        ((LaserEnemyModel) gummable).resetGumStuck();
-                    }
-                }
-            }
+        if (levelController.isReloadingGum()) {
+            reloadSymbolTimer = -1;
         }
 
-        level.update(dt);
-        for (AIController controller : level.aiControllers()) {
-
-            EnemyModel enemy = controller.getEnemy();
-            // TODO: Make separate state for dead enemies
-            if (enemy.isRemoved()) {
-                continue;
-            }
-            boolean isLaserEnemy = enemy instanceof LaserEnemyModel;
-            boolean isProjectileEnemy = enemy instanceof ShockEnemyModel;
-            boolean isRollingEnemy = enemy instanceof RollingEnemyModel;
-
-            if (isProjectileEnemy) {
-                // Ensure enemy is on the ground
-                if (enemy.fired() && (controller.getTileType() != 0)) {
-                    boolean isGravDown = !enemy.isFlipped();
-                    float halfHeight = (enemy.getHeight() / 2);
-                    float enemyPos = enemy.getY() + (isGravDown ? -halfHeight : halfHeight);
-                    if (Math.abs(enemyPos - Math.round(enemyPos)) < 0.02) { // Check if grounded
-                        projectileController.fireWeapon(level, controller, isGravDown);
-                    }
-                } else {
-                    controller.coolDown(true);
-                }
-            } else if (isLaserEnemy) {
-                LaserEnemyModel laserEnemy = (LaserEnemyModel) controller.getEnemy();
-                if (laserEnemy.coolingDown()) laserEnemy.decrementCooldown(dt);
-                else {
-                    boolean canFire = laserEnemy.canSeeBandit(bandit) && laserEnemy.inactiveLaser();
-                    if (canFire) {
-                        enemy.isShielded(false);
-                        if (laserEnemy.isShouldJumpAttack()) {
-                            laserEnemy.jump();
-                        } else {
-                            laserController.fireLaser(controller);
-                        }
-                    }
-                }
-            } else if (isRollingEnemy) {
-                RollingEnemyModel rollingEnemy = (RollingEnemyModel) controller.getEnemy();
-                if (rollingEnemy.shouldUnstick()) {
-                    if (rollingEnemy.getGummed()) {
-                        bubblegumController.removeGummable(rollingEnemy);
-                        rollingEnemy.resetUnstick();
-                    } else if (rollingEnemy.getStuck()) {
-                        HashSet<GumModel> stuckGum = rollingEnemy.getStuckGum();
-                        for (GumModel g : stuckGum) {
-                            bubblegumController.removeGum(g);
-                        }
-                        rollingEnemy.resetUnstick();
-                    }
-                }
-            }
-        }
-        projectileController.update();
         minimap.updateMinimap(dt, inputResults.didExpandMinimap(), false);
         level.getAim().update(canvas, dt);
-        laserController.updateLasers(dt, level.getWorld(), level.getBandit());
 
         // Update the camera
+        BanditModel bandit = level.getBandit();
         GameCamera cam = canvas.getCamera();
-        Vector2 target = canvas.unproject(PlayerController.getInstance().getCrossHair());
+        Vector2 target = canvas.unproject(inputResults.getCrossHair());
         if (!cam.isFixedX()) {
             cam.setTargetX(bandit.getCameraTarget().x);
             cam.setSecondaryTargetX(target.x);
@@ -835,17 +715,21 @@ public class GameController implements Screen {
             cam.setSecondaryTargetY(target.y);
         }
         canvas.getCamera().update(dt);
+    }
 
-        //Check to create post-orb enemies
-        if (orbCollected && !spawnedPostOrbEnemies) {
-            level.spawnPostOrbEnemies();
-            level.postOrbDoors();
-            spawnedPostOrbEnemies = true;
-        }
-
-        // Turn the physics engine crank.
-        level.getWorld().step(WORLD_STEP, WORLD_VELOC, WORLD_POSIT);
-        bubblegumController.updateJoints(level);
+    /**
+     * Writes what the HUD and minimap show into the render state, records the sprites
+     * of the level into it, and publishes it.
+     * <p>
+     * This is called at the end of each simulation tick. Drawing reads only the
+     * published state, never the models.
+     */
+    private void publishRenderState() {
+        RenderState.Frame frame = renderState.getBackFrame();
+        frame.capture(level, (int) levelController.getOrbCountdown(), levelController.isReloadingGum(), disableShooting,
+                reloadSymbolTimer != -1 && reloadSymbolTimer < 60);
+        level.record(canvas, frame.getSprites(), laserBeam, laserBeamEnd);
+        renderState.publish();
     }
 
 
@@ -860,47 +744,36 @@ public class GameController implements Screen {
      * @param delta The drawing context
      */
     public void draw(float delta) {
+        RenderState.Frame drawnFrame = renderState.acquire();
         canvas.clear();
 
+        // The world may be drawn at a lower resolution; the UI below never is
+        canvas.beginWorld();
         backgrounds.draw(canvas);
 
-        PlayerController inputResults = PlayerController.getInstance();
-        level.draw(canvas, constantsJson, trajectoryProjectile, laserBeam, laserBeamEnd, delta);
+        level.draw(canvas, drawnFrame.getSprites());
+        canvas.endWorld();
 
         if (!hud.hasViewport()) hud.setViewport(canvas.getUIViewport());
         canvas.getUIViewport().apply();
 
-        Vector2 banditPosition = level.getBandit().getPosition();
-
-        minimap.draw(banditPosition);
-
-        if (level.getBandit().getAmmo() == 0 && inputResults.didShoot()) {
-            reloadSymbolTimer = 0;
-            SoundController.playSound("noGum", 0.75f);
-        }
-
+        minimap.draw(drawnFrame);
 
-        hud.draw(level, (int) (1 / delta), (int) orbCountdown, level.getDebug(), reloadingGum, disableShooting);
+        hud.draw(drawnFrame, level, canvas.getUIViewport(), (int) (1 / delta), canvas.getFlushes(), level.getDebug());
 
-        hud.drawCountdownText((int) orbCountdown, delta, canvas.getCamera(), level.getBandit());
+        hud.drawCountdownText(drawnFrame, delta, canvas.getCamera());
 
-        if (reloadSymbolTimer != -1 && reloadSymbolTimer < 60) {
+        Texture reloadSymbol = drawnFrame.getReloadSymbol();
+        if (reloadSymbol != null) {
+            Vector2 position = drawnFrame.getReloadSymbolPosition();
             canvas.begin();
-            level.getBandit().drawReload(canvas);
+            canvas.draw(reloadSymbol, Color.WHITE, position.x, position.y, reloadSymbol.getWidth(), reloadSymbol.getHeight());
             canvas.end();
-            reloadSymbolTimer++;
         }
 
         if (paused) {
             pauseScreen.draw();
         }
-
-        // Final message
-        if (complete && !failed) {
-            level.getBandit().setAnimation("victory", true, false);
-            level.getBandit().setInvulnerable();
-            level.getExit().setOpen(true);
-        }
     }
 
     /**
@@ -929,7 +802,7 @@ public class GameController implements Screen {
             if (pauseScreen.getResumeClicked()) {
                 setPaused(false);
             } else if (pauseScreen.getRetryClicked()) {
-                reset();
+                retry();
             }
         }
     }
@@ -944,14 +817,28 @@ public class GameController implements Screen {
      */
     public void render(float delta) {
         if (active) {
+            long frameStart = System.nanoTime();
+            // Deterministic runs always advance by the fixed physics step
+            if (SimClock.isDeterministic()) {
+                delta = WORLD_STEP;
+            }
             if (!paused) {
+                SimClock.step(delta);
                 if (preUpdate(delta)) {
                     update(delta);
                 }
+                // Final message
+                if (complete && !failed) {
+                    level.getBandit().setAnimation("victory", true, false);
+                    level.getBandit().setInvulnerable();
+                    level.getExit().setOpen(true);
+                }
+                publishRenderState();
             } else {
                 pauseUpdate();
             }
             draw(delta);
+            frameTrace.record(System.nanoTime() - frameStart);
             // Final message
             if (countdown == 0) {
                 if (complete && !failed) {
@@ -8,6 +8,7 @@ import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.RayCastCallback;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
 import edu.cornell.gdiac.bubblegumbandit.controllers.ai.AIController;
 import edu.cornell.gdiac.bubblegumbandit.helpers.Damage;
 import edu.cornell.gdiac.bubblegumbandit.models.enemy.LaserEnemyModel;
@@ -17,8 +18,6 @@ import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Controller to manage laser attacks.
@@ -37,9 +36,6 @@ public class LaserController {
     /**Start point of the laser raycast. */
     private final Vector2 chargeOrigin;
 
-    /**Direction of the laser raycast. */
-    private final Vector2 chargeDirection;
-
     /**Endpoint of the laser raycast. */
     private final Vector2 chargeEndpoint;
 
@@ -57,15 +53,20 @@ public class LaserController {
 
     /**Enemies that this LaserController should remove from its main
      * loop cycle. */
-    Set<LaserEnemyModel> enemiesToRemove;;
+    Array<LaserEnemyModel> enemiesToRemove;
 
+    /**Scratch vectors for clamping a firing beam to its target. */
+    private final Vector2 directionOfIntersect = new Vector2();
+    private final Vector2 farAwayPoint = new Vector2();
+    private final Vector2 lerpedPoint = new Vector2();
 
+    /**The raycast shared by every laser, set up before each cast. */
+    private final LaserRaycast raycast = new LaserRaycast();
 
-    /**All LaserModels created by the LaserController.
-     * The mapping of an EnemyModel to a LaserModel
-     * represents that EnemyModel's LaserModel.
+    /**All LaserModels created by the LaserController, in the order
+     * they started firing. Each enemy appears at most once.
      * */
-    private final HashSet<LaserEnemyModel> lasers;
+    private final Array<LaserEnemyModel> lasers;
 
     /**
      * Constructs a LaserController and the ArrayList of LaserModels
@@ -74,15 +75,22 @@ public class LaserController {
     public LaserController() {
 
         chargeOrigin = new Vector2();
-        chargeDirection = new Vector2();
         chargeEndpoint = new Vector2();
         banditEnemyDist = new Vector2();
-        lasers =  new HashSet<>();
+        lasers =  new Array<>();
         bodiesToIgnore = new ArrayList<>();
         bodiesToIgnore.add("laserEnemy");
         bodiesToIgnore.add("exit");
         bodiesToIgnore.add("gumProjectile");
-        enemiesToRemove = new HashSet<>();
+        enemiesToRemove = new Array<>();
+    }
+
+    /**
+     * Forgets every firing laser (e.g. when the level is reset).
+     * */
+    public void reset() {
+        lasers.clear();
+        enemiesToRemove.clear();
     }
 
     /**
@@ -94,7 +102,7 @@ public class LaserController {
         if(enemy.chargingLaser()) return;
         if(enemy.lockingLaser()) return;
         if(enemy.firingLaser()) return;
-        if(lasers.contains(enemy)) return;
+        if(lasers.contains(enemy, true)) return;
         lasers.add(enemy);
     }
 
@@ -137,14 +145,14 @@ public class LaserController {
                 if (bandit.getX() > enemy.getX()) disqualified = true;
             }
 
-            if (disqualified && enemy.chargingLaser()) {
+            if (disqualified && enemy.chargingLaser() && !enemiesToRemove.contains(enemy, true)) {
                 enemiesToRemove.add(enemy);
                 enemy.resetLaserCycle();
             }
         }
 
         for (final LaserEnemyModel enemy : enemiesToRemove) {
-            lasers.remove(enemy);
+            lasers.removeValue(enemy, true);
         }
 
         //Main loop
@@ -219,9 +227,6 @@ public class LaserController {
                                    Vector2 target,
                                    final ArrayList<String> ignores){
 
-        //The point at which our raycast will "hit."
-        final Vector2 intersect = new Vector2();
-
         //Set the origin.
         float verticalOriginOffset = enemy.getHeight()/10f;
         float horizontalOriginOffset = enemy.getWidth() * .6f;
@@ -231,6 +236,7 @@ public class LaserController {
         enemy.setBeamOrigin(chargeOrigin);
 
         //The direction of the laser beam is at the passed-in target.
+        Vector2 chargeDirection = enemy.getBeamDirection();
         chargeDirection.set(
                 target.x - chargeOrigin.x,
                 target.y - chargeOrigin.y
@@ -248,32 +254,9 @@ public class LaserController {
         );
 
         //Time to raycast.
-        RayCastCallback chargeRaycast = new RayCastCallback() {
-            @Override
-            public float reportRayFixture(Fixture fixture, Vector2 point,
-                                          Vector2 normal, float fraction) {
-                Obstacle ob = (Obstacle) fixture.getBody().getUserData();
-
-                //Special case: doors. We need to check locked status.
-                if(ob.getName().equals("door")){
-                    DoorModel door = (DoorModel) ob;
-                    if(!door.isOpen()){
-                        intersect.set(point);
-                        return fraction;
-                    }
-                }
-
-                //Return what the laser is hitting.
-                else if (!ignores.contains(ob.getName())) {
-                    enemy.setHittingBandit(ob.getName().equals("bandit"));
-                    intersect.set(point);
-                    return fraction;
-                }
-                return -1;
-            }
-        };
-        world.rayCast(chargeRaycast, chargeOrigin, chargeEndpoint);
-        return intersect;
+        raycast.begin(enemy, ignores);
+        world.rayCast(raycast, chargeOrigin, chargeEndpoint);
+        return raycast.intersect;
     }
 
     /**
@@ -289,10 +272,6 @@ public class LaserController {
                                         final LaserEnemyModel enemy,
                                         final ArrayList<String> ignores){
 
-        //The point at which our raycast will "hit."
-        final Vector2 intersect = new Vector2();
-        final Vector2 banditIntersect = new Vector2();
-
         //Set the charging origin.
         float verticalOriginOffset = enemy.getHeight()/10f;
         float horizontalOriginOffset = enemy.getWidth() * .6f;
@@ -301,7 +280,8 @@ public class LaserController {
         chargeOrigin.set(enemy.getX() + horizontalOriginOffset, enemy.getY() + verticalOriginOffset);
         enemy.setBeamOrigin(chargeOrigin);
 
-        //With the origin and direction, we can calculate the endpoint.
+        //With the origin and the latest charging direction, we can calculate the endpoint.
+        Vector2 chargeDirection = enemy.getBeamDirection();
         chargeEndpoint.set(
                 chargeOrigin.x + chargeDirection.x,
                 chargeOrigin.y + chargeDirection.y
@@ -309,31 +289,9 @@ public class LaserController {
 
 
         //Time to raycast.
-        RayCastCallback chargeRaycast = new RayCastCallback() {
-            @Override
-            public float reportRayFixture(Fixture fixture, Vector2 point,
-                                          Vector2 normal, float fraction) {
-                Obstacle ob = (Obstacle) fixture.getBody().getUserData();
-
-                //Special case: doors. We need to check locked status.
-                if(ob.getName().equals("door")){
-                    DoorModel door = (DoorModel) ob;
-                    if(!door.isOpen()){
-                        intersect.set(point);
-                        return fraction;
-                    }
-                }
-
-                //Return what the laser is hitting.
-                else if (!ignores.contains(ob.getName())) {
-                    enemy.setHittingBandit(ob.getName().equals("bandit"));
-                    intersect.set(point);
-                    return fraction;
-                }
-                return -1;
-            }
-        };
-        world.rayCast(chargeRaycast, chargeOrigin, chargeEndpoint);
+        raycast.begin(enemy, ignores);
+        world.rayCast(raycast, chargeOrigin, chargeEndpoint);
+        Vector2 intersect = raycast.intersect;
 
 
 
@@ -353,10 +311,10 @@ public class LaserController {
 
          */
 
-        Vector2 directionOfIntersect = new Vector2(intersect).sub(chargeOrigin);
+        directionOfIntersect.set(intersect).sub(chargeOrigin);
         directionOfIntersect.nor();
-        Vector2 farAwayPoint = new Vector2(directionOfIntersect).scl(40).add(chargeOrigin);
-        Vector2 lerpedPoint = new Vector2(chargeOrigin).lerp(farAwayPoint, enemy.getFiringDistance(firingTime));
+        farAwayPoint.set(directionOfIntersect).scl(40).add(chargeOrigin);
+        lerpedPoint.set(chargeOrigin).lerp(farAwayPoint, enemy.getFiringDistance(firingTime));
 
         float lerpedDist = chargeOrigin.dst(lerpedPoint);
         float endDist = chargeOrigin.dst(intersect);
@@ -364,4 +322,54 @@ public class LaserController {
 
         return enemy.firingLaser() ? point : intersect;
     }
-}
\ No newline at end of file
+
+    /**
+     * The raycast of a laser beam, reused for every laser.
+     * <p>
+     * It finds the closest fixture the beam may not pass through: a closed door,
+     * or anything not in the list of ignored names.
+     */
+    private static class LaserRaycast implements RayCastCallback {
+        /** The point at which the raycast "hit" */
+        final Vector2 intersect = new Vector2();
+        /** The enemy casting the ray */
+        LaserEnemyModel enemy;
+        /** All names of bodies that the raycast should ignore */
+        ArrayList<String> ignores;
+
+        /**
+         * Prepares the raycast for the given enemy.
+         *
+         * @param enemy The LaserEnemyModel ray-casting right now.
+         * @param ignores All names of bodies that the raycast should ignore.
+         */
+        void begin(LaserEnemyModel enemy, ArrayList<String> ignores) {
+            this.enemy = enemy;
+            this.ignores = ignores;
+            intersect.setZero();
+        }
+
+        @Override
+        public float reportRayFixture(Fixture fixture, Vector2 point,
+                                      Vector2 normal, float fraction) {
+            Obstacle ob = (Obstacle) fixture.getBody().getUserData();
+
+            //Special case: doors. We need to check locked status.
+            if(ob.getName().equals("door")){
+                DoorModel door = (DoorModel) ob;
+                if(!door.isOpen()){
+                    intersect.set(point);
+                    return fraction;
+                }
+            }
+
+            //Return what the laser is hitting.
+            else if (!ignores.contains(ob.getName())) {
+                enemy.setHittingBandit(ob.getName().equals("bandit"));
+                intersect.set(point);
+                return fraction;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * LevelController.java
+ *
+ * Runs the gameplay of one level: builds it from its blueprint and advances it
+ * one simulation tick at a time. GameController and the headless simulations
+ * both play levels through this class, so they cannot drift apart. Everything
+ * that only affects presentation (camera, HUD, minimap and drawing) stays in
+ * GameController.
+ */
+package edu.cornell.gdiac.bubblegumbandit.controllers;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.bubblegumbandit.controllers.ai.AIController;
+import edu.cornell.gdiac.bubblegumbandit.helpers.Gummable;
+import edu.cornell.gdiac.bubblegumbandit.helpers.Unstickable;
+import edu.cornell.gdiac.bubblegumbandit.models.BackObjModel;
+import edu.cornell.gdiac.bubblegumbandit.models.enemy.EnemyModel;
+import edu.cornell.gdiac.bubblegumbandit.models.enemy.LaserEnemyModel;
+import edu.cornell.gdiac.bubblegumbandit.models.enemy.RollingEnemyModel;
+import edu.cornell.gdiac.bubblegumbandit.models.enemy.ShockEnemyModel;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelBlueprint;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelModel;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelSnapshot;
+import edu.cornell.gdiac.bubblegumbandit.models.level.gum.GumModel;
+import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
+import edu.cornell.gdiac.bubblegumbandit.view.GameCamera;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+
+import static edu.cornell.gdiac.bubblegumbandit.controllers.GameController.*;
+
+/**
+ * The gameplay of a single level.
+ * <p>
+ * This owns the level model and the controllers of the gum, shocks, lasers and
+ * collisions. It reads nothing but the input it is given, and plays sounds only
+ * through {@link SoundController}, which stays muted until it is initialized.
+ */
+public class LevelController {
+    /** The phases of a tick, in the order {@link #update} runs them */
+    public enum Phase {
+        /** Applying the input to the bandit */
+        INPUT,
+        /** Updating the level objects and enemy state machines */
+        LEVEL,
+        /** Updating the shock and laser controllers */
+        CONTROLLERS,
+        /** Stepping the Box2D world (including contact callbacks) */
+        PHYSICS,
+        /** Creating and destroying gum joints */
+        JOINTS
+    }
+
+    /** How many ticks the reload button must be held to gain one gum */
+    private static final int RELOAD_RATE = 30;
+
+    /** The level being played */
+    private final LevelModel level;
+    /** Handles the collisions of the level */
+    private final CollisionController collisionController;
+    /** Creates the gum fired by the bandit and sticks it to things */
+    private final BubblegumController bubblegumController;
+    /** Fires the shocks of the shock enemies */
+    private final ShockController projectileController;
+    /** Fires the lasers of the laser enemies */
+    private final LaserController laserController;
+
+    /** The JSON of the gum projectile */
+    private JsonValue gumJV;
+    /** The texture of the gum projectile */
+    private TextureRegion gumTexture;
+
+    /** Whether the orb has been collected */
+    private boolean orbCollected;
+    /** Whether the enemies that appear after the orb is collected were spawned */
+    private boolean spawnedPostOrbEnemies;
+    /** The time left to escape after collecting the orb, or -1 before it is collected */
+    private float orbCountdown;
+    /** Whether the bandit may not shoot in this level */
+    private boolean disableShooting;
+    /** How many ticks the reload button has been held */
+    private int reloadTimer;
+    /** Whether the bandit has gained a gum since it started reloading */
+    private boolean reloadingGum;
+    /** The nanoseconds spent in each phase, or null if ticks are not timed */
+    private long[] phaseNanos;
+
+    /**
+     * Creates the controller of an empty level.
+     */
+    public LevelController() {
+        level = new LevelModel();
+        bubblegumController = new BubblegumController();
+        laserController = new LaserController();
+        collisionController = new CollisionController(level, bubblegumController);
+        projectileController = new ShockController();
+        orbCountdown = -1;
+    }
+
+    /**
+     * Returns the level being played.
+     * <p>
+     * This is always the same model; loading a level populates it again.
+     *
+     * @return the level being played.
+     */
+    public LevelModel getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns true if the orb has been collected.
+     *
+     * @return true if the orb has been collected.
+     */
+    public boolean isOrbCollected() {
+        return orbCollected;
+    }
+
+    /**
+     * Returns the time left to escape after collecting the orb, or -1 before it is collected.
+     *
+     * @return the time left to escape after collecting the orb
+     */
+    public float getOrbCountdown() {
+        return orbCountdown;
+    }
+
+    /**
+     * Returns true if the bandit has gained a gum since it started reloading.
+     *
+     * @return true if the bandit has gained a gum since it started reloading.
+     */
+    public boolean isReloadingGum() {
+        return reloadingGum;
+    }
+
+    /**
+     * Sets where the time spent in each phase of a tick is added up.
+     *
+     * @param phaseNanos the nanoseconds spent in each {@link Phase}, or null to stop timing
+     */
+    public void setPhaseTimes(long[] phaseNanos) {
+        this.phaseNanos = phaseNanos;
+    }
+
+    /**
+     * Disposes of the current level and builds the given one in its place.
+     * <p>
+     * Every asset the level needs while it is played is taken from the directory here,
+     * so {@link #update} never reads the directory.
+     *
+     * @param directory       the asset directory
+     * @param blueprint       the blueprint of the level
+     * @param constants       the JSON file defining the constants
+     * @param tilesetJson     the JSON file defining the tileset
+     * @param disableShooting whether the bandit may not shoot in the level
+     * @param camera          the camera that follows the level
+     */
+    public void load(AssetDirectory directory, LevelBlueprint blueprint, JsonValue constants,
+                     JsonValue tilesetJson, boolean disableShooting, GameCamera camera) {
+        reset();
+        level.dispose();
+
+        this.disableShooting = disableShooting;
+        gumJV = constants.get("gumProjectile");
+        gumTexture = directory.getEntry(gumJV.get("texture").asString(), TextureRegion.class);
+        bubblegumController.initialize(directory, gumJV);
+
+        level.populate(directory, blueprint, constants, tilesetJson, disableShooting, camera);
+        level.getWorld().setContactListener(collisionController);
+        projectileController.initialize(constants.get("projectile"), directory, level.getScale().x, level.getScale().y);
+        collisionController.initialize(camera);
+        level.getBandit().resetAmmo();
+    }
+
+    /**
+     * Puts the level back to the given state, reusing its physics bodies.
+     *
+     * @param snapshot  the state of the level right after it was loaded
+     */
+    public void restore(LevelSnapshot snapshot) {
+        reset();
+        // No contact callbacks while the bodies are put back
+        level.getWorld().setContactListener(null);
+        level.restoreState(snapshot);
+        level.getWorld().setContactListener(collisionController);
+    }
+
+    /**
+     * Disposes of the level.
+     */
+    public void dispose() {
+        reset();
+        level.dispose();
+    }
+
+    /**
+     * Clears the controllers and the progress through the level.
+     */
+    private void reset() {
+        bubblegumController.resetAllBubblegum();
+        projectileController.reset();
+        laserController.reset();
+        collisionController.reset();
+        orbCollected = false;
+        spawnedPostOrbEnemies = false;
+        orbCountdown = -1;
+        reloadTimer = 0;
+        reloadingGum = false;
+    }
+
+    /**
+     * Runs down the time left to escape, and kills the bandit once it is out.
+     * <p>
+     * This is called before the bandit is checked for death, ahead of {@link #update}.
+     *
+     * @param dt        the length of the tick in seconds
+     * @param complete  whether the level was won, which stops the countdown
+     * @param failed    whether the level was lost, which spares the bandit
+     */
+    public void updateOrbCountdown(float dt, boolean complete, boolean failed) {
+        if (orbCountdown > 0 && !complete) {
+            orbCountdown -= dt;
+        } else if (orbCollected && orbCountdown <= 0 && !failed) {
+            level.getBandit().kill();
+        }
+    }
+
+    /**
+     * Advances the level by one simulation tick.
+     * <p>
+     * This applies the input to the bandit, runs the enemies and their weapons and
+     * steps the physics world.
+     *
+     * @param dt        the length of the tick in seconds
+     * @param input     the input of the player
+     * @param target    the crosshair in world coordinates, clamped to the level
+     * @param canMove   whether the bandit may move
+     * @param canFlip   whether the bandit may flip gravity
+     */
+    public void update(float dt, PlayerController input, Vector2 target, boolean canMove, boolean canFlip) {
+        long time = phaseNanos == null ? 0 : System.nanoTime();
+        BanditModel bandit = level.getBandit();
+        if (!orbCollected && bandit.isOrbCollected()) {
+            orbCollected = true;
+            orbCountdown = level.getOrbCountdown();
+            level.startPostOrb();
+            SoundController.playMusic("escape");
+        }
+
+        // bandit can't move
+        if (bandit.getStunTime() > 0) {
+            // if bandit stunned knockback and hit ground set
+            if (bandit.isGrounded() && bandit.getStunTime() < 100) {
+                bandit.setVY(0);
+                bandit.setVX(.1f);
+            }
+        } else if (bandit.getHealth() > 0 && canMove) {
+            bandit.setMovement(input.getHorizontal() * bandit.getForce());
+            bandit.applyForce();
+        } else {
+            bandit.setVX(0f);
+            if (bandit.isGrounded()) bandit.setVY(0);
+        }
+
+        float grav = level.getWorld().getGravity().y;
+        boolean shouldFlip = (bandit.isGrounded() || (!bandit.hasFlipped()) && !bandit.getStuck()) &&
+                ((input.getGravityUp() && grav < 0) || (input.getGravityDown() && grav > 0));
+        shouldFlip = shouldFlip && !bandit.isKnockback();
+        shouldFlip = shouldFlip || collisionController.shouldFlipGravity();
+        if (shouldFlip && canFlip) {
+            Vector2 currentGravity = level.getWorld().getGravity();
+            currentGravity.y = -currentGravity.y;
+            SoundController.playSound("jump", 0.25f);
+            level.getWorld().setGravity(currentGravity);
+            bandit.flippedGravity();
+            collisionController.clearSensorFixtures();
+
+            if (level.aiControllers() != null) {
+                for (AIController ai : level.aiControllers()) ai.flipEnemy();
+            }
+            if (level.getBackgroundObjects() != null) {
+                for (BackObjModel o : level.getBackgroundObjects()) o.flip();
+            }
+            for (Obstacle flippable : level.getFlippables()) {
+                flippable.flipGravity();
+            }
+        }
+
+        if (input.didReload() && !bandit.atMaxGum()
+                && bandit.isGrounded() && !bandit.isKnockback() && !bandit.isStunned()) {
+            bandit.startReload();
+            reloadTimer += 1;
+            if (reloadTimer % RELOAD_RATE == 0) {
+                bandit.addAmmo(1);
+                reloadingGum = true;
+                SoundController.playSound("reloadingGum", 1);
+            }
+        } else {
+            reloadTimer = 0;
+            reloadingGum = false;
+            bandit.stopReload();
+        }
+
+        if (input.didShoot() && bandit.getAmmo() > 0 && bandit.getHealth() > 0 && !disableShooting) {
+            bandit.setShooting(true);
+            level.getAim().getProjTarget(target);
+            Vector2 origin = level.getAim().getProjOrigin(gumJV, target);
+            GumModel gum = bubblegumController.createGumProjectile(target, gumJV, bandit, origin, level.getScale(), gumTexture);
+            if (gum != null) {
+                bandit.fireGum();
+                level.activate(gum);
+            }
+        } else {
+            bandit.setShooting(false);
+        }
+        if (input.didUnstick() && bandit.getHealth() > 0) {
+            Unstickable unstickable = level.getAim().getSelected();
+            if (unstickable != null) {
+                Obstacle unstickableOb = (Obstacle) unstickable;
+                if (unstickableOb.getName().equals("stickyGum")) {
+                    // Unstick it
+                    bubblegumController.removeGum((GumModel) unstickable);
+                    SoundController.playSound("enemySplat", 1f); // Temp sound
+                } else if (unstickableOb instanceof Gummable) {
+                    Gummable gummable = (Gummable) unstickableOb;
+                    if (gummable.getGummed()) {
+                        // Ungum it
+                        bubblegumController.removeGummable(gummable);
+                        SoundController.playSound("enemySplat", 1f); // Temp sound
+                    }
+
+                    if (gummable instanceof LaserEnemyModel) {
+                        ((LaserEnemyModel) gummable).resetGumStuck();
+                    }
+                }
+            }
+        }
+
+        time = endPhase(Phase.INPUT, time);
+
+        level.update(dt);
+        time = endPhase(Phase.LEVEL, time);
+        for (AIController controller : level.aiControllers()) {
+            EnemyModel enemy = controller.getEnemy();
+            // TODO: Make separate state for dead enemies
+            if (enemy.isRemoved()) {
+                continue;
+            }
+
+            if (enemy instanceof ShockEnemyModel) {
+                // Ensure enemy is on the ground
+                if (enemy.fired() && (controller.getTileType() != 0)) {
+                    boolean isGravDown = !enemy.isFlipped();
+                    float halfHeight = (enemy.getHeight() / 2);
+                    float enemyPos = enemy.getY() + (isGravDown ? -halfHeight : halfHeight);
+                    if (Math.abs(enemyPos - Math.round(enemyPos)) < 0.02) { // Check if grounded
+                        projectileController.fireWeapon(level, controller, isGravDown);
+                    }
+                } else {
+                    controller.coolDown(true);
+                }
+            } else if (enemy instanceof LaserEnemyModel) {
+                LaserEnemyModel laserEnemy = (LaserEnemyModel) enemy;
+                if (laserEnemy.coolingDown()) laserEnemy.decrementCooldown(dt);
+                else if (laserEnemy.canSeeBandit(bandit) && laserEnemy.inactiveLaser()) {
+                    enemy.isShielded(false);
+                    if (laserEnemy.isShouldJumpAttack()) {
+                        laserEnemy.jump();
+                    } else {
+                        laserController.fireLaser(controller);
+                    }
+                }
+            } else if (enemy instanceof RollingEnemyModel) {
+                RollingEnemyModel rollingEnemy = (RollingEnemyModel) enemy;
+                if (rollingEnemy.shouldUnstick()) {
+                    if (rollingEnemy.getGummed()) {
+                        bubblegumController.removeGummable(rollingEnemy);
+                        rollingEnemy.resetUnstick();
+                    } else if (rollingEnemy.getStuck()) {
+                        for (GumModel g : rollingEnemy.getStuckGum()) {
+                            bubblegumController.removeGum(g);
+                        }
+                        rollingEnemy.resetUnstick();
+                    }
+                }
+            }
+        }
+        projectileController.update();
+        laserController.updateLasers(dt, level.getWorld(), bandit);
+
+        //Check to create post-orb enemies
+        if (orbCollected && !spawnedPostOrbEnemies) {
+            level.spawnPostOrbEnemies();
+            level.postOrbDoors();
+            spawnedPostOrbEnemies = true;
+        }
+        time = endPhase(Phase.CONTROLLERS, time);
+
+        // Turn the physics engine crank.
+        level.getWorld().step(WORLD_STEP, WORLD_VELOC, WORLD_POSIT);
+        time = endPhase(Phase.PHYSICS, time);
+        bubblegumController.updateJoints(level);
+        endPhase(Phase.JOINTS, time);
+    }
+
+    /**
+     * Adds the time since the given start to a phase, if ticks are timed.
+     *
+     * @param phase the phase that just ended
+     * @param start when the phase started, from {@link System#nanoTime}
+     *
+     * @return when the next phase starts
+     */
+    private long endPhase(Phase phase, long start) {
+        if (phaseNanos == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - start;
+        return now;
+    }
+}
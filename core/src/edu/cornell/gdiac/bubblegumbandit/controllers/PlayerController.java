@@ -37,12 +37,22 @@ public class PlayerController{
     /** The singleton instance of the input controller */
     private static PlayerController theController = null;
 
+    /** Per-thread input controllers (for simulations that run off the main thread) */
+    private static final ThreadLocal<PlayerController> localController = new ThreadLocal<PlayerController>();
+
     /**
      * Return the singleton instance of the input controller
      *
+     * If an input controller has been set for the current thread, this returns
+     * that controller instead of the singleton.
+     *
      * @return the singleton instance of the input controller
      */
     public static PlayerController getInstance() {
+        PlayerController local = localController.get();
+        if (local != null) {
+            return local;
+        }
         if (theController == null) {
             theController = new PlayerController();
         }
@@ -186,6 +196,22 @@ public class PlayerController{
         return primePressed && !primePrevious;
     }
 
+    /**
+     * Sets the input controller for the current thread.
+     *
+     * While set, {@link #getInstance()} returns this controller on this thread
+     * only. Passing null restores the singleton.
+     *
+     * @param controller the input controller for the current thread (or null)
+     */
+    public static void setThreadInstance(PlayerController controller) {
+        if (controller == null) {
+            localController.remove();
+        } else {
+            localController.set(controller);
+        }
+    }
+
     /**
      *
      * */
@@ -322,6 +348,20 @@ public class PlayerController{
         //change + fetch keyBindings from save data
     }
 
+    /**
+     * Creates a new input controller with no attached devices.
+     *
+     * This is for subclasses that supply their own input (see {@link #pollInput()}),
+     * and so does not read the key bindings from the save data.
+     *
+     * @param detached unused; distinguishes this constructor from the default one
+     */
+    protected PlayerController(boolean detached) {
+        xbox = null;
+        crosshair = new Vector2();
+        crosscache = new Vector2();
+    }
+
     /**
      * Reads the input for the player and converts the result into game logic.
      *
@@ -349,6 +389,16 @@ public class PlayerController{
         gravityUpPrevious = gravityUp;
         pausePrevious = pausePressed;
 
+        pollInput();
+    }
+
+    /**
+     * Reads the current state of the input devices.
+     *
+     * Subclasses may override this to supply input from another source. The
+     * previous state has already been saved when this method is called.
+     */
+    protected void pollInput() {
         // Check to see if a GamePad is connected
 //        if (xbox != null && xbox.isConnected()) {
 //            readGamepad();
@@ -358,6 +408,32 @@ public class PlayerController{
 //        }
     }
 
+    /**
+     * Sets the gameplay input state directly.
+     *
+     * The crosshair is in screen coordinates, just like the one read from the mouse.
+     *
+     * @param horizontal    the amount of sideways movement
+     * @param gravityUp     whether gravity up is held
+     * @param gravityDown   whether gravity down is held
+     * @param shoot         whether shoot is held
+     * @param unstick       whether unstick is held
+     * @param reload        whether reload is held
+     * @param crossX        the crosshair x-coordinate
+     * @param crossY        the crosshair y-coordinate
+     */
+    protected void setInputState(float horizontal, boolean gravityUp, boolean gravityDown,
+                                 boolean shoot, boolean unstick, boolean reload,
+                                 float crossX, float crossY) {
+        this.horizontal = horizontal;
+        this.gravityUp = gravityUp;
+        this.gravityDown = gravityDown;
+        this.shootPressed = shoot;
+        this.unstickPressed = unstick;
+        this.reloadPressed = reload;
+        crosshair.set(crossX, crossY);
+    }
+
     /**
      * Reads input from an X-Box controller connected to this computer.
      * * Saves crosshairs as screen coordinates, as they cannot be properly converted
@@ -2,7 +2,6 @@ package edu.cornell.gdiac.bubblegumbandit.controllers;
 import static edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController.CATEGORY_PROJECTILE;
 import static edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController.MASK_PROJECTILE;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.JsonValue;
@@ -13,6 +12,7 @@ import edu.cornell.gdiac.bubblegumbandit.models.enemy.EnemyModel;
 import edu.cornell.gdiac.bubblegumbandit.models.enemy.ShockEnemyModel;
 import edu.cornell.gdiac.bubblegumbandit.models.level.LevelModel;
 import edu.cornell.gdiac.bubblegumbandit.models.level.ShockModel;
+import edu.cornell.gdiac.bubblegumbandit.view.AnimationLibrary;
 
 
 /**
@@ -41,7 +41,12 @@ public class ShockController {
     /** The speed of the projectile. */
     private float speed;
 
-    private AssetDirectory directory;
+    /** The animations of the shocks */
+    private AnimationLibrary animations;
+
+    /** The textures of the electrified floor under a shock */
+    private TextureRegion floorTexture;
+    private TextureRegion floorTexture2;
 
     /**
      * Creates a queue of projectiles.
@@ -61,11 +66,14 @@ public class ShockController {
      * @param yScale the y scale of the level
      */
     public void initialize(JsonValue projJV, AssetDirectory directory, float xScale, float yScale) {
-        this.directory = directory;
         this.projJV = projJV;
         drawScale = new Vector2(xScale, yScale);
+        // Every asset of a shock is taken here, so firing never reads the directory
+        animations = AnimationLibrary.get(directory);
         String key = projJV.get("texture").asString();
-        projTexture = new TextureRegion(directory.getEntry(key, Texture.class));
+        projTexture = directory.getEntry(key, TextureRegion.class);
+        floorTexture = directory.getEntry(projJV.get("floorTexture").asString(), TextureRegion.class);
+        floorTexture2 = directory.getEntry(projJV.get("floorTexture2").asString(), TextureRegion.class);
         radius = projTexture.getRegionWidth() / (2.0f * drawScale.x);
         speed = projJV.getFloat("speed", 0);
     }
@@ -93,8 +101,8 @@ public class ShockController {
         }
         ShockModel left = new ShockModel();
         ShockModel right = new ShockModel();
-        left.initialize(directory, drawScale, projJV, e.getX(), projY, radius, isGravDown, true);
-        right.initialize(directory, drawScale, projJV, e.getX(), projY, radius, isGravDown, false);
+        left.initialize(animations, floorTexture, floorTexture2, drawScale, projJV, e.getX(), projY, radius, isGravDown, true);
+        right.initialize(animations, floorTexture, floorTexture2, drawScale, projJV, e.getX(), projY, radius, isGravDown, false);
 
         //Physics Constants
         left.setTexture(projTexture);
@@ -9,6 +9,13 @@ import java.util.HashMap;
 
 import static edu.cornell.gdiac.backend.Effect.engine;
 
+/**
+ * Static controller for all game audio.
+ *
+ * Until {@link #initialize} is called the controller is muted, and every static
+ * method is a no-op. This lets the game logic run without an audio device
+ * (e.g. in headless simulations).
+ */
 public class SoundController {
 
     /**
@@ -264,7 +271,17 @@ public class SoundController {
        musicPlayer = engine.newMusicBuffer( false, 44100 );
     }
 
+    /**
+     * Returns true if this controller has been initialized with audio assets.
+     *
+     * @return true if this controller has been initialized with audio assets.
+     */
+    public static boolean isInitialized() {
+        return sounds != null;
+    }
+
     public static void playMusic(String sound){
+        if (musicPlayer == null) return;
         AudioSource sample = music.get(sound);
         if (musicPlayer.getCurrent() == sample) {
             musicPlayer.play();
@@ -279,15 +296,18 @@ public class SoundController {
     }
 
     public static void pauseMusic() {
+        if (musicPlayer == null) return;
         musicPlayer.stop();
     }
 
     public static void loopSound(String sound, int soundId) {
+        if (sounds == null) return;
         SoundEffect s = sounds.get(sound);
         s.setLooping(soundId, true);
     }
 
     public static long playSound(String sound, float volume) {
+        if (sounds == null) return 0;
         SoundEffect s = sounds.get(sound);
         int soundId = soundIds.get(s);
         if (!(soundId == lastPlayed)) {
@@ -346,6 +366,7 @@ public class SoundController {
 
     /** Stop sound that is playing */
     public static void stopSound(String sound) {
+        if (sounds == null) return;
         SoundEffect effect = sounds.get(sound);
         effect.stop();
     }
@@ -359,6 +380,7 @@ public class SoundController {
      */
     public static void pause() {
         // We need this method to stop all sounds when we pause.
+        if (soundIds == null) return;
         for (SoundEffect key : soundIds.keySet()) {
             if (key.isPlaying(soundIds.get(key))) {
                 key.stop(soundIds.get(key));
@@ -369,7 +391,7 @@ public class SoundController {
     public static void setMusicVolume(float volume)
     {
         musicVolume = volume;
-        musicPlayer.setVolume(volume);
+        if (musicPlayer != null) musicPlayer.setVolume(volume);
     }
 
     public static void setEffectsVolume(float volume){
@@ -1,6 +1,6 @@
 package edu.cornell.gdiac.bubblegumbandit.controllers.ai;
 
-import com.badlogic.gdx.ai.msg.MessageManager;
+import com.badlogic.gdx.ai.msg.MessageDispatcher;
 import com.badlogic.gdx.ai.msg.Telegram;
 import com.badlogic.gdx.ai.msg.Telegraph;
 import com.badlogic.gdx.math.Vector2;
@@ -9,6 +9,7 @@ import edu.cornell.gdiac.bubblegumbandit.controllers.ai.graph.TiledGraph;
 import edu.cornell.gdiac.bubblegumbandit.models.enemy.EnemyModel;
 import edu.cornell.gdiac.bubblegumbandit.models.enemy.ShockEnemyModel;
 import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
+import edu.cornell.gdiac.util.Snapshot;
 
 public class AIController implements Telegraph {
 
@@ -45,6 +46,9 @@ public class AIController implements Telegraph {
 
     private EnemyStateMachine<AIController, EnemyState> enemyfsm;
 
+    /** The dispatcher for messages between the enemies of this level */
+    private MessageDispatcher dispatcher;
+
     // Shooting Attributes & Constants
 
     /**
@@ -74,20 +78,35 @@ public class AIController implements Telegraph {
         return bandit;
     }
 
-    public AIController(EnemyModel enemy, BanditModel bandit, TiledGraph tiledGraphGravityUp, TiledGraph tiledGraphGravityDown) {
+    public MessageDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public AIController(EnemyModel enemy, BanditModel bandit, TiledGraph tiledGraphGravityUp, TiledGraph tiledGraphGravityDown,
+                        MessageDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
         this.tiledGraphGravityUp = tiledGraphGravityUp;
         this.enemy = enemy;
         this.enemyfsm = new EnemyStateMachine(this, EnemyState.WANDER, EnemyState.PERCEIVE, tiledGraphGravityUp, tiledGraphGravityDown);
         this.bandit = bandit;
         this.tiledGraphGravityDown = tiledGraphGravityDown;
         firecool = 0;
-        MessageManager.getInstance().addListener(this, MessageType.NEED_BACKUP);
 
         if (enemy instanceof ShockEnemyModel) {
             cooldown = SHOCK_COOLDOWN;
         }
     }
 
+    /**
+     * Registers this controller for backup calls from other enemies.
+     *
+     * Controllers of post-orb enemies are created with the level, but should
+     * not answer calls until their enemy has spawned.
+     */
+    public void listen() {
+        dispatcher.addListener(this, MessageType.NEED_BACKUP);
+    }
+
     /**
      * Returns true if we can both fire and hit our target
      * <p>
@@ -178,4 +197,31 @@ public class AIController implements Telegraph {
     public boolean handleMessage(Telegram msg) {
         return enemyfsm.handleMessage(msg);
     }
+
+    /**
+     * Writes the state of this controller and its state machine to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    public void saveState(Snapshot state) {
+        state.putInt(cooldown);
+        state.putInt(firecool);
+        state.putBoolean(firing);
+        enemyfsm.saveState(state);
+    }
+
+    /**
+     * Restores the state of this controller and its state machine from the given snapshot.
+     *
+     * Pending messages are not part of a snapshot, so the level clears the
+     * dispatcher first and calls {@link #listen()} again for active enemies.
+     *
+     * @param state the snapshot to read from
+     */
+    public void restoreState(Snapshot state) {
+        cooldown = state.getInt();
+        firecool = state.getInt();
+        firing = state.getBoolean();
+        enemyfsm.restoreState(state);
+    }
 }
@@ -2,7 +2,6 @@ package edu.cornell.gdiac.bubblegumbandit.controllers.ai;
 
 import com.badlogic.gdx.ai.fsm.State;
 import com.badlogic.gdx.ai.fsm.StateMachine;
-import com.badlogic.gdx.ai.msg.MessageManager;
 import com.badlogic.gdx.ai.msg.Telegram;
 import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
 import com.badlogic.gdx.ai.pfa.GraphPath;
@@ -11,6 +10,7 @@ import edu.cornell.gdiac.bubblegumbandit.controllers.ai.graph.TiledGraph;
 import edu.cornell.gdiac.bubblegumbandit.controllers.ai.graph.TiledManhattanDistance;
 import edu.cornell.gdiac.bubblegumbandit.controllers.ai.graph.TiledNode;
 import edu.cornell.gdiac.bubblegumbandit.models.enemy.EnemyModel;
+import edu.cornell.gdiac.util.Snapshot;
 
 import static edu.cornell.gdiac.bubblegumbandit.controllers.InputController.*;
 
@@ -256,12 +256,39 @@ public class EnemyStateMachine<E, S extends State<E>> implements StateMachine<E,
         }
     }
 
+    /**
+     * Writes the states and tick count of this machine to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    public void saveState(Snapshot state) {
+        state.putObject(currentState);
+        state.putObject(previousState);
+        state.putObject(globalState);
+        state.putInt(ticks);
+    }
+
+    /**
+     * Restores the states and tick count of this machine from the given snapshot.
+     *
+     * The current path is discarded and will be found again on the next move.
+     *
+     * @param state the snapshot to read from
+     */
+    public void restoreState(Snapshot state) {
+        currentState = state.getObject();
+        previousState = state.getObject();
+        globalState = state.getObject();
+        ticks = state.getInt();
+        graphPath.clear();
+    }
+
     public int getTicks(){
         return ticks;
     }
 
     public void sendMessage(AIController recipient, int messageType, Object extraInfo ){
-        MessageManager.getInstance().dispatchMessage(
+        ((AIController) owner).getDispatcher().dispatchMessage(
                 0.0f,
                 this,
                 recipient,
@@ -270,7 +297,7 @@ public class EnemyStateMachine<E, S extends State<E>> implements StateMachine<E,
     }
 
     public void broadcastMessage(int messageType, Object extraInfo){
-        MessageManager.getInstance().dispatchMessage(messageType, extraInfo);
+        ((AIController) owner).getDispatcher().dispatchMessage(messageType, extraInfo);
     }
 
 }
@@ -20,12 +20,12 @@ package edu.cornell.gdiac.bubblegumbandit.controllers.ai.graph;
 import com.badlogic.gdx.ai.pfa.Connection;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.JsonValue;
-import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
+import edu.cornell.gdiac.bubblegumbandit.view.DebugRenderer;
 import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.Snapshot;
 
 public class TiledGraph implements IndexedGraph<TiledNode>{
 	protected int width;
@@ -51,20 +51,31 @@ public class TiledGraph implements IndexedGraph<TiledNode>{
 
 
 	public TiledGraph(JsonValue boardJson, int boardIdOffset, Vector2 scale, float debugSize) {
+		this(boardJson.get("data").asIntArray(), boardJson.getInt("width"), boardJson.getInt("height"),
+				boardIdOffset, scale, debugSize);
+	}
+
+	/**
+	 * Creates a graph from the tiles of a board layer, in Tiled order (top row first).
+	 *
+	 * @param tiles the tile ids of the board layer
+	 * @param width the width of the layer, in tiles
+	 * @param height the height of the layer, in tiles
+	 */
+	public TiledGraph(int[] tiles, int width, int height, int boardIdOffset, Vector2 scale, float debugSize) {
 		this.scale = scale;
-		this.height = boardJson.getInt("height");
-		this.width = boardJson.getInt("width");
+		this.height = height;
+		this.width = width;
 		this.nodes = new TiledNode[width * height];
 		this.boardOffset = boardIdOffset;
 		this.debugSize = debugSize;
 
-		int[] jsonTiles = boardJson.get("data").asIntArray();
 		int x = 0;
 		int y = height - 1;
-		for (int i = 0; i < jsonTiles.length; i++) {
+		for (int i = 0; i < tiles.length; i++) {
 			int type = 0;
-			if (jsonTiles[i] != 0) {
-				type = jsonTiles[i] - boardIdOffset + 1;
+			if (tiles[i] != 0) {
+				type = tiles[i] - boardIdOffset + 1;
 			}
 			nodes[y * width + x] = new TiledNode(x, y, type );
 			x++;
@@ -103,6 +114,46 @@ public class TiledGraph implements IndexedGraph<TiledNode>{
 		return nodes.length;
 	}
 
+	/**
+	 * Enables every node, as when the graph was created.
+	 *
+	 * Graphs are kept between loads of a level, so this undoes the nodes disabled
+	 * during the previous play.
+	 */
+	public void enableAllNodes() {
+		for (TiledNode node : nodes) {
+			node.enableNode();
+		}
+	}
+
+	/**
+	 * Writes which nodes are enabled to the given snapshot.
+	 *
+	 * Nodes are disabled during play (e.g. when glass shatters).
+	 *
+	 * @param state the snapshot to write to
+	 */
+	public void saveState(Snapshot state) {
+		for (TiledNode node : nodes) {
+			state.putBoolean(node.getEnabled());
+		}
+	}
+
+	/**
+	 * Restores which nodes are enabled from the given snapshot.
+	 *
+	 * @param state the snapshot to read from
+	 */
+	public void restoreState(Snapshot state) {
+		for (TiledNode node : nodes) {
+			if (state.getBoolean()) {
+				node.enableNode();
+			} else {
+				node.disableNode();
+			}
+		}
+	}
+
 	public Array<Connection<TiledNode>> getConnections (TiledNode fromNode) {
 		return fromNode.getConnections();
 	}
@@ -117,15 +168,22 @@ public class TiledGraph implements IndexedGraph<TiledNode>{
 		}
 	}
 
-	public void drawGraph(GameCanvas canvas) {
-		PolygonShape s = new PolygonShape();
-		s.setAsBox(this.scale.x*debugSize, this.scale.y*debugSize); //smaller than grid squares
+	/**
+	 * Adds the outlines of the nodes of this graph to the debug renderer.
+	 *
+	 * The renderer calls this when it rebuilds its cached outlines.
+	 *
+	 * @param debug the debug renderer being rebuilt
+	 */
+	public void drawGraph(DebugRenderer debug) {
+		float halfWidth = this.scale.x*debugSize; //smaller than grid squares
+		float halfHeight = this.scale.y*debugSize;
 		float margin = this.scale.x*1/2;
 		for (int i = 0; i < width; i++) {
 			for (int j = 0; j < height; j++) {
 				int val = nodes[j * width + i].getType();
 				if (!nodes[j * width + i].getEnabled()){
-					canvas.drawPhysics(s, Color.ORANGE, i * scale.x + margin, j * scale.y + margin);
+					debug.box(i * scale.x + margin, j * scale.y + margin, halfWidth, halfHeight, Color.ORANGE);
 				}
 				else if (val != 0) {
 					Color color;
@@ -137,7 +195,7 @@ public class TiledGraph implements IndexedGraph<TiledNode>{
 					} else{
 						color = Color.PURPLE;
 					}
-					canvas.drawPhysics(s, color, i * scale.x + margin, j * scale.y + margin);
+					debug.box(i * scale.x + margin, j * scale.y + margin, halfWidth, halfHeight, color);
 				}
 			}
 		}
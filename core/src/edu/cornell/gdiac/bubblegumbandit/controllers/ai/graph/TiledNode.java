@@ -69,4 +69,8 @@ public class TiledNode {
 	public void disableNode(){
 		isEnabled = false;
 	}
+
+	public void enableNode(){
+		isEnabled = true;
+	}
 }
@@ -195,7 +195,7 @@ public class GameOverScreen implements Screen, InputProcessor {
         // Compute the dimensions from the canvas
         resize(canvas.getWidth(), canvas.getHeight());
 
-        background = new TextureRegion(directory.getEntry("settingsBackground", Texture.class));
+        background = directory.getEntry("settingsBackground", TextureRegion.class);
         displayFont = directory.getEntry("projectSpaceLarge", BitmapFont.class).newFontCache().getFont();
         subHeadingFont = directory.getEntry("codygoonRegular", BitmapFont.class).newFontCache().getFont();
         hoverPointer = directory.getEntry("hoverPointer", Texture.class);
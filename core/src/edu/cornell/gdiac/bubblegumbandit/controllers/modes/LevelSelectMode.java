@@ -7,7 +7,6 @@ import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.controllers.Controller;
 import com.badlogic.gdx.controllers.ControllerListener;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.PolygonRegion;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -21,6 +20,7 @@ import edu.cornell.gdiac.bubblegumbandit.controllers.EffectController;
 import edu.cornell.gdiac.bubblegumbandit.controllers.SoundController;
 import edu.cornell.gdiac.bubblegumbandit.models.LevelIconModel;
 import edu.cornell.gdiac.bubblegumbandit.models.SunfishModel;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelPrebuilder;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.util.ScreenListener;
 
@@ -134,6 +134,9 @@ public class LevelSelectMode implements Screen, InputProcessor, ControllerListen
     /** the level chosen by the player */
     private int selectedLevel;
 
+    /** Builds the level under the cursor, so it is ready by the time it is chosen */
+    private LevelPrebuilder prebuilder;
+
     //the camera dimensions
     private float camWidth;
     private float camHeight;
@@ -175,16 +178,16 @@ public class LevelSelectMode implements Screen, InputProcessor, ControllerListen
 
         world = new World(new Vector2(0, 0), false);
 
-        TextureRegion sunfish_texture = new TextureRegion (internal.getEntry("sunfish", Texture.class));
-        TextureRegion fire = new TextureRegion (internal.getEntry("fire", Texture.class));
-        TextureRegion boost = new TextureRegion (internal.getEntry("boost", Texture.class));
+        TextureRegion sunfish_texture = internal.getEntry("sunfish", TextureRegion.class);
+        TextureRegion fire = internal.getEntry("fire", TextureRegion.class);
+        TextureRegion boost = internal.getEntry("boost", TextureRegion.class);
 
         sunfish = new SunfishModel(sunfish_texture, fire, boost, LEVEL_GAP * 0.7f, SPACE_HEIGHT * 0.8f);
         sunfish.activatePhysics(world);
 
         returnToMain = false;
 
-        path = new TextureRegion (internal.getEntry("point", Texture.class));
+        path = internal.getEntry("point", TextureRegion.class);
 
 
     }
@@ -202,7 +205,7 @@ public class LevelSelectMode implements Screen, InputProcessor, ControllerListen
         displayFont = directory.getEntry("codygoonRegular", BitmapFont.class);
         displayFont.setColor(Color.WHITE);
 
-        background = new TextureRegion(directory.getEntry("spaceBg", Texture.class));
+        background = directory.getEntry("spaceBg", TextureRegion.class);
         createBackground();
 
         createIcons(directory);
@@ -306,6 +309,9 @@ public class LevelSelectMode implements Screen, InputProcessor, ControllerListen
             if (level.getState() != 2) {
                 if (level.onIcon(mousePos.x, mousePos.y)) {
                     level.setPressState(1);
+                    if (prebuilder != null && level.isUnlocked()) {
+                        prebuilder.prebuild(level.getLevel());
+                    }
                 } else {
                     level.setPressState(0);
                 }
@@ -344,6 +350,15 @@ public class LevelSelectMode implements Screen, InputProcessor, ControllerListen
 
     }
 
+    /**
+     * Sets the prebuilder that starts building a level when the player hovers over it.
+     *
+     * @param prebuilder the level prebuilder
+     */
+    public void setPrebuilder(LevelPrebuilder prebuilder) {
+        this.prebuilder = prebuilder;
+    }
+
     /** returns the level chosen by the player */
     public int getSelectedLevel() {
         return selectedLevel;
@@ -284,7 +284,7 @@ public class SettingsMode implements Screen {
         scrollKnob = new TextureRegionDrawable(internal.getEntry("scrollFill", Texture.class));
         sliderKnob =  new TextureRegionDrawable(new TextureRegion(knob));
         sliderTexture = new TextureRegionDrawable(sliderBeforeKnobTexture);
-        arrow = new TextureRegion(internal.getEntry("arrow", Texture.class));
+        arrow = internal.getEntry("arrow", TextureRegion.class);
         scrollBar = new TextureRegionDrawable(internal.getEntry("scrollBar", Texture.class));
         scrollBar.setMinWidth(20);
         scrollKnob.setMinWidth(20);
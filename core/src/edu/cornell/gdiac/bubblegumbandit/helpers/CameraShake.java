@@ -2,7 +2,6 @@ package edu.cornell.gdiac.bubblegumbandit.helpers;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import edu.cornell.gdiac.util.RandomController;
 
 public class CameraShake {
 
@@ -95,8 +94,9 @@ public class CameraShake {
     }
 
     private void addRandTrauma(float trauma) {
-        Vector2 dir = new Vector2(RandomController.rollFloat(-10f, 10f),
-            RandomController.rollFloat(-10f, 10f)).nor();
+        // The camera is not simulation state, so it does not draw from the gameplay random stream
+        Vector2 dir = new Vector2(MathUtils.random(-10f, 10f),
+            MathUtils.random(-10f, 10f)).nor();
         addTrauma(dir, trauma);
     }
 
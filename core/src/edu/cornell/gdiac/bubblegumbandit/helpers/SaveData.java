@@ -6,6 +6,7 @@ import com.badlogic.gdx.Preferences;
 import edu.cornell.gdiac.bubblegumbandit.controllers.GameController;
 import edu.cornell.gdiac.bubblegumbandit.controllers.modes.SettingsMode;
 import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
 
@@ -36,11 +37,10 @@ public class SaveData {
     if(prefs.getFloat("sfx", -10)==-10) return false;
     if(prefs.getInteger("lastFinished", -10)==-10) return false;
 
-    JsonValue level;
     int i = 1;
     while (true) {
-      level = directory.getEntry("level" + i, JsonValue.class);
-      if (level != null) {
+      // The level files are loaded on demand, so only check that they exist
+      if (directory.hasEntry("level" + i, JsonValue.class)) {
         if(prefs.getInteger("level" + (i), -10)==-10) return false;
         if(prefs.getInteger("level"+i+"Captives", -10)==-10) return false;
         i++;
@@ -71,13 +71,18 @@ public class SaveData {
     prefs.putInteger("lastFinished", 1);
 
     prefs.putInteger("level1", INCOMPLETE);
-    JsonValue level;
+    String file;
     int i = 1;
     while (true) {
-      level = directory.getEntry("level" + i, JsonValue.class);
-      if (level != null) {
+      // The level files are loaded on demand, so they are parsed here without being kept
+      file = directory.getFile("level" + i, JsonValue.class);
+      if (file != null) {
         if(i>1) prefs.putInteger("level" + (i), lockLevels ? LOCKED : INCOMPLETE);
-        JsonValue prop = level.get("properties").child;
+        JsonValue props = new JsonReader().parse(Gdx.files.internal(file)).get("properties");
+        if (props == null) {
+          throw new RuntimeException("Level " + file + " has no map properties");
+        }
+        JsonValue prop = props.child;
         int count = 0;
         while (prop != null) {
           String propName = prop.get("name").asString();
@@ -1,6 +1,5 @@
 package edu.cornell.gdiac.bubblegumbandit.helpers;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
@@ -13,7 +12,28 @@ import java.util.HashMap;
 
 public class TiledParser {
 
-    public static int boardIdOffset;
+    /** Returns the id offset of the first tile in the board tileset
+     *
+     * This does not modify any shared state, so levels may be parsed concurrently.
+     *
+     * @param levelFormat the json value representing the level
+     * @returns the id offset of the board tileset, or 0 if there is none */
+    public static int getBoardIdOffset(JsonValue levelFormat) {
+        JsonValue levelTilesetJson = levelFormat.get("tilesets").child();
+        while (levelTilesetJson != null) {
+            JsonValue source = levelTilesetJson.get("source");
+            if (source != null) {
+                String tilesetSource = source.asString();
+                int substringStart = tilesetSource.lastIndexOf("/") + 1;
+                int substringEnd = tilesetSource.lastIndexOf(".");
+                if (tilesetSource.substring(substringStart, substringEnd).equals("board")) {
+                    return levelTilesetJson.getInt("firstgid");
+                }
+            }
+            levelTilesetJson = levelTilesetJson.next();
+        }
+        return 0;
+    }
 
     /** Returns the tileset based on the provided Json file
      *
@@ -38,10 +58,6 @@ public class TiledParser {
             int substringEnd = tilesetSource.lastIndexOf(".");
             String tilesetName = tilesetSource.substring(substringStart, substringEnd);
             String tilesetFileType = tilesetSource.substring(substringEnd, tilesetSource.length());
-            if (tilesetName.equals("board")) {
-                // We need to hold on to the board id offset for AI purposes.
-                boardIdOffset = idOffset;
-            }
             if (!tilesetFileType.equals(".json")) { // Skip non-JSON tilesets (ex. board and camera tilesets).
                 levelTilesetJson = levelTilesetJson.next();
                 continue;
@@ -55,7 +71,7 @@ public class TiledParser {
             }
             JsonValue tile = tilesetJson.get("tiles").child();
             if (tilesetJson.get("image") != null) { // Tileset represents one image (texture atlas)
-                Texture t = directory.getEntry(tile.get("type").asString(), Texture.class);
+                TextureRegion t = directory.getEntry(tile.get("type").asString(), TextureRegion.class);
                 int imgWidth = tilesetJson.getInt("imagewidth");
                 int tileWidth = tilesetJson.getInt("tilewidth");
                 int tileHeight = tilesetJson.getInt("tileheight");
@@ -77,10 +93,7 @@ public class TiledParser {
                     TextureRegion texture = null;
                     if (textureName != null) {
                         // Texture name may be empty, or may not refer to an actual texture
-                        Texture t = directory.getEntry(textureName.asString(), Texture.class);
-                        if (t != null) {
-                            texture = new TextureRegion(directory.getEntry(textureName.asString(), Texture.class));
-                        }
+                        texture = directory.getEntry(textureName.asString(), TextureRegion.class);
                     }
                     tileset.put(tile.getInt("id") + idOffset, texture);
                     tile = tile.next();
@@ -98,7 +111,7 @@ public class TiledParser {
         }
     };
 
-    public class TileRect {
+    public static class TileRect {
         public int startX;
         public int startY;
         public int endX;
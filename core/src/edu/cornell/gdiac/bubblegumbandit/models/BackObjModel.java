@@ -1,7 +1,6 @@
 package edu.cornell.gdiac.bubblegumbandit.models;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.physics.box2d.BodyDef;
@@ -10,6 +9,7 @@ import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
 import edu.cornell.gdiac.physics.obstacle.PolygonObstacle;
+import edu.cornell.gdiac.util.Snapshot;
 
 import java.lang.reflect.Field;
 
@@ -67,7 +67,7 @@ public class BackObjModel extends BoxObstacle {
         String key = constants.get("texture").asString();
         setName(key);
 
-        TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
+        TextureRegion texture = directory.getEntry(key, TextureRegion.class);
         setTexture(texture);
 
         setWidth(texture.getRegionWidth()/64f);
@@ -142,4 +142,30 @@ public class BackObjModel extends BoxObstacle {
 
         }
     }
+
+    /**
+     * Writes the gameplay state of this object to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    @Override
+    public void saveState(Snapshot state) {
+        super.saveState(state);
+        state.putBoolean(faceRight);
+        state.putBoolean(isFlipped);
+        state.putFloat(fo.getScale());
+    }
+
+    /**
+     * Restores the gameplay state of this object from the given snapshot.
+     *
+     * @param state the snapshot to read from
+     */
+    @Override
+    public void restoreState(Snapshot state) {
+        super.restoreState(state);
+        faceRight = state.getBoolean();
+        isFlipped = state.getBoolean();
+        fo.setScale(state.getFloat());
+    }
 }
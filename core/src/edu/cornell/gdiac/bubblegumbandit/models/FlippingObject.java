@@ -39,5 +39,10 @@ public class FlippingObject {
         return scale;
     }
 
+    /** Sets the y scale of the rotation (e.g. when restoring a level snapshot) */
+    public void setScale(float value) {
+        scale = value;
+    }
+
 }
 
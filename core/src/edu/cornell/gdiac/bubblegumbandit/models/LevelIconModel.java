@@ -99,9 +99,9 @@ public class LevelIconModel {
 
     /** sets the static attributes of the class */
     public static void setTextures(AssetDirectory directory){
-        marker = new TextureRegion (directory.getEntry("marker", Texture.class));
-        success = new TextureRegion (directory.getEntry("o", Texture.class));
-        fail = new TextureRegion (directory.getEntry("x", Texture.class));
+        marker = directory.getEntry("marker", TextureRegion.class);
+        success = directory.getEntry("o", TextureRegion.class);
+        fail = directory.getEntry("x", TextureRegion.class);
 
     }
 
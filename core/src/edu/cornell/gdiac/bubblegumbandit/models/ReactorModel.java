@@ -1,7 +1,6 @@
 package edu.cornell.gdiac.bubblegumbandit.models;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.PolygonRegion;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector;
@@ -47,11 +46,11 @@ public class ReactorModel {
 
 
     public ReactorModel(Array<Vector2> pos, Vector2 orbPos, AssetDirectory directory) {
-        reactor = new TextureRegion (directory.getEntry("reactorCore", Texture.class));
-        reactorOff = new TextureRegion (directory.getEntry("reactorCoreOff", Texture.class));
-        beam = new TextureRegion (directory.getEntry("beam", Texture.class));
-        casing = new TextureRegion (directory.getEntry("case", Texture.class));
-        computer = new TextureRegion (directory.getEntry("computer", Texture.class));
+        reactor = directory.getEntry("reactorCore", TextureRegion.class);
+        reactorOff = directory.getEntry("reactorCoreOff", TextureRegion.class);
+        beam = directory.getEntry("beam", TextureRegion.class);
+        casing = directory.getEntry("case", TextureRegion.class);
+        computer = directory.getEntry("computer", TextureRegion.class);
 
         reactor1.set(pos.get(0));
         reactor2.set(pos.get(1));
@@ -10,8 +10,8 @@ import com.badlogic.gdx.physics.box2d.CircleShape;
 import com.badlogic.gdx.physics.box2d.Filter;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.JsonValue;
-import com.badlogic.gdx.utils.ObjectSet;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController;
 import edu.cornell.gdiac.bubblegumbandit.helpers.Gummable;
@@ -24,8 +24,10 @@ import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.CapsuleObstacle;
 
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.Snapshot;
 import java.lang.reflect.Field;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 import static edu.cornell.gdiac.bubblegumbandit.controllers.InputController.*;
 
@@ -36,8 +38,6 @@ import static edu.cornell.gdiac.bubblegumbandit.controllers.InputController.*;
  */
 public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Shield {
 
-    protected TextureRegion outline;
-
     /**
      * EnemyModel's unique ID
      */
@@ -110,7 +110,6 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
     protected TextureRegion gummedTexture;
 
     protected TextureRegion squishedGum;
-    protected TextureRegion squishedGumOutline;
 
     private CircleShape listeningCircle;
     /**
@@ -291,7 +290,6 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
         attacking = new RayCastCone(6f, 0, (float) Math.PI / 2, Color.BLUE);
         gummed = false;
         stuck = false;
-        collidedObs = new ObjectSet<>();
         tile = null;
         helpingTarget = null;
         turnCooldown = 0;
@@ -348,22 +346,14 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
         setDebugColor(debugColor);
 
         String key = constantsJson.get("midairGumTexture").asString();
-        squishedGum = new TextureRegion(directory.getEntry(key, Texture.class));
-
-
-        key = constantsJson.get("midairGumOutlineTexture").asString();
-        squishedGumOutline = new TextureRegion(directory.getEntry(key, Texture.class));
-
+        squishedGum = directory.getEntry(key, TextureRegion.class);
 
 
         // Now get the texture from the AssetManager singleton
         key = constantsJson.get("texture").asString();
-        TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
+        TextureRegion texture = directory.getEntry(key, TextureRegion.class);
 
         gummedTexture = texture;
-
-        key = constantsJson.get("outline").asString();
-        outline = new TextureRegion(directory.getEntry(key, Texture.class));
         setTexture(texture);
         String animationKey;
         if (constantsJson.get("animations") != null) {
@@ -379,7 +369,7 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
 
 
         String gumKey = constantsJson.get("gumTexture").asString();
-        gumTexture = new TextureRegion(directory.getEntry(gumKey, Texture.class));
+        gumTexture = directory.getEntry(gumKey, TextureRegion.class);
 
         // initialize sensors
 
@@ -398,9 +388,9 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
         sensorColor = Color.RED;
 
         String shieldKey = constantsJson.get("shield").asString();
-        shield = new TextureRegion(directory.getEntry(shieldKey, Texture.class));
+        shield = directory.getEntry(shieldKey, TextureRegion.class);
 
-        stuckGum = new HashSet<>();
+        stuckGum = new LinkedHashSet<>();
 
         envRays = new RayCastEnv(Color.GREEN, getHeight());
     }
@@ -476,8 +466,9 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
                 }
             } else {
                 boolean shouldStartCrush = false;
-                for (Obstacle ob : getCollisions()) {
-                    if (!(ob instanceof CrusherModel)) {
+                Array<Obstacle> collisions = getCollisions();
+                for (int ii = 0; ii < collisions.size; ii++) {
+                    if (!(collisions.get(ii) instanceof CrusherModel)) {
                         shouldStartCrush = true;
                     }
                 }
@@ -622,17 +613,18 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
      * Draw method for when highlighting the enemy before unsticking them
      */
     public void drawWithOutline(GameCanvas canvas) {
-        if (outline != null && gummedTexture != null) {
-            if (stuck) {
-                float y = getY() * drawScale.y; //-yScale*outline.getRegionHeight()/2;
-                canvas.draw(outline, Color.WHITE, origin.x, origin.y, getX()*drawScale.x-5,
-                        y - 5 * yScale, getAngle(), 1, yScale);
-            } else {
-                float y = getY() * drawScale.y; //-yScale*squishedGumOutline.getRegionHeight()/2;
-                canvas.draw(squishedGumOutline, Color.WHITE, origin.x, origin.y,
-                    getX()*drawScale.x-5,
-                    y-5*yScale-yScale*squishedGumOutline.getRegionHeight()/2, getAngle(), 1, yScale);
-            }
+        if (texture == null) {
+            return;
+        }
+        float x = getX() * drawScale.x;
+        float y = getY() * drawScale.y;
+        y += ((1 - crushScale) * texture.getRegionHeight() * (world.getGravity().y < 0 ? -.5f : .5f));
+        if (stuck) {
+            canvas.drawOutlined(gumTexture, Color.WHITE, origin.x, origin.y, x,
+                    y, getAngle(), 1, yScale*crushScale);
+        } else {
+            canvas.drawOutlined(squishedGum, Color.WHITE, origin.x, origin.y, x,
+                    y-yScale*squishedGum.getRegionHeight()/2, getAngle(), 1, yScale*crushScale);
         }
     }
 
@@ -691,7 +683,7 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
      * */
     public void stickWithGum(GumModel gum){
         if(gum == null) return;
-        if(stuckGum == null) stuckGum = new HashSet<>();
+        if(stuckGum == null) stuckGum = new LinkedHashSet<>();
         stuckGum.add(gum);
     }
 
@@ -701,7 +693,7 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
      * @return a HashSet of GumModels that have stuck this EnemyModel
      * */
     public HashSet<GumModel> getStuckGum(){
-        return new HashSet<>(stuckGum);
+        return new LinkedHashSet<>(stuckGum);
     }
 
     /**
@@ -709,7 +701,7 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
      * this EnemyMode.
      * */
     protected void clearStuckGum(){
-        stuckGum.clear();
+        if (stuckGum != null) stuckGum.clear();
     }
 
     /**
@@ -747,4 +739,59 @@ public abstract class EnemyModel extends CapsuleObstacle implements Gummable, Sh
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Writes the gameplay state of this enemy to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    @Override
+    public void saveState(Snapshot state) {
+        super.saveState(state);
+        state.putBoolean(faceRight);
+        state.putInt(nextAction);
+        state.putInt(previousAction);
+        state.putInt(currentFrameNum);
+        state.putFloat(yScale);
+        state.putFloat(speed);
+        state.putObject(tile);
+        state.putObject(helpingTarget);
+        state.putBoolean(hasShield);
+        state.putBoolean(isShielded);
+        state.putObject(curFrame);
+        state.putObject(crusher);
+        state.putFloat(crushScale);
+        state.putBoolean(isCrushing);
+        state.putInt(turnCooldown);
+        animationController.saveState(state);
+    }
+
+    /**
+     * Restores the gameplay state of this enemy from the given snapshot.
+     *
+     * Any gum stuck to the enemy is forgotten, as the gum itself is discarded
+     * when a level is restored.
+     *
+     * @param state the snapshot to read from
+     */
+    @Override
+    public void restoreState(Snapshot state) {
+        super.restoreState(state);
+        faceRight = state.getBoolean();
+        nextAction = state.getInt();
+        previousAction = state.getInt();
+        currentFrameNum = state.getInt();
+        yScale = state.getFloat();
+        speed = state.getFloat();
+        tile = state.getObject();
+        helpingTarget = state.getObject();
+        hasShield = state.getBoolean();
+        isShielded = state.getBoolean();
+        curFrame = state.getObject();
+        crusher = state.getObject();
+        crushScale = state.getFloat();
+        isCrushing = state.getBoolean();
+        turnCooldown = state.getInt();
+        animationController.restoreState(state);
+        if (stuckGum != null) stuckGum.clear();
+    }
+}
@@ -8,7 +8,7 @@ import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.RayCastCallback;
 import com.badlogic.gdx.physics.box2d.World;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
@@ -19,6 +19,8 @@ import edu.cornell.gdiac.bubblegumbandit.view.AnimationController;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.RandomController;
+import edu.cornell.gdiac.util.Snapshot;
 
 import java.lang.reflect.Field;
 
@@ -41,10 +43,13 @@ public class LaserEnemyModel extends EnemyModel {
     /**
      * The point at which the most up-to-date laser beam intersects.
      */
-    private Vector2 beamIntersect;
+    private final Vector2 beamIntersect = new Vector2();
 
     /** The point at which the laser beam starts.*/
-    private Vector2 beamOrigin;
+    private final Vector2 beamOrigin = new Vector2();
+
+    /** The direction of the laser beam, set while charging and kept while locked and firing.*/
+    private final Vector2 beamDirection = new Vector2();
 
     /**Current phase of this LaserEnemyModel. */
     private LASER_PHASE phase;
@@ -130,10 +135,10 @@ public class LaserEnemyModel extends EnemyModel {
     private int laserTicks;
 
     /** Random X scale for laser vibrations */
-    private Array<Float> randomXScale;
+    private FloatArray randomXScale;
 
     /** Random Y scale for laser vibrations */
-    private Array<Float> randomYScale;
+    private FloatArray randomYScale;
 
     public boolean isShouldJumpAttack() {
         return shouldJumpAttack;
@@ -144,12 +149,12 @@ public class LaserEnemyModel extends EnemyModel {
     }
 
     /** The random X scale of the laser enemy */
-    public Array<Float> getRandomXScale() {
+    public FloatArray getRandomXScale() {
         return randomXScale;
     }
 
     /** The random Y scale of the laser enemy */
-    public Array<Float> getRandomYScale() {
+    public FloatArray getRandomYScale() {
         return randomYScale;
     }
 
@@ -160,11 +165,6 @@ public class LaserEnemyModel extends EnemyModel {
     /** Texture for gum after just one shot */
     private TextureRegion halfStuck;
 
-    /** Texture for gum after just one shot, with outline
-     * currently draw with outline is never called unless the enemy is gummed, however
-     * */
-    private TextureRegion halfStuckOutline;
-
     /**
      * Every phase that this LaserEnemyModel goes through when it attacks.
      */
@@ -192,8 +192,8 @@ public class LaserEnemyModel extends EnemyModel {
         gumStuck = 0;
         isJumping = false;
         hasJumped = false;
-        randomXScale = new Array<>();
-        randomYScale = new Array<>();
+        randomXScale = new FloatArray();
+        randomYScale = new FloatArray();
         jumpCooldown = -1;
     }
 
@@ -212,8 +212,7 @@ public class LaserEnemyModel extends EnemyModel {
 
         super.initialize(directory, x, y, constantsJson, isFacingRight);
         vision.setRadius(constantsJson.get("visionRadius").asFloat());
-        halfStuck = new TextureRegion(directory.getEntry("halfStuck", Texture.class));
-        halfStuckOutline = new TextureRegion(directory.getEntry("halfStuckOutline", Texture.class));
+        halfStuck = directory.getEntry("halfStuck", TextureRegion.class);
         setName("laserEnemy");
         setPhase(LASER_PHASE.INACTIVE);
     }
@@ -236,12 +235,12 @@ public class LaserEnemyModel extends EnemyModel {
             randomYScale.clear();
             for (int i = 0; i < numSegments; i++) {
                 if (firingLaser()) {
-                    if (Math.floor(Math.random() * 10) % 2 == 0) {
-                        randomXScale.add((float) (1f + Math.random()));
-                        randomYScale.add((float) (1f + Math.random()));
-                    } else if (Math.floor(Math.random() * 10) % 3 == 0) {
-                        randomXScale.add((float) (1f + Math.random()));
-                        randomYScale.add((float) (1f + Math.random()));
+                    if (RandomController.rollInt(0, 9) % 2 == 0) {
+                        randomXScale.add(RandomController.rollFloat(1f, 2f));
+                        randomYScale.add(RandomController.rollFloat(1f, 2f));
+                    } else if (RandomController.rollInt(0, 9) % 3 == 0) {
+                        randomXScale.add(RandomController.rollFloat(1f, 2f));
+                        randomYScale.add(RandomController.rollFloat(1f, 2f));
                     } else {
                         randomXScale.add(1f);
                         randomYScale.add(1f);
@@ -324,8 +323,8 @@ public class LaserEnemyModel extends EnemyModel {
      * Sets laser enemy to jump
      */
     public void jump(){
-        // enemy should be on ground if !getCollisions().isEmpty()
-        if (jumpCooldown < 0 && !getCollisions().isEmpty()) {
+        // enemy should be on ground if it is touching anything
+        if (jumpCooldown < 0 && getCollisionCount() > 0) {
             jumpCooldown = JUMP_COOLDOWN;
             isJumping = true;
         }
@@ -454,7 +453,7 @@ public class LaserEnemyModel extends EnemyModel {
      *                  laser beam intersected with an object of interest.
      */
     public void setBeamIntersect(Vector2 intersect) {
-        beamIntersect = intersect;
+        beamIntersect.set(intersect);
     }
 
     /**
@@ -476,7 +475,7 @@ public class LaserEnemyModel extends EnemyModel {
      *                   laser beam started firing.
      * */
     public void setBeamOrigin(Vector2 origin){
-        beamOrigin = origin;
+        beamOrigin.set(origin);
     }
 
     /**
@@ -490,6 +489,17 @@ public class LaserEnemyModel extends EnemyModel {
         return beamOrigin;
     }
 
+    /**
+     * Returns the direction of this LaserEnemyModel's laser beam,
+     * scaled to reach past the screen. The LaserController
+     * modifies this vector in place.
+     *
+     * @return the direction of this LaserEnemyModel's laser beam.
+     * */
+    public Vector2 getBeamDirection(){
+        return beamDirection;
+    }
+
     /**
      * Resets the attack cycle of this LaserEnemyModel. This can be
      * called in any phase.
@@ -756,4 +766,59 @@ public class LaserEnemyModel extends EnemyModel {
         }
     }
 
+    /**
+     * Writes the gameplay state of this enemy to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    @Override
+    public void saveState(Snapshot state) {
+        super.saveState(state);
+        state.putObject(phase);
+        state.putFloat(cooldownTimer);
+        state.putBoolean(hittingBandit);
+        state.putFloat(age);
+        state.putFloat(firingTimer);
+        state.putInt(gumToStick);
+        state.putInt(gumStuck);
+        state.putBoolean(hasJumped);
+        state.putBoolean(isJumping);
+        state.putInt(jumpCooldown);
+        state.putInt(laserTicks);
+        state.putBoolean(shouldJumpAttack);
+        state.putFloat(beamIntersect.x);
+        state.putFloat(beamIntersect.y);
+        state.putFloat(beamOrigin.x);
+        state.putFloat(beamOrigin.y);
+        state.putFloat(beamDirection.x);
+        state.putFloat(beamDirection.y);
+    }
+
+    /**
+     * Restores the gameplay state of this enemy from the given snapshot.
+     *
+     * @param state the snapshot to read from
+     */
+    @Override
+    public void restoreState(Snapshot state) {
+        super.restoreState(state);
+        phase = state.getObject();
+        cooldownTimer = state.getFloat();
+        hittingBandit = state.getBoolean();
+        age = state.getFloat();
+        firingTimer = state.getFloat();
+        gumToStick = state.getInt();
+        gumStuck = state.getInt();
+        hasJumped = state.getBoolean();
+        isJumping = state.getBoolean();
+        jumpCooldown = state.getInt();
+        laserTicks = state.getInt();
+        shouldJumpAttack = state.getBoolean();
+        beamIntersect.x = state.getFloat();
+        beamIntersect.y = state.getFloat();
+        beamOrigin.x = state.getFloat();
+        beamOrigin.y = state.getFloat();
+        beamDirection.x = state.getFloat();
+        beamDirection.y = state.getFloat();
+    }
 }
@@ -1,7 +1,5 @@
 package edu.cornell.gdiac.bubblegumbandit.models.enemy;
 
-import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Interpolation.SwingOut;
 import com.badlogic.gdx.physics.box2d.World;
@@ -12,6 +10,7 @@ import edu.cornell.gdiac.bubblegumbandit.models.level.CrusherModel;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
 import edu.cornell.gdiac.bubblegumbandit.models.level.gum.GumModel;
+import edu.cornell.gdiac.util.Snapshot;
 
 import java.util.HashSet;
 
@@ -72,7 +71,6 @@ public class RollingEnemyModel extends EnemyModel {
     private float unstickingFraction;
     private float gumTextureHeight;
     private float gumTextureWidth;
-    private float outlineTextureHeight;
     private float stuckGumTextureHeight;
     private TextureRegion stuckGumTexture;
 
@@ -117,9 +115,8 @@ public class RollingEnemyModel extends EnemyModel {
         unstickingRate = 0.005f;
         gumTextureHeight = gumTexture.getRegionHeight();
         gumTextureWidth = gumTexture.getRegionWidth();
-        outlineTextureHeight = outline.getRegionHeight();
 
-        stuckGumTexture = new TextureRegion(directory.getEntry("splatGum", Texture.class));
+        stuckGumTexture = directory.getEntry("splatGum", TextureRegion.class);
 
         stuckGumTextureHeight = stuckGumTexture.getRegionHeight();
     }
@@ -288,28 +285,6 @@ public class RollingEnemyModel extends EnemyModel {
         }
     }
 
-    /**
-     * Draw method for when highlighting the enemy before unsticking them
-     */
-    @Override
-    public void drawWithOutline(GameCanvas canvas) {
-        if (unsticking && gummed) {
-            outline.setRegionHeight((int) ((int) gumTextureHeight*unstickingFraction+5));
-        }
-        if (outline != null && gummedTexture != null) {
-            if (stuck) {
-                float y = getY() * drawScale.y; //-yScale*outline.getRegionHeight()/2;
-                canvas.draw(outline, Color.WHITE, origin.x, origin.y, getX()*drawScale.x-5,
-                    y , getAngle(), 1, yScale);
-            } else {
-                float y = getY() * drawScale.y; //-yScale*squishedGumOutline.getRegionHeight()/2;
-                canvas.draw(squishedGumOutline, Color.WHITE, origin.x, origin.y,
-                    getX()*drawScale.x-5,
-                    y-yScale*squishedGumOutline.getRegionHeight()/2, getAngle(), 1, yScale);
-            }
-        }
-    }
-
     public boolean isUnsticking() {
         return unsticking;
     }
@@ -329,4 +304,38 @@ public class RollingEnemyModel extends EnemyModel {
     public boolean isRolling(){
         return isRolling;
     }
+
+    /**
+     * Writes the gameplay state of this enemy to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    @Override
+    public void saveState(Snapshot state) {
+        super.saveState(state);
+        state.putInt(rollCoolDown);
+        state.putFloat(unstickStopWatch);
+        state.putBoolean(unsticking);
+        state.putBoolean(isRolling);
+        state.putInt(attackDuration);
+        state.putFloat(unstickingRate);
+        state.putFloat(unstickingFraction);
+    }
+
+    /**
+     * Restores the gameplay state of this enemy from the given snapshot.
+     *
+     * @param state the snapshot to read from
+     */
+    @Override
+    public void restoreState(Snapshot state) {
+        super.restoreState(state);
+        rollCoolDown = state.getInt();
+        unstickStopWatch = state.getFloat();
+        unsticking = state.getBoolean();
+        isRolling = state.getBoolean();
+        attackDuration = state.getInt();
+        unstickingRate = state.getFloat();
+        unstickingFraction = state.getFloat();
+    }
 }
@@ -7,6 +7,7 @@ import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.controllers.InputController;
 import edu.cornell.gdiac.bubblegumbandit.controllers.SoundController;
 import edu.cornell.gdiac.bubblegumbandit.models.level.ShockModel;
+import edu.cornell.gdiac.util.Snapshot;
 
 public class ShockEnemyModel extends EnemyModel {
 
@@ -103,4 +104,28 @@ public class ShockEnemyModel extends EnemyModel {
             super.update(dt);
         }
     }
+
+    /**
+     * Writes the gameplay state of this enemy to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    @Override
+    public void saveState(Snapshot state) {
+        super.saveState(state);
+        state.putObject(leftShock);
+        state.putObject(rightShock);
+    }
+
+    /**
+     * Restores the gameplay state of this enemy from the given snapshot.
+     *
+     * @param state the snapshot to read from
+     */
+    @Override
+    public void restoreState(Snapshot state) {
+        super.restoreState(state);
+        leftShock = state.getObject();
+        rightShock = state.getObject();
+    }
 }
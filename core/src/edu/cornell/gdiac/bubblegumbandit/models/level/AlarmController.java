@@ -1,34 +1,36 @@
 package edu.cornell.gdiac.bubblegumbandit.models.level;
 
-import box2dLight.PointLight;
-import box2dLight.RayHandler;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.controllers.SoundController;
+import edu.cornell.gdiac.bubblegumbandit.view.DrawCuller;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCamera;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
+import edu.cornell.gdiac.bubblegumbandit.view.LightManager;
+import edu.cornell.gdiac.bubblegumbandit.view.LightManager.ManagedLight;
+import edu.cornell.gdiac.util.SimClock;
 
 public class AlarmController {
 
   /** Every point light */
-  PointLight[] lights;
-  /** The ray handler for box2dlights */ //will need to be moved if we want other lights
-  RayHandler rays;
+  ManagedLight[] lights;
+  /** The lights of the level */
+  LightManager rays;
   /** The texture for an active alarm */
   TextureRegion onTexture;
   /** The texture for an inactive alarm */
   TextureRegion offTexture;
   /** Whether the alarms are currently going off */
   boolean alarming;
+  /** Whether the alarm lights are currently pulsing (and so recast every frame) */
+  boolean pulsing;
   /** The color of the active alarms */
   Color active = new Color(1, 0, 0, 1f);
   /** The color of the inactive alarms */
@@ -36,6 +38,8 @@ public class AlarmController {
   /** The number of rays used by each box2dlights light */
   int rayCount = 80;
 
+  /** The ambient light amount before the alarms first go off */
+  private final float START_AMBIENT = 0.95f;
   /** The inactive ambient light amount */
   private final float NORMAL_AMBIENT = 0.8f;
   /** The active ambient light amount */
@@ -60,18 +64,20 @@ public class AlarmController {
    * @param locations As integer pairs, the physics x and y positions of each light
    * @param directory The asset directory containing the alarm textures
    * @param world The physics world
+   * @param rays The lights of the level
    */
-  public AlarmController(Array<Vector2> locations, AssetDirectory directory, World world, RayHandler rays) {
+  public AlarmController(Array<Vector2> locations, AssetDirectory directory, World world, LightManager rays) {
     this.rays = rays;
-    rays.setAmbientLight(0.95f);
-    rays.setShadows(true);
-    this.lights = new PointLight[locations.size];
-    this.onTexture = new TextureRegion(directory.getEntry("alarmOn", Texture.class));
-    this.offTexture = new TextureRegion(directory.getEntry("alarmOff", Texture.class));
+    rays.setAmbientLight(START_AMBIENT);
+    this.lights = new ManagedLight[locations.size];
+    this.onTexture = directory.getEntry("alarmOn", TextureRegion.class);
+    this.offTexture = directory.getEntry("alarmOff", TextureRegion.class);
     for(int i = 0; i<locations.size; i++) {
-      lights[i] = new PointLight(rays, rayCount, inactive, INACTIVE_DIST, locations.get(i).x+.5f, locations.get(i).y+.5f);
+      lights[i] = rays.addPointLight(rayCount, inactive, INACTIVE_DIST, locations.get(i).x+.5f, locations.get(i).y+.5f, null);
+      // Alarm lights never move, so they only recast their rays while pulsing
+      lights[i].setStatic(true);
     }
-    timeStamp = TimeUtils.millis();
+    timeStamp = SimClock.millis();
 
   }
 
@@ -91,25 +97,33 @@ public class AlarmController {
    * Draws the alarm textures. Called before drawLights, within the canvas's begin/end block.
    * @param canvas The game canvas
    * @param scale The physics to world scale (should be 64x64 in BGB)
+   * @param culler The culler for the current frame; off-screen alarms are skipped
    */
-  public void drawAlarms(GameCanvas canvas, Vector2 scale) {
-    for(PointLight light : lights) {
-      TextureRegion draw = alarming ? onTexture : offTexture;
+  public void drawAlarms(GameCanvas canvas, Vector2 scale, DrawCuller culler) {
+    TextureRegion draw = alarming ? onTexture : offTexture;
+    for(ManagedLight light : lights) {
+      if (!culler.isVisible(light.getX() * scale.x, light.getY() * scale.y,
+          draw.getRegionWidth() / 2f + canvas.getShadowOffset(), draw.getRegionHeight() / 2f)) {
+        continue;
+      }
       canvas.drawWithShadow(draw, Color.WHITE, draw.getRegionWidth()/2f, draw.getRegionHeight()/2f, (light.getX())*scale.x, (light.getY())*scale.y, 0, 1, 1);
     }
   }
 
   /**
-   * Effect: Updates the box2dlights, oscillates distance if alarming.
+   * Effect: Oscillates the light distance if alarming. The lights themselves are
+   * updated when they are drawn.
    */
   public void update() {
+    boolean pulse = false;
     if(alarming) {
 
-      float time = TimeUtils.timeSinceMillis(timeStamp);
+      float time = SimClock.timeSinceMillis(timeStamp);
       if(time>pulseTime/3f&&time<pulseTime) {
         //SoundController.playSound("lowStressAlarm", 0.5f);
         //SoundController.lastPlayed(-18);
-        for(PointLight light : lights) {
+        pulse = true;
+        for(ManagedLight light : lights) {
           light.setDistance(time<= pulseTime*(2f/3f) ? light.getDistance()+.15f
               : light.getDistance()-.15f);
         }
@@ -117,8 +131,8 @@ public class AlarmController {
       } else if (time>pulseTime) { {
         //SoundController.lastPlayed(0);
         //SoundController.stopSound("lowStressAlarm");
-        timeStamp = TimeUtils.millis();
-        for(PointLight light : lights) {
+        timeStamp = SimClock.millis();
+        for(ManagedLight light : lights) {
           light.setDistance(0);
         }
       }
@@ -127,14 +141,31 @@ public class AlarmController {
 
 
     }
-    rays.update();
+    setPulsing(pulse);
+  }
+
+  /**
+   * Marks the alarm lights as static while they are not pulsing.
+   * @param set whether the lights are pulsing
+   */
+  private void setPulsing(boolean set) {
+    if (pulsing != set) {
+      for(ManagedLight light : lights) {
+        light.setStatic(!set);
+      }
+      pulsing = set;
+    }
   }
 
   /**
-   * Cleanup for when the world is discarded
+   * Disarms the alarm system and returns the lighting to how it was when the
+   * level started.
    */
-  public void dispose() {
-    rays.dispose();
+  public void reset() {
+    setAlarms(false);
+    setPulsing(false);
+    rays.setAmbientLight(START_AMBIENT);
+    timeStamp = SimClock.millis();
   }
 
   /**
@@ -145,15 +176,15 @@ public class AlarmController {
     //change alarm colors
     if(set&&!alarming) {
       rays.setAmbientLight(ALARM_AMBIENT);
-      for(PointLight light : lights) {
+      for(ManagedLight light : lights) {
         light.setColor(active);
         light.setDistance(0);
         light.setSoftnessLength(ACTIVE_DIST);
       }
-      timeStamp = TimeUtils.millis();
+      timeStamp = SimClock.millis();
     } else if (!set&&alarming) {
       rays.setAmbientLight(NORMAL_AMBIENT);
-      for(PointLight light : lights) {
+      for(ManagedLight light : lights) {
         light.setColor(inactive);
         light.setDistance(INACTIVE_DIST);
       }
@@ -54,6 +54,15 @@ public class BackgroundTileModel {
       }
     }
 
+    /**
+     * Returns the texture of this tile (null if there is none).
+     *
+     * @return the texture of this tile
+     */
+    public TextureRegion getTexture() {
+      return tileTexture;
+    }
+
     public boolean hasTile(){
         return tileTexture != null;
     }
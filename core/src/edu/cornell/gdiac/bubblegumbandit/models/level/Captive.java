@@ -7,6 +7,7 @@ import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.view.AnimationController;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
+import edu.cornell.gdiac.util.Snapshot;
 
 /** A class representing the NPCS which may be freed during larger levels, mostly support for animations */
 public class Captive extends Collectible {
@@ -55,5 +56,31 @@ public class Captive extends Collectible {
     }
   }
 
+  /**
+   * Writes the gameplay state of this captive to the given snapshot.
+   *
+   * @param state the snapshot to write to
+   */
+  @Override
+  public void saveState(Snapshot state) {
+    super.saveState(state);
+    state.putBoolean(freed);
+    state.putFloat(ys);
+    state.putObject(drawn);
+    animationController.saveState(state);
+  }
 
+  /**
+   * Restores the gameplay state of this captive from the given snapshot.
+   *
+   * @param state the snapshot to read from
+   */
+  @Override
+  public void restoreState(Snapshot state) {
+    super.restoreState(state);
+    freed = state.getBoolean();
+    ys = state.getFloat();
+    drawn = state.getObject();
+    animationController.restoreState(state);
+  }
 }
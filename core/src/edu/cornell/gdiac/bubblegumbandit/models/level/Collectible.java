@@ -1,7 +1,6 @@
 package edu.cornell.gdiac.bubblegumbandit.models.level;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
@@ -9,6 +8,8 @@ import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.WheelObstacle;
+import edu.cornell.gdiac.util.RandomController;
+import edu.cornell.gdiac.util.Snapshot;
 
 import java.lang.reflect.Field;
 
@@ -35,7 +36,7 @@ public class Collectible extends WheelObstacle {
         setSensor(true);
         collected = false;
         // Start at random time so gum doesn't always bob together
-        counter = (float) (Math.random() * Math.PI * 2);
+        counter = RandomController.rollFloat(0, (float) (Math.PI * 2));
     }
 
     public Collectible() {
@@ -43,7 +44,7 @@ public class Collectible extends WheelObstacle {
         setSensor(true);
         collected = false;
         // Start at random time so gum doesn't always bob together
-        counter = (float) (Math.random() * Math.PI * 2);
+        counter = RandomController.rollFloat(0, (float) (Math.PI * 2));
     }
     public void setCollected(boolean bool) {
         collected = bool;
@@ -87,7 +88,7 @@ public class Collectible extends WheelObstacle {
         setDebugColor(debugColor);
 
         String key = json.get("texture").asString();
-        TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
+        TextureRegion texture = directory.getEntry(key, TextureRegion.class);
         setTexture(texture);
         setRadius(texture.getRegionWidth() / (2.0f * scale.x));
         setDrawScale(scale);
@@ -115,4 +116,27 @@ public class Collectible extends WheelObstacle {
         }
     }
 
+    /**
+     * Writes the gameplay state of this collectible to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    @Override
+    public void saveState(Snapshot state) {
+        super.saveState(state);
+        state.putBoolean(collected);
+        state.putFloat(counter);
+    }
+
+    /**
+     * Restores the gameplay state of this collectible from the given snapshot.
+     *
+     * @param state the snapshot to read from
+     */
+    @Override
+    public void restoreState(Snapshot state) {
+        super.restoreState(state);
+        collected = state.getBoolean();
+        counter = state.getFloat();
+    }
 }
@@ -0,0 +1,382 @@
+package edu.cornell.gdiac.bubblegumbandit.models.level;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.bubblegumbandit.helpers.TiledParser;
+import edu.cornell.gdiac.bubblegumbandit.helpers.TiledParser.TileRect;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * The tile layers of a level, compiled ahead of time by the compileLevels build task.
+ * <p>
+ * Parsing a level JSON turns every tile of every layer into a JSON node before it
+ * reaches an int array, and the wall rectangles and tile corners are then derived from
+ * the terrain on every load. The build compiles the tile layers into a binary file
+ * along with those rectangles and corners, which is mapped into memory and read in
+ * place. The objects and properties of the level are still read from its JSON, which
+ * remains the authoring format. The header records the length and CRC-32 of the JSON
+ * the file was compiled from, so a level without a compiled file, or whose JSON was
+ * edited since it was compiled, is loaded from the JSON alone.
+ * <p>
+ * The build writes these files with {@link #compile}, through {@link LevelCompiler},
+ * so the rectangles and corners come from the same code that derives them at runtime.
+ */
+public class CompiledLevel {
+    /** The first int of every compiled level ("BGLV") */
+    private static final int MAGIC = 0x42474C56;
+    /** The version of the format this class reads */
+    private static final int VERSION = 2;
+    /** The number of bytes in the header */
+    private static final int HEADER_SIZE = 7 * 4;
+
+    /** The corner flag of a tile with an open top right corner */
+    public static final int TOP_RIGHT = 1;
+    /** The corner flag of a tile with an open top left corner */
+    public static final int TOP_LEFT = 2;
+    /** The corner flag of a tile with an open bottom left corner */
+    public static final int BOTTOM_LEFT = 4;
+    /** The corner flag of a tile with an open bottom right corner */
+    public static final int BOTTOM_RIGHT = 8;
+
+    /** The tile layers that are compiled, in the order of their ids */
+    public enum TileLayer {
+        TERRAIN("Terrain"),
+        SUPPORTS("Supports"),
+        BACKGROUND("Background"),
+        BOARD_GRAVITY_DOWN("BoardGravityDown"),
+        BOARD_GRAVITY_UP("BoardGravityUp");
+
+        /** The name of the layer in Tiled */
+        private final String layerName;
+
+        TileLayer(String layerName) {
+            this.layerName = layerName;
+        }
+
+        /**
+         * Returns the layer with the given Tiled name, or null if it is not compiled.
+         *
+         * @param name  the name of the layer in Tiled
+         *
+         * @return the layer with the given Tiled name, or null if it is not compiled.
+         */
+        public static TileLayer forName(String name) {
+            for (TileLayer layer : values()) {
+                if (layer.layerName.equals(name)) {
+                    return layer;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** The contents of the compiled file */
+    private final ByteBuffer buffer;
+    /** The length of the JSON the level was compiled from */
+    private final int sourceLength;
+    /** The CRC-32 of the JSON the level was compiled from */
+    private final int sourceChecksum;
+    /** The width of the level, in tiles */
+    private final int width;
+    /** The height of the level, in tiles */
+    private final int height;
+    /** The offset of the tiles of each layer, or -1 if the level does not have it */
+    private final int[] layerOffsets = new int[TileLayer.values().length];
+    /** The bytes per tile of each layer (2 or 4) */
+    private final int[] layerSizes = new int[TileLayer.values().length];
+    /** The offset of the merged wall rectangles */
+    private final int rectOffset;
+    /** The offset of the tile corners */
+    private final int cornerOffset;
+
+    /**
+     * Loads the compiled version of the given level, if there is one.
+     *
+     * @param key     the asset key of the level (e.g. "level1")
+     * @param source  the contents of the level JSON, which the compiled file must match
+     *
+     * @return the compiled level, or null if it should be loaded from its JSON
+     */
+    public static CompiledLevel load(String key, byte[] source) {
+        FileHandle handle = Gdx.files.internal("levels/" + key + ".lvl");
+        if (!handle.exists()) {
+            return null;
+        }
+        try {
+            CompiledLevel level = new CompiledLevel(map(handle));
+            CRC32 checksum = new CRC32();
+            checksum.update(source, 0, source.length);
+            if (level.sourceLength != source.length || level.sourceChecksum != (int) checksum.getValue()) {
+                Gdx.app.error("CompiledLevel", key + " does not match its JSON, recompile the levels");
+                return null;
+            }
+            return level;
+        } catch (IOException | RuntimeException e) {
+            Gdx.app.error("CompiledLevel", "Could not load " + handle.path(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Compiles the tile layers of a level JSON.
+     *
+     * @param source  the contents of the level JSON
+     * @param out     the stream to write the compiled level to
+     */
+    public static void compile(byte[] source, DataOutputStream out) throws IOException {
+        JsonValue level = new JsonReader().parse(new String(source, "UTF-8"));
+        int width = level.getInt("width");
+        int height = level.getInt("height");
+        int[][] layers = new int[TileLayer.values().length][];
+        int layerCount = 0;
+        for (JsonValue layer = level.get("layers").child(); layer != null; layer = layer.next()) {
+            TileLayer id = TileLayer.forName(layer.getString("name", ""));
+            JsonValue data = layer.get("data");
+            if (id == null || data == null) {
+                continue;
+            }
+            if (layer.getInt("width") != width || layer.getInt("height") != height || data.size != width * height) {
+                throw new IllegalArgumentException("Layer " + id.layerName + " does not match the level size");
+            }
+            if (layers[id.ordinal()] == null) {
+                layerCount++;
+            }
+            layers[id.ordinal()] = data.asIntArray();
+        }
+        int[] terrain = layers[TileLayer.TERRAIN.ordinal()];
+        if (terrain == null) {
+            throw new IllegalArgumentException("Missing Terrain layer");
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(source, 0, source.length);
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(source.length);
+        out.writeInt((int) checksum.getValue());
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(layerCount);
+        for (int id = 0; id < layers.length; id++) {
+            int[] tiles = layers[id];
+            if (tiles == null) {
+                continue;
+            }
+            // Tiles are packed as shorts unless a flipped or large id needs all 32 bits
+            boolean packed = true;
+            for (int tile : tiles) {
+                packed = packed && tile >= 0 && tile <= Short.MAX_VALUE;
+            }
+            out.writeByte(id);
+            out.writeByte(packed ? 2 : 4);
+            for (int tile : tiles) {
+                if (packed) {
+                    out.writeShort(tile);
+                } else {
+                    out.writeInt(tile);
+                }
+            }
+        }
+        Array<TileRect> rects = new TiledParser().mergeTiles(width, height, terrain);
+        out.writeInt(rects.size);
+        for (TileRect rect : rects) {
+            out.writeShort(rect.startX);
+            out.writeShort(rect.startY);
+            out.writeShort(rect.endX);
+            out.writeShort(rect.endY);
+        }
+        for (int i = 0; i < terrain.length; i++) {
+            out.writeByte(terrain[i] != 0 ? findCorners(terrain, width, height, i) : 0);
+        }
+    }
+
+    /**
+     * Returns the open corners of a terrain tile, as corner flags.
+     *
+     * A corner is open when neither tile next to it on that side is terrain.
+     *
+     * @param terrain   the terrain tiles, in Tiled order (top row first)
+     * @param width     the width of the level, in tiles
+     * @param height    the height of the level, in tiles
+     * @param index     the index of the tile
+     *
+     * @return the open corners of the tile
+     */
+    public static int findCorners(int[] terrain, int width, int height, int index) {
+        int x = index % width;
+        int row = index / width;
+        boolean top = isTerrain(terrain, width, height, x, row - 1);
+        boolean bottom = isTerrain(terrain, width, height, x, row + 1);
+        boolean left = isTerrain(terrain, width, height, x - 1, row);
+        boolean right = isTerrain(terrain, width, height, x + 1, row);
+        int flags = 0;
+        if (!top && !right) flags |= TOP_RIGHT;
+        if (!top && !left) flags |= TOP_LEFT;
+        if (!bottom && !left) flags |= BOTTOM_LEFT;
+        if (!bottom && !right) flags |= BOTTOM_RIGHT;
+        return flags;
+    }
+
+    /** Returns true if the given tile is in the level and is terrain (row 0 is the top) */
+    private static boolean isTerrain(int[] terrain, int width, int height, int x, int row) {
+        return x >= 0 && x < width && row >= 0 && row < height && terrain[row * width + x] != 0;
+    }
+
+    /**
+     * Returns the contents of the given file, mapped into memory if it is on disk.
+     *
+     * Files packed in a jar cannot be mapped, so they are read into memory instead.
+     */
+    private static ByteBuffer map(FileHandle handle) throws IOException {
+        File file = handle.file();
+        if (!file.isFile()) {
+            return ByteBuffer.wrap(handle.readBytes());
+        }
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Reads the layout of a compiled level.
+     *
+     * @param buffer the contents of the compiled file
+     */
+    private CompiledLevel(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a compiled level");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported compiled level version " + buffer.getInt(4));
+        }
+        sourceLength = buffer.getInt(8);
+        sourceChecksum = buffer.getInt(12);
+        width = buffer.getInt(16);
+        height = buffer.getInt(20);
+        int layerCount = buffer.getInt(24);
+
+        for (int i = 0; i < layerOffsets.length; i++) {
+            layerOffsets[i] = -1;
+        }
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < layerCount; i++) {
+            int id = buffer.get(offset);
+            int size = buffer.get(offset + 1);
+            if (id < 0 || id >= layerOffsets.length || (size != 2 && size != 4)) {
+                throw new IllegalArgumentException("Invalid layer " + id + " with " + size + " bytes per tile");
+            }
+            layerOffsets[id] = offset + 2;
+            layerSizes[id] = size;
+            offset += 2 + size * width * height;
+        }
+        rectOffset = offset;
+        cornerOffset = rectOffset + 4 + buffer.getInt(rectOffset) * 4 * 2;
+        if (cornerOffset + width * height != buffer.limit()) {
+            throw new IllegalArgumentException("Compiled level has the wrong size");
+        }
+    }
+
+    /**
+     * Returns the width of the level, in tiles.
+     *
+     * @return the width of the level, in tiles.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the level, in tiles.
+     *
+     * @return the height of the level, in tiles.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns true if the level has the given layer.
+     *
+     * @param layer the layer to check
+     *
+     * @return true if the level has the given layer.
+     */
+    public boolean hasLayer(TileLayer layer) {
+        return layerOffsets[layer.ordinal()] != -1;
+    }
+
+    /**
+     * Returns the tile ids of the given layer, in Tiled order (top row first).
+     *
+     * @param layer the layer to read
+     *
+     * @return the tile ids of the given layer, or null if the level does not have it.
+     */
+    public int[] getLayer(TileLayer layer) {
+        int offset = layerOffsets[layer.ordinal()];
+        if (offset == -1) {
+            return null;
+        }
+        int[] tiles = new int[width * height];
+        if (layerSizes[layer.ordinal()] == 2) {
+            for (int i = 0; i < tiles.length; i++) {
+                tiles[i] = buffer.getShort(offset + i * 2);
+            }
+        } else {
+            for (int i = 0; i < tiles.length; i++) {
+                tiles[i] = buffer.getInt(offset + i * 4);
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Returns the terrain merged into wall rectangles, as by {@link TiledParser#mergeTiles}.
+     *
+     * These are exactly the rectangles mergeTiles returned when the level was compiled.
+     * In particular, mergeTiles always adds its last rectangle, so a level without any
+     * terrain has a single rectangle with every coordinate -1, just as it does when the
+     * level is loaded from its JSON alone.
+     *
+     * @return the terrain merged into wall rectangles.
+     */
+    public Array<TileRect> getRects() {
+        int count = buffer.getInt(rectOffset);
+        Array<TileRect> rects = new Array<>(count);
+        int offset = rectOffset + 4;
+        for (int i = 0; i < count; i++) {
+            rects.add(new TileRect(buffer.getShort(offset), buffer.getShort(offset + 2),
+                    buffer.getShort(offset + 4), buffer.getShort(offset + 6)));
+            offset += 8;
+        }
+        return rects;
+    }
+
+    /**
+     * Returns the open corners of the given terrain tile, as corner flags.
+     *
+     * @param index the index of the tile, in Tiled order (top row first)
+     *
+     * @return the open corners of the given terrain tile.
+     */
+    public int getCorners(int index) {
+        return buffer.get(cornerOffset + index);
+    }
+}
@@ -1,7 +1,6 @@
 package edu.cornell.gdiac.bubblegumbandit.models.level;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.BodyDef;
@@ -12,7 +11,6 @@ import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.JsonValue;
-import com.badlogic.gdx.utils.ObjectSet;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController;
 import edu.cornell.gdiac.bubblegumbandit.helpers.Gummable;
@@ -23,6 +21,7 @@ import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
 import edu.cornell.gdiac.physics.obstacle.CapsuleObstacle;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.Snapshot;
 import java.lang.reflect.Field;
 
 /**
@@ -37,8 +36,6 @@ public class CrusherModel extends CapsuleObstacle implements Gummable{
 
     private TextureRegion gummedTexture;
 
-    private TextureRegion outlineTexture;
-
     /** Bottom sensor to detect bottom crushes */
     private Fixture bottomSensorFixture;
     private PolygonShape bottomSensorShape;
@@ -86,7 +83,6 @@ public class CrusherModel extends CapsuleObstacle implements Gummable{
      */
     public CrusherModel() {
         super(0,0,4,2);
-        collidedObs = new ObjectSet<>();
         maxAbsFallVel = 0;
     }
 
@@ -134,19 +130,15 @@ public class CrusherModel extends CapsuleObstacle implements Gummable{
         debugColor.mul(opacity/255.0f);
         setDebugColor(debugColor);
         String key = constants.get("texture").asString();
-        TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
+        TextureRegion texture = directory.getEntry(key, TextureRegion.class);
         setTexture(texture);
         setDrawScale(scale);
         flippingObject = new FlippingObject(constants.getFloat("rotaterate"));
 
         key = constants.get("gummedtexture").asString();
-        texture = new TextureRegion(directory.getEntry(key, Texture.class));
+        texture = directory.getEntry(key, TextureRegion.class);
         gummedTexture = texture;
 
-        key = constants.get("outlinetexture").asString();
-        texture = new TextureRegion(directory.getEntry(key, Texture.class));
-        outlineTexture = texture;
-
         // Initialize the sensors used to detect when things are being crushed.
         // Get the sensor information
         Vector2 sensorCenter = new Vector2(0, -getHeight() / 2);
@@ -251,9 +243,35 @@ public class CrusherModel extends CapsuleObstacle implements Gummable{
     public void drawWithOutline(GameCanvas canvas) {
         canvas.drawWithShadow(texture, Color.WHITE, origin.x, origin.y, getX() * drawScale.x,
             getY() * drawScale.y, getAngle(), 1, flippingObject.getScale());
-        canvas.draw(outlineTexture, Color.WHITE, 0f, 0f,
-            getX() * drawScale.x -5 -gummedTexture.getRegionWidth() / 2f,
-            getY() * drawScale.y - (texture.getRegionHeight()*(3/4f)+5) * flippingObject.getScale(),
+        canvas.drawOutlined(gummedTexture, Color.WHITE, 0f, 0f,
+            getX() * drawScale.x - gummedTexture.getRegionWidth() / 2f,
+            getY() * drawScale.y - texture.getRegionHeight() * (3/4f) * flippingObject.getScale(),
             getAngle(), 1, flippingObject.getScale());
     }
+
+    /**
+     * Writes the gameplay state of this crusher to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    @Override
+    public void saveState(Snapshot state) {
+        super.saveState(state);
+        state.putFloat(maxAbsFallVel);
+        state.putBoolean(didSmash);
+        state.putFloat(flippingObject.getScale());
+    }
+
+    /**
+     * Restores the gameplay state of this crusher from the given snapshot.
+     *
+     * @param state the snapshot to read from
+     */
+    @Override
+    public void restoreState(Snapshot state) {
+        super.restoreState(state);
+        maxAbsFallVel = state.getFloat();
+        didSmash = state.getBoolean();
+        flippingObject.setScale(state.getFloat());
+    }
 }
@@ -4,7 +4,6 @@ import static edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController.
 
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.BodyDef;
@@ -25,6 +24,7 @@ import edu.cornell.gdiac.bubblegumbandit.models.enemy.EnemyModel;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCamera;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.Snapshot;
 import java.lang.reflect.Field;
 import java.util.HashMap;
 
@@ -131,9 +131,6 @@ public class DoorModel extends TileModel implements Gummable {
     /** The texture for a gummed door. */
     private TextureRegion gummedTexture;
 
-    /** The texture for the outline of the door */
-    private TextureRegion outlineTexture;
-
     /** The ids of the enemies required to unlock the door */
     private ObjectSet<Integer> enemyIds;
 
@@ -177,7 +174,6 @@ public class DoorModel extends TileModel implements Gummable {
         playerInRange = false;
         obsInRange = new ObjectSet<>();
         enemyIds = new ObjectSet<>();
-        collidedObs = new ObjectSet<>();
         openFraction = 0;
 
         locksOnOrb = false;
@@ -235,23 +231,19 @@ public class DoorModel extends TileModel implements Gummable {
         setDebugColor(debugColor);
 
         String key = constants.get("texture").asString();
-        TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
+        TextureRegion texture = directory.getEntry(key, TextureRegion.class);
         setTexture(texture);
         textureHeight = texture.getRegionHeight();
         textureWidth = texture.getRegionWidth();
 
         key = constants.get("lockedTexture").asString();
-        texture = new TextureRegion(directory.getEntry(key, Texture.class));
+        texture = directory.getEntry(key, TextureRegion.class);
         lockedTexture = texture;
 
         key = constants.get("gummedTexture").asString();
-        texture = new TextureRegion(directory.getEntry(key, Texture.class));
+        texture = directory.getEntry(key, TextureRegion.class);
         gummedTexture = texture;
 
-        key = constants.get("outlineTexture").asString();
-        texture = new TextureRegion(directory.getEntry(key, Texture.class));
-        outlineTexture = texture;
-
         // Initialize the sensors used to detect when things are being crushed.
         // Get the sensor information
         Vector2 sensorCenter = new Vector2(0, 0);
@@ -574,8 +566,44 @@ public class DoorModel extends TileModel implements Gummable {
                         getX()*drawScale.x, getY()*drawScale.y - halfHeight, getAngle(), 1, 1);
             }
         }
-        canvas.draw(outlineTexture, Color.WHITE, 0f, 0f,
-            getX()*drawScale.x-5-gummedTexture.getRegionWidth()/2,
-            getY()*drawScale.y-5-gummedTexture.getRegionHeight()/2, getAngle(), 1, 1);
+        canvas.drawOutlined(gummedTexture, Color.WHITE, 0f, .5f,
+            getX()*drawScale.x-gummedTexture.getRegionWidth()/2f,
+            getY()*drawScale.y-gummedTexture.getRegionHeight()/2f, getAngle(), 1, 1);
+    }
+
+    /**
+     * Writes the gameplay state of this door to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    @Override
+    public void saveState(Snapshot state) {
+        super.saveState(state);
+        state.putBoolean(isOpen);
+        state.putBoolean(playerPassed);
+        state.putBoolean(playerInRange);
+        state.putBoolean(isLocked);
+        state.putFloat(openFraction);
+        state.putBoolean(postOrb);
+    }
+
+    /**
+     * Restores the gameplay state of this door from the given snapshot.
+     *
+     * The obstacles in range are forgotten, as the sensor contacts are rebuilt
+     * on the next physics step.
+     *
+     * @param state the snapshot to read from
+     */
+    @Override
+    public void restoreState(Snapshot state) {
+        super.restoreState(state);
+        isOpen = state.getBoolean();
+        playerPassed = state.getBoolean();
+        playerInRange = state.getBoolean();
+        isLocked = state.getBoolean();
+        openFraction = state.getFloat();
+        postOrb = state.getBoolean();
+        obsInRange.clear();
     }
 }
@@ -22,6 +22,7 @@ import java.lang.reflect.*;
 
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.physics.obstacle.*;
+import edu.cornell.gdiac.util.Snapshot;
 
 /**
  * A sensor obstacle representing the end of the level
@@ -125,11 +126,11 @@ public class ExitModel extends BoxObstacle {
 
     // Now get the texture from the AssetManager singleton
     String key = constants.get("frame").asString();
-    frame = new TextureRegion(directory.getEntry(key, Texture.class));
+    frame = directory.getEntry(key, TextureRegion.class);
     setTexture(frame);
 
     key = constants.get("back").asString();
-    back = new TextureRegion(directory.getEntry(key, Texture.class));
+    back = directory.getEntry(key, TextureRegion.class);
 
     key = constants.get("left").asString();
     left = directory.getEntry(key, Texture.class);
@@ -178,6 +179,38 @@ public class ExitModel extends BoxObstacle {
   }
 
 
+  /**
+   * Slides the doors while they are opening or closing.
+   *
+   * This is done here rather than in draw, so that the doors keep moving
+   * while the exit is off screen (and not drawn).
+   *
+   * @param dt Number of seconds since last animation frame
+   */
+  @Override
+  public void update(float dt) {
+    super.update(dt);
+    if (!transitioning) {
+      return;
+    }
+    int dir = open ? -1 : 1;
+    lx = lx - dir * speed;
+    lw = (lw + dir * speed);
+
+    if (lw >= left.getWidth() - startSize || lw <= startSize) {
+      transitioning = false;
+    }
+
+    leftCurr.setRegion(lx, 0, lw, left.getHeight());
+
+    rw = (rw + dir * speed);
+    if (rw >= right.getWidth() - startSize || rw <= startSize) {
+      transitioning = false;
+    }
+
+    rightCurr.setRegion(0, 0, rw, right.getHeight());
+  }
+
   @Override
   public void draw(GameCanvas canvas) {
     canvas.draw(back, Color.WHITE, origin.x, origin.y, getX() * drawScale.x, getY() * drawScale.x,
@@ -189,23 +222,6 @@ public class ExitModel extends BoxObstacle {
           getX() * drawScale.x + frame.getRegionWidth() - right.getWidth() - closedMargin,
           getY() * drawScale.x, getAngle(), 1, 1);
     } else if (transitioning) {
-      int dir = open ? -1 : 1;
-      lx = lx - dir * speed;
-      lw = (lw + dir * speed);
-
-      if (lw >= left.getWidth() - startSize || lw <= startSize) {
-        transitioning = false;
-      }
-
-      leftCurr.setRegion(lx, 0, lw, left.getHeight());
-
-      rw = (rw + dir * speed);
-      if (rw >= right.getWidth() - startSize || rw <= startSize) {
-        transitioning = false;
-      }
-
-      rightCurr.setRegion(0, 0, rw, right.getHeight());
-
       canvas.draw(leftCurr, Color.WHITE, origin.x, origin.y,
           getX() * drawScale.x + closedMargin,
           getY() * drawScale.x, getAngle(), 1, 1);
@@ -220,4 +236,44 @@ public class ExitModel extends BoxObstacle {
 
 
   }
+
+  /**
+   * Writes the gameplay state of this exit to the given snapshot.
+   *
+   * @param state the snapshot to write to
+   */
+  @Override
+  public void saveState(Snapshot state) {
+    super.saveState(state);
+    state.putBoolean(open);
+    state.putBoolean(transitioning);
+    state.putInt(lx);
+    state.putInt(lw);
+    state.putInt(rw);
+    state.putInt(leftCurr.getRegionX());
+    state.putInt(leftCurr.getRegionWidth());
+    state.putInt(rightCurr.getRegionX());
+    state.putInt(rightCurr.getRegionWidth());
+  }
+
+  /**
+   * Restores the gameplay state of this exit from the given snapshot.
+   *
+   * @param state the snapshot to read from
+   */
+  @Override
+  public void restoreState(Snapshot state) {
+    super.restoreState(state);
+    open = state.getBoolean();
+    transitioning = state.getBoolean();
+    lx = state.getInt();
+    lw = state.getInt();
+    rw = state.getInt();
+    int x = state.getInt();
+    int w = state.getInt();
+    leftCurr.setRegion(x, 0, w, left.getHeight());
+    x = state.getInt();
+    w = state.getInt();
+    rightCurr.setRegion(x, 0, w, right.getHeight());
+  }
 }
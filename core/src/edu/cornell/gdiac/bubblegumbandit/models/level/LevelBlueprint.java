@@ -0,0 +1,316 @@
+package edu.cornell.gdiac.bubblegumbandit.models.level;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.bubblegumbandit.controllers.ai.graph.TiledGraph;
+import edu.cornell.gdiac.bubblegumbandit.helpers.TiledParser;
+import edu.cornell.gdiac.bubblegumbandit.helpers.TiledParser.TileRect;
+import edu.cornell.gdiac.bubblegumbandit.models.level.CompiledLevel.TileLayer;
+import edu.cornell.gdiac.bubblegumbandit.view.Background;
+
+import java.io.ByteArrayInputStream;
+import java.util.BitSet;
+
+/**
+ * Everything about a level that can be built without the physics world or OpenGL.
+ * <p>
+ * Loading a level used to parse its layers, build its navigation graphs, merge its
+ * terrain and find the corners of its tiles on the render thread, between a click in
+ * the level select and the first frame of the level. A blueprint does all of that, so
+ * it can be built on a worker thread (see {@link LevelPrebuilder}) while the player is
+ * still choosing a level. {@link LevelModel#populate} then only creates the physics
+ * bodies and textures of the level.
+ * <p>
+ * A blueprint is never modified once it is built, so it is kept for every later load
+ * of its level. The only exception is the navigation graphs, whose nodes are disabled
+ * during play; populate enables them all again. The arrays returned by the getters
+ * belong to the blueprint and must not be modified.
+ */
+public final class LevelBlueprint {
+    /** The asset key of the level (e.g. "level1") */
+    private final String key;
+    /** The JSON of the level, which still defines its objects and tilesets */
+    private final JsonValue levelFormat;
+    /** The width of the level, in tiles */
+    private final int width;
+    /** The height of the level, in tiles */
+    private final int height;
+    /** The gravity of the level */
+    private final float gravity;
+    /** The escape timer of the level */
+    private final float timer;
+    /** The captives of the level, from its properties */
+    private final int captiveCount;
+    /** The random seed of the level */
+    private final long seed;
+    /** The objects of the level */
+    private final JsonValue objects;
+    /** The objects that appear once the orb is collected */
+    private final JsonValue postOrb;
+    /** The terrain tiles, in Tiled order (top row first) */
+    private final int[] terrain;
+    /** The support tiles, or null if the level has none */
+    private final int[] supports;
+    /** The background tiles, or null if the level has none */
+    private final int[] background;
+    /** The open corners of each terrain tile, as {@link CompiledLevel} corner flags */
+    private final byte[] corners;
+    /** The terrain merged into wall rectangles */
+    private final Array<TileRect> rects;
+    /** The navigation graph for enemies with gravity up */
+    private final TiledGraph graphGravityUp;
+    /** The navigation graph for enemies with gravity down */
+    private final TiledGraph graphGravityDown;
+    /** The terrain tiles shown on the minimap, indexed by y * width + x (y up) */
+    private final BitSet floors;
+    /** The ship polygon of the background, or null if the level has none */
+    private final Background.Hull hull;
+
+    /**
+     * Builds the blueprint of a level.
+     * <p>
+     * This does not touch the physics world, OpenGL or any shared state, so it may run
+     * on any thread. The tile layers are read from the compiled level if there is one.
+     *
+     * @param key         the asset key of the level (e.g. "level1")
+     * @param source      the contents of the level JSON
+     * @param scale       the physics scale of the level
+     */
+    public LevelBlueprint(String key, byte[] source, Vector2 scale) {
+        this.key = key;
+        JsonValue levelFormat = new JsonReader().parse(new ByteArrayInputStream(source));
+        this.levelFormat = levelFormat;
+
+        JsonValue boardGravityDownLayer = null;
+        JsonValue boardGravityUpLayer = null;
+        JsonValue terrainLayer = null;
+        JsonValue objects = null;
+        JsonValue supportsLayer = null;
+        JsonValue backgroundLayer = null;
+        JsonValue postOrb = null;
+        JsonValue layer = levelFormat.get("layers").child();
+        while (layer != null) {
+            String layerName = layer.getString("name");
+            switch (layerName) {
+                case "BoardGravityDown":
+                    boardGravityDownLayer = layer;
+                    break;
+                case "BoardGravityUp":
+                    boardGravityUpLayer = layer;
+                    break;
+                case "Terrain":
+                    terrainLayer = layer;
+                    break;
+                case "Objects":
+                    objects = layer.get("Objects");
+                    break;
+                case "Supports":
+                    supportsLayer = layer;
+                    break;
+                case "Background":
+                    backgroundLayer = layer;
+                    break;
+                case "PostOrb":
+                    postOrb = layer.get("Objects");
+                    break;
+                case "Corners":
+                    //for creating the background
+                    break;
+                default:
+                    throw new RuntimeException("Invalid layer name. Valid names: BoardGravityDown, BoardGravityUp, Terrain, Supports, Background, Corners, and Objects.");
+            }
+            layer = layer.next();
+        }
+
+        if (boardGravityDownLayer == null || boardGravityUpLayer == null || terrainLayer == null || objects == null) {
+            throw new RuntimeException("Missing layer data. Should have: BoardGravityDown, BoardGravityUp, Terrain, PostOrb, and Objects.");
+        }
+        if (postOrb == null) {
+            throw new RuntimeException("Missing PostOrb layer.");
+        }
+        this.objects = objects;
+        this.postOrb = postOrb;
+
+        if (levelFormat.get("properties") == null) {
+            throw new RuntimeException("Set the level properties [gravity] and [timer] in "
+                    + "Map -> Map Properties.");
+        }
+        float gravity = 0;
+        float timer = 0;
+        int captiveCount = 0;
+        long seed = 0;
+        JsonValue property = levelFormat.get("properties").child();
+        while (property != null) {
+            String propName = property.get("name").asString();
+            if (propName.equals("gravity")) {
+                gravity = property.getFloat("value");
+            }
+            if (propName.equals("timer")) {
+                timer = property.getFloat("value");
+            }
+            if (propName.equals("captives")) {
+                captiveCount = property.getInt("value");
+            }
+            if (propName.equals("seed")) {
+                seed = property.getLong("value");
+            }
+            property = property.next();
+        }
+        this.gravity = gravity;
+        this.timer = timer;
+        this.captiveCount = captiveCount;
+        this.seed = seed;
+
+        width = levelFormat.getInt("width");
+        height = levelFormat.getInt("height");
+        CompiledLevel compiled = CompiledLevel.load(key, source);
+
+        terrain = layerData(compiled, TileLayer.TERRAIN, terrainLayer);
+        supports = supportsLayer == null ? null : layerData(compiled, TileLayer.SUPPORTS, supportsLayer);
+        background = backgroundLayer == null ? null : layerData(compiled, TileLayer.BACKGROUND, backgroundLayer);
+
+        int boardIdOffset = TiledParser.getBoardIdOffset(levelFormat);
+        Vector2 graphScale = new Vector2(scale);
+        graphGravityUp = new TiledGraph(layerData(compiled, TileLayer.BOARD_GRAVITY_UP, boardGravityUpLayer),
+                width, height, boardIdOffset, graphScale, 3f / 8);
+        graphGravityDown = new TiledGraph(layerData(compiled, TileLayer.BOARD_GRAVITY_DOWN, boardGravityDownLayer),
+                width, height, boardIdOffset, graphScale, 2f / 8);
+
+        if (compiled != null) {
+            rects = compiled.getRects();
+        } else {
+            rects = new TiledParser().mergeTiles(width, height, terrain);
+        }
+
+        corners = new byte[terrain.length];
+        floors = new BitSet(width * height);
+        for (int i = 0; i < terrain.length; i++) {
+            if (terrain[i] != 0) {
+                corners[i] = (byte) (compiled != null ? compiled.getCorners(i)
+                        : CompiledLevel.findCorners(terrain, width, height, i));
+                floors.set((height - (i / width) - 1) * width + (i % width));
+            }
+        }
+
+        hull = Background.Hull.compute(levelFormat, width, height);
+    }
+
+    /**
+     * Returns the tiles of the given layer, from the compiled level if there is one.
+     *
+     * @param compiled  the compiled level, or null
+     * @param layer     the layer to read
+     * @param json      the JSON of the layer
+     *
+     * @return the tile ids of the layer, in Tiled order (top row first)
+     */
+    private static int[] layerData(CompiledLevel compiled, TileLayer layer, JsonValue json) {
+        if (compiled != null && compiled.hasLayer(layer)) {
+            return compiled.getLayer(layer);
+        }
+        return json.get("data").asIntArray();
+    }
+
+    /** Returns the asset key of the level */
+    public String getKey() {
+        return key;
+    }
+
+    /** Returns the JSON of the level */
+    public JsonValue getLevelFormat() {
+        return levelFormat;
+    }
+
+    /** Returns the width of the level, in tiles */
+    public int getWidth() {
+        return width;
+    }
+
+    /** Returns the height of the level, in tiles */
+    public int getHeight() {
+        return height;
+    }
+
+    /** Returns the gravity of the level */
+    public float getGravity() {
+        return gravity;
+    }
+
+    /** Returns the escape timer of the level */
+    public float getTimer() {
+        return timer;
+    }
+
+    /** Returns the captives of the level, from its properties */
+    public int getCaptiveCount() {
+        return captiveCount;
+    }
+
+    /** Returns the random seed of the level */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the objects of the level */
+    public JsonValue getObjects() {
+        return objects;
+    }
+
+    /** Returns the objects that appear once the orb is collected */
+    public JsonValue getPostOrb() {
+        return postOrb;
+    }
+
+    /** Returns the terrain tiles, in Tiled order (top row first) */
+    public int[] getTerrain() {
+        return terrain;
+    }
+
+    /** Returns the support tiles, or null if the level has none */
+    public int[] getSupports() {
+        return supports;
+    }
+
+    /** Returns the background tiles, or null if the level has none */
+    public int[] getBackground() {
+        return background;
+    }
+
+    /**
+     * Returns the open corners of a terrain tile, as {@link CompiledLevel} corner flags.
+     *
+     * @param index the index of the tile, in Tiled order (top row first)
+     *
+     * @return the open corners of the tile.
+     */
+    public int getCorners(int index) {
+        return corners[index];
+    }
+
+    /** Returns the terrain merged into wall rectangles */
+    public Array<TileRect> getRects() {
+        return rects;
+    }
+
+    /** Returns the navigation graph for enemies with gravity up */
+    public TiledGraph getGraphGravityUp() {
+        return graphGravityUp;
+    }
+
+    /** Returns the navigation graph for enemies with gravity down */
+    public TiledGraph getGraphGravityDown() {
+        return graphGravityDown;
+    }
+
+    /** Returns the terrain tiles shown on the minimap, indexed by y * width + x (y up) */
+    public BitSet getFloors() {
+        return floors;
+    }
+
+    /** Returns the ship polygon of the background, or null if the level has none */
+    public Background.Hull getHull() {
+        return hull;
+    }
+}
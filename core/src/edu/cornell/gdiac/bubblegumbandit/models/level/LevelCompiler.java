@@ -0,0 +1,55 @@
+package edu.cornell.gdiac.bubblegumbandit.models.level;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Compiles the levels of an asset directory, for the compileLevels build task.
+ * <p>
+ * Every JSON entry in the "jsons/levels/" folder is compiled by {@link CompiledLevel#compile}
+ * into a file named after its key. This runs without an application, so it only uses
+ * the parts of libGDX that do not need one.
+ */
+public class LevelCompiler {
+    /** The folder of the level JSONs, relative to the assets */
+    private static final String LEVEL_FOLDER = "jsons/levels/";
+
+    /**
+     * Compiles the levels of an asset directory.
+     *
+     * @param args  the asset directory JSON and the output folder, relative to the assets
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: LevelCompiler ASSET_JSON OUTPUT_DIR");
+        }
+        JsonValue directory = new JsonReader().parse(new String(Files.readAllBytes(new File(args[0]).toPath()), "UTF-8"));
+        File outputDir = new File(args[1]);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Could not create " + outputDir);
+        }
+        JsonValue jsons = directory.get("jsons");
+        for (JsonValue entry = jsons == null ? null : jsons.child(); entry != null; entry = entry.next()) {
+            if (!entry.isString() || !entry.asString().startsWith(LEVEL_FOLDER)) {
+                continue;
+            }
+            byte[] source = Files.readAllBytes(new File(entry.asString()).toPath());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(new File(outputDir, entry.name() + ".lvl"))));
+            try {
+                CompiledLevel.compile(source, out);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(entry.asString() + ": " + e.getMessage(), e);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -15,25 +15,22 @@
 
 package edu.cornell.gdiac.bubblegumbandit.models.level;
 
-import box2dLight.Light;
-import box2dLight.PointLight;
-import box2dLight.RayHandler;
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.ai.msg.MessageDispatcher;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.Fixture;
-import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Joint;
 import com.badlogic.gdx.physics.box2d.RayCastCallback;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
-import com.badlogic.gdx.utils.viewport.FitViewport;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.controllers.EffectController;
 import edu.cornell.gdiac.bubblegumbandit.controllers.InputController;
@@ -49,10 +46,19 @@ import edu.cornell.gdiac.bubblegumbandit.models.ReactorModel;
 import edu.cornell.gdiac.bubblegumbandit.models.enemy.*;
 import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
 import edu.cornell.gdiac.bubblegumbandit.view.AnimationController;
+import edu.cornell.gdiac.bubblegumbandit.view.BeamStrip;
+import edu.cornell.gdiac.bubblegumbandit.view.DebugRenderer;
+import edu.cornell.gdiac.bubblegumbandit.view.DrawCuller;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCamera;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
+import edu.cornell.gdiac.bubblegumbandit.view.LightManager;
+import edu.cornell.gdiac.bubblegumbandit.view.RenderQueue;
+import edu.cornell.gdiac.bubblegumbandit.view.StaticLayerRenderer;
+import edu.cornell.gdiac.bubblegumbandit.view.StaticLayerRenderer.Layer;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
 import edu.cornell.gdiac.util.PooledList;
+import edu.cornell.gdiac.util.RandomController;
+import edu.cornell.gdiac.util.SimClock;
 
 import java.util.*;
 
@@ -64,7 +70,8 @@ import static edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController.
  * Represents a single level in our game
  * <p>
  * Note that the constructor does very little.  The true initialization happens
- * by reading the JSON value.  To reset a level, dispose it and reread the JSON.
+ * by reading the JSON value.  To reset a level, dispose it and reread the JSON,
+ * or restore a snapshot captured right after it was populated.
  * <p>
  * The level contains its own Box2d World, as the World settings are defined by the
  * JSON file.  However, there is absolutely no controller code in this class, as
@@ -82,9 +89,20 @@ public class LevelModel {
     /** How fast we drift to the tile center when paused */
     private static final float DRIFT_SPEED = 0.325f;
 
+    /** How far past the screen (in tiles) obstacles still draw their debug sensors and rays */
+    private static final float DEBUG_PADDING = 8f;
+
+    /** The render queue depths of the reactor, the obstacles and the bandit (drawn over the rest) */
+    private static final int REACTOR_DEPTH = 0;
+    private static final int OBJECT_DEPTH = 1;
+    private static final int BANDIT_DEPTH = 2;
+
     /** The Box2D world  */
     protected World world;
 
+    /** The dispatcher for AI messages between the enemies of this level */
+    private MessageDispatcher messageDispatcher;
+
     /** Map from tile id in worldData to tile in the world. */
     private HashMap<Integer, TileModel> worldTileMap;
 
@@ -117,6 +135,9 @@ public class LevelModel {
     /** Enemies to spawn after the orb gets picked up. */
     private HashSet<EnemyModel> postOrbEnemies;
 
+    /** The AIControllers of the post-orb enemies, built with the level and idle until they spawn. */
+    private Array<AIController> postOrbControllers;
+
     public HashSet<EnemyModel> getPostOrbEnemies() {
         return postOrbEnemies;
     }
@@ -157,6 +178,18 @@ public class LevelModel {
     /** All background tile objects in the level */
     private Array<BackgroundTileModel> backgroundTiles;
 
+    /** The background, terrain and support tiles, cached for drawing */
+    private StaticLayerRenderer staticLayers;
+
+    /** Decides which objects are on screen each frame (set by populate before anything is activated) */
+    private DrawCuller culler;
+
+    /** The walls and AI graphs, cached for the debug overlay */
+    private DebugRenderer debugRenderer;
+
+    /** The quads of every laser beam drawn this frame, reused between frames */
+    private final BeamStrip beamStrip = new BeamStrip();
+
 
     /** All objects in the world.  */
     protected PooledList<Obstacle> objects = new PooledList<>();
@@ -185,8 +218,14 @@ public class LevelModel {
 
     private GameCamera camera;
 
-    private RayHandler rays;
-    private HashMap<Light, Obstacle> objLights;
+    /** The box2dlights of the level */
+    private LightManager lights;
+
+    /** The random seed of the level, from the level properties */
+    private long seed;
+
+    /** Cache for the joints destroyed when restoring a snapshot */
+    private final Array<Joint> jointCache = new Array<>();
 
     /**
      * Creates a new LevelModel
@@ -202,7 +241,6 @@ public class LevelModel {
         aim = new AimModel();
         icons = new Array<>();
         captiveCount = 0;
-        objLights = new HashMap<>();
 
     }
 
@@ -261,6 +299,18 @@ public class LevelModel {
         return world;
     }
 
+    /**
+     * Returns the dispatcher for AI messages in this level.
+     *
+     * Each level has its own dispatcher, so enemies from a disposed level never
+     * receive messages, and separate levels can be simulated concurrently.
+     *
+     * @return the dispatcher for AI messages in this level.
+     */
+    public MessageDispatcher getMessageDispatcher() {
+        return messageDispatcher;
+    }
+
     /**
      * Returns a reference to the Bandit's avatar.
      *
@@ -288,6 +338,42 @@ public class LevelModel {
         return flippableObjects;
     }
 
+    /**
+     * Returns a PooledList of all objects in this level.
+     *
+     * @return a PooledList of all objects in this level.
+     */
+    public PooledList<Obstacle> getObjects() {
+        return objects;
+    }
+
+    /**
+     * Returns the culler that decides which objects are drawn each frame.
+     *
+     * @return the culler that decides which objects are drawn each frame.
+     */
+    public DrawCuller getCuller() {
+        return culler;
+    }
+
+    /**
+     * Returns the cached background, terrain and support tiles.
+     *
+     * @return the cached background, terrain and support tiles.
+     */
+    public StaticLayerRenderer getStaticLayers() {
+        return staticLayers;
+    }
+
+    /**
+     * Returns the box2dlights of the level.
+     *
+     * @return the box2dlights of the level.
+     */
+    public LightManager getLights() {
+        return lights;
+    }
+
     /**
      * Returns true if this level is currently in debug mode.
      * <p>
@@ -354,23 +440,51 @@ public class LevelModel {
     }
 
     /**
-     * Lays out the game geography from the given JSON file. Spawns
+     * Marks the open corners of a tile from its corner flags.
+     *
+     * @param tile      the tile to mark
+     * @param corners   the corner flags of the tile, as in {@link CompiledLevel}
+     */
+    private static void setCorners(TileModel tile, int corners) {
+        if (corners == 0) {
+            return;
+        }
+        tile.hasCorner(true);
+        if ((corners & CompiledLevel.TOP_RIGHT) != 0) {
+            tile.topRight(true);
+        }
+        if ((corners & CompiledLevel.TOP_LEFT) != 0) {
+            tile.topLeft(true);
+        }
+        if ((corners & CompiledLevel.BOTTOM_LEFT) != 0) {
+            tile.bottomLeft(true);
+        }
+        if ((corners & CompiledLevel.BOTTOM_RIGHT) != 0) {
+            tile.bottomRight(true);
+        }
+    }
+
+    /**
+     * Lays out the game geography from the given level blueprint. Spawns
      * tiles, objects, boards, and other assets that should appear
      * in a Bubblegum Bandit level.
      *
+     * Everything that can be read from the level file ahead of time is in the
+     * blueprint, so this only creates the physics bodies and textures.
+     *
      * @param directory   the asset manager
-     * @param levelFormat the JSON file defining the level
+     * @param blueprint   the blueprint of the level
      * @param constants   the JSON file defining the constants
      * @param tilesetJson the JSON file defining the tileset
      * @param camera the current game camera
      */
-    public void populate(AssetDirectory directory, JsonValue levelFormat, JsonValue constants, JsonValue tilesetJson, boolean disableShooting, GameCamera camera) {
+    public void populate(AssetDirectory directory, LevelBlueprint blueprint, JsonValue constants, JsonValue tilesetJson, boolean disableShooting, GameCamera camera) {
         this.camera = camera;
 
         //Initializations & Logic
         aim.initialize(directory, constants);
-        postOrbEnemies = new HashSet<>();
-        HashMap<Vector2, TileModel> tiles = new HashMap<>();
+        postOrbEnemies = new LinkedHashSet<>();
+        postOrbControllers = new Array<>();
         supportTiles = new Array<>();
         backgroundTiles = new Array<>();
         enemyControllers = new Array<>();
@@ -378,95 +492,44 @@ public class LevelModel {
         this.disableShooting = disableShooting;
         doors = new Array<>();
 
-        JsonValue boardGravityDownLayer = null;
-        JsonValue boardGravityUpLayer = null;
-        JsonValue terrainLayer = null;
-        JsonValue objects = null;
-        JsonValue supports = null;
-        JsonValue backgroundLayer = null;
-        JsonValue postOrb = null;
-        JsonValue layer = levelFormat.get("layers").child();
-        while (layer != null) {
-            String layerName = layer.getString("name");
-            switch (layerName) {
-                case "BoardGravityDown":
-                    boardGravityDownLayer = layer;
-                    break;
-                case "BoardGravityUp":
-                    boardGravityUpLayer = layer;
-                    break;
-                case "Terrain":
-                    terrainLayer = layer;
-                    break;
-                case "Objects":
-                    objects = layer.get("Objects");
-                    break;
-                case "Supports":
-                    supports = layer;
-                    break;
-                case "Background":
-                    backgroundLayer = layer;
-                    break;
-                case "PostOrb":
-                    postOrb = layer.get("Objects");
-                    break;
-                case "Corners":
-                    //for creating the background
-                    break;
-                default:
-                    throw new RuntimeException("Invalid layer name. Valid names: BoardGravityDown, BoardGravityUp, Terrain, Supports, Background, Corners, and Objects.");
-            }
-            layer = layer.next();
-        }
-
-        if (boardGravityDownLayer == null || boardGravityUpLayer == null || terrainLayer == null || objects == null) {
-            throw new RuntimeException("Missing layer data. Should have: BoardGravityDown, BoardGravityUp, Terrain, PostOrb, and Objects.");
-        }
-        if (postOrb == null) {
-            throw new RuntimeException("Missing PostOrb layer.");
-        }
+        JsonValue levelFormat = blueprint.getLevelFormat();
+        JsonValue objects = blueprint.getObjects();
+        JsonValue postOrb = blueprint.getPostOrb();
+        int[] worldData = blueprint.getTerrain();
+        float gravity = blueprint.getGravity();
+        timer = blueprint.getTimer();
+        captiveCount = blueprint.getCaptiveCount();
+        seed = blueprint.getSeed();
 
-        int[] worldData = terrainLayer.get("data").asIntArray();
-        float gravity = 0;
-
-        if (levelFormat.get("properties") == null) {
-            throw new RuntimeException("Set the level properties [gravity] and [timer] in "
-                    + "Map -> Map Properties.");
-        }
-
-        JsonValue property = levelFormat.get("properties").child();
-        while (property != null) {
-            String propName = property.get("name").asString();
-            if (propName.equals("gravity")) {
-                gravity = property.getFloat("value");
-            }
-            if (propName.equals("timer")) {
-                timer = property.getFloat("value");
-            }
-            if( propName.equals("captives")) {
-                captiveCount = property.getInt("value");
-            }
-            property = property.next();
-        }
+        // Restart gameplay time and randomness so every load of this level plays out the same
+        SimClock.reset();
+        RandomController.setSeed(seed);
 
 
         float[] pSize = constants.get("physicsSize").asFloatArray();
 
-        levelWidth = levelFormat.getInt("width");
-        levelHeight = levelFormat.getInt("height");
+        levelWidth = blueprint.getWidth();
+        levelHeight = blueprint.getHeight();
         world = new World(new Vector2(0, gravity), false);
-        this.rays = new RayHandler(world);
+        messageDispatcher = new MessageDispatcher();
         bounds = new Rectangle(0, 0, levelWidth, levelHeight);
 
         scale.x = pSize[0];
         scale.y = pSize[1];
+        // Created before any object is activated, as activating one invalidates it
+        culler = new DrawCuller(levelWidth, levelHeight, scale);
+        lights = new LightManager(world, scale);
 
         HashMap<Integer, TextureRegion> textures = TiledParser.createTileset(directory, levelFormat);
 
-        int boardIdOffset = TiledParser.boardIdOffset;
-
-        tiledGraphGravityUp = new TiledGraph(boardGravityUpLayer, boardIdOffset, scale, 3f / 8);
-        tiledGraphGravityDown = new TiledGraph(boardGravityDownLayer, boardIdOffset, scale, 2f / 8);
+        // The graphs are kept with the blueprint, and nodes are disabled during play
+        tiledGraphGravityUp = blueprint.getGraphGravityUp();
+        tiledGraphGravityDown = blueprint.getGraphGravityDown();
+        tiledGraphGravityUp.enableAllNodes();
+        tiledGraphGravityDown.enableAllNodes();
+        debugRenderer = new DebugRenderer(levelWidth, levelHeight, scale);
+        debugRenderer.addGraph(tiledGraphGravityDown);
+        debugRenderer.addGraph(tiledGraphGravityUp);
 
         worldTiles = new Array<>();
         worldTileMap = new HashMap<>();
@@ -481,7 +544,7 @@ public class LevelModel {
                     throw new RuntimeException("Tile " + (tileVal) + " doesn't have a texture");
                 }
                 newTile.initialize(textures.get(tileVal), x, y, constants.get("tiles"));
-                tiles.put(new Vector2(x, y), newTile);
+                setCorners(newTile, blueprint.getCorners(i));
                 newTile.setDrawScale(scale);
                 worldTileMap.put(i, newTile);
                 worldTiles.add(newTile);
@@ -489,18 +552,19 @@ public class LevelModel {
         }
 
         // Aggregated tiles for seaming fixes.
-        TiledParser parser = new TiledParser();
-        Array<TileRect> rects = parser.mergeTiles(levelWidth, levelHeight, worldData);
-        for (TileRect rect : rects) {
+        Array<TileRect> rects = blueprint.getRects();
+        for (int r = 0; r < rects.size; r++) {
+            TileRect rect = rects.get(r);
             WallModel newWall = new WallModel();
             newWall.initialize(rect.startX, levelHeight - rect.endY - 1, rect.endX, levelHeight - rect.startY - 1, constants.get("wall"));
             newWall.setDrawScale(scale);
             activate(newWall);
             newWall.setFilter(CATEGORY_TERRAIN, MASK_TERRAIN);
+            debugRenderer.addStatic(newWall);
         }
 
-        if (supports != null) {
-            int[] supportData = supports.get("data").asIntArray();
+        int[] supportData = blueprint.getSupports();
+        if (supportData != null) {
             // Iterate over each support in the world and create if it exists
             for (int i = 0; i < supportData.length; i++) {
                 int tileVal = supportData[i];
@@ -515,8 +579,8 @@ public class LevelModel {
             }
         }
 
-        if (backgroundLayer != null) {
-            int[] backgroundData =backgroundLayer.get("data").asIntArray();
+        int[] backgroundData = blueprint.getBackground();
+        if (backgroundData != null) {
             // Iterate over each support in the world and create if it exists
             for (int i = 0; i < backgroundData.length; i++) {
                 int tileVal = backgroundData[i];
@@ -531,33 +595,28 @@ public class LevelModel {
             }
         }
 
-        // Iterate over each tile in the world, find and mark open corners of tiles that have them
-        for (Map.Entry<Vector2, TileModel> entry : tiles.entrySet()) {
-            Vector2 c = entry.getKey();
-            TileModel tile = entry.getValue();
-            Vector2 top = new Vector2(c.x, c.y + 1);
-            Vector2 right = new Vector2(c.x + 1, c.y);
-            Vector2 left = new Vector2(c.x - 1, c.y);
-            Vector2 bottom = new Vector2(c.x, c.y - 1);
-
-            if (!tiles.containsKey(top) && !tiles.containsKey(right)) {
-                tile.hasCorner(true);
-                tile.topRight(true);
-            }
-            if (!tiles.containsKey(top) && !tiles.containsKey(left)) {
-                tile.hasCorner(true);
-                tile.topLeft(true);
+        // The tile layers never move, so they are drawn from a cache
+        staticLayers = new StaticLayerRenderer(levelWidth, levelHeight, scale.x, scale.y);
+        for (BackgroundTileModel tile : backgroundTiles) {
+            TextureRegion region = tile.getTexture();
+            if (region != null) {
+                staticLayers.add(Layer.BACKGROUND, region, tile.x, tile.y,
+                    region.getRegionWidth() / 2, region.getRegionHeight() / 2, false);
             }
-            if (!tiles.containsKey(bottom) && !tiles.containsKey(left)) {
-                tile.hasCorner(true);
-                tile.bottomLeft(true);
-            }
-            if (!tiles.containsKey(bottom) && !tiles.containsKey(right)) {
-                tile.hasCorner(true);
-                tile.bottomRight(true);
+        }
+        for (TileModel tile : worldTiles) {
+            TextureRegion region = tile.getTexture();
+            staticLayers.add(Layer.TERRAIN, region, tile.getX(), tile.getY(),
+                region.getRegionWidth() / 2.0f, region.getRegionHeight() / 2.0f, true);
+        }
+        for (BackgroundTileModel tile : supportTiles) {
+            TextureRegion region = tile.getTexture();
+            if (region != null) {
+                staticLayers.add(Layer.SUPPORTS, region, tile.x, tile.y,
+                    region.getRegionWidth() / 2, region.getRegionHeight() / 2, false);
             }
         }
-        tiles.clear();
+
 
         bandit = null;
         goalDoor = null;
@@ -671,10 +730,7 @@ public class LevelModel {
                     activate(orb);
                     orb.setFilter(CATEGORY_COLLECTIBLE, MASK_COLLECTIBLE);
                     orb.getFilterData().categoryBits = CATEGORY_COLLECTIBLE;
-                    PointLight orbPoint = new PointLight(rays, 20,
-                         new Color(.8f, 1, .9f, 0.65f), 4, x,y);
-                    orbPoint.attachToBody(orb.getBody());
-                    objLights.put(orbPoint, orb);
+                    lights.addPointLight(20, new Color(.8f, 1, .9f, 0.65f), 4, x, y, orb);
                     break;
                 case "floatingGum":
                     Collectible coll = new Collectible();
@@ -813,15 +869,26 @@ public class LevelModel {
         for (EnemyModel e : newEnemies) {
             activate(e);
             e.setFilter(CATEGORY_ENEMY, MASK_ENEMY);
-            enemyControllers.add(new AIController(e, bandit, tiledGraphGravityUp, tiledGraphGravityDown));
+            AIController controller = new AIController(e, bandit, tiledGraphGravityUp, tiledGraphGravityDown, messageDispatcher);
+            controller.listen();
+            enemyControllers.add(controller);
             enemyCount++;
         }
 
+        // Build post-orb enemies now, so that spawning them only has to wake them up.
+        // Their bodies stay inactive (out of the broad-phase) until then.
+        for (EnemyModel e : postOrbEnemies) {
+            e.activatePhysics(world);
+            e.setFilter(CATEGORY_ENEMY, MASK_ENEMY);
+            e.setActive(false);
+            postOrbControllers.add(new AIController(e, bandit, tiledGraphGravityUp, tiledGraphGravityDown, messageDispatcher));
+        }
+
         // Add bandit at the end because this affects draw order
         activate(bandit);
         bandit.setFilter(CATEGORY_PLAYER, MASK_PLAYER);
 
-        alarms = new AlarmController(alarmPos, directory, world, rays);
+        alarms = new AlarmController(alarmPos, directory, world, lights);
 
         if (reactorPos.size >= 2) {
             reactorModel = new ReactorModel(reactorPos, orbPosition, directory);
@@ -846,6 +913,7 @@ public class LevelModel {
         tiledGraphGravityUp.getNode((int) x, (int) y + 1).disableNode();
         tiledGraphGravityDown.getNode((int) x, (int) y - 1).disableNode();
         tiledGraphGravityDown.getNode((int) x, (int) y + 1).disableNode();
+        debugRenderer.invalidate();
     }
     public void makeSpark(float x, float y){
         sparkEffectController.makeEffect(x, y, scale, false);
@@ -854,12 +922,19 @@ public class LevelModel {
     /**
      * Spawns all EnemyModels that should drop in after the Bandit picks
      * up the orb.
+     *
+     * The enemies and their controllers were built when the level was populated,
+     * so this only activates their bodies and registers their controllers.
      * */
     public void spawnPostOrbEnemies(){
-        for(EnemyModel e : postOrbEnemies){
-            activate(e);
-            e.setFilter(CATEGORY_ENEMY, MASK_ENEMY);
-            enemyControllers.add(new AIController(e, bandit, tiledGraphGravityUp, tiledGraphGravityDown));
+        for (AIController controller : postOrbControllers) {
+            EnemyModel e = controller.getEnemy();
+            objects.add(e);
+            e.setActive(true);
+            e.setAwake(true);
+            culler.invalidate();
+            controller.listen();
+            enemyControllers.add(controller);
             enemyCount++;
             if (world.getGravity().y > 0){
                 e.flipGravity();
@@ -877,19 +952,145 @@ public class LevelModel {
         }
     }
 
+    /**
+     * Returns a snapshot of the current state of this level.
+     *
+     * This should be called right after the level is populated. The snapshot can
+     * then be passed to {@link #restoreState} to restart the level without
+     * parsing it again.
+     *
+     * @return a snapshot of the current state of this level.
+     */
+    public LevelSnapshot captureState() {
+        LevelSnapshot snapshot = new LevelSnapshot();
+        for (Obstacle obj : objects) {
+            snapshot.objects.add(obj);
+            snapshot.members.add(obj);
+            obj.saveState(snapshot.state);
+        }
+        for (Obstacle obj : flippableObjects) {
+            snapshot.flippables.add(obj);
+        }
+        for (EnemyModel enemy : postOrbEnemies) {
+            enemy.saveState(snapshot.state);
+        }
+        for (AIController controller : enemyControllers) {
+            controller.saveState(snapshot.state);
+        }
+        for (AIController controller : postOrbControllers) {
+            controller.saveState(snapshot.state);
+        }
+        tiledGraphGravityUp.saveState(snapshot.state);
+        tiledGraphGravityDown.saveState(snapshot.state);
+        snapshot.gravity.set(world.getGravity());
+        snapshot.controllerCount = enemyControllers.size;
+        snapshot.enemyCount = enemyCount;
+        snapshot.seed = seed;
+        return snapshot;
+    }
+
+    /**
+     * Restores this level to the state in the given snapshot.
+     *
+     * Objects added since the snapshot are removed from the world, and objects
+     * removed since the snapshot are added back (in their original order). All
+     * joints and contacts are destroyed, so the contact listener should be detached
+     * first and any controllers tracking joints or contacts should be reset.
+     *
+     * @param snapshot a snapshot captured from this level
+     */
+    public void restoreState(LevelSnapshot snapshot) {
+        world.getJoints(jointCache);
+        for (Joint joint : jointCache) {
+            world.destroyJoint(joint);
+        }
+        jointCache.clear();
+
+        // Remove everything that was added during play (post-orb enemies keep their bodies)
+        for (Obstacle obj : objects) {
+            if (!snapshot.contains(obj) && !postOrbEnemies.contains(obj)) {
+                obj.deactivatePhysics(world);
+            }
+        }
+        objects.clear();
+        for (Obstacle obj : snapshot.objects) {
+            if (obj.getBody() == null) {
+                obj.activatePhysics(world);
+            }
+            objects.add(obj);
+        }
+        flippableObjects.clear();
+        for (Obstacle obj : snapshot.flippables) {
+            flippableObjects.add(obj);
+        }
+
+        world.setGravity(snapshot.gravity);
+        snapshot.state.rewind();
+        for (Obstacle obj : objects) {
+            obj.restoreState(snapshot.state);
+            // Toggling a body destroys its contacts, which are recreated on the next step
+            Body body = obj.getBody();
+            if (body != null && body.getType() != BodyDef.BodyType.StaticBody) {
+                body.setActive(false);
+                body.setActive(true);
+            }
+        }
+        for (EnemyModel enemy : postOrbEnemies) {
+            if (enemy.getBody() == null) {
+                enemy.activatePhysics(world);
+            }
+            enemy.restoreState(snapshot.state);
+            enemy.setActive(false);
+        }
+
+        enemyControllers.truncate(snapshot.controllerCount);
+        messageDispatcher.clear();
+        for (AIController controller : enemyControllers) {
+            controller.restoreState(snapshot.state);
+            controller.listen();
+        }
+        for (AIController controller : postOrbControllers) {
+            controller.restoreState(snapshot.state);
+        }
+        tiledGraphGravityUp.restoreState(snapshot.state);
+        tiledGraphGravityDown.restoreState(snapshot.state);
+        enemyCount = snapshot.enemyCount;
+
+        lights.restore();
+        alarms.reset();
+        if (reactorModel != null) reactorModel.orbCollected(false);
+        glassEffectController.clear();
+        sparkEffectController.clear();
+
+        culler.invalidate();
+        debugRenderer.invalidate();
+        SimClock.reset();
+        RandomController.setSeed(snapshot.seed);
+    }
+
     public void dispose() {
         for (Obstacle obj : objects) {
             obj.deactivatePhysics(world);
         }
+        if (staticLayers != null) {
+            staticLayers.dispose();
+            staticLayers = null;
+        }
+        if (debugRenderer != null) {
+            debugRenderer.dispose();
+            debugRenderer = null;
+        }
         icons.clear();
         objects.clear();
         if (world != null) {
             world.dispose();
             world = null;
-            alarms.dispose();
+            lights.dispose();
+            lights = null;
+            messageDispatcher.clear();
+            messageDispatcher = null;
             reactorModel = null;
         }
-        objLights.clear();
         captiveCount = 0;
     }
 
@@ -906,6 +1107,7 @@ public class LevelModel {
         assert inBounds(obj) : "Object is not in bounds";
         objects.add(obj);
         obj.activatePhysics(world);
+        culler.invalidate();
     }
 
     /**
@@ -947,18 +1149,7 @@ public class LevelModel {
                 }
             }
         }
-        Array<Light> garbage = new Array<>();
-        for(Light light : objLights.keySet()) {
-
-            if (objLights.get(light).isRemoved()) {
-                light.remove();
-                garbage.add(light);
-                System.out.println("was removed");
-            }
-        }
-        for(Light light: garbage) {
-            objLights.remove(light);
-        }
+        lights.update();
         Iterator<PooledList<Obstacle>.Entry> iterator = objects.entryIterator();
         while (iterator.hasNext()) {
             PooledList<Obstacle>.Entry entry = iterator.next();
@@ -966,6 +1157,8 @@ public class LevelModel {
             if (obj.isRemoved()) {
                 obj.deactivatePhysics(world);
                 entry.remove();
+                culler.invalidate();
+                lights.invalidateStatic();
             } else {
                 obj.update(dt);
             }
@@ -999,91 +1192,112 @@ public class LevelModel {
     }
 
 
-    public void drawGrid(GameCanvas canvas) {
-        PolygonShape s = new PolygonShape();
-        int halfWidth = (int) (scale.x / 2);
-        int halfHeight = (int) (scale.y / 2);
-        s.setAsBox(.5f * scale.x, .5f * scale.y);
-        for (int i = 0; i < levelWidth; i++) {
-            for (int j = 0; j < levelHeight; j++) {
-                canvas.drawPhysics(s, Color.RED, i * scale.x + halfWidth, j * scale.y + halfHeight);
-            }
-        }
+    /**
+     * Sets whether the debug overlay outlines every tile of the level.
+     *
+     * @param value whether the debug overlay outlines every tile of the level
+     */
+    public void setShowGrid(boolean value) {
+        debugRenderer.setShowGrid(value);
     }
 
     /**
-     * Draws the level to the given game canvas
+     * Records the sprites of the level into the given queue.
      * <p>
-     * If debug mode is true, it will outline all physics bodies as wireframes. Otherwise
-     * it will only draw the sprite representations.
+     * This is called at the end of each simulation tick, and is the only place the
+     * models are drawn: each one writes its transform, animation frame, tint and shadow
+     * or outline into the queue, which {@link #draw} then draws as many times as the
+     * view needs. This also casts the lights, as they read the physics world too.
      *
-     * @param canvas the drawing context
+     * @param canvas        the canvas to record with
+     * @param sprites       the queue to record into
+     * @param laserBeam     the texture of a laser beam
+     * @param laserBeamEnd  the texture of the end of a laser beam
      */
-    public void draw(GameCanvas canvas, JsonValue levelFormat, TextureRegion
-            gumProjectile, TextureRegion laserBeam, TextureRegion laserBeamEnd,
-                     float dt) {
-        canvas.begin();
-
+    public void record(GameCanvas canvas, RenderQueue sprites, TextureRegion laserBeam,
+                       TextureRegion laserBeamEnd) {
         bandit.setFacingDirection(getAim().getProjTarget(canvas).x);
-
-        for(BackgroundTileModel tile: backgroundTiles) {
-            tile.draw(canvas);
-        }
-
-        for (TileModel tile : worldTiles) {
-            tile.draw(canvas);
-        }
-
-        alarms.drawAlarms(canvas, scale);
-        for(TutorialIcon icon: icons) icon.draw(canvas);
-
-        for(BackgroundTileModel tile: supportTiles) {
-            tile.draw(canvas);
+        culler.begin(canvas.getCamera(), objects);
+
+        // Sprites are sorted by texture within each layer; the supports go between
+        // the decoration and the objects when the queue is drawn
+        canvas.beginRecord(sprites);
+        canvas.setLayer(RenderQueue.Layer.DECOR);
+        alarms.drawAlarms(canvas, scale, culler);
+        for(TutorialIcon icon: icons) {
+            if (icon.isVisible(culler)) {
+                canvas.setDepth(0);
+                icon.draw(canvas);
+            }
         }
 
+        canvas.setLayer(RenderQueue.Layer.OBJECTS);
         if (reactorModel != null){
+            canvas.setDepth(REACTOR_DEPTH);
             reactorModel.draw(canvas);
         }
 
-        bandit.setFacingDirection(getAim().getProjTarget(canvas).x);
-
         for (Obstacle obj : objects) {
-            obj.draw(canvas);
-            if (obj.equals(aim.highlighted)) { // Probably inefficient, but the draw order needs to be maintained.
-                aim.highlighted.drawWithOutline(canvas);
+            if (!culler.isVisible(obj)) {
+                continue;
             }
+            canvas.setDepth(obj == bandit ? BANDIT_DEPTH : OBJECT_DEPTH);
+            obj.draw(canvas);
+        }
 
+        Obstacle highlighted = aim.highlighted instanceof Obstacle ? (Obstacle) aim.highlighted : null;
+        if (highlighted != null && !highlighted.isRemoved() && culler.isInView(highlighted, 0)) {
+            canvas.setLayer(RenderQueue.Layer.HIGHLIGHT);
+            aim.highlighted.drawWithOutline(canvas);
         }
+
+        canvas.setLayer(RenderQueue.Layer.EFFECTS);
         drawChargeLasers(laserBeam, laserBeamEnd, canvas);
 
         if(bandit.getHealth()>0 && !disableShooting) aim.drawProjectileRay(canvas);
        // gumEffectController.draw(canvas);
         glassEffectController.draw(canvas);
         sparkEffectController.draw(canvas);
+        canvas.endRecord();
+
+        lights.cast(canvas.getCamera());
+    }
+
+    /**
+     * Draws the level to the given game canvas
+     * <p>
+     * The sprites come from the given queue, recorded by {@link #record}, so this does
+     * not read the models. If debug mode is true, it will also outline all physics
+     * bodies as wireframes, which does read the physics world.
+     *
+     * @param canvas    the drawing context
+     * @param sprites   the sprites recorded at the end of the last tick
+     */
+    public void draw(GameCanvas canvas, RenderQueue sprites) {
+        canvas.begin();
+
+        staticLayers.resetStats();
+        canvas.drawStatic(staticLayers, Layer.BACKGROUND);
+        canvas.drawStatic(staticLayers, Layer.TERRAIN);
+        canvas.drawRecorded(sprites, RenderQueue.Layer.DECOR, RenderQueue.Layer.DECOR);
+        canvas.drawStatic(staticLayers, Layer.SUPPORTS);
+        canvas.drawRecorded(sprites, RenderQueue.Layer.OBJECTS, RenderQueue.Layer.EFFECTS);
 
         canvas.end();
 
         if (debug) {
+            // Walls and graphs come from a cached mesh; sensors and rays may reach past their body
+            debugRenderer.draw(canvas.getCamera());
+            float padding = DEBUG_PADDING * scale.x;
             canvas.beginDebug();
             for (Obstacle obj : objects) {
-                obj.drawDebug(canvas);
-            }
-            // drawGrid(canvas);
-            if (tiledGraphGravityUp != null && tiledGraphGravityDown != null) {
-                tiledGraphGravityDown.drawGraph(canvas);
-                tiledGraphGravityUp.drawGraph(canvas);
+                if (!debugRenderer.isCached(obj) && culler.isInView(obj, padding)) {
+                    obj.drawDebug(canvas);
+                }
             }
             canvas.endDebug();
         }
-        FitViewport viewport = canvas.getUIViewport();
-        GameCamera camera = canvas.getCamera();
-        Matrix4 box2dcombined = camera.combined.cpy();
-        box2dcombined.scl(scale.x);
-        rays.setCombinedMatrix(box2dcombined, camera.position.x / scale.x, camera.position.y / scale.y,
-            camera.viewportWidth * camera.zoom / scale.x, camera.viewportHeight * camera.zoom / scale.y);
-        int bufferScale = Math.round(Gdx.graphics.getBackBufferScale());
-        rays.useCustomViewport((viewport.getScreenX() * bufferScale), viewport.getScreenY() * bufferScale, viewport.getScreenWidth() * bufferScale, viewport.getScreenHeight() * bufferScale);
-        rays.render();
+        lights.draw(canvas);
     }
 
     public void drawChargeLasers(TextureRegion beam, TextureRegion beamEnd, GameCanvas canvas) {
@@ -1093,6 +1307,19 @@ public class LevelModel {
         final float lockedLaserScale = .9f;
         final float firingLaserScale = 1.5f;
 
+        //Offset calculations to match the animation.
+        final float laserEyeOffsetX = 41 + canvas.getShadowOffset();
+        final float laserEyeOffsetY = 20;
+        final float jetBoostY = 3;
+
+        // Every beam of the frame goes into one strip, drawn at the end
+        beamStrip.clear();
+        beam.setRegionWidth(1);
+        float segmentLength = beam.getRegionWidth();
+        float beamOriginX = beam.getRegionWidth() / 2f;
+        float beamOriginY = beam.getRegionHeight() / 2f;
+        float endOriginX = beamEnd.getRegionWidth() / 2f;
+        float endOriginY = beamEnd.getRegionHeight() / 2f;
 
         for (AIController ai : enemyControllers) {
             if (ai.getEnemy() instanceof LaserEnemyModel) {
@@ -1125,91 +1352,57 @@ public class LevelModel {
                 //Math calculations for the laser.
                 Vector2 intersect = enemy.getBeamIntersect();
                 Vector2 beamStartPos = enemy.getBeamOrigin();
-                Vector2 dir = new Vector2(
-                        intersect.x - beamStartPos.x,
-                        intersect.y - beamStartPos.y
-                );
-
-                beam.setRegionWidth(1);
-                int numSegments = (int)((dir.len() * scale.x) / beam.getRegionWidth());
-                dir.nor();
-
-                //Offset calculations to match the animation.
-
-                float laserEyeNormalOffsetXLeft = 41 + canvas.getShadowOffset();
-                float laserEyeNormalOffsetYLeft = 20;
-                float laserEyeJettedOffsetXRight = 41 + canvas.getShadowOffset();
-                float laserEyeJettedOffsetYRight = 20;
-                float jetBoostY = 3;
 
+                //Skip beams entirely off screen (padded by a tile for the eye offsets).
+                float beamHalfWidth = Math.abs(intersect.x - beamStartPos.x) / 2 + 1;
+                float beamHalfHeight = Math.abs(intersect.y - beamStartPos.y) / 2 + 1;
+                if (!culler.isVisible((intersect.x + beamStartPos.x) / 2 * scale.x,
+                        (intersect.y + beamStartPos.y) / 2 * scale.y,
+                        beamHalfWidth * scale.x, beamHalfHeight * scale.y)) continue;
+                float dirX = intersect.x - beamStartPos.x;
+                float dirY = intersect.y - beamStartPos.y;
+                float length = (float) Math.sqrt(dirX * dirX + dirY * dirY);
+                int numSegments = (int)((length * scale.x) / segmentLength);
+                if (numSegments == 0) continue;
+                dirX /= length;
+                dirY /= length;
+                float ang = (float) Math.atan2(dirY, dirX);
+                float cos = (float) Math.cos(ang);
+                float sin = (float) Math.sin(ang);
+
+                //Position the beam at the eye, which moves with the animation.
                 boolean jetted = enemy.getCurrentFrameNum() > 0;
+                float enemyOffsetX = enemy.getFaceRight() ? laserEyeOffsetX : -laserEyeOffsetX;
+                float enemyOffsetY = jetted ? laserEyeOffsetY : laserEyeOffsetY + jetBoostY;
+                float startX = enemy.getX() * scale.x + enemyOffsetX;
+                float startY = enemy.getY() * scale.y + enemyOffsetY * enemy.getYScale();
 
-                Array<Float> xScales = enemy.getRandomXScale();
-                Array<Float> yScales = enemy.getRandomYScale();
+                FloatArray xScales = enemy.getRandomXScale();
+                FloatArray yScales = enemy.getRandomYScale();
+                float color = laserColor.toFloatBits();
 
                 //Draw her up!
                 for(int i = 0; i < numSegments; i++){
-
-                    //Calculate the positions and angle of the charging laser.
-                    float enemyOffsetX = enemy.getFaceRight()? laserEyeJettedOffsetXRight : laserEyeNormalOffsetXLeft;
-                    float enemyOffsetY = enemy.getFaceRight()? laserEyeJettedOffsetYRight : laserEyeNormalOffsetYLeft;
-                    if(!jetted) enemyOffsetY += jetBoostY;
-                    if(!enemy.getFaceRight()) enemyOffsetX = -enemyOffsetX;
-
-
-                    float x = enemy.getPosition().x * scale.x + (i * dir.x * beam.getRegionWidth());
-                    float y = enemy.getPosition().y * scale.y + (i * dir.y * beam.getRegionWidth());
-                    float scaleX = 1f;
-                    float scaleY = laserThickness;
-                    float ang = (float) Math.atan2(dir.y, dir.x);
+                    float x = startX + i * dirX * segmentLength;
+                    float y = startY + i * dirY * segmentLength;
 
                     //Vibrations
-                    scaleX *= xScales.get(i % xScales.size);
-                    scaleY *= yScales.get(i % yScales.size);
-
-                    canvas.draw(
-                            beam,
-                            laserColor,
-                            beam.getRegionWidth()/2f,
-                            beam.getRegionHeight()/2f,
-                            x + enemyOffsetX,
-                            y + (enemyOffsetY * enemy.getYScale()),
-                            ang,
-                            scaleX,
-                            scaleY);
+                    float scaleX = xScales.size == 0 ? 1 : xScales.get(i % xScales.size);
+                    float scaleY = laserThickness * (yScales.size == 0 ? 1 : yScales.get(i % yScales.size));
 
+                    beamStrip.add(beam, color, false, beamOriginX, beamOriginY, x, y, cos, sin, scaleX, scaleY);
 
+                    // The end caps face away from each other
                     if(i == 0){
-                        if(!beamEnd.isFlipX()) beamEnd.flip(true, false);
-                        canvas.draw(
-                                beamEnd,
-                                laserColor,
-                                beamEnd.getRegionWidth()/2f,
-                                beamEnd.getRegionHeight()/2f,
-                                x + enemyOffsetX,
-                                y+ (enemyOffsetY * enemy.getYScale()),
-                                ang,
-                                scaleX,
-                                scaleY);
-
+                        beamStrip.add(beamEnd, color, true, endOriginX, endOriginY, x, y, cos, sin, scaleX, scaleY);
                     }
-
                     if(i == numSegments - 1){
-                        if(beamEnd.isFlipX()) beamEnd.flip(true, false);
-                        canvas.draw(
-                                beamEnd,
-                                laserColor,
-                                beamEnd.getRegionWidth()/2f,
-                                beamEnd.getRegionHeight()/2f,
-                                x + enemyOffsetX,
-                                y+ (enemyOffsetY * enemy.getYScale()),
-                                ang,
-                                scaleX,
-                                scaleY);
+                        beamStrip.add(beamEnd, color, false, endOriginX, endOriginY, x, y, cos, sin, scaleX, scaleY);
                     }
                 }
             }
         }
+        beamStrip.draw(canvas);
     }
 
     /**
@@ -1257,6 +1450,13 @@ public class LevelModel {
         return timer;
     }
 
+    /**
+     * Returns the random seed of the level, from the level properties.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
     public void remakeOrb(AssetDirectory directory, JsonValue constants){
         Collectible coll = new Collectible();
         coll.initialize(directory, orbPosition.x, orbPosition.y, scale, constants.get("orb"));
@@ -1411,7 +1611,7 @@ public class LevelModel {
          * Initialize the Aim Model.
          */
         public void initialize(AssetDirectory directory, JsonValue constants) {
-            trajectoryTexture = new TextureRegion(directory.getEntry("trajectoryProjectile", Texture.class));
+            trajectoryTexture = directory.getEntry("trajectoryProjectile", TextureRegion.class);
             gumJV = constants.get("gumProjectile");
             offsetDist = (float) Math.sqrt(Math.pow(gumJV.getFloat("offsetX"), 2) + Math.pow(gumJV.getFloat("offsetY"), 2));
         }
@@ -1423,14 +1623,20 @@ public class LevelModel {
          * @return The origin of the projectile of the gum when fired.
          */
         public Vector2 getProjOrigin(JsonValue gumJV, GameCanvas canvas) {
-            Vector2 cross = canvas.unproject(PlayerController.getInstance().getCrossHair());
-            cross.scl(1 / scale.x, 1 / scale.y);
-
-            cross.x = Math.max(bounds.x, Math.min(bounds.x + bounds.width, cross.x));
-            cross.y = Math.max(bounds.y, Math.min(bounds.y + bounds.height, cross.y));
-
-            Vector2 target = cross;
+            return getProjOrigin(gumJV, getProjTarget(canvas));
+        }
 
+        /**
+         * Returns the origin of the gum when fired by the player at the given target.
+         *
+         * Unlike the canvas version, this does not read the crosshair, so it can be
+         * used without a canvas (e.g. in headless simulations).
+         *
+         * @param gumJV the JSON Value representing the gum projectile.
+         * @param target the target of the shot in world coordinates.
+         * @return The origin of the projectile of the gum when fired.
+         */
+        public Vector2 getProjOrigin(JsonValue gumJV, Vector2 target) {
             float offsetX = gumJV.getFloat("offsetX", 0);
             float offsetY = gumJV.getFloat("offsetY", 0);
             offsetY *= bandit.getYScale();
@@ -1454,7 +1660,16 @@ public class LevelModel {
         public Vector2 getProjTarget(GameCanvas canvas) {
             Vector2 cross = canvas.unproject(PlayerController.getInstance().getCrossHair());
             cross.scl(1 / scale.x, 1 / scale.y);
+            return getProjTarget(cross);
+        }
 
+        /**
+         * Clamps the given world coordinates to the level bounds.
+         *
+         * @param cross the target in world coordinates (modified in place).
+         * @return the clamped target.
+         */
+        public Vector2 getProjTarget(Vector2 cross) {
             cross.x = Math.max(bounds.x, Math.min(bounds.x + bounds.width, cross.x));
             cross.y = Math.max(bounds.y, Math.min(bounds.y + bounds.height, cross.y));
             return cross;
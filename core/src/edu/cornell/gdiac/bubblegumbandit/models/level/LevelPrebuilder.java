@@ -0,0 +1,162 @@
+package edu.cornell.gdiac.bubblegumbandit.models.level;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.assets.AssetDirectory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Builds the {@link LevelBlueprint} of each level on a worker thread, ahead of time.
+ * <p>
+ * The screens that lead into a level ask for its blueprint as soon as they can tell
+ * which level comes next: the level select when the player hovers over a level, and
+ * the victory screen for the level after the one just won. By the time the level is
+ * loaded the blueprint is usually done, and otherwise loading waits for it.
+ * <p>
+ * A blueprint holds the whole JSON of its level and both navigation graphs, so only
+ * the blueprints of the level being played, the level after it and the level last
+ * asked for are kept. The others are dropped whenever a level is asked for or loaded,
+ * and are built again if they are needed later.
+ * <p>
+ * This class is only used from the render thread; the worker only runs the builds.
+ */
+public class LevelPrebuilder implements Disposable {
+    /** The directory the level files are taken from */
+    private final AssetDirectory directory;
+    /** The physics scale of every level */
+    private final Vector2 scale;
+    /** The blueprint of each level that was requested, by level number */
+    private final IntMap<Future<LevelBlueprint>> blueprints = new IntMap<>();
+    /** The worker thread that builds the blueprints */
+    private final ExecutorService worker;
+    /** The number of the level being played, or -1 if none */
+    private int current = -1;
+    /** The number of the level last asked for ahead of time, or -1 if none */
+    private int requested = -1;
+
+    /**
+     * Creates a prebuilder for the levels of the given directory.
+     *
+     * @param directory the loaded asset directory
+     * @param constants the JSON file defining the constants
+     */
+    public LevelPrebuilder(AssetDirectory directory, JsonValue constants) {
+        this.directory = directory;
+        float[] pSize = constants.get("physicsSize").asFloatArray();
+        scale = new Vector2(pSize[0], pSize[1]);
+        worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "LevelPrebuilder");
+                // A build that is still running must not keep the game open
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Starts building the blueprint of the given level, unless it was already requested.
+     * <p>
+     * This drops the blueprint asked for before, unless it is still needed.
+     *
+     * @param levelNum the number of the level
+     */
+    public void prebuild(int levelNum) {
+        requested = levelNum;
+        submit(levelNum);
+        trim();
+    }
+
+    /**
+     * Starts building the blueprint of the given level, unless it was already requested.
+     *
+     * @param levelNum the number of the level
+     */
+    private void submit(int levelNum) {
+        if (blueprints.containsKey(levelNum)) {
+            return;
+        }
+        final String key = "level" + levelNum;
+        // The directory is only read on this thread; the level JSON is not loaded
+        // with the other assets, so the worker reads it from its file
+        final String file = directory.getFile(key, JsonValue.class);
+        if (file == null) {
+            return;
+        }
+        final Vector2 levelScale = new Vector2(scale);
+        blueprints.put(levelNum, worker.submit(new Callable<LevelBlueprint>() {
+            @Override
+            public LevelBlueprint call() {
+                return new LevelBlueprint(key, Gdx.files.internal(file).readBytes(), levelScale);
+            }
+        }));
+    }
+
+    /**
+     * Drops the blueprints of every level other than the one being played, the one
+     * after it and the one last asked for.
+     */
+    private void trim() {
+        IntArray levels = blueprints.keys().toArray();
+        for (int ii = 0; ii < levels.size; ii++) {
+            int levelNum = levels.get(ii);
+            if (levelNum != current && levelNum != current + 1 && levelNum != requested) {
+                // A build that already started runs to the end, but is not kept
+                blueprints.remove(levelNum).cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Returns the blueprint of the given level, waiting for it to be built if necessary.
+     *
+     * @param levelNum the number of the level
+     *
+     * @return the blueprint of the given level
+     */
+    public LevelBlueprint get(int levelNum) {
+        current = levelNum;
+        submit(levelNum);
+        trim();
+        Future<LevelBlueprint> blueprint = blueprints.get(levelNum);
+        if (blueprint == null) {
+            throw new IllegalArgumentException("Missing the JSON for level " + levelNum + " in assets.json.");
+        }
+        try {
+            return blueprint.get();
+        } catch (ExecutionException e) {
+            // Forget the failure, so the next load tries again
+            blueprints.remove(levelNum);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Could not build level " + levelNum, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building level " + levelNum, e);
+        }
+    }
+
+    /**
+     * Stops the worker thread, abandoning any builds that have not started.
+     */
+    @Override
+    public void dispose() {
+        worker.shutdownNow();
+        blueprints.clear();
+        current = -1;
+        requested = -1;
+    }
+}
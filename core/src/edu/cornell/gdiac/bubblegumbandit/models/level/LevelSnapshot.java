@@ -0,0 +1,55 @@
+/*
+ * LevelSnapshot.java
+ *
+ * The state of a level right after it was populated.
+ *
+ * Retrying a level used to dispose the whole Box2D world and parse the level JSON
+ * again. A snapshot instead remembers every object that was in the level at the
+ * start, along with its gameplay state, so that the level can be put back in place.
+ * Objects that were removed during play are re-activated from their saved body
+ * definitions, objects that were added (gum, shocks) are removed again, and
+ * post-orb enemies go back to their inactive, unspawned state.
+ */
+package edu.cornell.gdiac.bubblegumbandit.models.level;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.Snapshot;
+
+/**
+ * A saved copy of a level, captured and restored by {@link LevelModel}.
+ *
+ * A snapshot only refers to objects of the level that created it, and is useless
+ * once that level has been disposed.
+ */
+public class LevelSnapshot {
+    /** The objects in the level, in their original (draw) order */
+    final Array<Obstacle> objects = new Array<>();
+    /** The same objects, for quickly finding objects added after the snapshot */
+    final ObjectSet<Obstacle> members = new ObjectSet<>();
+    /** The flippable objects in the level, in their original order */
+    final Array<Obstacle> flippables = new Array<>();
+    /** The state of every object, enemy controller, and AI graph, in that order */
+    final Snapshot state = new Snapshot();
+    /** The gravity of the world */
+    final Vector2 gravity = new Vector2();
+    /** The number of active enemy controllers (post-orb controllers go back to idle) */
+    int controllerCount;
+    /** The number of enemies in the level */
+    int enemyCount;
+    /** The random seed of the level */
+    long seed;
+
+    /**
+     * Returns true if the given object was in the level when it was captured.
+     *
+     * @param obj the object to check
+     *
+     * @return true if the given object was in the level when it was captured.
+     */
+    public boolean contains(Obstacle obj) {
+        return members.contains(obj);
+    }
+}
@@ -204,7 +204,7 @@ public class PlatformModel extends BoxObstacle {
 		
 		// Now get the texture from the AssetManager singleton
 		String key = constants.get("texture").asString();
-		TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
+		TextureRegion texture = directory.getEntry(key, TextureRegion.class);
 		setTexture(texture);
 	}
 	
@@ -4,7 +4,6 @@ import static edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController.
 import static edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController.MASK_PROJECTILE;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Filter;
@@ -15,10 +14,10 @@ import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectSet;
 import com.badlogic.gdx.utils.Pool;
-import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController;
 import edu.cornell.gdiac.bubblegumbandit.helpers.Damage;
 import edu.cornell.gdiac.bubblegumbandit.view.AnimationController;
+import edu.cornell.gdiac.bubblegumbandit.view.AnimationLibrary;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
@@ -144,8 +143,9 @@ public class ShockModel extends BoxObstacle implements Pool.Poolable {
         collisions.remove(ob);
     }
 
-    public void initialize(AssetDirectory directory, Vector2 scale, JsonValue data, float x, float y, float radius, boolean isBottom, boolean isLeft) {
-        animationController = new AnimationController(directory, "shockArc");
+    public void initialize(AnimationLibrary animations, TextureRegion floorTexture, TextureRegion floorTexture2,
+                           Vector2 scale, JsonValue data, float x, float y, float radius, boolean isBottom, boolean isLeft) {
+        animationController = new AnimationController(animations, "shockArc");
 //        floorAnimationController = new AnimationController(directory, "shockFloor");
 
         setName("projectile");
@@ -163,10 +163,8 @@ public class ShockModel extends BoxObstacle implements Pool.Poolable {
         setWidth(radius / 2);
         setHeight(radius * 2);
 
-        String key = data.get("floorTexture").asString();
-        electricFloorTexture = new TextureRegion(directory.getEntry(key, Texture.class));
-        key = data.get("floorTexture2").asString();
-        electricFloorTexture2 = new TextureRegion(directory.getEntry(key, Texture.class));
+        electricFloorTexture = floorTexture;
+        electricFloorTexture2 = floorTexture2;
         curFloor = electricFloorTexture;
 
         // Initialize the sensors used to detect shocking.
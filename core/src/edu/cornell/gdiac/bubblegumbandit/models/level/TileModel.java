@@ -104,8 +104,10 @@ public class TileModel extends BoxObstacle {
 
     public void drawDebug(GameCanvas canvas){
         //smaller than grid square
-        square = new PolygonShape();
-        square.setAsBox(0.5f, 0.5f);
+        if (square == null) {
+            square = new PolygonShape();
+            square.setAsBox(0.5f, 0.5f);
+        }
         canvas.drawPhysics(square, Color.GREEN, getX(), getY(), 0, drawScale.x, drawScale.y);
     }
 }
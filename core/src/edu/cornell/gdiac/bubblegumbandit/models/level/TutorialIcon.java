@@ -2,7 +2,6 @@ package edu.cornell.gdiac.bubblegumbandit.models.level;
 
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
@@ -10,6 +9,7 @@ import com.badlogic.gdx.utils.Align;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.controllers.modes.SettingsMode;
 import edu.cornell.gdiac.bubblegumbandit.helpers.SaveData;
+import edu.cornell.gdiac.bubblegumbandit.view.DrawCuller;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 
 import java.util.HashMap;
@@ -49,7 +49,7 @@ public class TutorialIcon {
     this.x = x;
     this.y = y;
     this.keyCode = -1;
-    this.icon = new TextureRegion(directory.getEntry(filename, Texture.class));
+    this.icon = directory.getEntry(filename, TextureRegion.class);
     this.scale = scale;
     this.description = description;
     this.fontSmall = directory.getEntry("sedgwickAveSmall", BitmapFont.class);
@@ -60,28 +60,28 @@ public class TutorialIcon {
   private TextureRegion getTexture(AssetDirectory directory) {
     switch(keyCode) {
       case 0: {
-        return new TextureRegion(directory.getEntry("leftIcon", Texture.class));
+        return directory.getEntry("leftIcon", TextureRegion.class);
       }
       case 1: {
-        return new TextureRegion(directory.getEntry("rightIcon", Texture.class));
+        return directory.getEntry("rightIcon", TextureRegion.class);
       }
       case 2: {
-        return new TextureRegion(directory.getEntry("upIcon", Texture.class));
+        return directory.getEntry("upIcon", TextureRegion.class);
       }
       case 3: {
-        return new TextureRegion(directory.getEntry("downIcon", Texture.class));
+        return directory.getEntry("downIcon", TextureRegion.class);
       }
       case 4: {
-        return new TextureRegion(directory.getEntry("shootIcon", Texture.class));
+        return directory.getEntry("shootIcon", TextureRegion.class);
       }
       case 5: {
-        return new TextureRegion(directory.getEntry("unstickIcon", Texture.class));
+        return directory.getEntry("unstickIcon", TextureRegion.class);
       }
       case 6: {
-        return new TextureRegion(directory.getEntry("reloadIcon", Texture.class));
+        return directory.getEntry("reloadIcon", TextureRegion.class);
       }
       case 7: {
-        return new TextureRegion(directory.getEntry("mapIcon", Texture.class));
+        return directory.getEntry("mapIcon", TextureRegion.class);
       }
       default : {
         System.err.println("No key associated with keyCode "+keyCode);
@@ -134,6 +134,19 @@ public class TutorialIcon {
     return keyText;
   }
 
+  /**
+   * Returns true if this icon or its text is on screen.
+   *
+   * @param culler the culler for the current frame
+   * @return true if this icon or its text is on screen
+   */
+  public boolean isVisible(DrawCuller culler) {
+    float width = Math.max(icon.getRegionWidth(), 128f);
+    float height = icon.getRegionHeight() + margin * 8f;
+    return culler.isVisible(x * scale.x + width / 2f, y * scale.y + icon.getRegionHeight() - height / 2f,
+        width / 2f, height / 2f);
+  }
+
   public void draw(GameCanvas canvas) {
     canvas.draw(icon, x * scale.x, y * scale.y);
     float width = Math.max(icon.getRegionWidth(), 128f);
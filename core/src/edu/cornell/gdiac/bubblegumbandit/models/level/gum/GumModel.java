@@ -1,7 +1,6 @@
 package edu.cornell.gdiac.bubblegumbandit.models.level.gum;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.physics.box2d.CircleShape;
 import com.badlogic.gdx.physics.box2d.Filter;
 import com.badlogic.gdx.physics.box2d.Fixture;
@@ -11,7 +10,6 @@ import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.ObjectSet;
 import edu.cornell.gdiac.bubblegumbandit.controllers.CollisionController;
 import edu.cornell.gdiac.bubblegumbandit.helpers.Unstickable;
-import edu.cornell.gdiac.bubblegumbandit.models.enemy.RollingEnemyModel;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
 import edu.cornell.gdiac.physics.obstacle.WheelObstacle;
@@ -43,12 +41,6 @@ public class GumModel extends WheelObstacle implements Unstickable {
 
     private boolean onTile;
 
-    private TextureRegion outline;
-
-    private TextureRegion rollingOutline;
-
-    private float outlineHeight;
-
     private Fixture sensorFixture;
     private CircleShape sensorShape;
 
@@ -60,7 +52,6 @@ public class GumModel extends WheelObstacle implements Unstickable {
         super(x, y, radius);
         obstacles = new ObjectSet<>();
         onTile = false;
-        outlineHeight = 48;
         sensorShape = new CircleShape();
         sensorShape.setRadius(radius * 1.5f);
     }
@@ -119,25 +110,15 @@ public class GumModel extends WheelObstacle implements Unstickable {
         }
     }
 
-    /** Sets the outline used for this gum model. */
-    public void setOutline(TextureRegion t) {
-        outline = t;
-        rollingOutline = new TextureRegion(t);
-    }
-
+    /**
+     * Draws the gum with an outline, for when the player is aiming at it.
+     *
+     * The texture of gum on an unsticking rolling enemy shrinks with the unsticking,
+     * so the outline follows it.
+     */
     public void drawWithOutline(GameCanvas canvas) {
-        for (Obstacle ob : obstacles) {
-            if (ob instanceof RollingEnemyModel && ((RollingEnemyModel) ob).isUnsticking()) {
-                rollingOutline.setRegionHeight((int) (((RollingEnemyModel) ob).getUnstickingFraction() * 38 + 10));
-                canvas.draw(rollingOutline, Color.WHITE,origin.x,origin.y,getX()*drawScale.x- 5,getY()*drawScale.x-5,getAngle(),1,1);
-                return;
-            }
+        if (texture != null) {
+            canvas.drawOutlined(texture, Color.WHITE, origin.x, origin.y, getX()*drawScale.x, getY()*drawScale.x, getAngle(), 1, 1);
         }
-        if (outline != null) {
-            canvas.draw(outline, Color.WHITE,origin.x,origin.y,getX()*drawScale.x-5,getY()*drawScale.x-5,getAngle(),1,1);
-        } else {
-            super.draw(canvas);
-        }
-
     }
 }
\ No newline at end of file
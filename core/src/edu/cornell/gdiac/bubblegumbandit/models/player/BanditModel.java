@@ -23,6 +23,7 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectSet;
 import edu.cornell.gdiac.assets.AssetDirectory;
@@ -42,6 +43,7 @@ import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
 import edu.cornell.gdiac.physics.obstacle.CapsuleObstacle;
 
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.Snapshot;
 import java.lang.reflect.Field;
 import org.w3c.dom.Text;
 
@@ -748,11 +750,11 @@ public class BanditModel extends CapsuleObstacle {
 
         // Now get the texture from the AssetManager singleton
         String key = constantsJson.get("texture").asString();
-        TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
+        TextureRegion texture = directory.getEntry(key, TextureRegion.class);
         setTexture(texture);
 
         key = constantsJson.get("victory").asString();
-        victoryText = new TextureRegion(directory.getEntry(key, Texture.class));
+        victoryText = directory.getEntry(key, TextureRegion.class);
         setTexture(texture);
 
 
@@ -846,14 +848,20 @@ public class BanditModel extends CapsuleObstacle {
         }
     }
 
-    /**Draw the reload gum symbol above bandits head*/
-    public void drawReload(GameCanvas canvas) {
+    /**Returns the reload gum symbol drawn above bandits head*/
+    public Texture getReloadSymbol() {
+        return reloadSymbol;
+    }
+
+    /**Sets the position of the reload gum symbol above bandits head, in pixels
+     *
+     * @param position the vector to store the position in
+     * @return the position, for chaining */
+    public Vector2 getReloadSymbolPosition(Vector2 position) {
         if (isFlipped) {
-            canvas.draw(reloadSymbol, Color.WHITE, (getX() - getWidth()/3) * drawScale.x, (getY() - getHeight() * 1.1f) * drawScale.y, reloadSymbol.getWidth(), reloadSymbol.getHeight());
-        }
-        else {
-            canvas.draw(reloadSymbol, Color.WHITE, (getX() - getWidth()/3) * drawScale.x, (getY() + getHeight()/2 * 1.3f) * drawScale.y, reloadSymbol.getWidth(), reloadSymbol.getHeight());
+            return position.set((getX() - getWidth()/3) * drawScale.x, (getY() - getHeight() * 1.1f) * drawScale.y);
         }
+        return position.set((getX() - getWidth()/3) * drawScale.x, (getY() + getHeight()/2 * 1.3f) * drawScale.y);
     }
 
     /**
@@ -1055,7 +1063,9 @@ public class BanditModel extends CapsuleObstacle {
                 float banditLeft = getX() - (getWidth() / 2f);
                 float banditRight = getX() + (getWidth() / 2f);
                 boolean isCrusher = false;
-                for (Obstacle ob : getCollisions()) {
+                Array<Obstacle> collisions = getCollisions();
+                for (int ii = 0; ii < collisions.size; ii++) {
+                    Obstacle ob = collisions.get(ii);
                     if (!(ob instanceof CrusherModel)) {
                         float obHW = 0;
 
@@ -1155,6 +1165,95 @@ public class BanditModel extends CapsuleObstacle {
         return stunTime;
     }
 
+    /**
+     * Writes the gameplay state of the bandit to the given snapshot.
+     *
+     * @param state the snapshot to write to
+     */
+    @Override
+    public void saveState(Snapshot state) {
+        super.saveState(state);
+        state.putFloat(movement);
+        state.putBoolean(faceRight);
+        state.putBoolean(isGrounded);
+        state.putFloat(knockbackTimer);
+        state.putInt(healthCountdown);
+        state.putBoolean(isShooting);
+        state.putBoolean(hasFlipped);
+        state.putInt(shootCooldown);
+        state.putFloat(angle);
+        state.putLong(ticks);
+        state.putFloat(yScale);
+        state.putBoolean(backpedal);
+        state.putVector(cameraTarget);
+        state.putFloat(AFKtimer);
+        state.putBoolean(orbCollected);
+        state.putInt(numStars);
+        state.putBoolean(isKnockback);
+        state.putInt(stunTime);
+        state.putInt(gumAmmo);
+        state.putInt(maxGum);
+        state.putObject(curFrame);
+        state.putBoolean(atDoor);
+        state.putBoolean(inCooldown);
+        state.putFloat(health);
+        state.putBoolean(shouldSpark);
+        state.putObject(crusher);
+        state.putBoolean(isCrushing);
+        state.putFloat(crushScale);
+        state.putBoolean(victory);
+        state.putBoolean(invulnerable);
+        state.putBoolean(playingReload);
+        animationController.saveState(state);
+    }
+
+    /**
+     * Restores the gameplay state of the bandit from the given snapshot.
+     *
+     * Contacts with shocks are forgotten, as the contacts are rebuilt on the
+     * next physics step.
+     *
+     * @param state the snapshot to read from
+     */
+    @Override
+    public void restoreState(Snapshot state) {
+        super.restoreState(state);
+        movement = state.getFloat();
+        faceRight = state.getBoolean();
+        isGrounded = state.getBoolean();
+        knockbackTimer = state.getFloat();
+        healthCountdown = state.getInt();
+        isShooting = state.getBoolean();
+        hasFlipped = state.getBoolean();
+        shootCooldown = state.getInt();
+        angle = state.getFloat();
+        ticks = state.getLong();
+        yScale = state.getFloat();
+        backpedal = state.getBoolean();
+        state.getVector(cameraTarget);
+        AFKtimer = state.getFloat();
+        orbCollected = state.getBoolean();
+        numStars = state.getInt();
+        isKnockback = state.getBoolean();
+        stunTime = state.getInt();
+        gumAmmo = state.getInt();
+        maxGum = state.getInt();
+        curFrame = state.getObject();
+        atDoor = state.getBoolean();
+        inCooldown = state.getBoolean();
+        health = state.getFloat();
+        shouldSpark = state.getBoolean();
+        crusher = state.getObject();
+        isCrushing = state.getBoolean();
+        crushScale = state.getFloat();
+        victory = state.getBoolean();
+        invulnerable = state.getBoolean();
+        playingReload = state.getBoolean();
+        animationController.restoreState(state);
+        shockFixtures.clear();
+        poofController.clear();
+    }
+
     /**
      * Draws the outline of the physics body, including the field of vision
      * <p>
@@ -1,36 +1,37 @@
 package edu.cornell.gdiac.bubblegumbandit.view;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
-import edu.cornell.gdiac.util.FilmStrip;
+import edu.cornell.gdiac.util.SimClock;
+import edu.cornell.gdiac.util.Snapshot;
 import java.util.HashMap;
 
-/** An animation controller to animate objects in the game */
+/**
+ * An animation controller to animate objects in the game.
+ *
+ * The clips themselves are shared through the {@link AnimationLibrary}; a controller
+ * only tracks which clips it is playing and where it is in them.
+ */
 public class AnimationController {
 
-  /** The FPS of the looping looping animation */
-  private float loopFPS = 8;
-
-  /** The FPS of the looping temporary (non-looping) animation */
-  private float tempFPS = 8;
-
   /** Frame number */
   private int frameNum;
 
-  /** Maps animations to their names */
+  /** Maps animations to their names (shared, do not modify) */
+  private HashMap<String, AnimationLibrary.Clip> animations;
 
-  private HashMap<String, FilmStrip> animations;
+  /** The looping animation */
+  private AnimationLibrary.Clip looping;
 
-  /** Maps FPS to animation names */
-  private HashMap<String, Float> fps;
+  /** The temporary (non-looping) animation (will usually be null) */
+  private AnimationLibrary.Clip temp;
 
-  /** The looping looping animation */
-  private FilmStrip looping;
+  /** The frame of the looping animation */
+  private int loopFrame;
 
-  /** The looping temporary animation (will usually be null) */
-  private FilmStrip temp;
+  /** The frame of the temporary animation */
+  private int tempFrame;
 
   /** Whether the temporary animation has finished and is ready to be dropped */
   private boolean finished;
@@ -38,17 +39,15 @@ public class AnimationController {
   /** The time elapsed since the last animation frame; */
   private float timeSinceLastFrame = 0f;
 
-  /** The name of the looping looping animation */
+  /** The name of the looping animation */
   private String currentName;
 
-  /** The name of the looping temporary animation */
+  /** The name of the temporary animation */
   private String tempName;
 
   boolean ending = false;
   boolean ended = false;
 
-  private TextureRegion lastFrame;
-
 
   /**
    * Creates an animation controller
@@ -56,63 +55,70 @@ public class AnimationController {
    * @param key the key for the animation controller in animations.json
    */
   public AnimationController(AssetDirectory directory, String key) {
-    animations = new HashMap<>();
-    fps = new HashMap<>();
-
-
-    JsonValue controllerJSON = directory.getEntry("animations", JsonValue.class).get(key);
+    this(AnimationLibrary.get(directory), key);
+  }
 
-    for(JsonValue value : controllerJSON) {
-      String name = value.name();
-      FilmStrip strip = directory.getEntry(value.get("strip").asString(), FilmStrip.class);
-      strip = strip.copy(); // Each needs own filmstrip to make this not dependent on # enemies
-      animations.put(name,strip);
-      fps.put(name, value.get("fps").asFloat());
-      if(looping ==null) {
-        looping = strip;
-        currentName = name;
-        loopFPS =  value.get("fps").asFloat();
-      }
-      if(strip==null) System.err.println("ohno "+name);
-    }
+  /**
+   * Creates an animation controller from an animation library that is already built
+   * @param library the animation library
+   * @param key the key for the animation controller in animations.json
+   */
+  public AnimationController(AnimationLibrary library, String key) {
+    animations = library.getClips(key);
+    looping = library.getDefault(key);
+    currentName = looping == null ? null : looping.getName();
     finished = true;
 
   }
 
   public boolean onLastFrame() {
-    FilmStrip strip = temp==null ? looping : temp;
-    return strip.getSize() == strip.getFrame()+1;
+    AnimationLibrary.Clip clip = temp==null ? looping : temp;
+    int frame = temp==null ? loopFrame : tempFrame;
+    return clip.getSize() == frame+1;
   }
 
 
   /**
-   * Returns the looping frame
+   * Advances the animation by the simulation step and returns the current frame
+   */
+  public TextureRegion getFrame() {
+    return getFrame(SimClock.getDeltaTime());
+  }
+
+  /**
+   * Advances the animation by the given time and returns the current frame
+   *
+   * @param dt the time elapsed since the last call, in seconds
    */
-  public FilmStrip getFrame() {
+  public TextureRegion getFrame(float dt) {
 
-    timeSinceLastFrame += Gdx.graphics.getDeltaTime();
+    timeSinceLastFrame += dt;
 
-    if(!ended&&temp!=null&&finished&&timeSinceLastFrame>=1f/tempFPS) temp = null;
+    if(!ended&&temp!=null&&finished&&timeSinceLastFrame>=1f/temp.getFPS()) temp = null;
 
-    FilmStrip strip = temp==null ? looping : temp;
-    float fps = temp==null ? loopFPS : tempFPS-1;
+    AnimationLibrary.Clip clip = temp==null ? looping : temp;
+    float fps = temp==null ? looping.getFPS() : temp.getFPS()-1;
+    int frame = temp==null ? loopFrame : tempFrame;
 
-    if(ended) return strip;
+    if(ended) return clip.getFrame(frame);
 
-    if(timeSinceLastFrame<1f/fps) return strip;
-    int frame = strip.getFrame();
-    frame = (int) ((frame + timeSinceLastFrame/(1f/fps))% strip.getSize());
+    if(timeSinceLastFrame<1f/fps) return clip.getFrame(frame);
+    frame = (int) ((frame + timeSinceLastFrame/(1f/fps))% clip.getSize());
     frameNum = frame;
-    strip.setFrame(frame);
+    if (temp == null) {
+      loopFrame = frame;
+    } else {
+      tempFrame = frame;
+    }
     timeSinceLastFrame = 0;
 
-    if(temp!=null&&temp.getFrame()==temp.getSize()-1) {
+    if(temp!=null&&tempFrame==temp.getSize()-1) {
       finished = true;
       if(ending) ended = true;
     }
 
 
-    return strip;
+    return clip.getFrame(frame);
 
   }
   public boolean isEnding() {
@@ -160,14 +166,14 @@ public class AnimationController {
       timeSinceLastFrame = 0f;
       frameNum = 0;
       if(loop) {
+        if (looping != animations.get(name)) loopFrame = 0;
         looping = animations.get(name);
         currentName = name;
-        loopFPS = fps.get(name);
       } else {
         finished = false;
         temp = animations.get(name);
         tempName = name;
-        tempFPS = fps.get(name);
+        tempFrame = 0;
       }
       ending = end;
     } else {
@@ -176,15 +182,68 @@ public class AnimationController {
 
   }
 
+  /**
+   * Writes the playback state of this controller to the given snapshot.
+   *
+   * @param state the snapshot to write to
+   */
+  public void saveState(Snapshot state) {
+    state.putObject(looping);
+    state.putObject(temp);
+    state.putObject(currentName);
+    state.putObject(tempName);
+    state.putInt(frameNum);
+    state.putBoolean(finished);
+    state.putFloat(timeSinceLastFrame);
+    state.putBoolean(ending);
+    state.putBoolean(ended);
+    state.putInt(loopFrame);
+    state.putInt(tempFrame);
+  }
+
+  /**
+   * Restores the playback state of this controller from the given snapshot.
+   *
+   * @param state the snapshot to read from
+   */
+  public void restoreState(Snapshot state) {
+    looping = state.getObject();
+    temp = state.getObject();
+    currentName = state.getObject();
+    tempName = state.getObject();
+    frameNum = state.getInt();
+    finished = state.getBoolean();
+    timeSinceLastFrame = state.getFloat();
+    ending = state.getBoolean();
+    ended = state.getBoolean();
+    loopFrame = state.getInt();
+    tempFrame = state.getInt();
+  }
+
+  /**
+   * Stops the temporary animation and rewinds the controller, so it can be reused.
+   */
+  public void reset() {
+    temp = null;
+    tempName = null;
+    tempFrame = 0;
+    loopFrame = 0;
+    frameNum = 0;
+    finished = true;
+    timeSinceLastFrame = 0f;
+    ending = false;
+    ended = false;
+  }
+
   /**
    * Clears all looping animations, looping and not.
    */
   public void clearAnimations() {
     this.looping = null;
     this.currentName = "No animation playing.";
-    this.loopFPS = -1;
+    this.loopFrame = 0;
     this.temp = null;
-    this.tempFPS = -1;
+    this.tempFrame = 0;
     this.tempName = "No animation playing.";
 
 
@@ -0,0 +1,138 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.util.FilmStrip;
+import java.util.HashMap;
+
+/**
+ * The animation clips of the game, shared by every animation controller.
+ *
+ * Each controller used to copy every filmstrip of its key, so that each instance
+ * could keep its own frame. The clips here are built once from animations.json
+ * and never change; the controllers only keep which clip and frame they are on.
+ */
+public class AnimationLibrary {
+
+  /** A single animation: its frames and its speed */
+  public static final class Clip {
+    /** The name of the clip in animations.json */
+    private final String name;
+    /** The region of each frame */
+    private final TextureRegion[] frames;
+    /** The frames per second of the clip */
+    private final float fps;
+
+    private Clip(String name, FilmStrip strip, float fps) {
+      this.name = name;
+      this.fps = fps;
+      FilmStrip cursor = strip.copy();
+      frames = new TextureRegion[strip.getSize()];
+      for (int i = 0; i < frames.length; i++) {
+        cursor.setFrame(i);
+        frames[i] = new TextureRegion(cursor);
+      }
+    }
+
+    /** Returns the name of the clip */
+    public String getName() {
+      return name;
+    }
+
+    /** Returns the number of frames in the clip */
+    public int getSize() {
+      return frames.length;
+    }
+
+    /** Returns the frames per second of the clip */
+    public float getFPS() {
+      return fps;
+    }
+
+    /**
+     * Returns the region of the given frame.
+     *
+     * The region is shared, so it must not be modified.
+     * @param frame the index of the frame
+     */
+    public TextureRegion getFrame(int frame) {
+      return frames[frame];
+    }
+  }
+
+  /** The library for the last asset directory */
+  private static AnimationLibrary shared;
+
+  /** The directory the clips were built from */
+  private final AssetDirectory directory;
+
+  /** Maps controller keys to their clips, by clip name */
+  private final HashMap<String, HashMap<String, Clip>> clips;
+
+  /** Maps controller keys to their first clip, which plays by default */
+  private final HashMap<String, Clip> defaults;
+
+  /**
+   * Returns the animation library of the given directory, building it on first use.
+   *
+   * @param directory the asset directory, with animations.json and its filmstrips loaded
+   */
+  public static AnimationLibrary get(AssetDirectory directory) {
+    if (shared == null || shared.directory != directory) {
+      shared = new AnimationLibrary(directory);
+    }
+    return shared;
+  }
+
+  /**
+   * Builds the clips of every controller key in animations.json.
+   *
+   * @param directory the asset directory
+   */
+  private AnimationLibrary(AssetDirectory directory) {
+    this.directory = directory;
+    clips = new HashMap<>();
+    defaults = new HashMap<>();
+
+    JsonValue json = directory.getEntry("animations", JsonValue.class);
+    for (JsonValue controllerJSON : json) {
+      HashMap<String, Clip> named = new HashMap<>();
+      for (JsonValue value : controllerJSON) {
+        String stripName = value.get("strip").asString();
+        FilmStrip strip = directory.getEntry(stripName, FilmStrip.class);
+        if (strip == null) {
+          throw new RuntimeException("Missing filmstrip " + stripName + " for animation " + value.name());
+        }
+        Clip clip = new Clip(value.name(), strip, value.get("fps").asFloat());
+        named.put(clip.getName(), clip);
+        if (!defaults.containsKey(controllerJSON.name())) {
+          defaults.put(controllerJSON.name(), clip);
+        }
+      }
+      clips.put(controllerJSON.name(), named);
+    }
+  }
+
+  /**
+   * Returns the clips of the given controller key, by name.
+   *
+   * @param key the key of the controller in animations.json
+   */
+  public HashMap<String, Clip> getClips(String key) {
+    HashMap<String, Clip> named = clips.get(key);
+    if (named == null) {
+      throw new IllegalArgumentException("No animations for " + key);
+    }
+    return named;
+  }
+
+  /**
+   * Returns the clip that plays by default for the given controller key.
+   *
+   * @param key the key of the controller in animations.json
+   */
+  public Clip getDefault(String key) {
+    return defaults.get(key);
+  }
+}
@@ -31,12 +31,13 @@ import static java.lang.String.valueOf;
  *
  * ShipBackground requires that the json file of the given level contains the layer "Corners" to draw the background.
  * Otherwise, no background will be drawn.
+ *
+ * The ship polygon only depends on the level file, so it is computed once per level
+ * (see {@link Hull}) as part of the level blueprint, and kept for every later attempt
+ * at that level.
  */
 public class Background {
 
-    /** An ear-clipping triangular to make sure we work with convex shapes */
-    private static final EarClippingTriangulator TRIANGULATOR = new EarClippingTriangulator();
-
     /**Width of the level */
     private int width;
 
@@ -53,22 +54,8 @@ public class Background {
      */
     private final TextureRegion spaceBg;
 
-    /** The positions of the tiles */
-    private ArrayList<Vector2> cornerPositions;
-
-    /** the smallest x coordinate to offset all other x values with */
-    private float x_offset;
-
-    /** the smallest y coordinate to offset all other y values with */
-    private float y_offset;
-
-    /** largest x coordinate, used to find centroid */
-    private float x_max;
-    /** largest y coordinate, used to find centroid */
-    private float y_max;
-
-    /** A list of the x and y positions of each vertex in the ship's polygon */
-    private float[] vertices;
+    /** The ship polygon of the current level (null if it has none) */
+    private Hull hull;
 
     /** Polygon representing space */
     private PolygonRegion spaceReg;
@@ -80,9 +67,6 @@ public class Background {
      */
     protected BitmapFont debugFont;
 
-    /** the center of the polygon region, used to sort the vertices*/
-    private Vector2 centroid;
-
     /** Tile id number representing the centroid of the polygon */
     private final static int CENTER_ID = 2;
 
@@ -102,8 +86,7 @@ public class Background {
 
     /** Resets all variables to their initial values */
     public void reset(){
-        y_max = 0;
-        x_max = 0;
+        hull = null;
         shipReg = null;
         spaceReg = null;
     }
@@ -111,65 +94,21 @@ public class Background {
     /** Initializes the background for a given level.
      *
      * @param directory The asset directory.
-     * @param levelFormat the current level.
+     * @param hull the ship polygon of the current level, or null if it has none.
      * @param physicsWidth The physics height of the level.
      * @param physicsHeight The physics width of the level.
      */
-    public void initialize(AssetDirectory directory, JsonValue levelFormat, int physicsWidth, int physicsHeight) {
-
-        //Make the Minimap's background and map tiles.
-        //Set fields.
+    public void initialize(AssetDirectory directory, Hull hull, int physicsWidth, int physicsHeight) {
         width = physicsWidth;
         height = physicsHeight;
-        x_offset = width;
-        y_offset = height;
-
-
-        //Find all positions of floors/platforms.
-        cornerPositions = new ArrayList<>();
-        JsonValue layer = levelFormat.get("layers").child();
-        JsonValue tileLayer = null;
-        while (layer != null) {
-            String layerName = layer.getString("name");
-            if ("Corners".equals(layerName)) {
-                tileLayer = layer;
-            }
-            layer = layer.next();
-        }
+        debugFont = directory.getEntry("display", BitmapFont.class);
+
+        this.hull = hull;
         //if no Corners layer was found
-        if (tileLayer == null){
+        if (hull == null) {
             return;
         }
-
-        // width x height matrix as array
-        int[] worldData = tileLayer.get("data").asIntArray();
-
-        // Iterate over each tile in the world and create if it exists
-        for (int i = 0; i < worldData.length; i++) {
-            int tileVal = worldData[i];
-            //mark the centroid
-            if (tileVal == CENTER_ID) {
-                float x = (i % width) + 1f;
-                float y = height - (i / width) - 1f;
-                centroid = new Vector2(x, y);
-            }
-            //mark the corners
-            else if (tileVal != 0) {
-                float x = (i % width) + 1f;
-                float y = height - (i / width) - 1f;
-                cornerPositions.add(new Vector2(x, y));
-
-                if (x < x_offset) x_offset = x;
-                if (y < y_offset) y_offset = y;
-                if (x > x_max) x_max = x;
-                if (y > y_max) y_max = y;
-
-            }
-        }
         createPolygons();
-
-        debugFont = directory.getEntry("display", BitmapFont.class);
-
     }
 
     /** Creates the polygons representing space and the spaceship. */
@@ -187,119 +126,195 @@ public class Background {
                 0, 2, 3          // Take care of the counter-clockwise direction.
         });
 
-        //create ship polygon
-        //sort vectors in cornerPositions in a clockwise order using polar coordinates relative to a central point
-        sortVertices();
+        // The hull arrays are never modified, so the region can share them
+        shipReg = new PolygonRegion(shipBg, hull.vertices, hull.triangles);
+    }
 
-        //create triangles
-        ShortArray array  = TRIANGULATOR.computeTriangles(vertices);
-        trimColinear(vertices,array);
 
-        shipReg = new PolygonRegion(shipBg, vertices,array.toArray() );
+    /** Draws the repeating space background and the cropped ship background */
+    public void draw(GameCanvas canvas){
 
+        if (spaceReg == null || shipReg == null) return;
+        canvas.begin();
 
-    }
+        canvas.draw(spaceReg, -width * SCALE, -height * SCALE);
+        canvas.draw(shipReg, hull.xOffset * SCALE, hull.yOffset * SCALE);
 
-    /**
-     *  Using the list of vertices in CornerPositions,
-     *  sorts the vertices in a clockwise order relative to a central position within the polygon.
-     *  Using this sorted list, creates a list of floats representing each of the vertices that is compatible with
-     *  PolygonRegion.
-     *
-     *  The final list is stored in vertices
-     */
-    private void sortVertices(){
-        //centroid is the middle x and y position
-//        float centerX = x_offset + ((x_max - x_offset)/2);
-//        float centerY = y_offset + ((y_max - y_offset)/2);
-//        centroid = new Vector2(centerX, centerY);
-
-        //angles of rotations of all corner positions relative to the centroid
-        Vertex[] cwPositions = new Vertex[cornerPositions.size()];
-        for (int i = 0; i < cwPositions.length; i++){
-            Vector2 point = cornerPositions.get(i);
-            cwPositions[i] = new Vertex(point, centroid);
-        }
+        canvas.end();
 
-        //sort angles via insertion sort
-        int k = 0;
-        while (k < cwPositions.length){
-            int j = k;
-            while (0<j && cwPositions[j].compareTo(cwPositions[j-1]) > 0){
-                Vertex temp = cwPositions[j];
-                cwPositions[j] = cwPositions[j-1];
-                cwPositions[j-1] = temp;
-                j--;
-            }
-            k++;
-        }
 
-        // change corner positions into a list of vertices compatible with PolygonRegion
-        vertices = new float[cwPositions.length * 2];
-        for (int i = 0; i < vertices.length; i += 2){
-//            System.out.println(cwPositions[i].angle);
-            vertices[i] = ((cwPositions[i/2].coordinates).x - x_offset) * SCALE;
-            vertices[i + 1] = ((cwPositions[i/2].coordinates).y - y_offset) * SCALE;
-//            System.out.println(vertices[i] + ", " + vertices[i + 1] );
+    }
+
+    /** Draws the number associated to each vertex and marks the centroid with an 'X' */
+    public void drawDebug(GameCanvas canvas){
+        if (hull == null) return;
+        float[] vertices = hull.vertices;
+        canvas.begin();
+        for (int i = 0; i < vertices.length; i += 2) {
+            canvas.drawText(valueOf(i / 2), debugFont, vertices[i] + hull.xOffset * SCALE, vertices[i + 1] + hull.yOffset * SCALE);
         }
+        canvas.drawText("X", debugFont, hull.centroid.x * SCALE, hull.centroid.y * SCALE);
+        canvas.end();
     }
 
+
     /**
-     * Removes colinear vertices from the given triangulation.
-     *
-     * For some reason, the LibGDX triangulator will occasionally return colinear
-     * vertices.
+     * The triangulated polygon of the ship in a level.
      *
-     * @param points  The polygon vertices
-     * @param indices The triangulation indices
+     * This is everything about the background that is read from the level file. It is
+     * computed once per level and never modified afterwards.
      */
-    private void trimColinear(float[] points, ShortArray indices) {
-        int colinear = 0;
-        for(int ii = 0; ii < indices.size/3-colinear; ii++) {
-            float t1 = points[2*indices.items[3*ii  ]]*(points[2*indices.items[3*ii+1]+1]-points[2*indices.items[3*ii+2]+1]);
-            float t2 = points[2*indices.items[3*ii+1]]*(points[2*indices.items[3*ii+2]+1]-points[2*indices.items[3*ii  ]+1]);
-            float t3 = points[2*indices.items[3*ii+2]]*(points[2*indices.items[3*ii  ]+1]-points[2*indices.items[3*ii+1]+1]);
-            if (Math.abs(t1+t2+t3) < 0.0000001f) {
-                indices.swap(3*ii  ,  indices.size-3*colinear-3);
-                indices.swap(3*ii+1,  indices.size-3*colinear-2);
-                indices.swap(3*ii+2,  indices.size-3*colinear-1);
-                colinear++;
-            }
+    public static final class Hull {
+        /** The x and y positions of each vertex, relative to the offset, in pixels */
+        private final float[] vertices;
+        /** The triangles of the polygon, as vertex indices */
+        private final short[] triangles;
+        /** The smallest x and y coordinates of the corners, in tiles */
+        private final float xOffset, yOffset;
+        /** The center of the polygon, used to sort the vertices */
+        private final Vector2 centroid;
+
+        private Hull(float[] vertices, short[] triangles, float xOffset, float yOffset, Vector2 centroid) {
+            this.vertices = vertices;
+            this.triangles = triangles;
+            this.xOffset = xOffset;
+            this.yOffset = yOffset;
+            this.centroid = centroid;
         }
-        indices.size -= 3*colinear;
-        indices.shrink();
-    }
 
+        /**
+         * Computes the ship polygon from the "Corners" layer of a level.
+         *
+         * This does not touch any shared state, so it may run on any thread.
+         *
+         * @param levelFormat the level file
+         * @param width the physics width of the level
+         * @param height the physics height of the level
+         *
+         * @return the ship polygon, or null if the level has no "Corners" layer
+         */
+        public static Hull compute(JsonValue levelFormat, int width, int height) {
+            //Find all positions of floors/platforms.
+            JsonValue layer = levelFormat.get("layers").child();
+            JsonValue tileLayer = null;
+            while (layer != null) {
+                String layerName = layer.getString("name");
+                if ("Corners".equals(layerName)) {
+                    tileLayer = layer;
+                }
+                layer = layer.next();
+            }
+            if (tileLayer == null){
+                return null;
+            }
 
-    /** Draws the repeating space background and the cropped ship background */
-    public void draw(GameCanvas canvas){
+            // width x height matrix as array
+            int[] worldData = tileLayer.get("data").asIntArray();
+            ArrayList<Vector2> cornerPositions = new ArrayList<>();
+            Vector2 centroid = null;
+            float xOffset = width;
+            float yOffset = height;
 
-        if (spaceReg == null || shipReg == null) return;
-        canvas.begin();
+            // Iterate over each tile in the world and create if it exists
+            for (int i = 0; i < worldData.length; i++) {
+                int tileVal = worldData[i];
+                float x = (i % width) + 1f;
+                float y = height - (i / width) - 1f;
+                //mark the centroid
+                if (tileVal == CENTER_ID) {
+                    centroid = new Vector2(x, y);
+                }
+                //mark the corners
+                else if (tileVal != 0) {
+                    cornerPositions.add(new Vector2(x, y));
+                    if (x < xOffset) xOffset = x;
+                    if (y < yOffset) yOffset = y;
+                }
+            }
 
-        canvas.draw(spaceReg, -width * SCALE, -height * SCALE);
-        canvas.draw(shipReg, x_offset * SCALE, y_offset * SCALE);
+            float[] vertices = sortVertices(cornerPositions, centroid, xOffset, yOffset);
 
-        canvas.end();
+            //create triangles
+            ShortArray array  = new EarClippingTriangulator().computeTriangles(vertices);
+            trimColinear(vertices,array);
+            return new Hull(vertices, array.toArray(), xOffset, yOffset, centroid);
+        }
 
+        /**
+         *  Sorts the corner positions in a clockwise order relative to a central position within the polygon.
+         *  Using this sorted list, creates a list of floats representing each of the vertices that is compatible with
+         *  PolygonRegion.
+         *
+         * @param cornerPositions the corners of the polygon
+         * @param centroid the center of the polygon
+         * @param xOffset the smallest x coordinate, subtracted from all others
+         * @param yOffset the smallest y coordinate, subtracted from all others
+         *
+         * @return the sorted vertices, in pixels
+         */
+        private static float[] sortVertices(ArrayList<Vector2> cornerPositions, Vector2 centroid,
+                                            float xOffset, float yOffset){
+            //angles of rotations of all corner positions relative to the centroid
+            Vertex[] cwPositions = new Vertex[cornerPositions.size()];
+            for (int i = 0; i < cwPositions.length; i++){
+                Vector2 point = cornerPositions.get(i);
+                cwPositions[i] = new Vertex(point, centroid);
+            }
 
-    }
+            //sort angles via insertion sort
+            int k = 0;
+            while (k < cwPositions.length){
+                int j = k;
+                while (0<j && cwPositions[j].compareTo(cwPositions[j-1]) > 0){
+                    Vertex temp = cwPositions[j];
+                    cwPositions[j] = cwPositions[j-1];
+                    cwPositions[j-1] = temp;
+                    j--;
+                }
+                k++;
+            }
 
-    /** Draws the number associated to each vertex and marks the centroid with an 'X' */
-    public void drawDebug(GameCanvas canvas){
-        canvas.begin();
-        for (int i = 0; i < vertices.length; i += 2) {
-            canvas.drawText(valueOf(i / 2), debugFont, vertices[i] + x_offset * SCALE, vertices[i + 1] + y_offset * SCALE);
+            // change corner positions into a list of vertices compatible with PolygonRegion
+            float[] vertices = new float[cwPositions.length * 2];
+            for (int i = 0; i < vertices.length; i += 2){
+                vertices[i] = ((cwPositions[i/2].coordinates).x - xOffset) * SCALE;
+                vertices[i + 1] = ((cwPositions[i/2].coordinates).y - yOffset) * SCALE;
+            }
+            return vertices;
+        }
+
+        /**
+         * Removes colinear vertices from the given triangulation.
+         *
+         * For some reason, the LibGDX triangulator will occasionally return colinear
+         * vertices.
+         *
+         * @param points  The polygon vertices
+         * @param indices The triangulation indices
+         */
+        private static void trimColinear(float[] points, ShortArray indices) {
+            int colinear = 0;
+            for(int ii = 0; ii < indices.size/3-colinear; ii++) {
+                float t1 = points[2*indices.items[3*ii  ]]*(points[2*indices.items[3*ii+1]+1]-points[2*indices.items[3*ii+2]+1]);
+                float t2 = points[2*indices.items[3*ii+1]]*(points[2*indices.items[3*ii+2]+1]-points[2*indices.items[3*ii  ]+1]);
+                float t3 = points[2*indices.items[3*ii+2]]*(points[2*indices.items[3*ii  ]+1]-points[2*indices.items[3*ii+1]+1]);
+                if (Math.abs(t1+t2+t3) < 0.0000001f) {
+                    indices.swap(3*ii  ,  indices.size-3*colinear-3);
+                    indices.swap(3*ii+1,  indices.size-3*colinear-2);
+                    indices.swap(3*ii+2,  indices.size-3*colinear-1);
+                    colinear++;
+                }
+            }
+            indices.size -= 3*colinear;
+            indices.shrink();
         }
-        canvas.drawText("X", debugFont, centroid.x * SCALE, centroid.y * SCALE);
-        canvas.end();
     }
 
 
     /**
      * A Vertex represents a vertex of the ship's polygon.
      */
-    private class Vertex{
+    private static class Vertex{
 
         /** position of the vertex */
         public Vector2 coordinates;
@@ -0,0 +1,123 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A reusable buffer of rotated sprites that are drawn together, such as laser beams.
+ * <p>
+ * A laser beam is hundreds of thin sprites, each with its own jitter. Drawing them
+ * one by one through the canvas computes a transform and submits a sprite for each.
+ * Instead, the beams of a frame write their quads straight into this buffer, which
+ * is handed to the canvas in a single call per texture. The buffer keeps its
+ * storage between frames, so filling it does not allocate once it has grown.
+ */
+public class BeamStrip {
+    /** The floats per vertex (x, y, color, u, v) */
+    private static final int VERTEX_SIZE = 5;
+    /** The floats per quad */
+    private static final int QUAD_SIZE = 4 * VERTEX_SIZE;
+
+    /** The vertices of every quad, in the sprite batch format */
+    private final FloatArray vertices = new FloatArray(QUAD_SIZE * 256);
+    /** The texture of each run of quads */
+    private final Array<Texture> runTextures = new Array<>();
+    /** The first float of each run of quads */
+    private final IntArray runStarts = new IntArray();
+
+    /**
+     * Discards every quad in the buffer.
+     */
+    public void clear() {
+        vertices.clear();
+        runTextures.clear();
+        runStarts.clear();
+    }
+
+    /**
+     * Returns true if the buffer has no quads.
+     *
+     * @return true if the buffer has no quads.
+     */
+    public boolean isEmpty() {
+        return vertices.size == 0;
+    }
+
+    /**
+     * Adds a region drawn as with {@link GameCanvas#draw(TextureRegion, com.badlogic.gdx.graphics.Color,
+     * float, float, float, float, float, float, float)}.
+     *
+     * @param region    the region to draw
+     * @param color     the packed color of the region
+     * @param flipX     whether to mirror the region horizontally
+     * @param ox        the x-coordinate of the region origin (in pixels)
+     * @param oy        the y-coordinate of the region origin (in pixels)
+     * @param x         the x-coordinate of the origin on screen
+     * @param y         the y-coordinate of the origin on screen
+     * @param cos       the cosine of the rotation angle
+     * @param sin       the sine of the rotation angle
+     * @param sx        the x-axis scaling factor
+     * @param sy        the y-axis scaling factor
+     */
+    public void add(TextureRegion region, float color, boolean flipX, float ox, float oy,
+                    float x, float y, float cos, float sin, float sx, float sy) {
+        Texture texture = region.getTexture();
+        if (runTextures.size == 0 || runTextures.peek() != texture) {
+            runTextures.add(texture);
+            runStarts.add(vertices.size);
+        }
+
+        float width = region.getRegionWidth();
+        float height = region.getRegionHeight();
+        float m00 = cos * sx;
+        float m01 = -sin * sy;
+        float m10 = sin * sx;
+        float m11 = cos * sy;
+        float m02 = x - ox * m00 - oy * m01;
+        float m12 = y - ox * m10 - oy * m11;
+        float u = flipX ? region.getU2() : region.getU();
+        float u2 = flipX ? region.getU() : region.getU2();
+        float v = region.getV();
+        float v2 = region.getV2();
+
+        int idx = vertices.size;
+        float[] items = vertices.ensureCapacity(QUAD_SIZE);
+        idx = put(items, idx, m02, m12, color, u, v2);
+        idx = put(items, idx, m01 * height + m02, m11 * height + m12, color, u, v);
+        idx = put(items, idx, m00 * width + m01 * height + m02, m10 * width + m11 * height + m12, color, u2, v);
+        put(items, idx, m00 * width + m02, m10 * width + m12, color, u2, v2);
+        vertices.size += QUAD_SIZE;
+    }
+
+    /**
+     * Draws every quad in the buffer, one call per run of the same texture.
+     * <p>
+     * The buffer is not cleared, so the same quads may be drawn again.
+     *
+     * @param canvas    the canvas to draw to, with an active drawing pass
+     */
+    public void draw(GameCanvas canvas) {
+        for (int run = 0; run < runTextures.size; run++) {
+            int start = runStarts.get(run);
+            int end = run + 1 < runStarts.size ? runStarts.get(run + 1) : vertices.size;
+            canvas.drawQuads(runTextures.get(run), vertices.items, start, end - start);
+        }
+    }
+
+    /**
+     * Writes a vertex to the given array.
+     *
+     * @return the index after the vertex
+     */
+    private static int put(float[] items, int idx, float x, float y, float color, float u, float v) {
+        items[idx++] = x;
+        items[idx++] = y;
+        items[idx++] = color;
+        items[idx++] = u;
+        items[idx++] = v;
+        return idx;
+    }
+}
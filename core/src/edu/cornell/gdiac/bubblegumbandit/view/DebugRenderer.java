@@ -0,0 +1,300 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ImmediateModeRenderer20;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.ObjectSet;
+import edu.cornell.gdiac.bubblegumbandit.controllers.ai.graph.TiledGraph;
+import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+
+/**
+ * Renderer for the debug geometry of a level that rarely changes.
+ * <p>
+ * Walls, the nodes of the AI graphs and the tile grid used to be outlined shape by shape every
+ * frame in debug mode, which is thousands of boxes on a large level. Instead, their
+ * outlines are baked into a single line mesh, split into square chunks of tiles so
+ * that only the chunks under the camera are drawn. The mesh is rebuilt lazily after
+ * {@link #invalidate()}, which the level calls when a graph node is enabled or
+ * disabled.
+ * <p>
+ * Everything else (moving obstacles, sensors, rays) is still drawn through the
+ * canvas debug pass, whose shape renderer streams the lines into one batch.
+ */
+public class DebugRenderer implements Disposable {
+    /** The width and height of a chunk, in tiles */
+    private static final int CHUNK_SIZE = 16;
+    /** The floats per vertex (x, y, color) */
+    private static final int VERTEX_SIZE = 3;
+
+    /** The scale from tiles (physics units) to pixels */
+    private final Vector2 scale = new Vector2();
+    /** The size of the level, in tiles */
+    private final int levelWidth, levelHeight;
+    /** The number of chunk columns and rows */
+    private final int columns, rows;
+    /** Whether to outline every tile of the level */
+    private boolean showGrid;
+
+    /** The obstacles drawn by this renderer */
+    private final Array<BoxObstacle> walls = new Array<>();
+    /** The same obstacles, to skip them in the debug pass */
+    private final ObjectSet<Obstacle> cached = new ObjectSet<>();
+    /** The graphs whose nodes are drawn by this renderer */
+    private final Array<TiledGraph> graphs = new Array<>();
+
+    /** The line vertices of each chunk, while building */
+    private final FloatArray[] chunks;
+    /** The first vertex of each chunk in the mesh */
+    private final int[] offsets;
+    /** The number of vertices of each chunk in the mesh */
+    private final int[] counts;
+    /** The bounds of each chunk (left, bottom, right, top), as boxes may overhang it */
+    private final float[] bounds;
+    /** Whether the mesh must be rebuilt before the next draw */
+    private boolean dirty = true;
+
+    /** The line mesh (null until the first draw) */
+    private Mesh mesh;
+    /** The shader for the line mesh */
+    private ShaderProgram shader;
+
+    /**
+     * Creates an empty renderer for a level of the given size.
+     *
+     * @param levelWidth    the width of the level in tiles
+     * @param levelHeight   the height of the level in tiles
+     * @param scale         the size of a tile in pixels
+     */
+    public DebugRenderer(int levelWidth, int levelHeight, Vector2 scale) {
+        this.scale.set(scale);
+        this.levelWidth = levelWidth;
+        this.levelHeight = levelHeight;
+        columns = Math.max(1, (levelWidth + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        rows = Math.max(1, (levelHeight + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        chunks = new FloatArray[columns * rows];
+        for (int ii = 0; ii < chunks.length; ii++) {
+            chunks[ii] = new FloatArray();
+        }
+        offsets = new int[chunks.length];
+        counts = new int[chunks.length];
+        bounds = new float[4 * chunks.length];
+    }
+
+    /**
+     * Adds an obstacle that never moves, such as a wall, to the cached outlines.
+     *
+     * @param obj   the obstacle to outline
+     */
+    public void addStatic(BoxObstacle obj) {
+        walls.add(obj);
+        cached.add(obj);
+        dirty = true;
+    }
+
+    /**
+     * Adds a graph whose nodes are drawn with the cached outlines.
+     *
+     * @param graph the graph to draw
+     */
+    public void addGraph(TiledGraph graph) {
+        graphs.add(graph);
+        dirty = true;
+    }
+
+    /**
+     * Sets whether to outline every tile of the level.
+     *
+     * @param value whether to outline every tile of the level
+     */
+    public void setShowGrid(boolean value) {
+        if (showGrid != value) {
+            showGrid = value;
+            dirty = true;
+        }
+    }
+
+    /**
+     * Returns true if the obstacle is drawn by this renderer.
+     *
+     * @param obj   the obstacle to check
+     *
+     * @return true if the obstacle is drawn by this renderer.
+     */
+    public boolean isCached(Obstacle obj) {
+        return cached.contains(obj);
+    }
+
+    /**
+     * Marks the cached outlines as out of date.
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Adds the outline of a box to the cached outlines.
+     * <p>
+     * This is only valid while the outlines are rebuilt, which is when the
+     * graphs are asked to draw themselves.
+     *
+     * @param x             the x-coordinate of the center, in pixels
+     * @param y             the y-coordinate of the center, in pixels
+     * @param halfWidth     half the width of the box, in pixels
+     * @param halfHeight    half the height of the box, in pixels
+     * @param color         the color of the outline
+     */
+    public void box(float x, float y, float halfWidth, float halfHeight, Color color) {
+        int column = Math.min(columns - 1, Math.max(0, (int) (x / scale.x) / CHUNK_SIZE));
+        int row = Math.min(rows - 1, Math.max(0, (int) (y / scale.y) / CHUNK_SIZE));
+        int chunk = row * columns + column;
+        FloatArray lines = chunks[chunk];
+        float bits = color.toFloatBits();
+        float left = x - halfWidth;
+        float right = x + halfWidth;
+        float bottom = y - halfHeight;
+        float top = y + halfHeight;
+        if (lines.size == 0) {
+            bounds[4 * chunk] = left;
+            bounds[4 * chunk + 1] = bottom;
+            bounds[4 * chunk + 2] = right;
+            bounds[4 * chunk + 3] = top;
+        } else {
+            bounds[4 * chunk] = Math.min(bounds[4 * chunk], left);
+            bounds[4 * chunk + 1] = Math.min(bounds[4 * chunk + 1], bottom);
+            bounds[4 * chunk + 2] = Math.max(bounds[4 * chunk + 2], right);
+            bounds[4 * chunk + 3] = Math.max(bounds[4 * chunk + 3], top);
+        }
+        line(lines, left, bottom, right, bottom, bits);
+        line(lines, right, bottom, right, top, bits);
+        line(lines, right, top, left, top, bits);
+        line(lines, left, top, left, bottom, bits);
+    }
+
+    /**
+     * Draws the chunks of the cached outlines that overlap the camera.
+     * <p>
+     * This must not be called while another renderer is drawing.
+     *
+     * @param camera    the camera to draw with
+     */
+    public void draw(GameCamera camera) {
+        if (dirty) {
+            rebuild();
+        }
+        if (mesh == null) {
+            return;
+        }
+        Frustum frustum = camera.frustum;
+        shader.bind();
+        shader.setUniformMatrix("u_projModelView", camera.combined);
+        mesh.bind(shader);
+        for (int chunk = 0; chunk < counts.length; chunk++) {
+            if (counts[chunk] == 0) {
+                continue;
+            }
+            float left = bounds[4 * chunk];
+            float bottom = bounds[4 * chunk + 1];
+            float halfWidth = (bounds[4 * chunk + 2] - left) / 2;
+            float halfHeight = (bounds[4 * chunk + 3] - bottom) / 2;
+            if (frustum.boundsInFrustum(left + halfWidth, bottom + halfHeight, 0, halfWidth, halfHeight, 1)) {
+                mesh.render(shader, GL20.GL_LINES, offsets[chunk], counts[chunk], false);
+            }
+        }
+        mesh.unbind(shader);
+    }
+
+    /**
+     * Releases the mesh and shader, if they were created.
+     */
+    @Override
+    public void dispose() {
+        if (mesh != null) {
+            mesh.dispose();
+            mesh = null;
+        }
+        if (shader != null) {
+            shader.dispose();
+            shader = null;
+        }
+    }
+
+    /**
+     * Rebuilds the line mesh from the walls and graphs.
+     */
+    private void rebuild() {
+        for (FloatArray lines : chunks) {
+            lines.clear();
+        }
+        for (BoxObstacle wall : walls) {
+            Color color = wall.getDebugColor();
+            if (color != null) {
+                box(wall.getX() * scale.x, wall.getY() * scale.y,
+                        wall.getWidth() / 2 * scale.x, wall.getHeight() / 2 * scale.y, color);
+            }
+        }
+        for (TiledGraph graph : graphs) {
+            graph.drawGraph(this);
+        }
+        if (showGrid) {
+            for (int ii = 0; ii < levelWidth; ii++) {
+                for (int jj = 0; jj < levelHeight; jj++) {
+                    box((ii + 0.5f) * scale.x, (jj + 0.5f) * scale.y, scale.x / 2, scale.y / 2, Color.RED);
+                }
+            }
+        }
+
+        int total = 0;
+        for (FloatArray lines : chunks) {
+            total += lines.size;
+        }
+        int vertices = total / VERTEX_SIZE;
+        if (mesh == null || mesh.getMaxVertices() < vertices) {
+            if (mesh != null) {
+                mesh.dispose();
+            }
+            mesh = new Mesh(true, Math.max(vertices, 2), 0,
+                    new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                    VertexAttribute.ColorPacked());
+        }
+        if (shader == null) {
+            shader = ImmediateModeRenderer20.createDefaultShader(false, true, 0);
+        }
+
+        float[] buffer = new float[Math.max(total, VERTEX_SIZE)];
+        int offset = 0;
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            FloatArray lines = chunks[chunk];
+            System.arraycopy(lines.items, 0, buffer, offset, lines.size);
+            offsets[chunk] = offset / VERTEX_SIZE;
+            counts[chunk] = lines.size / VERTEX_SIZE;
+            offset += lines.size;
+        }
+        mesh.setVertices(buffer, 0, total);
+        dirty = false;
+    }
+
+    /**
+     * Appends a line to a chunk.
+     *
+     * @param lines the vertices of the chunk
+     * @param x0    the x-coordinate of the start
+     * @param y0    the y-coordinate of the start
+     * @param x1    the x-coordinate of the end
+     * @param y1    the y-coordinate of the end
+     * @param color the packed color of the line
+     */
+    private static void line(FloatArray lines, float x0, float y0, float x1, float y1, float color) {
+        lines.add(x0, y0, color);
+        lines.add(x1, y1, color);
+    }
+}
@@ -0,0 +1,303 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
+import edu.cornell.gdiac.physics.obstacle.*;
+
+/**
+ * Decides which drawables of a level are on screen this frame.
+ * <p>
+ * Static obstacles (walls, doors, glass, ...) are kept in a uniform grid over the
+ * level, so each frame only the grid cells under the camera are visited to find
+ * the visible ones. Moving obstacles, icons, alarms and lasers are checked against
+ * the view directly. The view is the axis-aligned bounds of the camera frustum
+ * (which may be rotated by screen shake), padded so that shadows and outlines of
+ * objects just off screen are still drawn.
+ * <p>
+ * The grid is rebuilt lazily after {@link #invalidate()}, which the level calls
+ * whenever obstacles are added or removed.
+ */
+public class DrawCuller {
+    /** Extra space around the view, in pixels, for shadows and outlines */
+    private static final float VIEW_PADDING = 32f;
+    /** Extra space around each obstacle, in tiles, for sprites larger than their body */
+    private static final float OBJECT_MARGIN = 1f;
+    /** The width and height of a grid cell, in tiles */
+    private static final int CELL_SIZE = 8;
+
+    /** The number of grid columns and rows */
+    private final int columns, rows;
+    /** The size of a tile in pixels */
+    private final Vector2 scale = new Vector2();
+    /** The static obstacles overlapping each grid cell */
+    private final Array<Obstacle>[] cells;
+    /** Whether the grid must be rebuilt before the next frame */
+    private boolean dirty = true;
+
+    /** The static obstacles that are visible this frame */
+    private final ObjectSet<Obstacle> visibleStatic = new ObjectSet<>();
+    /** The visible area this frame, in pixels */
+    private final Rectangle view = new Rectangle();
+
+    /** The number of drawables kept this frame */
+    private int drawn;
+    /** The number of drawables skipped this frame */
+    private int culled;
+
+    /** Cache for computing obstacle bounds */
+    private final Rectangle bounds = new Rectangle();
+
+    /**
+     * Creates a culler for a level of the given size.
+     *
+     * @param levelWidth    the width of the level in tiles
+     * @param levelHeight   the height of the level in tiles
+     * @param scale         the size of a tile in pixels
+     */
+    @SuppressWarnings("unchecked")
+    public DrawCuller(int levelWidth, int levelHeight, Vector2 scale) {
+        columns = Math.max(1, (levelWidth + CELL_SIZE - 1) / CELL_SIZE);
+        rows = Math.max(1, (levelHeight + CELL_SIZE - 1) / CELL_SIZE);
+        this.scale.set(scale);
+        cells = new Array[columns * rows];
+        for (int ii = 0; ii < cells.length; ii++) {
+            cells[ii] = new Array<>(false, 4);
+        }
+    }
+
+    /**
+     * Marks the grid of static obstacles as out of date.
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Prepares the culler for a new frame.
+     * <p>
+     * This computes the view from the camera, rebuilds the grid if needed, and
+     * collects the visible static obstacles. It also resets the frame counts.
+     *
+     * @param camera    the camera of this frame
+     * @param objects   all obstacles in the level
+     */
+    public void begin(GameCamera camera, Iterable<Obstacle> objects) {
+        Vector3[] corners = camera.frustum.planePoints;
+        float left = corners[0].x, right = corners[0].x;
+        float bottom = corners[0].y, top = corners[0].y;
+        for (int ii = 1; ii < 4; ii++) {
+            left = Math.min(left, corners[ii].x);
+            right = Math.max(right, corners[ii].x);
+            bottom = Math.min(bottom, corners[ii].y);
+            top = Math.max(top, corners[ii].y);
+        }
+        view.set(left - VIEW_PADDING, bottom - VIEW_PADDING,
+                right - left + 2 * VIEW_PADDING, top - bottom + 2 * VIEW_PADDING);
+        drawn = 0;
+        culled = 0;
+
+        if (dirty) {
+            rebuild(objects);
+        }
+
+        visibleStatic.clear();
+        int minCol = clampColumn(view.x);
+        int maxCol = clampColumn(view.x + view.width);
+        int minRow = clampRow(view.y);
+        int maxRow = clampRow(view.y + view.height);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                for (Obstacle obj : cells[row * columns + col]) {
+                    if (view.overlaps(getBounds(obj, bounds))) {
+                        visibleStatic.add(obj);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the obstacle should be drawn this frame.
+     * <p>
+     * The result is added to the frame counts.
+     *
+     * @param obj   the obstacle to check
+     *
+     * @return true if the obstacle should be drawn this frame.
+     */
+    public boolean isVisible(Obstacle obj) {
+        boolean visible;
+        if (obj.getBodyType() == BodyDef.BodyType.StaticBody) {
+            visible = visibleStatic.contains(obj);
+        } else {
+            visible = view.overlaps(getBounds(obj, bounds));
+        }
+        return count(visible);
+    }
+
+    /**
+     * Returns true if the obstacle is near the view this frame.
+     * <p>
+     * Unlike {@link #isVisible(Obstacle)}, this does not add to the frame counts,
+     * and it allows for drawings that extend far beyond the obstacle (such as
+     * sensors and rays in the debug overlay).
+     *
+     * @param obj       the obstacle to check
+     * @param padding   the extra space around the obstacle, in pixels
+     *
+     * @return true if the obstacle is near the view this frame.
+     */
+    public boolean isInView(Obstacle obj, float padding) {
+        getBounds(obj, bounds);
+        return bounds.x - padding < view.x + view.width && bounds.x + bounds.width + padding > view.x
+                && bounds.y - padding < view.y + view.height && bounds.y + bounds.height + padding > view.y;
+    }
+
+    /**
+     * Returns true if a drawable with the given bounds should be drawn this frame.
+     * <p>
+     * The result is added to the frame counts.
+     *
+     * @param x             the x-coordinate of the center, in pixels
+     * @param y             the y-coordinate of the center, in pixels
+     * @param halfWidth     half the width of the drawable, in pixels
+     * @param halfHeight    half the height of the drawable, in pixels
+     *
+     * @return true if a drawable with the given bounds should be drawn this frame.
+     */
+    public boolean isVisible(float x, float y, float halfWidth, float halfHeight) {
+        bounds.set(x - halfWidth, y - halfHeight, 2 * halfWidth, 2 * halfHeight);
+        return count(view.overlaps(bounds));
+    }
+
+    /**
+     * Returns the number of drawables kept this frame.
+     *
+     * @return the number of drawables kept this frame.
+     */
+    public int getDrawn() {
+        return drawn;
+    }
+
+    /**
+     * Returns the number of drawables skipped this frame.
+     *
+     * @return the number of drawables skipped this frame.
+     */
+    public int getCulled() {
+        return culled;
+    }
+
+    /**
+     * Adds a culling result to the frame counts.
+     *
+     * @param visible   whether the drawable is visible
+     *
+     * @return the given visibility, for chaining
+     */
+    private boolean count(boolean visible) {
+        if (visible) {
+            drawn++;
+        } else {
+            culled++;
+        }
+        return visible;
+    }
+
+    /**
+     * Puts every static obstacle into the grid cells it overlaps.
+     *
+     * @param objects   all obstacles in the level
+     */
+    private void rebuild(Iterable<Obstacle> objects) {
+        for (Array<Obstacle> cell : cells) {
+            cell.clear();
+        }
+        for (Obstacle obj : objects) {
+            if (obj.getBodyType() != BodyDef.BodyType.StaticBody) {
+                continue;
+            }
+            getBounds(obj, bounds);
+            int minCol = clampColumn(bounds.x);
+            int maxCol = clampColumn(bounds.x + bounds.width);
+            int minRow = clampRow(bounds.y);
+            int maxRow = clampRow(bounds.y + bounds.height);
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    cells[row * columns + col].add(obj);
+                }
+            }
+        }
+        dirty = false;
+    }
+
+    /**
+     * Computes the drawn bounds of an obstacle, in pixels.
+     * <p>
+     * This is the larger of the body and the texture, plus a margin for
+     * animations, shadows and outlines that extend beyond both.
+     *
+     * @param obj   the obstacle
+     * @param out   the rectangle to store the result
+     *
+     * @return the given rectangle, for chaining
+     */
+    private Rectangle getBounds(Obstacle obj, Rectangle out) {
+        float halfWidth = 0;
+        float halfHeight = 0;
+        if (obj instanceof BoxObstacle) {
+            halfWidth = ((BoxObstacle) obj).getWidth() / 2;
+            halfHeight = ((BoxObstacle) obj).getHeight() / 2;
+        } else if (obj instanceof CapsuleObstacle) {
+            halfWidth = ((CapsuleObstacle) obj).getWidth() / 2;
+            halfHeight = ((CapsuleObstacle) obj).getHeight() / 2;
+        } else if (obj instanceof PolygonObstacle) {
+            halfWidth = ((PolygonObstacle) obj).getWidth() / 2;
+            halfHeight = ((PolygonObstacle) obj).getHeight() / 2;
+        } else if (obj instanceof WheelObstacle) {
+            halfWidth = ((WheelObstacle) obj).getRadius();
+            halfHeight = halfWidth;
+        }
+        halfWidth = (halfWidth + OBJECT_MARGIN) * scale.x;
+        halfHeight = (halfHeight + OBJECT_MARGIN) * scale.y;
+        if (obj instanceof SimpleObstacle) {
+            TextureRegion texture = ((SimpleObstacle) obj).getTexture();
+            if (texture != null) {
+                halfWidth = Math.max(halfWidth, texture.getRegionWidth() / 2f + OBJECT_MARGIN * scale.x);
+                halfHeight = Math.max(halfHeight, texture.getRegionHeight() / 2f + OBJECT_MARGIN * scale.y);
+            }
+        }
+        float x = obj.getX() * scale.x;
+        float y = obj.getY() * scale.y;
+        return out.set(x - halfWidth, y - halfHeight, 2 * halfWidth, 2 * halfHeight);
+    }
+
+    /**
+     * Returns the grid column containing the given x-coordinate, clamped to the grid.
+     *
+     * @param x the x-coordinate in pixels
+     *
+     * @return the grid column containing the given x-coordinate
+     */
+    private int clampColumn(float x) {
+        int col = (int) Math.floor(x / (CELL_SIZE * scale.x));
+        return Math.max(0, Math.min(columns - 1, col));
+    }
+
+    /**
+     * Returns the grid row containing the given y-coordinate, clamped to the grid.
+     *
+     * @param y the y-coordinate in pixels
+     *
+     * @return the grid row containing the given y-coordinate
+     */
+    private int clampRow(float y) {
+        int row = (int) Math.floor(y / (CELL_SIZE * scale.y));
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+}
@@ -0,0 +1,98 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+/**
+ * Controller that picks the internal render scale of the world to hold a frame time.
+ * <p>
+ * The controller keeps a moving average of the frame time. When the average is over
+ * the target, the scale steps down; when it is comfortably under, the scale steps back
+ * up. After each step, the controller waits a while for the average to settle, so the
+ * scale does not oscillate from frame to frame.
+ */
+public class DynamicResolution {
+    /** The change in scale of a single step */
+    private static final float STEP = 0.05f;
+    /** The weight of the newest frame in the moving average */
+    private static final float SMOOTHING = 0.1f;
+    /** The frames to wait after a step before stepping again */
+    private static final int COOLDOWN = 30;
+    /** The fraction of the target the average must be over to step down */
+    private static final float OVER = 1.05f;
+    /** The fraction of the target the average must be under to step up */
+    private static final float UNDER = 0.85f;
+    /** The longest frame counted, as a multiple of the target (hitches are not load) */
+    private static final float MAX_FRAME = 4.0f;
+
+    /** The frame time to hold, in seconds */
+    private final float targetFrameTime;
+    /** The smallest and largest render scale */
+    private final float minScale, maxScale;
+
+    /** The moving average of the frame time (0 if there is none yet) */
+    private float average;
+    /** The current render scale */
+    private float scale;
+    /** The frames left before the next step */
+    private int cooldown;
+
+    /**
+     * Creates a controller starting at the largest scale.
+     *
+     * @param targetFrameTime   the frame time to hold, in seconds
+     * @param minScale          the smallest render scale
+     * @param maxScale          the largest render scale (at most 1)
+     */
+    public DynamicResolution(float targetFrameTime, float minScale, float maxScale) {
+        if (targetFrameTime <= 0) {
+            throw new IllegalArgumentException("Target frame time must be positive");
+        }
+        if (minScale <= 0 || minScale > maxScale || maxScale > 1) {
+            throw new IllegalArgumentException("Render scales must satisfy 0 < min <= max <= 1");
+        }
+        this.targetFrameTime = targetFrameTime;
+        this.minScale = minScale;
+        this.maxScale = maxScale;
+        reset();
+    }
+
+    /**
+     * Forgets the frame time history and returns to the largest scale.
+     */
+    public void reset() {
+        average = 0;
+        scale = maxScale;
+        cooldown = COOLDOWN;
+    }
+
+    /**
+     * Returns the current render scale.
+     *
+     * @return the current render scale.
+     */
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Records the length of the last frame and returns the render scale for the next.
+     *
+     * @param frameTime the length of the last frame, in seconds
+     *
+     * @return the render scale for the next frame
+     */
+    public float update(float frameTime) {
+        frameTime = Math.min(frameTime, MAX_FRAME * targetFrameTime);
+        average = average == 0 ? frameTime : average + SMOOTHING * (frameTime - average);
+        if (cooldown > 0) {
+            cooldown--;
+            return scale;
+        }
+        if (average > OVER * targetFrameTime && scale > minScale) {
+            scale = Math.max(minScale, scale - STEP);
+            cooldown = COOLDOWN;
+        } else if (average < UNDER * targetFrameTime && scale < maxScale) {
+            scale = Math.min(maxScale, scale + STEP);
+            cooldown = COOLDOWN;
+        }
+        return scale;
+    }
+}
@@ -52,7 +52,11 @@ public class GameCanvas {
         /**
          * We are drawing outlines
          */
-        DEBUG
+        DEBUG,
+        /**
+         * We are recording sprites into a render queue, without drawing
+         */
+        RECORD
     }
 
     /**
@@ -81,9 +85,18 @@ public class GameCanvas {
         OPAQUE
     }
     /**
-     * Drawing context to handle textures AND POLYGONS as sprites
+     * Drawing context to handle textures AND POLYGONS as sprites (with a shadow layer)
+     */
+    private ShadowBatch spriteBatch;
+
+    /**
+     * Queue for sorting sprites by layer and texture (while it is open)
      */
-    private PolygonSpriteBatch spriteBatch;
+    private final RenderQueue ownQueue = new RenderQueue();
+    /**
+     * The queue sprites go to: our own, or the one being recorded
+     */
+    private RenderQueue queue = ownQueue;
 
     /**
      * Rendering context for the debug outlines
@@ -102,6 +115,11 @@ public class GameCanvas {
      */
     private DrawPass active;
 
+    /**
+     * The number of sprite batch flushes since the screen was last cleared
+     */
+    private int flushes;
+
     /**
      * The current color blending mode
      */
@@ -144,6 +162,51 @@ public class GameCanvas {
 
     private FitViewport viewport;
 
+    /**
+     * The scale of the world render target relative to the screen (1 draws to the screen)
+     */
+    private float renderScale = 1;
+    /**
+     * The filter used to upscale the world render target to the screen
+     */
+    private Texture.TextureFilter upscaleFilter = Texture.TextureFilter.Linear;
+    /**
+     * The controller choosing the render scale each frame (null for a fixed scale)
+     */
+    private DynamicResolution dynamicResolution;
+    /**
+     * The offscreen target the world is drawn into, sized to the screen (null until needed)
+     */
+    private FrameBuffer worldTarget;
+    /**
+     * The part of the world target in use this frame
+     */
+    private final TextureRegion worldRegion = new TextureRegion();
+    /**
+     * The projection used to stretch the world target over the viewport
+     */
+    private final Matrix4 upscaleProjection = new Matrix4().setToOrtho2D(0, 0, 1, 1);
+    /**
+     * Whether the world is being drawn into the world target
+     */
+    private boolean worldPass;
+    /**
+     * The size of the part of the world target in use, in pixels
+     */
+    private int worldWidth, worldHeight;
+    /**
+     * The thickness of the outline of highlighted sprites, in pixels
+     */
+    private static final float OUTLINE_THICKNESS = 5f;
+    /**
+     * The shader for outlining highlighted sprites (null until needed)
+     */
+    private OutlineShader outlineShader;
+    /**
+     * Cache object for a region grown by the outline thickness
+     */
+    private final TextureRegion outlined = new TextureRegion();
+
 
     /**
      * Creates a new GameCanvas determined by the application configuration.
@@ -154,7 +217,7 @@ public class GameCanvas {
      */
     public GameCanvas() {
         active = DrawPass.INACTIVE;
-        spriteBatch = new PolygonSpriteBatch();
+        spriteBatch = new ShadowBatch();
         debugRender = new ShapeRenderer();
         fovRender = new ShapeRenderer();
 
@@ -209,6 +272,15 @@ public class GameCanvas {
         }
         spriteBatch.dispose();
         spriteBatch = null;
+        ownQueue.reset();
+        if (worldTarget != null) {
+            worldTarget.dispose();
+            worldTarget = null;
+        }
+        if (outlineShader != null) {
+            outlineShader.dispose();
+            outlineShader = null;
+        }
         local = null;
         global = null;
         vertex = null;
@@ -398,6 +470,10 @@ public class GameCanvas {
         if (state == blend) {
             return;
         }
+        if (active == DrawPass.STANDARD) {
+            // Queued sprites were meant for the old blend state
+            queue.flush(spriteBatch, getOutlineShader());
+        }
         switch (state) {
             case NO_PREMULT:
                 spriteBatch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
@@ -415,10 +491,196 @@ public class GameCanvas {
         blend = state;
     }
 
+    /**
+     * Returns the number of sprite batch flushes since the screen was last cleared.
+     * <p>
+     * Every texture switch flushes the batch, so this is a measure of how well
+     * the frame was batched.
+     *
+     * @return the number of sprite batch flushes since the screen was last cleared.
+     */
+    public int getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * Returns the scale of the world render target relative to the screen.
+     *
+     * @return the scale of the world render target relative to the screen.
+     */
+    public float getRenderScale() {
+        return renderScale;
+    }
+
+    /**
+     * Sets the scale of the world render target relative to the screen.
+     * <p>
+     * At a scale of 1, the world is drawn straight to the screen. Below 1, it is drawn
+     * into an offscreen target at that fraction of the screen resolution and then
+     * upscaled, which saves fill rate on large or high density displays. The UI is
+     * always drawn at the screen resolution.
+     *
+     * @param value the scale of the world render target, in (0, 1]
+     */
+    public void setRenderScale(float value) {
+        if (value <= 0 || value > 1) {
+            throw new IllegalArgumentException("Render scale must be in (0, 1]");
+        }
+        renderScale = value;
+    }
+
+    /**
+     * Sets the filter used to upscale the world render target to the screen.
+     *
+     * @param filter the filter used to upscale the world render target
+     */
+    public void setUpscaleFilter(Texture.TextureFilter filter) {
+        upscaleFilter = filter;
+    }
+
+    /**
+     * Returns the controller choosing the render scale each frame (null if fixed).
+     *
+     * @return the controller choosing the render scale each frame.
+     */
+    public DynamicResolution getDynamicResolution() {
+        return dynamicResolution;
+    }
+
+    /**
+     * Sets the controller choosing the render scale each frame.
+     * <p>
+     * If null, the render scale stays where it was last set.
+     *
+     * @param controller the controller choosing the render scale each frame
+     */
+    public void setDynamicResolution(DynamicResolution controller) {
+        dynamicResolution = controller;
+        if (controller != null) {
+            renderScale = controller.getScale();
+        }
+    }
+
+    /**
+     * Starts drawing the world.
+     * <p>
+     * If the render scale is below 1, everything drawn until {@link #endWorld()} goes
+     * into the world render target. Otherwise, this does nothing. The screen should
+     * be cleared first.
+     */
+    public void beginWorld() {
+        if (dynamicResolution != null) {
+            renderScale = dynamicResolution.update(Gdx.graphics.getDeltaTime());
+        }
+        if (renderScale >= 1) {
+            return;
+        }
+        int screenWidth = Math.max(1, HdpiUtils.toBackBufferX(viewport.getScreenWidth()));
+        int screenHeight = Math.max(1, HdpiUtils.toBackBufferY(viewport.getScreenHeight()));
+        // The target is sized to the screen, so a new scale only changes the part in use
+        if (worldTarget == null || worldTarget.getWidth() != screenWidth || worldTarget.getHeight() != screenHeight) {
+            if (worldTarget != null) {
+                worldTarget.dispose();
+            }
+            worldTarget = new FrameBuffer(Pixmap.Format.RGB888, screenWidth, screenHeight, false);
+        }
+        worldWidth = Math.max(1, Math.round(screenWidth * renderScale));
+        worldHeight = Math.max(1, Math.round(screenHeight * renderScale));
+
+        worldTarget.begin();
+        Gdx.gl.glViewport(0, 0, worldWidth, worldHeight);
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        worldPass = true;
+    }
+
+    /**
+     * Binds the world render target again, if in use.
+     * <p>
+     * Ending any other frame buffer binds the screen, not the frame buffer that was
+     * bound before it. This must be called after drawing into another frame buffer
+     * between {@link #beginWorld()} and {@link #endWorld()}.
+     */
+    public void resumeWorld() {
+        if (!worldPass) {
+            return;
+        }
+        worldTarget.bind();
+        Gdx.gl.glViewport(0, 0, worldWidth, worldHeight);
+    }
+
+    /**
+     * Finishes drawing the world, upscaling the world render target to the screen if in use.
+     */
+    public void endWorld() {
+        if (!worldPass) {
+            return;
+        }
+        if (active != DrawPass.INACTIVE) {
+            Gdx.app.error("GameCanvas", "Cannot end the world while drawing active", new IllegalStateException());
+            return;
+        }
+        worldTarget.end();
+        worldPass = false;
+        viewport.apply();
+
+        Texture texture = worldTarget.getColorBufferTexture();
+        texture.setFilter(upscaleFilter, upscaleFilter);
+        worldRegion.setRegion(texture);
+        worldRegion.setRegion(0, 0, worldWidth, worldHeight);
+        worldRegion.flip(false, true);
+
+        spriteBatch.setProjectionMatrix(upscaleProjection);
+        spriteBatch.disableBlending();
+        spriteBatch.begin();
+        spriteBatch.setColor(Color.WHITE);
+        spriteBatch.draw(worldRegion, 0, 0, 1, 1);
+        spriteBatch.end();
+        spriteBatch.enableBlending();
+        flushes += spriteBatch.renderCalls;
+    }
+
+    /**
+     * Returns the left edge of the area the world is drawn to, in back buffer pixels.
+     *
+     * @return the left edge of the area the world is drawn to.
+     */
+    public int getWorldViewportX() {
+        return worldPass ? 0 : HdpiUtils.toBackBufferX(viewport.getScreenX());
+    }
+
+    /**
+     * Returns the bottom edge of the area the world is drawn to, in back buffer pixels.
+     *
+     * @return the bottom edge of the area the world is drawn to.
+     */
+    public int getWorldViewportY() {
+        return worldPass ? 0 : HdpiUtils.toBackBufferY(viewport.getScreenY());
+    }
+
+    /**
+     * Returns the width of the area the world is drawn to, in back buffer pixels.
+     *
+     * @return the width of the area the world is drawn to.
+     */
+    public int getWorldViewportWidth() {
+        return worldPass ? worldWidth : HdpiUtils.toBackBufferX(viewport.getScreenWidth());
+    }
+
+    /**
+     * Returns the height of the area the world is drawn to, in back buffer pixels.
+     *
+     * @return the height of the area the world is drawn to.
+     */
+    public int getWorldViewportHeight() {
+        return worldPass ? worldHeight : HdpiUtils.toBackBufferY(viewport.getScreenHeight());
+    }
+
     /**
      * Clear the screen so we can start a new animation frame
      */
     public void clear() {
+        flushes = 0;
         // Clear the screen
         Gdx.gl.glClearColor(0,0,0,1);  // Homage to the XNA years: cute but no
         // blue gutters look awful.
@@ -469,7 +731,11 @@ public class GameCanvas {
     public void begin() {
         spriteBatch.setProjectionMatrix(camera.combined);
         spriteBatch.begin();
-        viewport.apply();
+        if (worldPass) {
+            Gdx.gl.glViewport(0, 0, worldWidth, worldHeight);
+        } else {
+            viewport.apply();
+        }
         active = DrawPass.STANDARD;
     }
 
@@ -478,11 +744,128 @@ public class GameCanvas {
      */
 
     public void end() {
+        if (queue.isOpen()) {
+            queue.end(spriteBatch, getOutlineShader());
+        }
         spriteBatch.end();
+        flushes += spriteBatch.renderCalls;
 //        fovRender.end();
         active = DrawPass.INACTIVE;
     }
 
+    /**
+     * Starts queueing sprites rather than drawing them.
+     * <p>
+     * Until {@link #endQueue()}, sprites and text go to a render queue, which draws
+     * them sorted by layer and texture to keep texture switches to a minimum. Static
+     * layers and blend state changes draw everything queued so far first.
+     */
+    public void beginQueue() {
+        if (active != DrawPass.STANDARD) {
+            Gdx.app.error("GameCanvas", "Cannot queue without active begin()", new IllegalStateException());
+            return;
+        }
+        queue.begin();
+    }
+
+    /**
+     * Sets the layer of the sprites queued next, starting a new drawable.
+     *
+     * @param layer the layer of the sprites queued next
+     */
+    public void setLayer(RenderQueue.Layer layer) {
+        queue.setLayer(layer);
+    }
+
+    /**
+     * Starts a new drawable at the given depth within the current layer.
+     * <p>
+     * The sprites of a drawable keep their order. Sprites from different drawables
+     * are sorted by depth, then by texture.
+     *
+     * @param depth the depth of the drawable
+     */
+    public void setDepth(int depth) {
+        queue.setDepth(depth);
+    }
+
+    /**
+     * Draws every queued sprite and goes back to drawing sprites right away.
+     */
+    public void endQueue() {
+        queue.end(spriteBatch, getOutlineShader());
+    }
+
+    /**
+     * Starts recording sprites into the given queue, rather than drawing them.
+     * <p>
+     * Until {@link #endRecord()}, everything that can be queued goes to the given
+     * queue, which is emptied first. Nothing is drawn, so this does not need the
+     * graphics context. The recorded queue may then be drawn any number of times
+     * with {@link #drawRecorded}.
+     *
+     * @param target the queue to record into
+     */
+    public void beginRecord(RenderQueue target) {
+        if (active != DrawPass.INACTIVE) {
+            Gdx.app.error("GameCanvas", "Cannot record while drawing active", new IllegalStateException());
+            return;
+        }
+        queue = target;
+        queue.begin();
+        active = DrawPass.RECORD;
+    }
+
+    /**
+     * Stops recording sprites, keeping them in the recorded queue.
+     */
+    public void endRecord() {
+        if (active != DrawPass.RECORD) {
+            Gdx.app.error("GameCanvas", "Cannot end a recording that was not begun", new IllegalStateException());
+            return;
+        }
+        queue.close();
+        queue = ownQueue;
+        active = DrawPass.INACTIVE;
+    }
+
+    /**
+     * Draws the recorded sprites of the given layers, on top of everything drawn so far.
+     *
+     * @param recorded  the queue recorded with {@link #beginRecord}
+     * @param first     the first layer to draw
+     * @param last      the last layer to draw
+     */
+    public void drawRecorded(RenderQueue recorded, RenderQueue.Layer first, RenderQueue.Layer last) {
+        if (active != DrawPass.STANDARD) {
+            Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+            return;
+        }
+        queue.flush(spriteBatch, getOutlineShader());
+        recorded.draw(spriteBatch, getOutlineShader(), first, last);
+    }
+
+    /**
+     * Returns true if sprites may be drawn (or recorded) right now.
+     *
+     * @return true if sprites may be drawn (or recorded) right now.
+     */
+    private boolean isDrawing() {
+        return active == DrawPass.STANDARD || active == DrawPass.RECORD;
+    }
+
+    /**
+     * Returns the shader for outlining highlighted sprites, compiling it if needed.
+     *
+     * @return the shader for outlining highlighted sprites.
+     */
+    private OutlineShader getOutlineShader() {
+        if (outlineShader == null) {
+            outlineShader = new OutlineShader(OUTLINE_THICKNESS, Color.WHITE);
+        }
+        return outlineShader;
+    }
+
     /**
      * Draws the tinted texture at the given position.
      * Unless otherwise transformed by the global transform (@see begin(Affine2)),
@@ -495,14 +878,15 @@ public class GameCanvas {
      * @param y     The y-coordinate of the bottom left corner
      */
     public void draw(Texture image, float x, float y) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
-        // Unlike Lab 1, we can shortcut without a master drawing method
-        spriteBatch.setColor(Color.WHITE);
-        spriteBatch.draw(image, x, y);
+        // Placed with a transform, so the sprite can go through the render queue
+        holder.setRegion(image);
+        local.setToTranslation(x, y);
+        drawRegion(holder, image.getWidth(), image.getHeight(), local, Color.WHITE);
     }
 
     /**
@@ -523,14 +907,15 @@ public class GameCanvas {
      * @param height The texture height
      */
     public void draw(Texture image, Color tint, float x, float y, float width, float height) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
-        // Unlike Lab 1, we can shortcut without a master drawing method
-        spriteBatch.setColor(tint);
-        spriteBatch.draw(image, x, y, width, height);
+        // Placed with a transform, so the sprite can go through the render queue
+        holder.setRegion(image);
+        local.setToTranslation(x, y);
+        drawRegion(holder, width, height, local, tint);
     }
 
     /**
@@ -553,7 +938,7 @@ public class GameCanvas {
      * @param height The texture height
      */
     public void draw(Texture image, Color tint, float ox, float oy, float x, float y, float width, float height) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
@@ -589,7 +974,7 @@ public class GameCanvas {
      */
     public void draw(Texture image, Color tint, float ox, float oy,
                      float x, float y, float angle, float sx, float sy) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
@@ -620,7 +1005,7 @@ public class GameCanvas {
      */
     public void draw(Texture image, Color tint, float ox, float oy, Affine2 transform) {
 
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
@@ -650,14 +1035,14 @@ public class GameCanvas {
     public void draw(TextureRegion region, float x, float y) {
         //
         // viewport.apply();
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
-        // Unlike Lab 1, we can shortcut without a master drawing method
-        spriteBatch.setColor(Color.WHITE);
-        spriteBatch.draw(region, x, y);
+        // Placed with a transform, so the sprite can go through the render queue
+        local.setToTranslation(x, y);
+        drawRegion(region, region.getRegionWidth(), region.getRegionHeight(), local, Color.WHITE);
     }
 
     /**
@@ -679,14 +1064,14 @@ public class GameCanvas {
      */
     public void draw(TextureRegion region, Color tint, float x, float y, float width, float height) {
         // viewport.apply();
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
-        // Unlike Lab 1, we can shortcut without a master drawing method
-        spriteBatch.setColor(tint);
-        spriteBatch.draw(region, x, y, width, height);
+        // Placed with a transform, so the sprite can go through the render queue
+        local.setToTranslation(x, y);
+        drawRegion(region, width, height, local, tint);
     }
 
     /**
@@ -709,14 +1094,14 @@ public class GameCanvas {
      * @param height The texture height
      */
     public void draw(TextureRegion region, Color tint, float ox, float oy, float x, float y, float width, float height) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
-        // Unlike Lab 1, we can shortcut without a master drawing method
-        spriteBatch.setColor(tint);
-        spriteBatch.draw(region, x - ox, y - oy, width, height);
+        // Placed with a transform, so the sprite can go through the render queue
+        local.setToTranslation(x - ox, y - oy);
+        drawRegion(region, width, height, local, tint);
     }
 
     /**
@@ -748,7 +1133,7 @@ public class GameCanvas {
     public void draw(TextureRegion region, Color tint, float ox, float oy,
                      float x, float y, float angle, float sx, float sy) {
 
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
@@ -757,28 +1142,142 @@ public class GameCanvas {
         // There is a workaround, but it will break if the bug is fixed.
         // For now, it is better to set the affine transform directly.
         computeTransform(ox, oy, x, y, angle, sx, sy);
-        spriteBatch.setColor(tint);
-        spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
+        drawRegion(region, region.getRegionWidth(), region.getRegionHeight(), local, tint);
+    }
+
+    /**
+     * Draws quads already in the sprite batch format, such as a {@link BeamStrip}.
+     * <p>
+     * If the render queue is open, the quads are queued as a single drawable.
+     *
+     * @param texture the texture of the quads
+     * @param quads   the vertices, four per quad (x, y, color, u, v)
+     * @param offset  the first float to draw
+     * @param count   the number of floats to draw
+     */
+    public void drawQuads(Texture texture, float[] quads, int offset, int count) {
+        if (!isDrawing()) {
+            Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+            return;
+        }
+        if (!queue.isOpen()) {
+            spriteBatch.draw(texture, quads, offset, count);
+            return;
+        }
+        queue.addQuads(texture, quads, offset, count);
+    }
+
+    /**
+     * Draws a cached static layer of the level, culled to the camera.
+     * <p>
+     * This flushes the sprite batch, so everything drawn before this call stays
+     * behind the layer. The drawing sequence remains active afterwards.
+     *
+     * @param layers the static layers of the level
+     * @param layer  the layer to draw
+     */
+    public void drawStatic(StaticLayerRenderer layers, StaticLayerRenderer.Layer layer) {
+        if (active != DrawPass.STANDARD) {
+            Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+            return;
+        }
+
+        queue.flush(spriteBatch, getOutlineShader());
+        spriteBatch.end();
+        flushes += spriteBatch.renderCalls;
+        // SpriteCache does not manage blending, so match the sprite batch
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(spriteBatch.getBlendSrcFunc(), spriteBatch.getBlendDstFunc());
+        layers.draw(camera, layer, shadowOffset);
+        spriteBatch.begin();
     }
 
-    /** Draws a shadow to the right of the drawn object in the color black */
+    /**
+     * Draws a shadow to the right of the drawn object in the color black
+     * <p>
+     * Shadows go to a separate layer, which is drawn under the sprites drawn since
+     * the last flush of the batch (see {@link ShadowBatch}).
+     */
     public void drawShadow(TextureRegion region, float ox, float oy,
                            float x, float y, float angle, float sx, float sy) {
-        draw(region, Color.BLACK, ox, oy, x+shadowOffset, y, angle, sx, sy);
+        if (!isDrawing()) {
+            Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+            return;
+        }
+        computeTransform(ox, oy, x+shadowOffset, y, angle, sx, sy);
+        drawShadowRegion(region, region.getRegionWidth(), region.getRegionHeight(), local, Color.BLACK);
     }
 
+    /** Draws the texture with a black shadow to the right of it */
     public void drawWithShadow(TextureRegion region, Color tint, float ox, float oy,
                                float x, float y, float angle, float sx, float sy) {
-        draw(region, Color.BLACK, ox, oy, x+shadowOffset, y, angle, sx, sy);
         drawWithColoredShadow(region, tint, ox, oy, x, y, angle, sx, sy, Color.BLACK);
     }
 
-    /** Draws a shadow to the right of the drawn object in the color black */
+    /**
+     * Draws the texture with a shadow of the given color to the right of it
+     * <p>
+     * The sprite is drawn first, so that any flush for a texture switch happens
+     * before its shadow joins the shadow layer.
+     */
     public void drawWithColoredShadow(TextureRegion region, Color tint, float ox, float oy,
                                float x, float y, float angle, float sx, float sy, Color shadowColor) {
-
-        draw(region, shadowColor, ox, oy, x+shadowOffset, y, angle, sx, sy);
+        if (!isDrawing()) {
+            Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+            return;
+        }
         draw(region, tint, ox, oy, x, y, angle, sx, sy);
+        computeTransform(ox, oy, x+shadowOffset, y, angle, sx, sy);
+        drawShadowRegion(region, region.getRegionWidth(), region.getRegionHeight(), local, shadowColor);
+    }
+
+    /**
+     * Draws the tinted texture region with a white outline around it
+     * <p>
+     * The outline is drawn by a shader (see {@link OutlineShader}), so any region may
+     * be outlined without an outline copy of its image. The region is drawn on a quad
+     * grown by the outline thickness, with the same placement as {@link #draw(TextureRegion,
+     * Color, float, float, float, float, float, float, float)}.
+     * <p>
+     * If the render queue is open, the sprite is queued with its outline. Otherwise,
+     * this draws right away, like the other draw methods.
+     *
+     * @param region The texture to draw
+     * @param tint   The color tint
+     * @param ox     The x-coordinate of texture origin (in pixels)
+     * @param oy     The y-coordinate of texture origin (in pixels)
+     * @param x      The x-coordinate of the texture origin (on screen)
+     * @param y      The y-coordinate of the texture origin (on screen)
+     * @param angle  The rotation angle (in degrees) about the origin.
+     * @param sx     The x-axis scaling factor
+     * @param sy     The y-axis scaling factor
+     */
+    public void drawOutlined(TextureRegion region, Color tint, float ox, float oy,
+                             float x, float y, float angle, float sx, float sy) {
+        if (!isDrawing()) {
+            Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+            return;
+        }
+        // Grow the region by the outline thickness on every side
+        Texture texture = region.getTexture();
+        float t = OUTLINE_THICKNESS;
+        float du = t / texture.getWidth() * Math.signum(region.getU2() - region.getU());
+        float dv = t / texture.getHeight() * Math.signum(region.getV2() - region.getV());
+        outlined.setTexture(texture);
+        outlined.setRegion(region.getU() - du, region.getV() - dv, region.getU2() + du, region.getV2() + dv);
+
+        computeTransform(ox + t, oy + t, x, y, angle, sx, sy);
+        if (queue.isOpen()) {
+            queue.addOutlined(outlined, region, region.getRegionWidth() + 2 * t,
+                    region.getRegionHeight() + 2 * t, local, tint.toFloatBits());
+            return;
+        }
+        OutlineShader shader = getOutlineShader();
+        spriteBatch.setShader(shader.getProgram());
+        shader.apply(region);
+        spriteBatch.setColor(tint);
+        spriteBatch.draw(outlined, region.getRegionWidth() + 2 * t, region.getRegionHeight() + 2 * t, local);
+        spriteBatch.setShader(null);
     }
 
     /**
@@ -801,15 +1300,14 @@ public class GameCanvas {
      * @param affine The image transform
      */
     public void draw(TextureRegion region, Color tint, float ox, float oy, Affine2 affine) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
         local.set(affine);
         local.translate(-ox, -oy);
-        spriteBatch.setColor(tint);
-        spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
+        drawRegion(region, region.getRegionWidth(), region.getRegionHeight(), local, tint);
     }
 
     /**
@@ -833,12 +1331,17 @@ public class GameCanvas {
      * @param y      The y-coordinate of the bottom left corner
      */
     public void draw(PolygonRegion region, float x, float y) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
         // Unlike Lab 1, we can shortcut without a master drawing method
+        if (queue.isOpen()) {
+            local.setToTranslation(x, y);
+            queue.addPolygon(region, local, Color.WHITE.toFloatBits());
+            return;
+        }
         spriteBatch.setColor(Color.WHITE);
         spriteBatch.draw(region, x, y);
     }
@@ -867,12 +1370,19 @@ public class GameCanvas {
      * @param height The texture height
      */
     public void draw(PolygonRegion region, Color tint, float x, float y, float width, float height) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
         // Unlike Lab 1, we can shortcut without a master drawing method
+        if (queue.isOpen()) {
+            TextureRegion bounds = region.getRegion();
+            local.setToTranslation(x, y);
+            local.scale(width / bounds.getRegionWidth(), height / bounds.getRegionHeight());
+            queue.addPolygon(region, local, tint.toFloatBits());
+            return;
+        }
         spriteBatch.setColor(tint);
         spriteBatch.draw(region, x, y, width, height);
     }
@@ -903,12 +1413,19 @@ public class GameCanvas {
      * @param height The texture height
      */
     public void draw(PolygonRegion region, Color tint, float ox, float oy, float x, float y, float width, float height) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
         // Unlike Lab 1, we can shortcut without a master drawing method
+        if (queue.isOpen()) {
+            TextureRegion bounds = region.getRegion();
+            local.setToTranslation(x - ox, y - oy);
+            local.scale(width / bounds.getRegionWidth(), height / bounds.getRegionHeight());
+            queue.addPolygon(region, local, tint.toFloatBits());
+            return;
+        }
         spriteBatch.setColor(tint);
         spriteBatch.draw(region, x - ox, y - oy, width, height);
     }
@@ -941,11 +1458,20 @@ public class GameCanvas {
      */
     public void draw(PolygonRegion region, Color tint, float ox, float oy,
                      float x, float y, float angle, float sx, float sy) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
+        if (queue.isOpen()) {
+            // Same placement as PolygonSpriteBatch, which rotates about (x+ox, y+oy)
+            local.setToTranslation(x + ox, y + oy);
+            local.rotate(180.0f * angle / (float) Math.PI);
+            local.scale(sx, sy);
+            local.translate(-ox, -oy);
+            queue.addPolygon(region, local, tint.toFloatBits());
+            return;
+        }
         TextureRegion bounds = region.getRegion();
         spriteBatch.setColor(tint);
         spriteBatch.draw(region, x, y, ox, oy,
@@ -976,13 +1502,17 @@ public class GameCanvas {
      * @param affine The image transform
      */
     public void draw(PolygonRegion region, Color tint, float ox, float oy, Affine2 affine) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
 
         local.set(affine);
         local.translate(-ox, -oy);
+        if (queue.isOpen()) {
+            queue.addPolygon(region, local, tint.toFloatBits());
+            return;
+        }
         computeVertices(local, region.getVertices());
 
         spriteBatch.setColor(tint);
@@ -1014,22 +1544,22 @@ public class GameCanvas {
      * @param y    The y-coordinate of the lower-left corner
      */
     public void drawText(String text, BitmapFont font, float x, float y) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
         GlyphLayout layout = new GlyphLayout(font, text);
-        font.draw(spriteBatch, layout, x, y);
+        drawLayout(font, layout, x, y);
     }
 
     public void drawText(String text, BitmapFont font, Color color,
                          float x, float y, float w, int halign, boolean wrap) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
         GlyphLayout layout = new GlyphLayout(font, text, color, w, halign, wrap);
-        font.draw(spriteBatch, layout, x, y);
+        drawLayout(font, layout, x, y);
     }
 
     /**
@@ -1040,7 +1570,7 @@ public class GameCanvas {
      * @param offset The y-value offset from the center of the screen.
      */
     public void drawTextCentered(String text, BitmapFont font, float offset) {
-        if (active != DrawPass.STANDARD) {
+        if (!isDrawing()) {
             Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
             return;
         }
@@ -1049,7 +1579,7 @@ public class GameCanvas {
         float x = (viewport.getWorldWidth() - layout.width) / 2.0f;
         float y = (viewport.getWorldHeight() + layout.height)/ 2.0f;
        // Vector3 coords = camera.unproject(new Vector3(x, y, 0));
-        font.draw(spriteBatch, layout, x, y + offset);
+        drawLayout(font, layout, x, y + offset);
     }
 
     /**
@@ -1300,6 +1830,63 @@ public class GameCanvas {
         local.translate(-ox, -oy);
     }
 
+    /**
+     * Draws a region with the given transform, or queues it if the render queue is open.
+     *
+     * @param region    The region to draw
+     * @param width     The width of the region
+     * @param height    The height of the region
+     * @param transform The region transform
+     * @param tint      The color tint
+     */
+    private void drawRegion(TextureRegion region, float width, float height, Affine2 transform, Color tint) {
+        if (queue.isOpen()) {
+            queue.addQuad(region, width, height, transform, tint.toFloatBits(), false);
+        } else {
+            spriteBatch.setColor(tint);
+            spriteBatch.draw(region, width, height, transform);
+        }
+    }
+
+    /**
+     * Draws a shadow with the given transform, or queues it if the render queue is open.
+     *
+     * @param region    The region casting the shadow
+     * @param width     The width of the region
+     * @param height    The height of the region
+     * @param transform The shadow transform
+     * @param color     The shadow color
+     */
+    private void drawShadowRegion(TextureRegion region, float width, float height, Affine2 transform, Color color) {
+        if (queue.isOpen()) {
+            queue.addQuad(region, width, height, transform, color.toFloatBits(), true);
+        } else {
+            spriteBatch.drawShadow(region, width, height, transform, color);
+        }
+    }
+
+    /**
+     * Draws laid out text, or queues its glyphs if the render queue is open.
+     *
+     * @param font   The font of the text
+     * @param layout The text layout
+     * @param x      The x-coordinate of the text
+     * @param y      The y-coordinate of the text
+     */
+    private void drawLayout(BitmapFont font, GlyphLayout layout, float x, float y) {
+        if (!queue.isOpen()) {
+            font.draw(spriteBatch, layout, x, y);
+            return;
+        }
+        BitmapFontCache cache = font.getCache();
+        cache.clear();
+        cache.addText(layout, x, y);
+        Array<TextureRegion> pages = font.getRegions();
+        for (int page = 0; page < pages.size; page++) {
+            queue.addQuads(pages.get(page).getTexture(), cache.getVertices(page), 0, cache.getVertexCount(page));
+        }
+    }
+
 
     /**
      * Draws an FOV
@@ -1,26 +1,41 @@
 package edu.cornell.gdiac.bubblegumbandit.view;
 
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.g3d.particles.influencers.ColorInfluencer;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.HdpiUtils;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
-import com.badlogic.gdx.scenes.scene2d.utils.SpriteDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StringBuilder;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.bubblegumbandit.controllers.BubblegumController;
 import edu.cornell.gdiac.bubblegumbandit.models.level.LevelModel;
-import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
 
+/**
+ * The heads-up display of a level.
+ * <p>
+ * The HUD rarely changes, so the health bar, gum and captive icons are drawn into a
+ * framebuffer, which is redrawn only when the health, ammo, captives, reload state
+ * or viewport change. Every other frame, the HUD is a single quad. The parts that
+ * animate (the escape countdown and message) and the debug text are drawn over it
+ * from a second stage.
+ */
 public class HUDController {
 
 
@@ -29,9 +44,21 @@ public class HUDController {
      */
     private BitmapFont font;
     /**
-     * The stage, contains all HUD elements
+     * The stage, contains the cached HUD elements
      */
     private Stage stage;
+    /**
+     * The stage for the HUD elements drawn every frame, over the cached ones
+     */
+    private Stage overlay;
+    /**
+     * The cached HUD, drawn from the stage (null until the first draw)
+     */
+    private FrameBuffer cache;
+    /**
+     * Whether the cached HUD must be redrawn
+     */
+    private boolean dirty = true;
 
     /**
      * The backing of the health bar, drawn as empty, as a UI element
@@ -72,6 +99,23 @@ public class HUDController {
      * texture region healthFillRegion is not redefined on frames where the health has not changed.
      */
     private float lastFrac = 1f;
+    /**
+     * The drawable for the health filling, cropped along with healthFillRegion
+     */
+    private TextureRegionDrawable healthFillDrawable;
+
+    /** The HUD state the cache was drawn with */
+    private int lastAmmo = -1;
+    private int lastCaptives = -1;
+    private int lastTotalCaptives = -1;
+    private boolean lastReloading;
+    private boolean lastShootingDisabled;
+
+    /** The countdown value last shown (or Integer.MIN_VALUE if none) */
+    private int lastTimer = Integer.MIN_VALUE;
+
+    /** The text of the debug overlay, reused every frame */
+    private final StringBuilder debugText = new StringBuilder();
 
     private int timerStart = -1;
 
@@ -95,6 +139,10 @@ public class HUDController {
      * Position that the timer "shakes" to
      */
     private Vector2 shakeAdjust;
+    /**
+     * Position of the debug text, found when the HUD is laid out
+     */
+    private final Vector2 labelPosition = new Vector2();
 
     private Texture captiveIcon;
 
@@ -119,30 +167,38 @@ public class HUDController {
 
     private Image[] empty = new Image[6];
 
+    /** The drawables of a saved captive and a missing captive */
+    private TextureRegionDrawable captiveDrawable;
+    private TextureRegionDrawable emptyDrawable;
+
     private int ammo;
 
     public HUDController(AssetDirectory directory) {
 
         font = directory.getEntry("codygoonRegular", BitmapFont.class);
         stage = new Stage();
+        overlay = new Stage(stage.getViewport(), stage.getBatch());
+        shakeAdjust = new Vector2();
 
         table = new Table();
         table.align(Align.topLeft);
         stage.addActor(table);
         table.setFillParent(true);
 
-        healthBar = new Image(directory.getEntry("healthBar", Texture.class));
+        healthBar = new Image(directory.getEntry("healthBar", TextureRegion.class));
         healthFillText = directory.getEntry("healthFill", Texture.class);
-        healthIcon = new Image(directory.getEntry("healthIcon", Texture.class));
-        bubbleIcon = new Image(directory.getEntry("bubblegumIcon", Texture.class));
+        healthIcon = new Image(directory.getEntry("healthIcon", TextureRegion.class));
+        bubbleIcon = new Image(directory.getEntry("bubblegumIcon", TextureRegion.class));
         captiveIcon = directory.getEntry("captiveIcon", Texture.class);
         emptyIcon = directory.getEntry("captiveIconOutline", Texture.class);
+        captiveDrawable = new TextureRegionDrawable(captiveIcon);
+        emptyDrawable = new TextureRegionDrawable(emptyIcon);
 
 
         healthFillRegion = new TextureRegion(healthFillText, 0, 0,
                 healthFillText.getWidth(), healthFillText.getHeight());
-        healthFill = new Image(new SpriteDrawable(new Sprite(healthFillRegion)) {
-        });
+        healthFillDrawable = new TextureRegionDrawable(healthFillRegion);
+        healthFill = new Image(healthFillDrawable);
 
         health = new WidgetGroup(healthBar, healthFill, healthIcon);
 
@@ -150,15 +206,17 @@ public class HUDController {
         healthBar.setX(healthIcon.getWidth() / 2);
         healthFill.setX(healthBar.getX() + healthBar.getHeight() * HEALTH_MARGIN);
         healthFill.setY(healthBar.getY() + healthBar.getHeight() * HEALTH_MARGIN);
+        healthFill.setWidth(healthFillRegion.getRegionWidth() - HEALTH_MARGIN * healthBar.getHeight());
+        healthFill.setHeight(healthBar.getHeight() - 2 * (healthBar.getHeight() * HEALTH_MARGIN));
 
 
         gum = new HorizontalGroup();
         for (int i = 0; i < 6; i++) {
             Stack stack = new Stack();
-            Image emptyGum = new Image(directory.getEntry("emptyGum", Texture.class));
+            Image emptyGum = new Image(directory.getEntry("emptyGum", TextureRegion.class));
             empty[i] = emptyGum;
 
-            Image reloadGumIcon = new Image(directory.getEntry("bubblegumIcon", Texture.class));
+            Image reloadGumIcon = new Image(directory.getEntry("bubblegumIcon", TextureRegion.class));
             gumCount[i] = reloadGumIcon;
             stack.add(emptyGum);
             stack.add(reloadGumIcon);
@@ -173,7 +231,7 @@ public class HUDController {
         captives = new HorizontalGroup();
 
         for (int i = 0; i < maxCaptives; i++) {
-            Image icon = new Image(emptyIcon);
+            Image icon = new Image(emptyDrawable);
             captiveIcons.add(icon);
             captives.addActor(icon);
             captives.space(12);
@@ -181,22 +239,22 @@ public class HUDController {
 
 
 
-        escapeMessage = new Image(directory.getEntry("escape", Texture.class));
+        escapeMessage = new Image(directory.getEntry("escape", TextureRegion.class));
         escapeMessage.setVisible(false);
         escapeMessage.setSize(escapeMessage.getWidth() * .5f, escapeMessage.getHeight() * .5f);
         escapeMessage.setPosition(stage.getWidth() / 2 - escapeMessage.getWidth() / 2, stage.getHeight() * .6f);
         escapeMessage.setColor(ESCAPE_RED);
 
-        escapeIcon = new Image(directory.getEntry("escapeIcon", Texture.class));
+        escapeIcon = new Image(directory.getEntry("escapeIcon", TextureRegion.class));
         escapeIcon.setPosition(stage.getWidth() / 2 - escapeIcon.getWidth() / 2, stage.getHeight() / 8);
         timerStart = -1;
-        stage.addActor(escapeIcon);
-        stage.addActor(escapeMessage);
+        overlay.addActor(escapeIcon);
+        overlay.addActor(escapeMessage);
 
 
         for (int i = 0; i < 6; i++) {
-            Image reloadGumIcon = new Image(directory.getEntry("bubblegumIcon", Texture.class));
-            Image emptyGumIcon = new Image(directory.getEntry("emptyGum", Texture.class));
+            Image reloadGumIcon = new Image(directory.getEntry("bubblegumIcon", TextureRegion.class));
+            Image emptyGumIcon = new Image(directory.getEntry("emptyGum", TextureRegion.class));
             emptyGumIcon.setPosition(stage.getWidth() / 2 - 125 + i * 72, stage.getHeight() / 4, Align.center);
             reloadGumIcon.setPosition(stage.getWidth() / 2 - 125 + i * 72, stage.getHeight() / 4, Align.center);
 
@@ -210,25 +268,31 @@ public class HUDController {
 
         fpsLabel = new Label("", new Label.LabelStyle(font, Color.WHITE));
         fpsLabel.setFontScale(0.5f);
+        fpsLabel.setAlignment(Align.topLeft);
+        fpsLabel.setVisible(false);
+        overlay.addActor(fpsLabel);
 
         makeTable(true);
     }
 
     public void setCaptives(int currentCaptives, int totalCaptives) {
-        //ahh
+        if (currentCaptives == lastCaptives && totalCaptives == lastTotalCaptives) return;
 
         for (int i = 0; i < maxCaptives; i++) {
             Image curr = captiveIcons.get(i);
             if (i < currentCaptives) {
                 curr.setVisible(true);
-                curr.setDrawable(new SpriteDrawable(new Sprite(captiveIcon)));
+                curr.setDrawable(captiveDrawable);
             } else if (i < totalCaptives) {
                 curr.setVisible(true);
-                curr.setDrawable(new SpriteDrawable(new Sprite(emptyIcon)));
+                curr.setDrawable(emptyDrawable);
             } else {
                 curr.setVisible(false);
             }
         }
+        lastCaptives = currentCaptives;
+        lastTotalCaptives = totalCaptives;
+        dirty = true;
     }
 
 
@@ -238,14 +302,25 @@ public class HUDController {
 
     public void setViewport(Viewport view) {
         stage.setViewport(view);
+        overlay.setViewport(view);
         view.apply(true);
+        dirty = true;
     }
 
-    public void drawCountdownText(int timer, float dt, GameCamera camera, BanditModel bandit) {
+    /**
+     * Draws the escape countdown, shaking the camera as it ticks down.
+     *
+     * @param frame     the latest render state
+     * @param dt        the time since the last frame, in seconds
+     * @param camera    the camera to shake
+     */
+    public void drawCountdownText(RenderState.Frame frame, float dt, GameCamera camera) {
+        int timer = frame.getTimer();
 
         if (timer < 0 && orbCountdown != null) orbCountdown.setText("");
         if (timer < 0 && escapeMessage != null) escapeMessage.setVisible(false);
         if (timer < 0) timerStart = -1;
+        if (timer < 0) lastTimer = Integer.MIN_VALUE;
         if (timer < 0) return; //We aren't ticking down.
 
         //We need to instantiate the label here in order to draw the text over the UI
@@ -258,10 +333,10 @@ public class HUDController {
             orbCountdown.setY(escapeIcon.getY());
             orbCountdown.setWidth(escapeIcon.getWidth() / 2.3f);
             orbCountdown.setHeight(escapeIcon.getHeight());
-            stage.addActor(orbCountdown);
+            overlay.addActor(orbCountdown);
         }
 
-        shakeTimer(dt, timer, camera, bandit);
+        shakeTimer(dt, timer);
 
         //Should we draw "ESCAPE!" ?
         final int escapeTextDuration = 3;
@@ -270,9 +345,9 @@ public class HUDController {
 
 
         //Did we tick down one second?
-        String countdownText = orbCountdown.getText().toString();
-        if (countdownText.equals("") || Integer.parseInt(countdownText.trim()) != timer) {
+        if (lastTimer != timer) {
             orbCountdown.setText(timer);
+            lastTimer = timer;
 
             //Should we SHAKE??
             int shakeChance = 45;
@@ -280,8 +355,8 @@ public class HUDController {
             if (shouldShake && timer > 3) {
                 float randomTrauma = MathUtils.random(.25f, 1f);
                 camera.addTrauma(
-                        bandit.getX() * bandit.getDrawScale().x,
-                        bandit.getY() * bandit.getDrawScale().y,
+                        frame.getBanditScreenPosition().x,
+                        frame.getBanditScreenPosition().y,
                         randomTrauma
                 );
             }
@@ -289,23 +364,39 @@ public class HUDController {
             //Final shakes
             if (timer <= 3) {
                 camera.addTrauma(
-                        bandit.getX() * bandit.getDrawScale().x,
-                        bandit.getY() * bandit.getDrawScale().y,
+                        frame.getBanditScreenPosition().x,
+                        frame.getBanditScreenPosition().y,
                         4 - timer
                 );
             }
         }
     }
 
-    public void draw(LevelModel level,
+    /**
+     * Draws the HUD, redrawing the cached part first if it changed.
+     * <p>
+     * The game state comes from the render state alone. The level is only read for
+     * the statistics of its last draw, which the debug text shows.
+     *
+     * @param frame             the latest render state
+     * @param level             the current level, for its draw statistics
+     * @param screen            the viewport the HUD is drawn in, already applied
+     * @param fps               the current frame rate
+     * @param flushes           the sprite batch flushes of the last frame
+     * @param showFPS           whether to show the debug text
+     */
+    public void draw(RenderState.Frame frame,
+                     LevelModel level,
+                     Viewport screen,
                      int fps,
-                     int timer,
-                     boolean showFPS,
-                     boolean reloadingGum,
-                     boolean shootingDisabled) {
-        ammo = level.getBandit().getAmmo();
+                     int flushes,
+                     boolean showFPS) {
+        int timer = frame.getTimer();
+        boolean reloadingGum = frame.isReloading();
+        boolean shootingDisabled = frame.isShootingDisabled();
+        ammo = frame.getAmmo();
         //drawing the health bar, draws no fill if health is 0
-        float healthFraction = level.getBandit().getHealth() / level.getBandit().getMaxHealth();
+        float healthFraction = frame.getHealthFraction();
 
 
         if (healthFraction != lastFrac) {
@@ -313,66 +404,109 @@ public class HUDController {
                 healthFill.setDrawable(null);
             } else {
                 healthFillRegion.setRegionWidth((int) (healthFillText.getWidth() * healthFraction));
-                healthFill.setDrawable(new SpriteDrawable(new Sprite(healthFillRegion)) {
-                });
+                healthFill.setDrawable(healthFillDrawable);
+                healthFill.setWidth(healthFillRegion.getRegionWidth() - HEALTH_MARGIN * healthBar.getHeight());
+                healthFill.setHeight(healthBar.getHeight() - 2 * (healthBar.getHeight() * HEALTH_MARGIN));
             }
             lastFrac = healthFraction;
+            dirty = true;
         }
-        int numCaptives = level.getBandit().getNumStars();
-        int totalCaptives = level.getTotalCaptives();
-        setCaptives(numCaptives, totalCaptives);
-
-        healthFill.setWidth(healthFillRegion.getRegionWidth() - HEALTH_MARGIN * healthBar.getHeight());
-        healthFill.setHeight(healthBar.getHeight() - 2 * (healthBar.getHeight() * HEALTH_MARGIN));
-        if (!shootingDisabled) {
-            for (int i = 0; i < ammo; i++) {
-                Image gumImage = gumCount[i];
-                gumImage.setVisible(true);
-            }
-            for (int i = ammo; i < 6; i++) {
-                Image gumImage = gumCount[i];
-                gumImage.setVisible(false);
-            }
-
-            if (reloadingGum) {
-                for (int i = 0; i < 6; i++) {
-                    Image emptyGumImage = emptyGumCount[i];
-                    emptyGumImage.setVisible(true);
-                }
-                for (int i = 0; i < ammo; i++) {
-                    Image gumImage = reloadGumCount[i];
-                    gumImage.setVisible(true);
-                }
-            } else {
-                for (int i = 0; i < reloadGumCount.length; i++) {
-                    Image gumImage = reloadGumCount[i];
-                    gumImage.setVisible(false);
-                }
-                for (int i = 0; i < 6; i++) {
-                    Image emptyGumImage = emptyGumCount[i];
-                    emptyGumImage.setVisible(false);
-                }
+        setCaptives(frame.getCaptives(), frame.getTotalCaptives());
+
+        if (!shootingDisabled && (ammo != lastAmmo || reloadingGum != lastReloading
+                || shootingDisabled != lastShootingDisabled)) {
+            for (int i = 0; i < 6; i++) {
+                gumCount[i].setVisible(i < ammo);
+                emptyGumCount[i].setVisible(reloadingGum);
+                reloadGumCount[i].setVisible(reloadingGum && i < ammo);
             }
+            dirty = true;
         }
+        lastAmmo = ammo;
+        lastReloading = reloadingGum;
+        lastShootingDisabled = shootingDisabled;
 
         if (showFPS) {
-            fpsLabel.setText("FPS: " + fps);
-        } else {
-            fpsLabel.setText("");
+            // Debug overlay: how much of the level the culler kept this frame
+            DrawCuller culler = level.getCuller();
+            StaticLayerRenderer layers = level.getStaticLayers();
+            LightManager lights = level.getLights();
+            debugText.setLength(0);
+            debugText.append("FPS: ").append(fps).append("  Flushes: ").append(flushes)
+                    .append("  Drawn: ").append(culler.getDrawn()).append("  Culled: ").append(culler.getCulled())
+                    .append("  Chunks: ").append(layers.getDrawnChunks()).append('/')
+                    .append(layers.getDrawnChunks() + layers.getCulledChunks())
+                    .append("  Lights: ").append(lights.getActiveLights()).append('/')
+                    .append(lights.getActiveLights() + lights.getCulledLights())
+                    .append("  Rays: ").append(lights.getActiveRays());
+            fpsLabel.setText(debugText);
         }
+        fpsLabel.setVisible(showFPS);
 
-        if (timer >= 0) {
-            escapeIcon.setVisible(true);
-        } else escapeIcon.setVisible(false);
+        escapeIcon.setVisible(timer >= 0);
 
+        int width = Math.max(1, HdpiUtils.toBackBufferX(screen.getScreenWidth()));
+        int height = Math.max(1, HdpiUtils.toBackBufferY(screen.getScreenHeight()));
+        if (cache == null || cache.getWidth() != width || cache.getHeight() != height) {
+            if (cache != null) {
+                cache.dispose();
+            }
+            cache = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+            dirty = true;
+        }
+        if (dirty) {
+            redraw(screen);
+        }
+
+        Batch batch = stage.getBatch();
+        Camera camera = stage.getCamera();
+        camera.update();
+        batch.setProjectionMatrix(camera.combined);
+        // The cache holds premultiplied colors
+        batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        batch.begin();
+        batch.setColor(Color.WHITE);
+        Texture texture = cache.getColorBufferTexture();
+        batch.draw(texture, camera.position.x - camera.viewportWidth / 2,
+                camera.position.y - camera.viewportHeight / 2,
+                camera.viewportWidth, camera.viewportHeight,
+                0, 0, texture.getWidth(), texture.getHeight(), false, true);
+        batch.end();
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+        overlay.draw();
+    }
 
+    /**
+     * Lays out the cached HUD elements and draws them into the cache.
+     *
+     * @param screen    the viewport to restore afterwards
+     */
+    private void redraw(Viewport screen) {
+        table.validate();
+        labelPosition.set(0, 0);
+        captives.localToStageCoordinates(labelPosition);
+        fpsLabel.setSize(stage.getWidth(), font.getLineHeight() * fpsLabel.getFontScaleY());
+        fpsLabel.setPosition(labelPosition.x, labelPosition.y - 10, Align.topLeft);
+
+        Batch batch = stage.getBatch();
+        cache.begin();
+        Gdx.gl.glClearColor(0, 0, 0, 0);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        // Keep the alpha of the HUD, so the cache can be blended over the level
+        batch.setBlendFunctionSeparate(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA,
+                GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
         stage.draw();
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        cache.end();
+        screen.apply();
+        dirty = false;
     }
 
     /**
      * Shakes the timer, lerping quickly it to a random position.
      */
-    private void shakeTimer(float dt, float timer, GameCamera camera, BanditModel bandit) {
+    private void shakeTimer(float dt, float timer) {
         float xShakeRange;
         float yShakeRange;
         float transitionSpeed;
@@ -384,7 +518,7 @@ public class HUDController {
         xShakeRange = 10f;
         yShakeRange = 2f;
         transitionSpeed = 7f;
-        shakeAdjust = new Vector2(
+        shakeAdjust.set(
                 escapeIcon.getX() + escapeIcon.getWidth() / 2.3f + MathUtils.random(-xShakeRange, xShakeRange),
                 escapeIcon.getY() + MathUtils.random(-yShakeRange, yShakeRange)
         );
@@ -400,8 +534,6 @@ public class HUDController {
         }
         table.row();
         table.add(captives).padTop(5);
-        table.row();
-        table.add(fpsLabel).padTop(10);
         table.padLeft(30).padTop(60);
     }
 
@@ -410,6 +542,7 @@ public class HUDController {
 
         table.clearChildren();
         makeTable(!shootingDisabled);
+        dirty = true;
 
         for (int i = 0; i < 6; i++) {
             Image emptyGumImage = empty[i];
@@ -422,6 +555,12 @@ public class HUDController {
     }
 
     public void dispose() {
+        if (cache != null) {
+            cache.dispose();
+            cache = null;
+        }
+        // The overlay shares the batch of the stage, which disposes it
+        overlay.dispose();
         stage.dispose();
     }
 }
\ No newline at end of file
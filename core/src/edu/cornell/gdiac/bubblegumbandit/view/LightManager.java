@@ -0,0 +1,502 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import box2dLight.PointLight;
+import box2dLight.RayHandler;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+
+/**
+ * Owns the box2dlights of a level and decides which of them are worth updating.
+ * <p>
+ * Each frame, lights whose reach does not overlap the camera frustum are turned
+ * off, which takes them out of the ray handler entirely. Visible lights are cast
+ * with fewer rays the further they are from the center of the view. As box2dlights
+ * cannot change the ray count of a light, each level of detail is a separate light,
+ * created the first time it is needed and kept for later.
+ * <p>
+ * Lights may be owned by an obstacle, in which case they follow its body and are
+ * turned off when it is removed. Only the lights whose owners are still alive are
+ * checked each frame.
+ */
+public class LightManager implements Disposable {
+    /** The fewest rays a light is cast with at a lower level of detail */
+    private static final int MIN_RAYS = 12;
+    /** Where each coarser level of detail starts, as a fraction of half the view diagonal */
+    private static final float[] LOD_DISTANCES = {0.35f, 0.7f};
+    /** How far past a level boundary a light must move before switching, to avoid flicker */
+    private static final float LOD_HYSTERESIS = 0.05f;
+    /** The default soft shadow length of box2dlights */
+    private static final float DEFAULT_SOFTNESS = 2.5f;
+
+    /** The ray handler for box2dlights */
+    private final RayHandler rays;
+    /** The size of a tile in pixels */
+    private final Vector2 scale = new Vector2();
+    /** Every light of the level */
+    private final Array<ManagedLight> lights = new Array<>();
+    /** The lights whose owners have not been removed yet */
+    private final Array<ManagedLight> owned = new Array<>(false, 4);
+
+    /** The number of lights cast this frame */
+    private int activeLights;
+    /** The number of lights skipped this frame */
+    private int culledLights;
+    /** The number of rays cast this frame */
+    private int activeRays;
+
+    /** Cache for the box2d camera transform */
+    private final Matrix4 box2dCombined = new Matrix4();
+
+    /**
+     * Creates a light manager (and its ray handler) for the given world.
+     *
+     * @param world the physics world that casts the shadows
+     * @param scale the size of a tile in pixels
+     */
+    public LightManager(World world, Vector2 scale) {
+        rays = new RayHandler(world);
+        rays.setShadows(true);
+        this.scale.set(scale);
+    }
+
+    /**
+     * Sets the ambient light of the level.
+     *
+     * @param ambient the ambient light amount
+     */
+    public void setAmbientLight(float ambient) {
+        rays.setAmbientLight(ambient);
+    }
+
+    /**
+     * Adds a point light to the level.
+     * <p>
+     * The light is only created in box2dlights once it is first on screen.
+     *
+     * @param rayCount  the number of rays at full detail
+     * @param color     the color of the light
+     * @param distance  the distance of the light, in tiles
+     * @param x         the x-coordinate of the light, in tiles
+     * @param y         the y-coordinate of the light, in tiles
+     * @param owner     the obstacle the light follows, or null for a fixed light
+     *
+     * @return the handle for changing the light
+     */
+    public ManagedLight addPointLight(int rayCount, Color color, float distance, float x, float y, Obstacle owner) {
+        ManagedLight light = new ManagedLight(rayCount, color, distance, x, y, owner);
+        lights.add(light);
+        if (owner != null) {
+            owned.add(light);
+        }
+        return light;
+    }
+
+    /**
+     * Turns off the lights whose owners were removed from the level.
+     * <p>
+     * The lights are turned off rather than removed, so that a restored level can
+     * turn them back on.
+     */
+    public void update() {
+        for (int ii = owned.size - 1; ii >= 0; ii--) {
+            ManagedLight light = owned.get(ii);
+            if (light.owner.isRemoved()) {
+                light.disable();
+                owned.removeIndex(ii);
+            }
+        }
+    }
+
+    /**
+     * Turns the lights of removed owners back on, following their new bodies.
+     * <p>
+     * This is called when the level is restored from a snapshot.
+     */
+    public void restore() {
+        owned.clear();
+        for (ManagedLight light : lights) {
+            if (light.owner != null) {
+                light.setLevel(-1);
+                light.enabled = true;
+                owned.add(light);
+            }
+        }
+    }
+
+    /**
+     * Recasts the static lights, as the shadows they were cast with are out of date.
+     * <p>
+     * This should be called whenever obstacles are removed from the world.
+     */
+    public void invalidateStatic() {
+        for (ManagedLight light : lights) {
+            if (light.staticLight) {
+                light.refresh();
+            }
+        }
+    }
+
+    /**
+     * Culls the lights, then casts the rays of the visible ones.
+     * <p>
+     * This reads the physics world, so it is called at the end of each simulation
+     * tick, along with the recording of the level sprites. Drawing then only blends
+     * the light meshes cast here.
+     *
+     * @param camera the camera of this tick
+     */
+    public void cast(GameCamera camera) {
+        box2dCombined.set(camera.combined).scl(scale.x);
+        rays.setCombinedMatrix(box2dCombined, camera.position.x / scale.x, camera.position.y / scale.y,
+            camera.viewportWidth * camera.zoom / scale.x, camera.viewportHeight * camera.zoom / scale.y);
+        cull(camera);
+        rays.update();
+    }
+
+    /**
+     * Renders the lights last cast by {@link #cast}.
+     * <p>
+     * This is not to be called within the canvas's begin/end block, but strictly after.
+     *
+     * @param canvas the game canvas
+     */
+    public void draw(GameCanvas canvas) {
+        // The world may be drawn into a smaller render target than the screen
+        rays.useCustomViewport(canvas.getWorldViewportX(), canvas.getWorldViewportY(),
+            canvas.getWorldViewportWidth(), canvas.getWorldViewportHeight());
+        // The light map ends by binding the screen, so the world target is bound again
+        // before the lights are blended over the world
+        rays.prepareRender();
+        canvas.resumeWorld();
+        rays.renderOnly();
+    }
+
+    /**
+     * Returns the number of lights cast this frame.
+     *
+     * @return the number of lights cast this frame.
+     */
+    public int getActiveLights() {
+        return activeLights;
+    }
+
+    /**
+     * Returns the number of lights skipped this frame.
+     *
+     * @return the number of lights skipped this frame.
+     */
+    public int getCulledLights() {
+        return culledLights;
+    }
+
+    /**
+     * Returns the number of rays cast this frame.
+     *
+     * @return the number of rays cast this frame.
+     */
+    public int getActiveRays() {
+        return activeRays;
+    }
+
+    /**
+     * Disposes the ray handler, along with every light.
+     */
+    @Override
+    public void dispose() {
+        rays.dispose();
+        lights.clear();
+        owned.clear();
+    }
+
+    /**
+     * Turns each light on or off for this frame, and picks its level of detail.
+     *
+     * @param camera    the camera of this frame
+     */
+    private void cull(GameCamera camera) {
+        Frustum frustum = camera.frustum;
+        float centerX = camera.position.x / scale.x;
+        float centerY = camera.position.y / scale.y;
+        float viewWidth = camera.viewportWidth * camera.zoom / scale.x;
+        float viewHeight = camera.viewportHeight * camera.zoom / scale.y;
+        float halfDiagonal = 0.5f * (float) Math.sqrt(viewWidth * viewWidth + viewHeight * viewHeight);
+
+        activeLights = 0;
+        culledLights = 0;
+        activeRays = 0;
+        for (ManagedLight light : lights) {
+            if (!light.enabled) {
+                continue;
+            }
+            float x = light.getX();
+            float y = light.getY();
+            float reach = light.distance + light.softness;
+            if (!frustum.boundsInFrustum(x * scale.x, y * scale.y, 0, reach * scale.x, reach * scale.y, 1)) {
+                light.setLevel(-1);
+                culledLights++;
+                continue;
+            }
+            float gap = Math.max(0, Vector2.dst(centerX, centerY, x, y) - reach) / halfDiagonal;
+            light.setLevel(light.chooseLevel(gap));
+            activeLights++;
+            activeRays += light.rayCount(light.lod);
+        }
+    }
+
+    /**
+     * A light of the level, which may be cast by a different box2dlights light
+     * depending on its level of detail.
+     * <p>
+     * The light settings are kept here, and applied to whichever light is in use.
+     */
+    public class ManagedLight {
+        /** The number of rays at full detail */
+        private final int rayCount;
+        /** The color of the light */
+        private final Color color = new Color();
+        /** The distance of the light, in tiles */
+        private float distance;
+        /** The soft shadow length of the light, in tiles */
+        private float softness = DEFAULT_SOFTNESS;
+        /** Whether the light only recasts its rays when changed */
+        private boolean staticLight;
+        /** The position of a fixed light, in tiles */
+        private final float x, y;
+        /** The obstacle the light follows (may be null) */
+        private final Obstacle owner;
+        /** Whether the light is on, as opposed to removed with its owner */
+        private boolean enabled = true;
+        /** The light for each level of detail, created when first needed */
+        private final PointLight[] levels = new PointLight[LOD_DISTANCES.length + 1];
+        /** The level of detail in use, or -1 if the light is off */
+        private int lod = -1;
+
+        /**
+         * Creates a light handle; the box2dlights lights are created later.
+         */
+        private ManagedLight(int rayCount, Color color, float distance, float x, float y, Obstacle owner) {
+            this.rayCount = rayCount;
+            this.color.set(color);
+            this.x = x;
+            this.y = y;
+            this.owner = owner;
+            setDistance(distance);
+        }
+
+        /**
+         * Sets the color of the light.
+         *
+         * @param value the color of the light
+         */
+        public void setColor(Color value) {
+            color.set(value);
+            PointLight light = current();
+            if (light != null) {
+                light.setColor(color);
+            }
+        }
+
+        /**
+         * Returns the distance of the light, in tiles.
+         *
+         * @return the distance of the light, in tiles.
+         */
+        public float getDistance() {
+            return distance;
+        }
+
+        /**
+         * Sets the distance of the light, in tiles.
+         *
+         * @param value the distance of the light, in tiles
+         */
+        public void setDistance(float value) {
+            // Same lower bound as box2dlights
+            distance = Math.max(0.01f, value);
+            PointLight light = current();
+            if (light != null) {
+                light.setDistance(distance);
+            }
+        }
+
+        /**
+         * Sets the soft shadow length of the light, in tiles.
+         *
+         * @param value the soft shadow length of the light, in tiles
+         */
+        public void setSoftnessLength(float value) {
+            softness = value;
+            PointLight light = current();
+            if (light != null) {
+                light.setSoftnessLength(softness);
+            }
+        }
+
+        /**
+         * Sets whether the light only recasts its rays when it is changed.
+         *
+         * @param value whether the light only recasts its rays when it is changed
+         */
+        public void setStatic(boolean value) {
+            if (staticLight == value) {
+                return;
+            }
+            staticLight = value;
+            PointLight light = current();
+            if (light != null) {
+                light.setStaticLight(staticLight);
+            }
+        }
+
+        /**
+         * Returns the x-coordinate of the light, in tiles.
+         *
+         * @return the x-coordinate of the light, in tiles.
+         */
+        public float getX() {
+            return owner == null ? x : owner.getX();
+        }
+
+        /**
+         * Returns the y-coordinate of the light, in tiles.
+         *
+         * @return the y-coordinate of the light, in tiles.
+         */
+        public float getY() {
+            return owner == null ? y : owner.getY();
+        }
+
+        /**
+         * Returns the number of rays at the given level of detail.
+         *
+         * @param level the level of detail
+         *
+         * @return the number of rays at the given level of detail.
+         */
+        private int rayCount(int level) {
+            return Math.min(rayCount, Math.max(MIN_RAYS, rayCount >> level));
+        }
+
+        /**
+         * Returns the level of detail for a light the given distance from the view center.
+         *
+         * @param gap   the distance between the light and the view center, as a
+         *              fraction of half the view diagonal
+         *
+         * @return the level of detail for the light.
+         */
+        private int chooseLevel(float gap) {
+            int level = 0;
+            while (level < LOD_DISTANCES.length && gap > LOD_DISTANCES[level]) {
+                level++;
+            }
+            if (lod >= 0 && level > lod && gap < LOD_DISTANCES[level - 1] + LOD_HYSTERESIS) {
+                return lod;
+            }
+            if (level < lod && gap > LOD_DISTANCES[level] - LOD_HYSTERESIS) {
+                return lod;
+            }
+            return level;
+        }
+
+        /**
+         * Switches the light to the given level of detail.
+         *
+         * @param level the level of detail, or -1 to turn the light off
+         */
+        private void setLevel(int level) {
+            if (level == lod) {
+                return;
+            }
+            PointLight old = current();
+            PointLight next = level < 0 ? null : getLight(level);
+            lod = level;
+            if (old == next) {
+                return;
+            }
+            if (old != null) {
+                old.setActive(false);
+            }
+            if (next != null) {
+                apply(next);
+                next.setActive(true);
+            }
+        }
+
+        /**
+         * Turns off the light for good (until the level is restored).
+         */
+        private void disable() {
+            setLevel(-1);
+            enabled = false;
+            for (PointLight light : levels) {
+                if (light != null) {
+                    light.attachToBody(null);
+                }
+            }
+        }
+
+        /**
+         * Forces the light in use to recast its rays.
+         */
+        private void refresh() {
+            PointLight light = current();
+            if (light != null) {
+                light.setDistance(distance);
+            }
+        }
+
+        /**
+         * Returns the light in use, or null if the light is off.
+         *
+         * @return the light in use, or null if the light is off.
+         */
+        private PointLight current() {
+            return lod < 0 ? null : getLight(lod);
+        }
+
+        /**
+         * Returns the light for the given level of detail, creating it if needed.
+         * <p>
+         * Levels with the same ray count share a light.
+         *
+         * @param level the level of detail
+         *
+         * @return the light for the given level of detail.
+         */
+        private PointLight getLight(int level) {
+            if (level > 0 && rayCount(level) == rayCount(level - 1)) {
+                return getLight(level - 1);
+            }
+            if (levels[level] == null) {
+                PointLight light = new PointLight(rays, rayCount(level), color, distance, getX(), getY());
+                light.setActive(false);
+                levels[level] = light;
+            }
+            return levels[level];
+        }
+
+        /**
+         * Copies the settings of this handle to a light about to be used.
+         *
+         * @param light the light to update
+         */
+        private void apply(PointLight light) {
+            light.setColor(color);
+            light.setDistance(distance);
+            light.setSoftnessLength(softness);
+            light.setStaticLight(staticLight);
+            if (owner != null) {
+                light.attachToBody(owner.getBody());
+            } else {
+                light.setPosition(x, y);
+            }
+        }
+    }
+}
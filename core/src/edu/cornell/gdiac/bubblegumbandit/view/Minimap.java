@@ -1,19 +1,30 @@
 package edu.cornell.gdiac.bubblegumbandit.view;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.Align;
-import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import edu.cornell.gdiac.assets.AssetDirectory;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
-
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * The minimap of a level, revealed as the Bandit explores it.
+ * <p>
+ * The map is a texture with one texel per tile, backed by a Pixmap. A texel is
+ * lit once its tile is a floor that the Bandit has seen, and only the rows of the
+ * Pixmap that changed are uploaded again. Both the condensed and the expanded
+ * views draw the map as a single quad (a region of the texture), with one more
+ * quad for the Bandit.
+ */
 public class Minimap {
 
     /**Width of the level */
@@ -28,6 +39,9 @@ public class Minimap {
     /**Height of the map */
     private final int CONDENSED_TILES_TALL = 25;
 
+    /** How far from the Bandit (in tiles) floors are revealed */
+    private final int SIGHT_RANGE = 5;
+
     /**Width of the map */
     private int expandedTilesLong;
 
@@ -37,8 +51,20 @@ public class Minimap {
     /**Minimap's background image */
     private Image minimapBackground;
 
-    /**Minimap's Tiles, indexed by physics coordinate */
-    private Image[][] minimapTiles;
+    /**The revealed floors, one texel per tile (row 0 is the top of the level) */
+    private Pixmap mapPixels;
+
+    /**The texture uploaded from the map pixels */
+    private Texture mapTexture;
+
+    /**The part of the map texture in view */
+    private TextureRegion mapRegion;
+
+    /**The map image, drawing the region in view */
+    private Image mapImage;
+
+    /**The Bandit's marker on the map */
+    private Image banditImage;
 
     /**Minimap's Stage for drawing */
     private Stage minimapStage;
@@ -74,23 +100,20 @@ public class Minimap {
      * condensed and expanded scales. */
     private Vector2 currentScale;
 
-    /** The positions of the tiles */
-    private HashSet<Vector2> floorPositions;
+    /** The tiles that are floors, indexed by y * width + x */
+    private BitSet floors;
 
-    /** true if the Minimap is expanded.*/
-    private boolean expanded;
-
-    /** Bandit's position during the previous draw pass. */
-    private Vector2 prevBanditPosition;
+    /** The tiles that have been within the Bandit's sight */
+    private BitSet seenTiles;
 
-    /** Floors to draw when the Minimap is expanded.*/
-    private Set<Vector2> expandedFloors;
+    /** The tiles lit on the map (seen floors) */
+    private BitSet visibleTiles;
 
-    /** Tiles that were visible in the previous draw pass.*/
-    private Set<Vector2> prevVisibleTiles;
+    /** The first and last Pixmap rows changed since the last upload (empty if first > last) */
+    private int dirtyFirstRow, dirtyLastRow;
 
-    /** Tiles that the Bandit has explored. */
-    private Set<Image> seenTiles;
+    /** true if the Minimap is expanded.*/
+    private boolean expanded;
 
     /** How quickly the Minimap changes states.*/
     private final float TRANSITION_SPEED = 15f;
@@ -105,14 +128,15 @@ public class Minimap {
     /** Initializes the minimap for a given level.
      *
      * @param directory The asset directory.
-     * @param levelFormat the current level.
+     * @param floors the floors of the current level, indexed by y * width + x.
      * @param physicsWidth The physics height of the level.
      * @param physicsHeight The physics width of the level.
      */
-    public void initialize(AssetDirectory directory, JsonValue levelFormat, int physicsWidth, int physicsHeight) {
-        //Make the Minimap's background and map tiles.
+    public void initialize(AssetDirectory directory, BitSet floors, int physicsWidth, int physicsHeight) {
+        //Make the Minimap's background and map.
         initialized = false;
         draws = 0;
+        dispose();
 
         minimapTable = new Table();
         minimapTable.align(Align.bottomRight);
@@ -120,7 +144,7 @@ public class Minimap {
         minimapStage = new Stage();
         minimapStage.addActor(minimapTable);
         minimapBackground = new Image(
-                directory.getEntry("minimapBackground", Texture.class));
+                directory.getEntry("minimapBackground", TextureRegion.class));
         minimapTable.add(minimapBackground);
         minimapBackground.setSize(0, 0);
         minimapBackground.setColor(new Color(0,0,0,.3f));
@@ -130,7 +154,7 @@ public class Minimap {
         expandedTilesTall = 0;
         expandedTilesLong = 0;
 
-        assert levelFormat != null;
+        assert floors != null;
         assert physicsWidth >= 0;
         assert physicsHeight >= 0;
 
@@ -138,55 +162,77 @@ public class Minimap {
         setScales();
         width = physicsWidth;
         height = physicsHeight;
-        makeMinimapTiles(directory);
-
-        //Find all positions of floors/platforms.
-        JsonValue layer = levelFormat.get("layers").child();
-        JsonValue tileLayer = null;
-        while (layer != null) {
-            String layerName = layer.getString("name");
-            if ("Terrain".equals(layerName)) {
-                tileLayer = layer;
-            }
-            layer = layer.next();
-        }
-        int[] worldData = tileLayer.get("data").asIntArray();
-
-        floorPositions = new HashSet<>();
-        prevBanditPosition = new Vector2();
-        expandedFloors = new HashSet<>();
-        prevVisibleTiles = new HashSet<>();
-        seenTiles = new HashSet<>();
-        for (int i = 0; i < worldData.length; i++) {
-            int tileVal = worldData[i];
-            if (tileVal != 0) {
-                float x = i % width;
-                float y = height - (i / width) - 1f;
-                Vector2 floorPos = new Vector2(x, y);
-                floorPositions.add(floorPos);
-            }
-        }
+        makeMinimapImages(directory);
+
+        // The floors come from the level blueprint, which never modifies them
+        this.floors = floors;
+        seenTiles = new BitSet(width * height);
+        visibleTiles = new BitSet(width * height);
         expandedTilesLong = physicsWidth;
         expandedTilesTall = physicsHeight;
         initialized = true;
     }
 
     /**
-     * Makes Images to represent all possible tiles in the level.
-     * Indexes them by their position in a 2D array of Images.
+     * Forgets which tiles have been seen, as when the level is first initialized.
      *
-     * @param directory The AssetDirectory of which to extract textures.
-     * */
-    private void makeMinimapTiles(AssetDirectory directory){
-        minimapTiles = new Image[width][height];
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                minimapTiles[x][y] = new Image(directory.getEntry("minimapTile", Texture.class));
-                minimapTiles[x][y].setVisible(false);
-                minimapTable.add(minimapTiles[x][y]);
+     * The floors of the level are kept, so this is much cheaper than initializing
+     * the minimap again.
+     */
+    public void reset() {
+        if (!initialized) return;
+        seenTiles.clear();
+        visibleTiles.clear();
+        mapPixels.setColor(Color.CLEAR);
+        mapPixels.fill();
+        markDirty(0);
+        markDirty(height - 1);
+        draws = 0;
+    }
 
-            }
+    /**
+     * Releases the map texture and stage, if they were created.
+     */
+    public void dispose() {
+        if (mapTexture != null) {
+            mapTexture.dispose();
+            mapTexture = null;
         }
+        if (mapPixels != null) {
+            mapPixels.dispose();
+            mapPixels = null;
+        }
+        if (minimapStage != null) {
+            minimapStage.dispose();
+            minimapStage = null;
+        }
+        initialized = false;
+    }
+
+    /**
+     * Makes the map texture, and the Images that draw the map and the Bandit.
+     *
+     * @param directory The AssetDirectory of which to extract textures.
+     * */
+    private void makeMinimapImages(AssetDirectory directory){
+        mapPixels = new Pixmap(Math.max(1, width), Math.max(1, height), Pixmap.Format.RGBA8888);
+        mapPixels.setBlending(Pixmap.Blending.None);
+        mapPixels.setColor(Color.CLEAR);
+        mapPixels.fill();
+        mapTexture = new Texture(mapPixels);
+        mapTexture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        dirtyFirstRow = Integer.MAX_VALUE;
+        dirtyLastRow = -1;
+
+        mapRegion = new TextureRegion(mapTexture);
+        mapImage = new Image(mapRegion);
+        mapImage.setVisible(false);
+        minimapStage.addActor(mapImage);
+
+        banditImage = new Image(directory.getEntry("minimapTile", TextureRegion.class));
+        banditImage.setColor(Color.PINK);
+        banditImage.setVisible(false);
+        minimapStage.addActor(banditImage);
     }
 
     /**Sets the scales and sizes that the Minimap will use to draw its
@@ -220,24 +266,14 @@ public class Minimap {
     /**
      * Draws the Minimap.
      *
-     * @param banditPosition Tile position of the Bandit.
+     * @param frame The latest render state, with the tile position of the Bandit.
      * */
-    public void draw(Vector2 banditPosition){
+    public void draw(RenderState.Frame frame){
 
         if(!initialized) return;
+        Vector2 banditPosition = frame.getBanditPosition();
         draws++;
 
-        //Make our collection.
-        Set<Vector2> validFloors;
-        if(expanded) validFloors = expandedFloors;
-        else validFloors = new HashSet<>();
-
-        for(Vector2 v : prevVisibleTiles){
-            Image tile = minimapTiles[(int)v.x][(int)v.y];
-            tile.setVisible(false);
-        }
-
-
         //Math calculations.
         int tilesLong = expanded ? expandedTilesLong : CONDENSED_TILES_LONG;
         int tilesTall = expanded ? expandedTilesTall : CONDENSED_TILES_TALL;
@@ -248,87 +284,87 @@ public class Minimap {
                 (int) Math.floor(banditPosition.y) - tilesTall / 2;
         int bottomRightX = topLeftX + tilesLong;
         int bottomRightY = topLeftY + tilesTall;
-        if (!expanded) {
-            topLeftX = Math.max(topLeftX, 0);
-            topLeftY = Math.max(topLeftY, 0);
-            bottomRightX = Math.min(bottomRightX, width);
-            bottomRightY = Math.min(bottomRightY, height);
-        }
-
-        //Bandit positional optimization: only if the Bandit moved.
-        if (!expanded && !banditPosition.equals(prevBanditPosition)) {
-            validFloors = condensedFloors(topLeftX, topLeftY, bottomRightX, bottomRightY);
-            prevBanditPosition.set(banditPosition);
-        }
-
-        //Draw the Bandit pt. 1
-        int banditX = (int) banditPosition.x;
-        int banditY = (int) banditPosition.y;
-        int minimapBanditX = banditX - topLeftX;
-        int minimapBanditY = banditY - topLeftY;
-        Image banditTile = minimapTiles[banditX][banditY];
-
-        //Sight range calculations
-        int drawRange = 5;
-        int topRange = banditY + drawRange;
-        int botRange = banditY - drawRange;
-        int leftRange = banditX - drawRange;
-        int rightRange = banditX + drawRange;
-
-
-        //Draw the floor Tiles
-        for (int x = topLeftX; x < bottomRightX; x++) {
-            for (int y = topLeftY; y < bottomRightY; y++) {
-                Vector2 floorPos = new Vector2(x, y);
-                if(!expandedFloors.contains(floorPos)){
-                    if(y > topRange || y < botRange) continue;
-                    if (x > rightRange || x < leftRange) continue;
-                }
-                    Image tile = minimapTiles[x][y];
-                    tile.setVisible(false);
-                    if (floorPositions.contains(floorPos)) validFloors.add(floorPos);
-                    if (validFloors.contains(floorPos)) {
-                        if(seenTiles.contains(tile)){
-                            int minimapX = x - topLeftX;
-                            int minimapY = y - topLeftY;
-                            setMinimapTilePosition(tile, minimapX, minimapY);
-                            drawAsPlatformTile(tile);
-                            prevVisibleTiles.add(floorPos);
-                        }
-                        else{
-                            seenTiles.add(tile);
-                            expandedFloors.add(floorPos);
-                        }
-                    }
-            }
-        }
-
-        //Draw the Bandit pt. 2
-        setMinimapTilePosition(banditTile, minimapBanditX, minimapBanditY);
-        drawAsBanditTile(banditTile);
+        topLeftX = Math.max(topLeftX, 0);
+        topLeftY = Math.max(topLeftY, 0);
+        bottomRightX = Math.min(bottomRightX, width);
+        bottomRightY = Math.min(bottomRightY, height);
+
+        int banditX = MathUtils.clamp((int) banditPosition.x, 0, width - 1);
+        int banditY = MathUtils.clamp((int) banditPosition.y, 0, height - 1);
+
+        //Reveal the floors in sight
+        reveal(banditX, banditY);
+        upload();
+
+        //Draw the map as a single region of the map texture (Pixmap rows run top to bottom)
+        float tileSize = getTileSize();
+        mapRegion.setRegion(topLeftX, height - bottomRightY,
+                bottomRightX - topLeftX, bottomRightY - topLeftY);
+        setMinimapImagePosition(mapImage, 0, 0, tileSize,
+                bottomRightX - topLeftX, bottomRightY - topLeftY);
+        mapImage.setVisible(draws > 1);
+
+        //Draw the Bandit
+        setMinimapImagePosition(banditImage, banditX - topLeftX, banditY - topLeftY, tileSize, 1, 1);
+        banditImage.setVisible(draws > 1);
 
         //Draw the background
         minimapStage.draw();
     }
 
-    /** Returns a Set of Vector2 positions that represent Tiles to draw when
-     * the Minimap is condensed.
+    /**
+     * Marks the tiles within sight of the Bandit as seen, lighting any floors
+     * among them on the map.
      *
-     * @return  Set of Vector2 positions that represent Tiles to draw when
-     *          the Minimap is condensed.*/
-    private Set<Vector2> condensedFloors(int topLeftX, int topLeftY, int bottomRightX, int bottomRightY) {
-        Set<Vector2> validFloors = new HashSet<>();
-        for (int x = topLeftX; x < bottomRightX; x++) {
-            for (int y = topLeftY; y < bottomRightY; y++) {
-                Vector2 floorPos = new Vector2(x, y);
-                if (floorPositions.contains(floorPos)) {
-                    validFloors.add(floorPos);
+     * @param banditX the x-coordinate of the Bandit's tile
+     * @param banditY the y-coordinate of the Bandit's tile
+     */
+    private void reveal(int banditX, int banditY) {
+        int left = Math.max(0, banditX - SIGHT_RANGE);
+        int right = Math.min(width - 1, banditX + SIGHT_RANGE);
+        int bottom = Math.max(0, banditY - SIGHT_RANGE);
+        int top = Math.min(height - 1, banditY + SIGHT_RANGE);
+        for (int y = bottom; y <= top; y++) {
+            for (int x = left; x <= right; x++) {
+                int index = y * width + x;
+                if (seenTiles.get(index)) continue;
+                seenTiles.set(index);
+                if (floors.get(index)) {
+                    visibleTiles.set(index);
+                    int row = height - 1 - y;
+                    mapPixels.drawPixel(x, row, Color.rgba8888(Color.WHITE));
+                    markDirty(row);
                 }
             }
         }
-        return validFloors;
     }
 
+    /**
+     * Adds a Pixmap row to the rows to upload.
+     *
+     * @param row the changed row
+     */
+    private void markDirty(int row) {
+        dirtyFirstRow = Math.min(dirtyFirstRow, row);
+        dirtyLastRow = Math.max(dirtyLastRow, row);
+    }
+
+    /**
+     * Uploads the changed rows of the map pixels to the map texture.
+     */
+    private void upload() {
+        if (dirtyFirstRow > dirtyLastRow) return;
+        int rows = dirtyLastRow - dirtyFirstRow + 1;
+        ByteBuffer pixels = mapPixels.getPixels();
+        pixels.position(dirtyFirstRow * width * 4);
+        mapTexture.bind();
+        Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 1);
+        Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, 0, dirtyFirstRow, width, rows,
+                mapPixels.getGLFormat(), mapPixels.getGLType(), pixels);
+        pixels.position(0);
+        dirtyFirstRow = Integer.MAX_VALUE;
+        dirtyLastRow = -1;
+    }
 
     /**
      * Sets minimap's position and size to be compliant with its
@@ -350,15 +386,33 @@ public class Minimap {
     }
 
     /**
-     * Sets the position of an (x, y) Tile in the minimap such that it is
-     * centered on top of the Minimap background and in line with its
-     * fellow Tiles.
+     * Returns the size of a tile on the Minimap, in its current state.
+     *
+     * @return the size of a tile on the Minimap, in its current state.
+     */
+    private float getTileSize() {
+        if (!expanded) return 5;
+
+        // Calculate tile size to fit within the background when expanded
+        float expandedTileSizeW = minimapBackground.getWidth() / expandedTilesLong;
+        float expandedTileSizeH = minimapBackground.getHeight() / expandedTilesTall;
+        return Math.min(expandedTileSizeW, expandedTileSizeH);
+    }
+
+    /**
+     * Sets the position of an Image in the minimap such that it is
+     * centered on top of the Minimap background and in line with the
+     * map tiles.
      *
-     * @param tileImage The Tile to modify.
-     * @param xPos the X Minimap coordinate of the Tile to modify.
-     * @param yPos the Y Minimap coordinate of the Tile to modify.
+     * @param image The Image to modify.
+     * @param xPos the X Minimap coordinate of the bottom left tile of the Image.
+     * @param yPos the Y Minimap coordinate of the bottom left tile of the Image.
+     * @param tileSize the size of a Minimap tile.
+     * @param tilesWide the width of the Image, in tiles.
+     * @param tilesHigh the height of the Image, in tiles.
      * */
-    private void setMinimapTilePosition(Image tileImage, int xPos, int yPos){
+    private void setMinimapImagePosition(Image image, int xPos, int yPos, float tileSize,
+                                         int tilesWide, int tilesHigh){
 
         //Get Minimap background info.
         float backgroundX = minimapBackground.getX();
@@ -366,18 +420,9 @@ public class Minimap {
         float backgroundW = minimapBackground.getWidth();
         float backgroundH = minimapBackground.getHeight();
 
-        float condensedTileSize = 5;
         int tilesLong = expanded ? expandedTilesLong : CONDENSED_TILES_LONG;
         int tilesTall = expanded ? expandedTilesTall : CONDENSED_TILES_TALL;
 
-        // Calculate tile size to fit within the background when expanded
-        float expandedTileSizeW = backgroundW / tilesLong;
-        float expandedTileSizeH = backgroundH / tilesTall;
-        float expandedTileSize = Math.min(expandedTileSizeW, expandedTileSizeH);
-
-        float tileSize = expanded ? expandedTileSize : condensedTileSize;
-
-
         //Calculate offsets and positions for centering.
         float totalTileW = tileSize * tilesLong;
         float totalTileH = tileSize * tilesTall;
@@ -386,40 +431,9 @@ public class Minimap {
         float tileX = backgroundX + offsetX + (xPos * tileSize);
         float tileY = backgroundY + offsetY + (yPos * tileSize);
 
-        //System.out.println("long: " + expandedTilesLong);
-        //System.out.println("tall: " + expandedTilesLong);
-
-
-
-        //Set the Tile's position and size.
-        tileImage.setPosition(tileX, tileY);
-        tileImage.setSize(tileSize, tileSize);
-    }
-
-
-    /**
-     * Draws a Minimap Tile such that it represents a platform or
-     * wall.
-     *
-     * @param platformImage The Image of the Tile to modify.
-     * */
-    private void drawAsPlatformTile(Image platformImage){
-        platformImage.setColor(Color.WHITE);
-        if(draws > 1) platformImage.setVisible(true);
-        else platformImage.setVisible(false);
-    }
-
-
-    /**
-     * Draws a Minimap Tile such that it represents the Bandit.
-     *
-     * @param banditImage The Image of the Tile to modify.
-     * */
-    private void drawAsBanditTile(Image banditImage){
-        banditImage.setColor(Color.PINK);
-        if(draws > 1) banditImage.setVisible(true);
-        else banditImage.setVisible(false);
-
+        //Set the Image's position and size.
+        image.setPosition(tileX, tileY);
+        image.setSize(tileSize * tilesWide, tileSize * tilesHigh);
     }
 
     /**Sets the Minimap's size and position to meet expanded standards. */
@@ -0,0 +1,147 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * A sprite shader that draws a solid outline around the opaque pixels of a region.
+ * <p>
+ * Highlighted objects used to be drawn a second time with a hand-made outline copy of
+ * their sprite, one per sprite and state. This shader draws the outline of any region
+ * instead. The sprite is drawn on a quad grown by the outline thickness, and each pixel
+ * outside the sprite takes the outline color if an opaque pixel lies within the
+ * thickness. Samples outside the region count as transparent, so packed neighbours in
+ * an atlas never bleed into the outline.
+ */
+public class OutlineShader implements Disposable {
+    /** The vertex shader, the same as the default sprite batch shader */
+    private static final String VERTEX =
+            "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+            + "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+            + "uniform mat4 u_projTrans;\n"
+            + "varying vec4 v_color;\n"
+            + "varying vec2 v_texCoords;\n"
+            + "void main() {\n"
+            + "    v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+            + "    v_color.a = v_color.a * (255.0/254.0);\n"
+            + "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+            + "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "}\n";
+
+    /** The fragment shader, which samples eight directions at the full and half thickness */
+    private static final String FRAGMENT =
+            "#ifdef GL_ES\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "varying vec4 v_color;\n"
+            + "varying vec2 v_texCoords;\n"
+            + "uniform sampler2D u_texture;\n"
+            + "uniform vec4 u_bounds;\n"
+            + "uniform vec2 u_step;\n"
+            + "uniform vec4 u_outline;\n"
+            + "float alphaAt(vec2 uv) {\n"
+            + "    vec2 inside = step(u_bounds.xy, uv) * step(uv, u_bounds.zw);\n"
+            + "    return texture2D(u_texture, uv).a * inside.x * inside.y;\n"
+            + "}\n"
+            + "void main() {\n"
+            + "    vec2 inside = step(u_bounds.xy, v_texCoords) * step(v_texCoords, u_bounds.zw);\n"
+            + "    vec4 base = v_color * texture2D(u_texture, v_texCoords) * inside.x * inside.y;\n"
+            + "    vec2 d = u_step * 0.7071;\n"
+            + "    float edge = 0.0;\n"
+            + "    for (int i = 1; i <= 2; i++) {\n"
+            + "        float r = float(i) * 0.5;\n"
+            + "        edge = max(edge, alphaAt(v_texCoords + vec2(u_step.x, 0.0) * r));\n"
+            + "        edge = max(edge, alphaAt(v_texCoords - vec2(u_step.x, 0.0) * r));\n"
+            + "        edge = max(edge, alphaAt(v_texCoords + vec2(0.0, u_step.y) * r));\n"
+            + "        edge = max(edge, alphaAt(v_texCoords - vec2(0.0, u_step.y) * r));\n"
+            + "        edge = max(edge, alphaAt(v_texCoords + d * r));\n"
+            + "        edge = max(edge, alphaAt(v_texCoords - d * r));\n"
+            + "        edge = max(edge, alphaAt(v_texCoords + vec2(d.x, -d.y) * r));\n"
+            + "        edge = max(edge, alphaAt(v_texCoords - vec2(d.x, -d.y) * r));\n"
+            + "    }\n"
+            + "    float outline = u_outline.a * edge * (1.0 - base.a);\n"
+            + "    float alpha = base.a + outline;\n"
+            + "    vec3 rgb = (base.rgb * base.a + u_outline.rgb * outline) / max(alpha, 0.0001);\n"
+            + "    gl_FragColor = vec4(rgb, alpha);\n"
+            + "}\n";
+
+    /** The compiled shader */
+    private final ShaderProgram program;
+    /** The thickness of the outline, in texels */
+    private final float thickness;
+    /** The color of the outline */
+    private final Color color;
+
+    /**
+     * Compiles an outline shader.
+     *
+     * @param thickness the thickness of the outline, in texels
+     * @param color     the color of the outline
+     */
+    public OutlineShader(float thickness, Color color) {
+        if (thickness <= 0) {
+            throw new IllegalArgumentException("Outline thickness must be positive");
+        }
+        program = new ShaderProgram(VERTEX, FRAGMENT);
+        if (!program.isCompiled()) {
+            throw new IllegalStateException("Outline shader failed to compile: " + program.getLog());
+        }
+        this.thickness = thickness;
+        this.color = new Color(color);
+    }
+
+    /**
+     * Returns the compiled shader program.
+     *
+     * @return the compiled shader program.
+     */
+    public ShaderProgram getProgram() {
+        return program;
+    }
+
+    /**
+     * Returns the thickness of the outline, in texels.
+     *
+     * @return the thickness of the outline, in texels.
+     */
+    public float getThickness() {
+        return thickness;
+    }
+
+    /**
+     * Sets the uniforms for outlining the given region.
+     * <p>
+     * The shader must be bound, as it is while it is the shader of an active batch.
+     *
+     * @param region the region that is about to be drawn
+     */
+    public void apply(TextureRegion region) {
+        apply(region.getTexture(), region.getU(), region.getV(), region.getU2(), region.getV2());
+    }
+
+    /**
+     * Sets the uniforms for outlining the region with the given texture coordinates.
+     * <p>
+     * The shader must be bound, as it is while it is the shader of an active batch.
+     *
+     * @param texture   the texture of the region
+     * @param u         the first u coordinate of the region
+     * @param v         the first v coordinate of the region
+     * @param u2        the second u coordinate of the region
+     * @param v2        the second v coordinate of the region
+     */
+    public void apply(Texture texture, float u, float v, float u2, float v2) {
+        program.setUniformf("u_bounds", Math.min(u, u2), Math.min(v, v2), Math.max(u, u2), Math.max(v, v2));
+        program.setUniformf("u_step", thickness / texture.getWidth(), thickness / texture.getHeight());
+        program.setUniformf("u_outline", color);
+    }
+
+    @Override
+    public void dispose() {
+        program.dispose();
+    }
+}
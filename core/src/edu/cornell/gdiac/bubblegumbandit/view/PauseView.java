@@ -116,7 +116,7 @@ public class PauseView {
         internal.finishLoading();
 
         background = new TextureRegionDrawable(internal.getEntry("background", Texture.class));
-        pointer = new TextureRegion(internal.getEntry("pointer", Texture.class));
+        pointer = internal.getEntry("pointer", TextureRegion.class);
 
         stage = new Stage();
         pauseTable = new Table();
@@ -0,0 +1,401 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PolygonRegion;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ShortArray;
+
+import java.util.Arrays;
+
+/**
+ * A queue of sprites that are drawn sorted by layer and texture.
+ * <p>
+ * Drawing the level in a fixed order switches textures (and so flushes the sprite
+ * batch) constantly. While the queue is open, the canvas copies the vertices of each
+ * sprite into it instead, along with a sort key of (layer, depth, part, texture).
+ * The depth is chosen by the drawable, and the part counts the sprites the drawable
+ * has submitted so far, so each drawable keeps the order of its own sprites while
+ * sprites of the same texture from different drawables end up next to each other.
+ * Ties keep the submission order.
+ * <p>
+ * As the vertices are copied when submitted, drawables may change their regions
+ * between draws (as doors do) without affecting what was queued.
+ * <p>
+ * A queue may also be recorded once and drawn any number of times, which is how the
+ * level is drawn from the {@link RenderState}: the models are drawn into the queue of
+ * a frame at the end of each simulation tick, and the view draws that queue, layer by
+ * layer, with {@link #draw}.
+ */
+public class RenderQueue {
+    /** The layers of the queue, in draw order */
+    public enum Layer {
+        /** Decoration on the walls, such as alarms and tutorial icons */
+        DECOR,
+        /** The obstacles of the level */
+        OBJECTS,
+        /** The outlined obstacle that the player is aiming at */
+        HIGHLIGHT,
+        /** Lasers, aim and particle effects */
+        EFFECTS
+    }
+
+    /** The floats per vertex (x, y, color, u, v) */
+    private static final int VERTEX_SIZE = 5;
+    /** The most quads in a single sprite, well within the vertices of one batch call */
+    private static final int MAX_QUADS = 256;
+    /** The largest depth (and part and texture id) that fits in a sort key */
+    private static final int MAX_DEPTH = (1 << 12) - 1;
+    private static final int MAX_PART = (1 << 8) - 1;
+    private static final int MAX_TEXTURE = (1 << 12) - 1;
+    /** The bits of a sort key used for the submission order */
+    private static final int SEQUENCE_BITS = 28;
+    /** The triangles of a quad */
+    private static final short[] QUAD_TRIANGLES = {0, 1, 2, 2, 3, 0};
+
+    /** Whether sprites are being queued */
+    private boolean open;
+    /** The layer of the next sprites */
+    private Layer layer = Layer.OBJECTS;
+    /** The depth of the current drawable */
+    private int depth;
+    /** The number of sprites the current drawable has submitted */
+    private int part;
+
+    /** The id of every texture seen so far, so the texture order is stable */
+    private final ObjectIntMap<Texture> textureIds = new ObjectIntMap<>();
+
+    /** The sort key of each queued sprite */
+    private final LongArray keys = new LongArray();
+    /** The texture of each queued sprite */
+    private final Array<Texture> textures = new Array<>();
+    /** Whether each queued sprite is a shadow */
+    private final BooleanArray shadows = new BooleanArray();
+    /** Whether each queued sprite is drawn with an outline */
+    private final BooleanArray outlines = new BooleanArray();
+    /** The texture coordinates (u, v, u2, v2) an outlined sprite is outlined within */
+    private final FloatArray bounds = new FloatArray();
+    /** The first vertex float and vertex float count of each queued sprite */
+    private final IntArray vertexStarts = new IntArray();
+    private final IntArray vertexCounts = new IntArray();
+    /** The first triangle index and triangle index count of each queued sprite */
+    private final IntArray triangleStarts = new IntArray();
+    private final IntArray triangleCounts = new IntArray();
+    /** The vertices of every queued sprite */
+    private final FloatArray vertices = new FloatArray();
+    /** The triangles of every queued sprite, relative to its first vertex */
+    private final ShortArray triangles = new ShortArray();
+    /** Whether the sort keys are in order */
+    private boolean sorted = true;
+
+    /**
+     * Empties the queue and opens it, so that sprites are queued rather than drawn.
+     */
+    public void begin() {
+        clear();
+        open = true;
+        layer = Layer.OBJECTS;
+        depth = 0;
+        part = 0;
+    }
+
+    /**
+     * Closes the queue without drawing it, keeping the queued sprites.
+     */
+    public void close() {
+        open = false;
+    }
+
+    /**
+     * Returns true if sprites are being queued.
+     *
+     * @return true if sprites are being queued.
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Draws every queued sprite and closes the queue.
+     *
+     * @param batch     the batch to draw with
+     * @param outline   the shader for outlined sprites
+     */
+    public void end(ShadowBatch batch, OutlineShader outline) {
+        flush(batch, outline);
+        open = false;
+    }
+
+    /**
+     * Sets the layer of the sprites submitted next.
+     * <p>
+     * This also starts a new drawable, as with {@link #setDepth(int)}.
+     *
+     * @param value the layer of the sprites submitted next
+     */
+    public void setLayer(Layer value) {
+        layer = value;
+        depth = 0;
+        part = 0;
+    }
+
+    /**
+     * Starts a new drawable at the given depth within the current layer.
+     * <p>
+     * Drawables at a greater depth are drawn over the others.
+     *
+     * @param value the depth of the drawable
+     */
+    public void setDepth(int value) {
+        depth = Math.max(0, Math.min(MAX_DEPTH, value));
+        part = 0;
+    }
+
+    /**
+     * Queues a region drawn with the given transform.
+     * <p>
+     * This matches {@code PolygonSpriteBatch.draw(region, width, height, transform)}.
+     *
+     * @param region    the region to draw
+     * @param width     the width of the region
+     * @param height    the height of the region
+     * @param t         the transform of the region
+     * @param color     the packed color of the sprite
+     * @param shadow    whether the sprite is a shadow
+     */
+    public void addQuad(TextureRegion region, float width, float height, Affine2 t, float color, boolean shadow) {
+        int start = vertices.size;
+        float[] items = vertices.ensureCapacity(4 * VERTEX_SIZE);
+        int idx = start;
+        idx = put(items, idx, t.m02, t.m12, color, region.getU(), region.getV2());
+        idx = put(items, idx, t.m01 * height + t.m02, t.m11 * height + t.m12, color, region.getU(), region.getV());
+        idx = put(items, idx, t.m00 * width + t.m01 * height + t.m02, t.m10 * width + t.m11 * height + t.m12,
+                color, region.getU2(), region.getV());
+        put(items, idx, t.m00 * width + t.m02, t.m10 * width + t.m12, color, region.getU2(), region.getV2());
+        vertices.size += 4 * VERTEX_SIZE;
+        int first = triangles.size;
+        triangles.addAll(QUAD_TRIANGLES);
+        add(region.getTexture(), shadow, start, first);
+    }
+
+    /**
+     * Queues a region drawn with an outline by the given shader.
+     * <p>
+     * The region is the one outlined, grown by the outline thickness on every side, so
+     * that the outline fits on the quad.
+     *
+     * @param grown     the outlined region, grown by the outline thickness
+     * @param source    the outlined region
+     * @param width     the width of the grown region
+     * @param height    the height of the grown region
+     * @param t         the transform of the grown region
+     * @param color     the packed color of the sprite
+     */
+    public void addOutlined(TextureRegion grown, TextureRegion source, float width, float height,
+                            Affine2 t, float color) {
+        addQuad(grown, width, height, t, color, false);
+        int last = outlines.size - 1;
+        outlines.set(last, true);
+        int at = last * 4;
+        bounds.set(at, source.getU());
+        bounds.set(at + 1, source.getV());
+        bounds.set(at + 2, source.getU2());
+        bounds.set(at + 3, source.getV2());
+    }
+
+    /**
+     * Queues a polygon region drawn with the given transform.
+     *
+     * @param region    the region to draw
+     * @param t         the transform from region vertices to the world
+     * @param color     the packed color of the sprite
+     */
+    public void addPolygon(PolygonRegion region, Affine2 t, float color) {
+        float[] points = region.getVertices();
+        float[] coords = region.getTextureCoords();
+        int start = vertices.size;
+        float[] items = vertices.ensureCapacity(points.length / 2 * VERTEX_SIZE);
+        int idx = start;
+        for (int ii = 0; ii < points.length; ii += 2) {
+            float x = points[ii];
+            float y = points[ii + 1];
+            idx = put(items, idx, t.m00 * x + t.m01 * y + t.m02, t.m10 * x + t.m11 * y + t.m12,
+                    color, coords[ii], coords[ii + 1]);
+        }
+        vertices.size = idx;
+        int first = triangles.size;
+        triangles.addAll(region.getTriangles());
+        add(region.getRegion().getTexture(), false, start, first);
+    }
+
+    /**
+     * Queues sprites already in the sprite batch format (such as text glyphs).
+     * <p>
+     * Each queued sprite is drawn in one batch call, which must fit in the vertices of
+     * the batch, so long runs of quads are split into sprites of at most 256 quads.
+     *
+     * @param texture   the texture of the sprites
+     * @param quads     the vertices, four per sprite
+     * @param offset    the first float to copy
+     * @param count     the number of floats to copy
+     */
+    public void addQuads(Texture texture, float[] quads, int offset, int count) {
+        int step = MAX_QUADS * 4 * VERTEX_SIZE;
+        for (int from = offset; from < offset + count; from += step) {
+            int size = Math.min(step, offset + count - from);
+            int start = vertices.size;
+            vertices.addAll(quads, from, size);
+            int first = triangles.size;
+            for (short quad = 0; quad < size / (4 * VERTEX_SIZE); quad++) {
+                for (short index : QUAD_TRIANGLES) {
+                    triangles.add((short) (4 * quad + index));
+                }
+            }
+            add(texture, false, start, first);
+        }
+    }
+
+    /**
+     * Draws every queued sprite in key order and empties the queue.
+     * <p>
+     * The queue stays open, so this may be used to draw everything queued so far
+     * before something that cannot be queued.
+     *
+     * @param batch     the batch to draw with
+     * @param outline   the shader for outlined sprites
+     */
+    public void flush(ShadowBatch batch, OutlineShader outline) {
+        draw(batch, outline, Layer.DECOR, Layer.EFFECTS);
+        clear();
+    }
+
+    /**
+     * Draws the queued sprites of the given layers in key order, keeping them queued.
+     *
+     * @param batch     the batch to draw with
+     * @param outline   the shader for outlined sprites
+     * @param first     the first layer to draw
+     * @param last      the last layer to draw
+     */
+    public void draw(ShadowBatch batch, OutlineShader outline, Layer first, Layer last) {
+        int count = keys.size;
+        if (count == 0) {
+            return;
+        }
+        long[] order = keys.items;
+        if (!sorted) {
+            Arrays.sort(order, 0, count);
+            sorted = true;
+        }
+        long mask = (1L << SEQUENCE_BITS) - 1;
+        float[] verts = vertices.items;
+        short[] tris = triangles.items;
+        for (int ii = 0; ii < count; ii++) {
+            int layerId = (int) (order[ii] >>> 60);
+            if (layerId < first.ordinal()) {
+                continue;
+            } else if (layerId > last.ordinal()) {
+                break;
+            }
+            int seq = (int) (order[ii] & mask);
+            Texture texture = textures.get(seq);
+            if (shadows.get(seq)) {
+                batch.drawShadow(texture, verts, vertexStarts.get(seq), vertexCounts.get(seq),
+                        tris, triangleStarts.get(seq), triangleCounts.get(seq));
+            } else if (outlines.get(seq)) {
+                int at = seq * 4;
+                batch.setShader(outline.getProgram());
+                outline.apply(texture, bounds.get(at), bounds.get(at + 1), bounds.get(at + 2), bounds.get(at + 3));
+                batch.draw(texture, verts, vertexStarts.get(seq), vertexCounts.get(seq),
+                        tris, triangleStarts.get(seq), triangleCounts.get(seq));
+                batch.setShader(null);
+            } else {
+                batch.draw(texture, verts, vertexStarts.get(seq), vertexCounts.get(seq),
+                        tris, triangleStarts.get(seq), triangleCounts.get(seq));
+            }
+        }
+    }
+
+    /**
+     * Empties the queue, leaving it open or closed.
+     */
+    public void clear() {
+        sorted = true;
+        keys.clear();
+        textures.clear();
+        shadows.clear();
+        outlines.clear();
+        bounds.clear();
+        vertexStarts.clear();
+        vertexCounts.clear();
+        triangleStarts.clear();
+        triangleCounts.clear();
+        vertices.clear();
+        triangles.clear();
+    }
+
+    /**
+     * Empties the queue and forgets the textures it has seen.
+     * <p>
+     * The texture ids keep the texture order stable between draws, so they are only
+     * forgotten when the textures may change, such as when a level is loaded. This
+     * also releases the textures, which may have been disposed.
+     */
+    public void reset() {
+        clear();
+        textureIds.clear();
+    }
+
+    /**
+     * Records a sprite whose vertices and triangles were just appended.
+     *
+     * @param texture   the texture of the sprite
+     * @param shadow    whether the sprite is a shadow
+     * @param start     the first vertex float of the sprite
+     * @param first     the first triangle index of the sprite
+     */
+    private void add(Texture texture, boolean shadow, int start, int first) {
+        int id = textureIds.get(texture, -1);
+        if (id < 0) {
+            id = Math.min(MAX_TEXTURE, textureIds.size);
+            textureIds.put(texture, id);
+        }
+        // A shadow belongs with the sprite submitted just before it
+        int slot = shadow ? Math.max(0, part - 1) : part++;
+        long key = (long) layer.ordinal() << 60
+                | (long) depth << 48
+                | (long) Math.min(MAX_PART, slot) << 40
+                | (long) id << SEQUENCE_BITS
+                | keys.size;
+        keys.add(key);
+        sorted = false;
+        textures.add(texture);
+        shadows.add(shadow);
+        outlines.add(false);
+        bounds.add(0, 0, 0, 0);
+        vertexStarts.add(start);
+        vertexCounts.add(vertices.size - start);
+        triangleStarts.add(first);
+        triangleCounts.add(triangles.size - first);
+    }
+
+    /**
+     * Writes a vertex to the given array.
+     *
+     * @return the index after the vertex
+     */
+    private static int put(float[] items, int idx, float x, float y, float color, float u, float v) {
+        items[idx++] = x;
+        items[idx++] = y;
+        items[idx++] = color;
+        items[idx++] = u;
+        items[idx++] = v;
+        return idx;
+    }
+}
@@ -0,0 +1,221 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.Vector2;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelModel;
+import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
+
+/**
+ * A buffered snapshot of the game state that the view draws from.
+ * <p>
+ * The level, the HUD and the minimap used to query the models while drawing, so
+ * drawing had to happen between simulation steps on the same thread. Instead, at the
+ * end of each tick the simulation writes into the back frame what the HUD and minimap
+ * show, and records every sprite of the level (its transform, animation frame, tint
+ * and shadow or outline) into the sprite queue of the frame. It then publishes the
+ * frame. The view acquires the latest published frame at the start of a draw, and
+ * reads only that frame until its next draw.
+ * <p>
+ * There are three frames, so that the simulation always has one to write while the
+ * view holds another. Publishing and acquiring swap frames under the same lock, so
+ * the view never sees a frame that is half written, whichever thread the simulation
+ * runs on. If no frame was published since the last draw, the view draws the same
+ * frame again.
+ */
+public class RenderState {
+
+    /** The state drawn for a single simulation tick */
+    public static final class Frame {
+        /** The sprites of the level, recorded at the end of the tick */
+        private final RenderQueue sprites = new RenderQueue();
+        /** The position of the bandit, in physics units */
+        private final Vector2 banditPosition = new Vector2();
+        /** The position of the bandit, in pixels */
+        private final Vector2 banditScreenPosition = new Vector2();
+        /** The health of the bandit */
+        private float health;
+        /** The maximum health of the bandit */
+        private float maxHealth;
+        /** The gum the bandit has left */
+        private int ammo;
+        /** The captives the bandit has rescued */
+        private int captives;
+        /** The captives in the level */
+        private int totalCaptives;
+        /** The escape countdown in seconds, or -1 if there is none */
+        private int timer;
+        /** Whether the bandit is reloading */
+        private boolean reloading;
+        /** Whether shooting is disabled in this level */
+        private boolean shootingDisabled;
+        /** The reload symbol above the bandit, or null if it is hidden */
+        private Texture reloadSymbol;
+        /** The position of the reload symbol, in pixels */
+        private final Vector2 reloadSymbolPosition = new Vector2();
+
+        /**
+         * Writes the state of the given level into this frame.
+         *
+         * @param level             the level to capture
+         * @param timer             the escape countdown, or -1 if there is none
+         * @param reloading         whether the bandit is reloading
+         * @param shootingDisabled  whether shooting is disabled in this level
+         * @param showReloadSymbol  whether the reload symbol is shown above the bandit
+         */
+        public void capture(LevelModel level, int timer, boolean reloading, boolean shootingDisabled,
+                            boolean showReloadSymbol) {
+            BanditModel bandit = level.getBandit();
+            banditPosition.set(bandit.getX(), bandit.getY());
+            banditScreenPosition.set(bandit.getX() * bandit.getDrawScale().x,
+                    bandit.getY() * bandit.getDrawScale().y);
+            health = bandit.getHealth();
+            maxHealth = bandit.getMaxHealth();
+            ammo = bandit.getAmmo();
+            captives = bandit.getNumStars();
+            totalCaptives = level.getTotalCaptives();
+            this.timer = timer;
+            this.reloading = reloading;
+            this.shootingDisabled = shootingDisabled;
+            reloadSymbol = showReloadSymbol ? bandit.getReloadSymbol() : null;
+            bandit.getReloadSymbolPosition(reloadSymbolPosition);
+        }
+
+        /**
+         * Returns the sprites of the level, in the order they are drawn.
+         *
+         * The simulation records into this queue (see {@link GameCanvas#beginRecord});
+         * the view only draws it.
+         */
+        public RenderQueue getSprites() {
+            return sprites;
+        }
+
+        /**
+         * Returns the position of the bandit, in physics units.
+         *
+         * The vector belongs to the frame, so it must not be modified.
+         */
+        public Vector2 getBanditPosition() {
+            return banditPosition;
+        }
+
+        /**
+         * Returns the position of the bandit, in pixels.
+         *
+         * The vector belongs to the frame, so it must not be modified.
+         */
+        public Vector2 getBanditScreenPosition() {
+            return banditScreenPosition;
+        }
+
+        /** Returns the fraction of its health the bandit has left */
+        public float getHealthFraction() {
+            return maxHealth > 0 ? health / maxHealth : 0;
+        }
+
+        /** Returns the gum the bandit has left */
+        public int getAmmo() {
+            return ammo;
+        }
+
+        /** Returns the captives the bandit has rescued */
+        public int getCaptives() {
+            return captives;
+        }
+
+        /** Returns the captives in the level */
+        public int getTotalCaptives() {
+            return totalCaptives;
+        }
+
+        /** Returns the escape countdown in seconds, or -1 if there is none */
+        public int getTimer() {
+            return timer;
+        }
+
+        /** Returns whether the bandit is reloading */
+        public boolean isReloading() {
+            return reloading;
+        }
+
+        /** Returns whether shooting is disabled in this level */
+        public boolean isShootingDisabled() {
+            return shootingDisabled;
+        }
+
+        /** Returns the reload symbol above the bandit, or null if it is hidden */
+        public Texture getReloadSymbol() {
+            return reloadSymbol;
+        }
+
+        /**
+         * Returns the position of the reload symbol, in pixels.
+         *
+         * The vector belongs to the frame, so it must not be modified.
+         */
+        public Vector2 getReloadSymbolPosition() {
+            return reloadSymbolPosition;
+        }
+    }
+
+    /** The frame being written by the simulation */
+    private Frame back = new Frame();
+    /** The last frame published by the simulation */
+    private Frame ready = new Frame();
+    /** The frame being drawn by the view */
+    private Frame front = new Frame();
+    /** Whether the ready frame was published since the view last acquired one */
+    private boolean fresh;
+
+    /**
+     * Empties every frame and forgets the textures their sprite queues have seen.
+     * <p>
+     * This is called when a level is loaded, from the thread that draws, as the
+     * textures of the last level may be unloaded.
+     */
+    public synchronized void reset() {
+        back.sprites.reset();
+        ready.sprites.reset();
+        front.sprites.reset();
+        fresh = false;
+    }
+
+    /**
+     * Returns the frame to write the current tick into.
+     *
+     * Only the simulation may write to this frame, and only until {@link #publish()}.
+     *
+     * @return the frame to write the current tick into.
+     */
+    public Frame getBackFrame() {
+        return back;
+    }
+
+    /**
+     * Makes the back frame the latest frame, and starts a new back frame.
+     */
+    public synchronized void publish() {
+        Frame written = back;
+        back = ready;
+        ready = written;
+        fresh = true;
+    }
+
+    /**
+     * Returns the latest published frame, for the view to draw.
+     *
+     * The frame belongs to the view until its next call to this method, and must not
+     * be modified.
+     *
+     * @return the latest published frame.
+     */
+    public synchronized Frame acquire() {
+        if (fresh) {
+            Frame drawn = front;
+            front = ready;
+            ready = drawn;
+            fresh = false;
+        }
+        return front;
+    }
+}
@@ -0,0 +1,144 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * A sprite batch that draws drop shadows as a separate layer under the sprites.
+ * <p>
+ * Shadows used to be drawn in the same stream as the sprites, alternating shadow and
+ * sprite for every object. Here, shadows go to a second batch instead, and whenever
+ * the sprites are flushed, the pending shadows are flushed first. So every flush of
+ * the sprites costs at most one extra draw call for all of their shadows, and the
+ * shadows of a group of sprites lie under all of the sprites in that group.
+ * <p>
+ * Both batches share the same shader, projection and blend function.
+ */
+public class ShadowBatch extends PolygonSpriteBatch {
+    /** The batch for the shadows, flushed before this one */
+    private final PolygonSpriteBatch shadows;
+
+    /**
+     * Creates a shadow batch with the default size and shader.
+     */
+    public ShadowBatch() {
+        super();
+        shadows = new PolygonSpriteBatch(2000, getShader());
+    }
+
+    /**
+     * Adds a shadow to the shadow layer.
+     * <p>
+     * The shadow is a copy of the region in a solid color, drawn with the given
+     * transform (which should include the shadow offset).
+     *
+     * @param region    the region to cast a shadow
+     * @param width     the width of the region
+     * @param height    the height of the region
+     * @param transform the transform of the shadow
+     * @param color     the color of the shadow
+     */
+    public void drawShadow(TextureRegion region, float width, float height, Affine2 transform, Color color) {
+        if (!isDrawing()) {
+            throw new IllegalStateException("ShadowBatch.begin must be called before drawShadow.");
+        }
+        shadows.setColor(color);
+        shadows.draw(region, width, height, transform);
+    }
+
+    /**
+     * Adds a shadow, already in vertex form, to the shadow layer.
+     *
+     * @param texture           the texture of the shadow
+     * @param polygonVertices   the shadow vertices, in the batch format
+     * @param verticesOffset    the first vertex float
+     * @param verticesCount     the number of vertex floats
+     * @param polygonTriangles  the shadow triangles, relative to the first vertex
+     * @param trianglesOffset   the first triangle index
+     * @param trianglesCount    the number of triangle indices
+     */
+    public void drawShadow(Texture texture, float[] polygonVertices, int verticesOffset, int verticesCount,
+                           short[] polygonTriangles, int trianglesOffset, int trianglesCount) {
+        if (!isDrawing()) {
+            throw new IllegalStateException("ShadowBatch.begin must be called before drawShadow.");
+        }
+        shadows.draw(texture, polygonVertices, verticesOffset, verticesCount,
+                polygonTriangles, trianglesOffset, trianglesCount);
+    }
+
+    @Override
+    public void begin() {
+        super.begin();
+        shadows.begin();
+    }
+
+    @Override
+    public void end() {
+        super.end();
+        shadows.end();
+    }
+
+    /**
+     * Draws the pending shadows, then the pending sprites.
+     */
+    @Override
+    public void flush() {
+        int calls = shadows.renderCalls;
+        shadows.flush();
+        renderCalls += shadows.renderCalls - calls;
+        super.flush();
+    }
+
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        super.setBlendFunction(srcFunc, dstFunc);
+        shadows.setBlendFunction(srcFunc, dstFunc);
+    }
+
+    @Override
+    public void setBlendFunctionSeparate(int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) {
+        super.setBlendFunctionSeparate(srcFuncColor, dstFuncColor, srcFuncAlpha, dstFuncAlpha);
+        shadows.setBlendFunctionSeparate(srcFuncColor, dstFuncColor, srcFuncAlpha, dstFuncAlpha);
+    }
+
+    @Override
+    public void enableBlending() {
+        super.enableBlending();
+        shadows.enableBlending();
+    }
+
+    @Override
+    public void disableBlending() {
+        super.disableBlending();
+        shadows.disableBlending();
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        super.setProjectionMatrix(projection);
+        shadows.setProjectionMatrix(projection);
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        super.setTransformMatrix(transform);
+        shadows.setTransformMatrix(transform);
+    }
+
+    @Override
+    public void setShader(ShaderProgram shader) {
+        super.setShader(shader);
+        shadows.setShader(shader);
+    }
+
+    @Override
+    public void dispose() {
+        shadows.dispose();
+        super.dispose();
+    }
+}
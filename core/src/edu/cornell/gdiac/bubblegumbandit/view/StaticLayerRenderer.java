@@ -0,0 +1,249 @@
+package edu.cornell.gdiac.bubblegumbandit.view;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Renderer for the tile layers of a level, which never move.
+ * <p>
+ * Drawing every tile through the sprite batch each frame re-uploads thousands of
+ * vertices that never change. Instead, tiles are added once when the level is
+ * populated, and the first draw bakes them into a SpriteCache, split into square
+ * chunks of tiles. After that, each frame only issues the cached chunks that
+ * overlap the camera frustum.
+ * <p>
+ * Tiles are drawn in the order they were added. Like the sprites of the canvas,
+ * the shadows of the terrain tiles in a chunk are drawn first, under all of the
+ * tiles. Corner decoration is part of the tile texture, so it is baked along with
+ * everything else.
+ */
+public class StaticLayerRenderer implements Disposable {
+
+    /** The static layers of a level, in draw order */
+    public enum Layer {
+        /** The background tiles, behind everything */
+        BACKGROUND,
+        /** The terrain tiles, drawn with shadows */
+        TERRAIN,
+        /** The supports, drawn in front of the alarms and tutorial icons */
+        SUPPORTS
+    }
+
+    /** The width and height of a chunk, in tiles */
+    private static final int CHUNK_SIZE = 16;
+
+    /** The largest cache that can still use indexed drawing */
+    private static final int MAX_INDEXED_SPRITES = 8191;
+
+    /** A tile waiting to be baked into the cache */
+    private static class Tile {
+        /** The texture of the tile */
+        TextureRegion region;
+        /** The x-coordinate of the bottom left corner, in pixels */
+        float x;
+        /** The y-coordinate of the bottom left corner, in pixels */
+        float y;
+        /** Whether the tile is drawn with a shadow */
+        boolean shadow;
+    }
+
+    /** The scale from tiles (physics units) to pixels */
+    private final float scaleX, scaleY;
+    /** The number of chunk columns and rows */
+    private final int columns, rows;
+
+    /** The tiles of each layer and chunk, until the cache is built */
+    private Array<Tile>[][] pending;
+    /** The number of sprites the cache needs to hold */
+    private int spriteCount;
+
+    /** The cache of all tiles (null until the first draw) */
+    private SpriteCache cache;
+    /** The cache id of each layer and chunk, or -1 if the chunk is empty */
+    private int[][] cacheIds;
+
+    /** The number of chunks drawn in the last frame */
+    private int drawnChunks;
+    /** The number of non-empty chunks skipped in the last frame */
+    private int culledChunks;
+
+    /**
+     * Creates an empty renderer for a level of the given size.
+     *
+     * @param levelWidth    the width of the level in tiles
+     * @param levelHeight   the height of the level in tiles
+     * @param scaleX        the width of a tile in pixels
+     * @param scaleY        the height of a tile in pixels
+     */
+    @SuppressWarnings("unchecked")
+    public StaticLayerRenderer(int levelWidth, int levelHeight, float scaleX, float scaleY) {
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        columns = Math.max(1, (levelWidth + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        rows = Math.max(1, (levelHeight + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        pending = new Array[Layer.values().length][columns * rows];
+    }
+
+    /**
+     * Adds a tile to the given layer.
+     * <p>
+     * Tiles must be added before the first draw. Within a layer, tiles are drawn
+     * in the order they are added.
+     *
+     * @param layer     the layer of the tile
+     * @param region    the texture of the tile
+     * @param x         the x-coordinate of the tile center, in tiles
+     * @param y         the y-coordinate of the tile center, in tiles
+     * @param ox        the x-coordinate of the texture origin, in pixels
+     * @param oy        the y-coordinate of the texture origin, in pixels
+     * @param shadow    whether the tile is drawn with a shadow
+     */
+    public void add(Layer layer, TextureRegion region, float x, float y, float ox, float oy, boolean shadow) {
+        if (pending == null) {
+            throw new IllegalStateException("Cannot add tiles after the layers are built");
+        }
+        if (region == null) {
+            return;
+        }
+        int column = Math.min(columns - 1, Math.max(0, (int) x / CHUNK_SIZE));
+        int row = Math.min(rows - 1, Math.max(0, (int) y / CHUNK_SIZE));
+        int chunk = row * columns + column;
+
+        Array<Tile>[] chunks = pending[layer.ordinal()];
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Array<>();
+        }
+        Tile tile = new Tile();
+        tile.region = region;
+        tile.x = x * scaleX - ox;
+        tile.y = y * scaleY - oy;
+        tile.shadow = shadow;
+        chunks[chunk].add(tile);
+        spriteCount += shadow ? 2 : 1;
+    }
+
+    /**
+     * Bakes the added tiles into the sprite cache.
+     *
+     * @param shadowOffset  the horizontal offset of tile shadows, in pixels
+     */
+    private void build(float shadowOffset) {
+        int size = Math.max(1, spriteCount);
+        cache = new SpriteCache(size, size <= MAX_INDEXED_SPRITES);
+        cacheIds = new int[pending.length][columns * rows];
+        for (int layer = 0; layer < pending.length; layer++) {
+            for (int chunk = 0; chunk < columns * rows; chunk++) {
+                Array<Tile> tiles = pending[layer][chunk];
+                if (tiles == null) {
+                    cacheIds[layer][chunk] = -1;
+                    continue;
+                }
+                cache.beginCache();
+                // Matches the shadow layer of GameCanvas.drawWithShadow
+                cache.setColor(Color.BLACK);
+                for (Tile tile : tiles) {
+                    if (tile.shadow) {
+                        cache.add(tile.region, tile.x + shadowOffset, tile.y);
+                    }
+                }
+                cache.setColor(Color.WHITE);
+                for (Tile tile : tiles) {
+                    cache.add(tile.region, tile.x, tile.y);
+                }
+                cacheIds[layer][chunk] = cache.endCache();
+            }
+        }
+        pending = null;
+    }
+
+    /**
+     * Draws the chunks of a layer that overlap the camera.
+     * <p>
+     * This must not be called while a sprite batch is active. The blend function
+     * should already be set; see {@link GameCanvas#drawStatic}.
+     *
+     * @param camera        the camera to draw with
+     * @param layer         the layer to draw
+     * @param shadowOffset  the horizontal offset of tile shadows, in pixels
+     */
+    public void draw(GameCamera camera, Layer layer, float shadowOffset) {
+        if (cache == null) {
+            build(shadowOffset);
+        }
+        Frustum frustum = camera.frustum;
+        float chunkWidth = CHUNK_SIZE * scaleX;
+        float chunkHeight = CHUNK_SIZE * scaleY;
+        // Tiles may overhang their chunk by their shadow and half a tile
+        float halfWidth = chunkWidth / 2 + scaleX + shadowOffset;
+        float halfHeight = chunkHeight / 2 + scaleY;
+
+        int[] ids = cacheIds[layer.ordinal()];
+        boolean begun = false;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int id = ids[row * columns + column];
+                if (id < 0) {
+                    continue;
+                }
+                float cx = (column + 0.5f) * chunkWidth;
+                float cy = (row + 0.5f) * chunkHeight;
+                if (!frustum.boundsInFrustum(cx, cy, 0, halfWidth, halfHeight, 1)) {
+                    culledChunks++;
+                    continue;
+                }
+                if (!begun) {
+                    cache.setProjectionMatrix(camera.combined);
+                    cache.begin();
+                    begun = true;
+                }
+                cache.draw(id);
+                drawnChunks++;
+            }
+        }
+        if (begun) {
+            cache.end();
+        }
+    }
+
+    /**
+     * Resets the drawn and culled chunk counts (e.g. at the start of a frame).
+     */
+    public void resetStats() {
+        drawnChunks = 0;
+        culledChunks = 0;
+    }
+
+    /**
+     * Returns the number of chunks drawn since the last reset.
+     *
+     * @return the number of chunks drawn since the last reset.
+     */
+    public int getDrawnChunks() {
+        return drawnChunks;
+    }
+
+    /**
+     * Returns the number of non-empty chunks culled since the last reset.
+     *
+     * @return the number of non-empty chunks culled since the last reset.
+     */
+    public int getCulledChunks() {
+        return culledChunks;
+    }
+
+    /**
+     * Releases the sprite cache, if it was built.
+     */
+    @Override
+    public void dispose() {
+        if (cache != null) {
+            cache.dispose();
+            cache = null;
+        }
+        pending = null;
+    }
+}
@@ -0,0 +1,451 @@
+/*
+ * ContactRegistry.java
+ *
+ * Box2D reports contacts fixture by fixture, but gameplay code only ever asks
+ * whether two obstacles are touching, or how many things an obstacle is resting
+ * on.  Previously every obstacle kept a map from partner to a list of fixtures,
+ * which allocated a new list for every new partner in the middle of world.step.
+ *
+ * This class replaces those maps with a single registry.  Every obstacle that
+ * takes part in a tracked contact is given a small integer id, and contacts are
+ * stored as (owner, partner) id pairs in primitive open-addressed tables.  Once
+ * the tables have grown to the size of the level, no contact callback allocates.
+ */
+package edu.cornell.gdiac.physics.obstacle;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A central registry of the obstacle contacts in a single Box2D world.
+ *
+ * Contacts are directed: the registry records that an owner is touching a
+ * partner, and the partner only learns about the owner if it is also recorded.
+ * This mirrors how the collision controller only tracks contacts for gummable
+ * objects and the bandit.
+ *
+ * There are two channels.  The touch channel counts fixture contacts between
+ * two bodies, and backs {@link Obstacle#getCollisions()}.  The ground channel
+ * counts contacts against an obstacle's ground sensor.
+ */
+public class ContactRegistry {
+	/** The initial number of obstacles the registry can hold without growing */
+	private static final int INITIAL_OBSTACLES = 64;
+	/** The initial capacity of each pair table (must be a power of two) */
+	private static final int INITIAL_PAIRS = 256;
+
+	/** The obstacle for each id.  Id 0 is reserved so that no pair key is 0. */
+	private Obstacle[] obstacles;
+	/** The next id to assign */
+	private int nextId;
+	/** The number of distinct ground partners for each id */
+	private int[] groundCounts;
+
+	/** Fixture contact counts between two touching bodies */
+	private final PairTable touching;
+	/** Fixture contact counts between a ground sensor and the bodies it rests on */
+	private final PairTable ground;
+
+	/**
+	 * Creates a new, empty contact registry
+	 */
+	public ContactRegistry() {
+		obstacles = new Obstacle[INITIAL_OBSTACLES];
+		groundCounts = new int[INITIAL_OBSTACLES];
+		nextId = 1;
+		touching = new PairTable(INITIAL_PAIRS);
+		ground = new PairTable(INITIAL_PAIRS);
+	}
+
+	/**
+	 * Removes every contact and forgets every registered obstacle.
+	 *
+	 * This should be called whenever the world is thrown away, as Box2D does not
+	 * report end contacts when a world is disposed.
+	 */
+	public void clear() {
+		for (int ii = 1; ii < nextId; ii++) {
+			Obstacle ob = obstacles[ii];
+			if (ob.contactRegistry == this) {
+				ob.contactRegistry = null;
+				ob.contactId = 0;
+				ob.collisions.clear();
+			}
+			obstacles[ii] = null;
+			groundCounts[ii] = 0;
+		}
+		nextId = 1;
+		touching.clear();
+		ground.clear();
+	}
+
+	/**
+	 * Returns the registry id of an obstacle, registering it if necessary.
+	 *
+	 * @param ob the obstacle to register
+	 *
+	 * @return the registry id of an obstacle
+	 */
+	public int register(Obstacle ob) {
+		if (ob.contactRegistry == this) {
+			return ob.contactId;
+		}
+		if (nextId == obstacles.length) {
+			int capacity = obstacles.length * 2;
+			Obstacle[] newObstacles = new Obstacle[capacity];
+			System.arraycopy(obstacles, 0, newObstacles, 0, obstacles.length);
+			obstacles = newObstacles;
+			int[] newCounts = new int[capacity];
+			System.arraycopy(groundCounts, 0, newCounts, 0, groundCounts.length);
+			groundCounts = newCounts;
+		}
+		int id = nextId++;
+		obstacles[id] = ob;
+		ob.collisions.clear();
+		ob.contactRegistry = this;
+		ob.contactId = id;
+		return id;
+	}
+
+	/**
+	 * Records the start of a fixture contact between owner and partner.
+	 *
+	 * @param owner   the obstacle tracking the contact
+	 * @param partner the obstacle it is now touching
+	 */
+	public void startContact(Obstacle owner, Obstacle partner) {
+		long key = key(register(owner), register(partner));
+		if (touching.increment(key) == 1) {
+			owner.collisions.add(partner);
+		}
+	}
+
+	/**
+	 * Records the end of a fixture contact between owner and partner.
+	 *
+	 * Contacts that were never started are ignored.
+	 *
+	 * @param owner   the obstacle tracking the contact
+	 * @param partner the obstacle it has stopped touching
+	 */
+	public void endContact(Obstacle owner, Obstacle partner) {
+		if (owner.contactRegistry != this || partner.contactRegistry != this) {
+			return;
+		}
+		if (touching.decrement(key(owner.contactId, partner.contactId)) == 0) {
+			owner.collisions.removeValue(partner, true);
+		}
+	}
+
+	/**
+	 * Forgets every fixture contact between owner and partner at once.
+	 *
+	 * @param owner   the obstacle tracking the contact
+	 * @param partner the obstacle to forget
+	 */
+	public void clearContact(Obstacle owner, Obstacle partner) {
+		if (owner.contactRegistry != this || partner.contactRegistry != this) {
+			return;
+		}
+		if (touching.remove(key(owner.contactId, partner.contactId)) > 0) {
+			owner.collisions.removeValue(partner, true);
+		}
+	}
+
+	/**
+	 * Forgets every contact owned by the given obstacle.
+	 *
+	 * @param owner the obstacle tracking the contacts
+	 */
+	public void clearContacts(Obstacle owner) {
+		if (owner.contactRegistry != this) {
+			return;
+		}
+		Array<Obstacle> partners = owner.collisions;
+		for (int ii = 0; ii < partners.size; ii++) {
+			Obstacle partner = partners.get(ii);
+			touching.remove(key(owner.contactId, partner.contactId));
+		}
+		partners.clear();
+	}
+
+	/**
+	 * Returns true if owner has recorded a contact with partner.
+	 *
+	 * @param owner   the obstacle tracking the contact
+	 * @param partner the obstacle to test against
+	 *
+	 * @return true if owner has recorded a contact with partner.
+	 */
+	public boolean isTouching(Obstacle owner, Obstacle partner) {
+		if (owner.contactRegistry != this || partner.contactRegistry != this) {
+			return false;
+		}
+		return touching.get(key(owner.contactId, partner.contactId)) > 0;
+	}
+
+	/**
+	 * Records the start of a contact between an owner's ground sensor and a body.
+	 *
+	 * @param owner   the obstacle with the ground sensor
+	 * @param partner the obstacle under the sensor
+	 */
+	public void startGround(Obstacle owner, Obstacle partner) {
+		int id = register(owner);
+		if (ground.increment(key(id, register(partner))) == 1) {
+			groundCounts[id]++;
+		}
+	}
+
+	/**
+	 * Records the end of a contact between an owner's ground sensor and a body.
+	 *
+	 * Ground contacts that were never started are ignored.
+	 *
+	 * @param owner   the obstacle with the ground sensor
+	 * @param partner the obstacle that left the sensor
+	 */
+	public void endGround(Obstacle owner, Obstacle partner) {
+		if (owner.contactRegistry != this || partner.contactRegistry != this) {
+			return;
+		}
+		if (ground.decrement(key(owner.contactId, partner.contactId)) == 0) {
+			groundCounts[owner.contactId]--;
+		}
+	}
+
+	/**
+	 * Forgets every ground contact of the given obstacle.
+	 *
+	 * This is necessary when the ground sensor changes (e.g. on a gravity flip).
+	 *
+	 * @param owner the obstacle with the ground sensor
+	 */
+	public void clearGround(Obstacle owner) {
+		if (owner.contactRegistry != this || groundCounts[owner.contactId] == 0) {
+			return;
+		}
+		ground.removeOwner(owner.contactId);
+		groundCounts[owner.contactId] = 0;
+	}
+
+	/**
+	 * Returns the number of distinct bodies under an obstacle's ground sensor.
+	 *
+	 * @param owner the obstacle with the ground sensor
+	 *
+	 * @return the number of distinct bodies under an obstacle's ground sensor.
+	 */
+	public int getGroundCount(Obstacle owner) {
+		return owner.contactRegistry == this ? groundCounts[owner.contactId] : 0;
+	}
+
+	/**
+	 * Returns the pair key for an owner and partner id.
+	 *
+	 * @param owner   the owner id
+	 * @param partner the partner id
+	 *
+	 * @return the pair key for an owner and partner id.
+	 */
+	private static long key(int owner, int partner) {
+		return ((long) owner << 32) | (partner & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * An open-addressed hash table from pair keys to contact counts.
+	 *
+	 * The table uses linear probing with backward-shift deletion, so it never
+	 * needs tombstones and never allocates unless it has to grow.  The key 0 is
+	 * reserved to mark empty slots.
+	 */
+	private static class PairTable {
+		/** The pair keys, or 0 for an empty slot */
+		private long[] keys;
+		/** The contact count for each key */
+		private int[] counts;
+		/** The number of occupied slots */
+		private int size;
+		/** The capacity minus one, used to wrap indices */
+		private int mask;
+
+		/**
+		 * Creates a new table with the given capacity
+		 *
+		 * @param capacity the initial capacity (a power of two)
+		 */
+		PairTable(int capacity) {
+			keys = new long[capacity];
+			counts = new int[capacity];
+			mask = capacity - 1;
+		}
+
+		/** Removes every key from the table */
+		void clear() {
+			if (size == 0) {
+				return;
+			}
+			java.util.Arrays.fill(keys, 0L);
+			java.util.Arrays.fill(counts, 0);
+			size = 0;
+		}
+
+		/**
+		 * Returns the count for a key, or 0 if it is absent
+		 *
+		 * @param key the pair key
+		 *
+		 * @return the count for a key, or 0 if it is absent
+		 */
+		int get(long key) {
+			int slot = find(key);
+			return slot < 0 ? 0 : counts[slot];
+		}
+
+		/**
+		 * Increments the count for a key, adding it if necessary
+		 *
+		 * @param key the pair key
+		 *
+		 * @return the new count
+		 */
+		int increment(long key) {
+			int slot = hash(key);
+			while (keys[slot] != 0) {
+				if (keys[slot] == key) {
+					return ++counts[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			counts[slot] = 1;
+			if (++size * 2 > keys.length) {
+				grow();
+			}
+			return 1;
+		}
+
+		/**
+		 * Decrements the count for a key, removing it when it reaches 0
+		 *
+		 * @param key the pair key
+		 *
+		 * @return the new count, or -1 if the key was absent
+		 */
+		int decrement(long key) {
+			int slot = find(key);
+			if (slot < 0) {
+				return -1;
+			}
+			int count = --counts[slot];
+			if (count == 0) {
+				removeSlot(slot);
+			}
+			return count;
+		}
+
+		/**
+		 * Removes a key regardless of its count
+		 *
+		 * @param key the pair key
+		 *
+		 * @return the old count, or 0 if the key was absent
+		 */
+		int remove(long key) {
+			int slot = find(key);
+			if (slot < 0) {
+				return 0;
+			}
+			int count = counts[slot];
+			removeSlot(slot);
+			return count;
+		}
+
+		/**
+		 * Removes every key whose owner half matches the given id
+		 *
+		 * @param owner the owner id
+		 */
+		void removeOwner(int owner) {
+			int slot = 0;
+			while (slot < keys.length) {
+				if (keys[slot] != 0 && (int) (keys[slot] >>> 32) == owner) {
+					// The shift may move an unvisited key into this slot
+					removeSlot(slot);
+				} else {
+					slot++;
+				}
+			}
+		}
+
+		/**
+		 * Returns the slot holding a key, or -1 if it is absent
+		 *
+		 * @param key the pair key
+		 *
+		 * @return the slot holding a key, or -1 if it is absent
+		 */
+		private int find(long key) {
+			int slot = hash(key);
+			while (keys[slot] != 0) {
+				if (keys[slot] == key) {
+					return slot;
+				}
+				slot = (slot + 1) & mask;
+			}
+			return -1;
+		}
+
+		/**
+		 * Empties a slot, shifting back any keys that probed past it
+		 *
+		 * @param slot the slot to empty
+		 */
+		private void removeSlot(int slot) {
+			int next = (slot + 1) & mask;
+			while (keys[next] != 0) {
+				int home = hash(keys[next]);
+				// Move the key back if its home slot is not in (slot, next]
+				if (((next - home) & mask) >= ((next - slot) & mask)) {
+					keys[slot] = keys[next];
+					counts[slot] = counts[next];
+					slot = next;
+				}
+				next = (next + 1) & mask;
+			}
+			keys[slot] = 0;
+			counts[slot] = 0;
+			size--;
+		}
+
+		/** Doubles the capacity of the table, rehashing every key */
+		private void grow() {
+			long[] oldKeys = keys;
+			int[] oldCounts = counts;
+			keys = new long[oldKeys.length * 2];
+			counts = new int[oldCounts.length * 2];
+			mask = keys.length - 1;
+			for (int ii = 0; ii < oldKeys.length; ii++) {
+				if (oldKeys[ii] != 0) {
+					int slot = hash(oldKeys[ii]);
+					while (keys[slot] != 0) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[ii];
+					counts[slot] = oldCounts[ii];
+				}
+			}
+		}
+
+		/**
+		 * Returns the home slot of a key
+		 *
+		 * @param key the pair key
+		 *
+		 * @return the home slot of a key
+		 */
+		private int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32)) & mask;
+		}
+	}
+}
@@ -21,12 +21,9 @@ import com.badlogic.gdx.math.*;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 
-import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.Array;
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Set;
+import edu.cornell.gdiac.util.Snapshot;
 
 /**
  * Base model class to support collisions.
@@ -79,10 +76,13 @@ public abstract class Obstacle {
 	/** Whether this obstacle is stuck to a gummed object. */
 	protected boolean stuck;
 
-	/** The obstacles this obstacle is colliding with. Must be non-null if the object is gummable. */
-	protected ObjectSet<Obstacle> collidedObs = null;
+	/** The obstacles this obstacle is touching, as recorded by its contact registry. */
+	protected Array<Obstacle> collisions;
 
-	protected HashMap<Obstacle, ArrayList<Fixture>> obstacleMap;
+	/** The registry tracking this obstacle's contacts (null if not registered) */
+	ContactRegistry contactRegistry;
+	/** The id of this obstacle in its contact registry */
+	int contactId;
 
 	public boolean isFlipped() {
 		return isFlipped;
@@ -109,38 +109,45 @@ public abstract class Obstacle {
 
 	public boolean getStuck() {return stuck; }
 
-	public void startCollision(Obstacle ob, Fixture fixture) {
-		assert obstacleMap != null;
-		if (obstacleMap.containsKey(ob)){
-			obstacleMap.get(ob).add(fixture);
-		} else{
-			ArrayList<Fixture> lst = new ArrayList<>();
-			lst.add(fixture);
-			obstacleMap.put(ob, lst);
-		}
+	/**
+	 * Returns the obstacles this obstacle is currently touching.
+	 *
+	 * This array is owned by the contact registry and is updated in place. It should
+	 * not be modified, and iterating it does not allocate.
+	 *
+	 * @return the obstacles this obstacle is currently touching.
+	 */
+	public Array<Obstacle> getCollisions() {
+		return collisions;
 	}
 
-	public void endCollision(Obstacle ob, Fixture fixture) {
-		assert obstacleMap != null;
-		if (fixture == null){
-			obstacleMap.remove(ob);
-			return;
-		}
-		if (obstacleMap.containsKey(ob)){
-			ArrayList<Fixture> lst = obstacleMap.get(ob);
-			lst.remove(fixture);
-			if (lst.size() == 0){
-				obstacleMap.remove(ob);
-			}
-		}
+	/**
+	 * Returns the number of obstacles this obstacle is currently touching.
+	 *
+	 * @return the number of obstacles this obstacle is currently touching.
+	 */
+	public int getCollisionCount() {
+		return collisions.size;
 	}
 
-	public Set<Obstacle> getCollisions() {
-		return obstacleMap.keySet();
+	/**
+	 * Returns true if this obstacle is currently touching the given obstacle.
+	 *
+	 * @param ob the obstacle to test against
+	 *
+	 * @return true if this obstacle is currently touching the given obstacle.
+	 */
+	public boolean isTouching(Obstacle ob) {
+		return contactRegistry != null && contactRegistry.isTouching(this, ob);
 	}
 
+	/**
+	 * Forgets every contact this obstacle is tracking.
+	 */
 	public void clearCollisions(){
-		collidedObs.clear();
+		if (contactRegistry != null) {
+			contactRegistry.clearContacts(this);
+		}
 	}
 
 
@@ -1026,12 +1033,51 @@ public abstract class Obstacle {
 		// Allocate the mass information, but turn it off
 		masseffect = false;
 		massdata = new MassData();
-		obstacleMap = new HashMap<>();
+		collisions = new Array<>(false, 4);
 
 		// Set the default drawing scale
 		drawScale = new Vector2(1,1);
 	}
 
+	/// Snapshot Methods
+
+	/**
+	 * Writes the gameplay state of this object to the given snapshot.
+	 *
+	 * Subclasses with their own state should call this method first and then
+	 * append their own fields. The snapshot must be read back with
+	 * {@link #restoreState} in the same order.
+	 *
+	 * @param state the snapshot to write to
+	 */
+	public void saveState(Snapshot state) {
+		state.putBoolean(gummed);
+		state.putBoolean(stuck);
+		state.putBoolean(isFlipped);
+		state.putBoolean(toRemove);
+		state.putInt(fixture.filter.categoryBits);
+		state.putInt(fixture.filter.maskBits);
+		state.putInt(fixture.filter.groupIndex);
+	}
+
+	/**
+	 * Restores the gameplay state of this object from the given snapshot.
+	 *
+	 * This does not create or destroy any bodies. The object should already be
+	 * active (or inactive) as it was when the snapshot was saved.
+	 *
+	 * @param state the snapshot to read from
+	 */
+	public void restoreState(Snapshot state) {
+		gummed = state.getBoolean();
+		stuck = state.getBoolean();
+		isFlipped = state.getBoolean();
+		toRemove = state.getBoolean();
+		fixture.filter.categoryBits = (short) state.getInt();
+		fixture.filter.maskBits = (short) state.getInt();
+		fixture.filter.groupIndex = (short) state.getInt();
+	}
+
 	/// Abstract Methods
 
 	/**
@@ -23,6 +23,7 @@ import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 
 import edu.cornell.gdiac.bubblegumbandit.view.GameCanvas;
+import edu.cornell.gdiac.util.Snapshot;
 
 /**
  * Base model class to support collisions.
@@ -885,6 +886,91 @@ public abstract class SimpleObstacle extends Obstacle {
 		}
 	}
 
+	/**
+	 * Writes the gameplay state of this object to the given snapshot.
+	 *
+	 * This includes the body transform and velocity, as well as the filter and
+	 * sensor flags of each fixture (which gameplay changes, e.g. when an enemy
+	 * is crushed or a door opens).
+	 *
+	 * @param state the snapshot to write to
+	 */
+	public void saveState(Snapshot state) {
+		super.saveState(state);
+		state.putObject(getBodyType());
+		state.putFloat(getX());
+		state.putFloat(getY());
+		state.putFloat(getAngle());
+		state.putFloat(getVX());
+		state.putFloat(getVY());
+		state.putFloat(getAngularVelocity());
+		state.putBoolean(isAwake());
+		state.putFloat(getGravityScale());
+		if (body == null) {
+			state.putInt(0);
+			return;
+		}
+		state.putInt(body.getFixtureList().size);
+		for (Fixture f : body.getFixtureList()) {
+			Filter filter = f.getFilterData();
+			state.putInt(filter.categoryBits);
+			state.putInt(filter.maskBits);
+			state.putInt(filter.groupIndex);
+			state.putBoolean(f.isSensor());
+		}
+	}
+
+	/**
+	 * Restores the gameplay state of this object from the given snapshot.
+	 *
+	 * Fixture filters are only restored if the body has the same number of
+	 * fixtures as when the snapshot was saved.
+	 *
+	 * @param state the snapshot to read from
+	 */
+	public void restoreState(Snapshot state) {
+		super.restoreState(state);
+		setBodyType(state.<BodyType>getObject());
+		float x = state.getFloat();
+		float y = state.getFloat();
+		float angle = state.getFloat();
+		// Moving a body (even in place) makes Box2D search for new contacts, so skip unmoved bodies
+		if (body == null) {
+			setPosition(x, y);
+			setAngle(angle);
+		} else if (body.getPosition().x != x || body.getPosition().y != y || body.getAngle() != angle) {
+			body.setTransform(x, y, angle);
+		}
+		float vx = state.getFloat();
+		float vy = state.getFloat();
+		velocityCache.set(vx, vy);
+		setLinearVelocity(velocityCache);
+		setAngularVelocity(state.getFloat());
+		setAwake(state.getBoolean());
+		setGravityScale(state.getFloat());
+		int count = state.getInt();
+		boolean matches = body != null && body.getFixtureList().size == count;
+		for (int ii = 0; ii < count; ii++) {
+			short category = (short) state.getInt();
+			short mask = (short) state.getInt();
+			short group = (short) state.getInt();
+			boolean sensor = state.getBoolean();
+			if (matches) {
+				Fixture f = body.getFixtureList().get(ii);
+				Filter filter = f.getFilterData();
+				if (filter.categoryBits != category || filter.maskBits != mask || filter.groupIndex != group) {
+					filter.categoryBits = category;
+					filter.maskBits = mask;
+					filter.groupIndex = group;
+					f.setFilterData(filter);
+				}
+				if (f.isSensor() != sensor) {
+					f.setSensor(sensor);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Sets the filter categories for this obstacle.
 	 *
@@ -0,0 +1,148 @@
+/*
+ * FrameTrace.java
+ *
+ * A short history of frame times around a gameplay event.
+ *
+ * Frame hitches are hard to see in an average. A trace keeps the last few frame
+ * times in a ring buffer, and when an event is marked it waits for the same
+ * number of frames afterwards, then logs the whole window. That shows whether
+ * the event frame (e.g. picking up the orb) takes longer than its neighbours.
+ *
+ * Tracing is off by default, and is turned on with the -trace launch option.
+ */
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * A ring buffer of frame times, logged around marked events.
+ */
+public class FrameTrace {
+	/** The tag for log messages */
+	private static final String TAG = "FrameTrace";
+
+	/** Whether frame times are recorded at all */
+	private static boolean enabled;
+
+	/** The number of frames kept on either side of an event */
+	private final int window;
+	/** The frame times in nanoseconds (window before, the event, window after) */
+	private final long[] frames;
+	/** The index of the next frame to record */
+	private int next;
+	/** The number of frames recorded, up to the buffer size */
+	private int recorded;
+	/** The label of the pending event, or null if there is none */
+	private String event;
+	/** The number of frames to record before the pending event is logged */
+	private int remaining;
+
+	/**
+	 * Returns true if frame times are recorded.
+	 *
+	 * @return true if frame times are recorded.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether frame times are recorded.
+	 *
+	 * @param value whether frame times are recorded.
+	 */
+	public static void setEnabled(boolean value) {
+		enabled = value;
+	}
+
+	/**
+	 * Creates a trace that logs the given number of frames around an event.
+	 *
+	 * @param window the number of frames logged before and after an event
+	 */
+	public FrameTrace(int window) {
+		if (window < 1) {
+			throw new IllegalArgumentException("Trace window must be positive");
+		}
+		this.window = window;
+		frames = new long[2 * window + 1];
+	}
+
+	/**
+	 * Marks an event in the current frame.
+	 *
+	 * The window around the event is logged once enough later frames are
+	 * recorded. A mark made while another event is pending replaces it.
+	 *
+	 * @param label the name of the event in the log
+	 */
+	public void mark(String label) {
+		if (!enabled) {
+			return;
+		}
+		event = label;
+		remaining = window + 1;
+	}
+
+	/**
+	 * Records the time taken by the current frame.
+	 *
+	 * This should be called once at the end of every frame.
+	 *
+	 * @param nanos the frame time in nanoseconds
+	 */
+	public void record(long nanos) {
+		if (!enabled) {
+			return;
+		}
+		frames[next] = nanos;
+		next = (next + 1) % frames.length;
+		if (recorded < frames.length) {
+			recorded++;
+		}
+		if (event != null && --remaining == 0) {
+			report();
+			event = null;
+		}
+	}
+
+	/**
+	 * Discards all recorded frames and any pending event.
+	 */
+	public void clear() {
+		next = 0;
+		recorded = 0;
+		event = null;
+		remaining = 0;
+	}
+
+	/**
+	 * Logs the frames around the pending event.
+	 *
+	 * The event frame is shown in brackets.
+	 */
+	private void report() {
+		int start = (next - recorded + frames.length) % frames.length;
+		int eventIndex = recorded - window - 1;
+		long maxBefore = 0;
+		long maxAfter = 0;
+		StringBuilder builder = new StringBuilder(event).append(" (ms):");
+		for (int ii = 0; ii < recorded; ii++) {
+			long nanos = frames[(start + ii) % frames.length];
+			String time = String.format("%.2f", nanos / 1e6);
+			if (ii == eventIndex) {
+				builder.append(" [").append(time).append("]");
+			} else {
+				builder.append(" ").append(time);
+				if (ii < eventIndex) {
+					maxBefore = Math.max(maxBefore, nanos);
+				} else {
+					maxAfter = Math.max(maxAfter, nanos);
+				}
+			}
+		}
+		builder.append(String.format("  max before %.2f, event %.2f, max after %.2f",
+				maxBefore / 1e6, frames[(start + eventIndex) % frames.length] / 1e6, maxAfter / 1e6));
+		Gdx.app.log(TAG, builder.toString());
+	}
+}
@@ -9,6 +9,11 @@
  * so it can be a singleton.  Once again, we have implemented the
  * singleton as a static class.
  *
+ * The generator is kept per thread, so that headless simulations running on
+ * separate threads do not share (and perturb) one another's random streams.
+ * Levels reseed it when they are populated, so a replay of the same input
+ * produces the same rolls.
+ *
  * Author: Walker M. White
  * Based on original PhysicsDemo Lab by Don Holden, 2007
  * LibGDX version, 2/6/2015
@@ -21,8 +26,22 @@ import java.util.Random;
  * Static class for producing random numbers.
  */
 public class RandomController {
-	/** Pseudo-random number generator */
-	private static Random generator = new Random(0); // Make it deterministic
+	/** Pseudo-random number generator of each thread */
+	private static final ThreadLocal<Random> generator = new ThreadLocal<Random>() {
+		@Override
+		protected Random initialValue() {
+			return new Random(0); // Make it deterministic
+		}
+	};
+
+	/**
+	 * Reseeds the random number generator of the current thread.
+	 *
+	 * @param seed The new seed
+	 */
+	public static void setSeed(long seed) {
+		generator.get().setSeed(seed);
+	}
 
 	/**
 	 * Returns a random int between min and max (inclusive).
@@ -33,7 +52,7 @@ public class RandomController {
 	 * @return a random int between min and max (inclusive).
 	 */
 	public static int rollInt(int min, int max) {
-		return generator.nextInt(max-min+1)+min;
+		return generator.get().nextInt(max-min+1)+min;
 	}
 
 	/**
@@ -45,6 +64,6 @@ public class RandomController {
 	 * @return a random float between min and max (inclusive).
 	 */
 	public static float rollFloat(float min, float max) {
-		return generator.nextFloat() * (max - min) + min;
+		return generator.get().nextFloat() * (max - min) + min;
 	}
 }
@@ -0,0 +1,129 @@
+/*
+ * SimClock.java
+ *
+ * Static class for reading gameplay time.
+ *
+ * Normally gameplay timers read the wall clock and the graphics frame time.
+ * That makes every run of a level slightly different. In deterministic mode,
+ * time only moves when the simulation steps, so two runs with the same input
+ * produce exactly the same state.
+ *
+ * Like RandomController, this is a static class. The state is kept per thread,
+ * so headless simulations on separate threads each have their own clock.
+ */
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Static class for reading gameplay time.
+ */
+public class SimClock {
+	/** The clock state of a single thread */
+	private static class Clock {
+		/** Whether time comes from simulation steps instead of the wall clock */
+		boolean deterministic;
+		/** The simulated time in nanoseconds */
+		long nanos;
+		/** The length of the last simulation step in seconds */
+		float delta;
+	}
+
+	/** The clock of each thread */
+	private static final ThreadLocal<Clock> clock = new ThreadLocal<Clock>() {
+		@Override
+		protected Clock initialValue() {
+			return new Clock();
+		}
+	};
+
+	/**
+	 * Returns true if gameplay time only advances with simulation steps.
+	 *
+	 * @return true if gameplay time only advances with simulation steps.
+	 */
+	public static boolean isDeterministic() {
+		return clock.get().deterministic;
+	}
+
+	/**
+	 * Sets whether gameplay time only advances with simulation steps.
+	 *
+	 * This also resets the simulated time to zero.
+	 *
+	 * @param value whether gameplay time only advances with simulation steps.
+	 */
+	public static void setDeterministic(boolean value) {
+		Clock c = clock.get();
+		c.deterministic = value;
+		c.nanos = 0;
+		c.delta = 0;
+	}
+
+	/**
+	 * Resets the simulated time to zero (e.g. when a level is reloaded).
+	 */
+	public static void reset() {
+		Clock c = clock.get();
+		c.nanos = 0;
+		c.delta = 0;
+	}
+
+	/**
+	 * Advances the simulated time by one simulation step.
+	 *
+	 * @param dt the length of the step in seconds
+	 */
+	public static void step(float dt) {
+		Clock c = clock.get();
+		c.nanos += (long) (dt * 1000000000.0);
+		c.delta = dt;
+	}
+
+	/**
+	 * Returns the current gameplay time in nanoseconds.
+	 *
+	 * Only differences between two times are meaningful.
+	 *
+	 * @return the current gameplay time in nanoseconds.
+	 */
+	public static long nanoTime() {
+		Clock c = clock.get();
+		return c.deterministic ? c.nanos : TimeUtils.nanoTime();
+	}
+
+	/**
+	 * Returns the current gameplay time in milliseconds.
+	 *
+	 * Only differences between two times are meaningful.
+	 *
+	 * @return the current gameplay time in milliseconds.
+	 */
+	public static long millis() {
+		return nanoTime() / 1000000;
+	}
+
+	/**
+	 * Returns the gameplay time elapsed since the given time, in milliseconds.
+	 *
+	 * @param prevTime a time previously returned by {@link #millis()}
+	 *
+	 * @return the gameplay time elapsed since the given time, in milliseconds.
+	 */
+	public static long timeSinceMillis(long prevTime) {
+		return millis() - prevTime;
+	}
+
+	/**
+	 * Returns the length of the current frame in seconds.
+	 *
+	 * In deterministic mode, this is the length of the last simulation step.
+	 *
+	 * @return the length of the current frame in seconds.
+	 */
+	public static float getDeltaTime() {
+		Clock c = clock.get();
+		return c.deterministic ? c.delta : Gdx.graphics.getDeltaTime();
+	}
+}
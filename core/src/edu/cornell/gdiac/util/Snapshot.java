@@ -0,0 +1,179 @@
+/*
+ * Snapshot.java
+ *
+ * A saved copy of the state of a game object.
+ *
+ * Objects write their fields into a snapshot one after another, and read them
+ * back in exactly the same order. There are no names or types stored, so a
+ * snapshot is only meaningful to the object that wrote it. In exchange, reading
+ * a snapshot back does not allocate, so restoring a level is cheap.
+ */
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A sequential record of the state of a game object.
+ *
+ * Values must be read back in the same order (and with the same types) in which
+ * they were written. Call {@link #rewind()} before reading a snapshot again.
+ */
+public class Snapshot {
+	/** The float values, in the order written */
+	private final FloatArray floats = new FloatArray();
+	/** The int (and boolean and long) values, in the order written */
+	private final IntArray ints = new IntArray();
+	/** The object references, in the order written */
+	private final Array<Object> objects = new Array<>();
+
+	/** The read position of the float values */
+	private int floatIndex;
+	/** The read position of the int values */
+	private int intIndex;
+	/** The read position of the object references */
+	private int objectIndex;
+
+	/**
+	 * Writes a float to this snapshot.
+	 *
+	 * @param value the value to write
+	 */
+	public void putFloat(float value) {
+		floats.add(value);
+	}
+
+	/**
+	 * Writes an int to this snapshot.
+	 *
+	 * @param value the value to write
+	 */
+	public void putInt(int value) {
+		ints.add(value);
+	}
+
+	/**
+	 * Writes a boolean to this snapshot.
+	 *
+	 * @param value the value to write
+	 */
+	public void putBoolean(boolean value) {
+		ints.add(value ? 1 : 0);
+	}
+
+	/**
+	 * Writes a long to this snapshot.
+	 *
+	 * @param value the value to write
+	 */
+	public void putLong(long value) {
+		ints.add((int) (value >>> 32));
+		ints.add((int) value);
+	}
+
+	/**
+	 * Writes both coordinates of a vector to this snapshot.
+	 *
+	 * The vector itself is not retained.
+	 *
+	 * @param value the vector to write
+	 */
+	public void putVector(Vector2 value) {
+		floats.add(value.x);
+		floats.add(value.y);
+	}
+
+	/**
+	 * Writes an object reference to this snapshot.
+	 *
+	 * Only the reference is saved, so this should be used for objects whose own
+	 * state is either immutable or saved separately (e.g. textures or obstacles).
+	 *
+	 * @param value the reference to write (may be null)
+	 */
+	public void putObject(Object value) {
+		objects.add(value);
+	}
+
+	/**
+	 * Returns the next float in this snapshot.
+	 *
+	 * @return the next float in this snapshot.
+	 */
+	public float getFloat() {
+		return floats.get(floatIndex++);
+	}
+
+	/**
+	 * Returns the next int in this snapshot.
+	 *
+	 * @return the next int in this snapshot.
+	 */
+	public int getInt() {
+		return ints.get(intIndex++);
+	}
+
+	/**
+	 * Returns the next boolean in this snapshot.
+	 *
+	 * @return the next boolean in this snapshot.
+	 */
+	public boolean getBoolean() {
+		return ints.get(intIndex++) != 0;
+	}
+
+	/**
+	 * Returns the next long in this snapshot.
+	 *
+	 * @return the next long in this snapshot.
+	 */
+	public long getLong() {
+		long high = ints.get(intIndex++);
+		long low = ints.get(intIndex++) & 0xffffffffL;
+		return (high << 32) | low;
+	}
+
+	/**
+	 * Reads the next vector in this snapshot into the given vector.
+	 *
+	 * @param out the vector to store the result
+	 *
+	 * @return the given vector, for chaining
+	 */
+	public Vector2 getVector(Vector2 out) {
+		out.x = floats.get(floatIndex++);
+		out.y = floats.get(floatIndex++);
+		return out;
+	}
+
+	/**
+	 * Returns the next object reference in this snapshot.
+	 *
+	 * @return the next object reference in this snapshot.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getObject() {
+		return (T) objects.get(objectIndex++);
+	}
+
+	/**
+	 * Moves the read position back to the start of this snapshot.
+	 */
+	public void rewind() {
+		floatIndex = 0;
+		intIndex = 0;
+		objectIndex = 0;
+	}
+
+	/**
+	 * Discards everything written to this snapshot.
+	 */
+	public void clear() {
+		floats.clear();
+		ints.clear();
+		objects.clear();
+		rewind();
+	}
+}
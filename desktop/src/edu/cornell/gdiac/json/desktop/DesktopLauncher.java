@@ -17,6 +17,8 @@ import com.badlogic.gdx.utils.SharedLibraryLoader;
 import edu.cornell.gdiac.backend.GDXApp;
 import edu.cornell.gdiac.backend.GDXAppSettings;
 import edu.cornell.gdiac.bubblegumbandit.controllers.GDXRoot;
+import edu.cornell.gdiac.util.FrameTrace;
+import edu.cornell.gdiac.util.SimClock;
 
 /**
  * The main class of the game.
@@ -45,6 +47,16 @@ public class DesktopLauncher {
 		config.height = 720;
 		config.fullscreen = false;
 		config.resizable = true;
+
+		// Fixed-step timing and seeded randomness, for replays and regression tests
+		for (String option : arg) {
+			if (option.equals("-deterministic")) {
+				SimClock.setDeterministic(true);
+			} else if (option.equals("-trace")) {
+				// Logs frame times around hitch-prone events such as the orb pickup
+				FrameTrace.setEnabled(true);
+			}
+		}
 		new GDXApp(new GDXRoot(), config);
 	}
 }
\ No newline at end of file
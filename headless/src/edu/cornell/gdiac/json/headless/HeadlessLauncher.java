@@ -0,0 +1,197 @@
+/*
+ * HeadlessLauncher.java
+ *
+ * Runs level simulations without a window, for soak testing levels with scripted
+ * input much faster than real time. Each level runs on its own thread with its
+ * own Box2D World.
+ *
+ * Usage (from the assets directory):
+ *
+ *     HeadlessLauncher [-threads N] [-ticks T] [-script FILE] [LEVEL ...]
+ *
+ * A level is either a level number (e.g. 3) or a level key in the asset
+ * directory (e.g. level3). If no levels are given, all of the game levels run.
+ */
+package edu.cornell.gdiac.json.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.Array;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.assets.AssetParser;
+import edu.cornell.gdiac.audio.AudioSource;
+import edu.cornell.gdiac.audio.MusicQueue;
+import edu.cornell.gdiac.audio.SoundEffect;
+import edu.cornell.gdiac.bubblegumbandit.controllers.GameController;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The main class of the headless simulation runner.
+ *
+ * Assets are loaded once on the application thread (with a GL that does nothing),
+ * and every level is built on that thread too, as the directory loads some entries
+ * on demand. The pool threads only step the levels they were handed. Audio assets
+ * are skipped, so the {@link edu.cornell.gdiac.bubblegumbandit.controllers.SoundController}
+ * stays muted.
+ */
+public class HeadlessLauncher extends ApplicationAdapter {
+    /** The asset directory of the game */
+    private static final String ASSET_FILE = "jsons/assets.json";
+    /** The default tick limit (five minutes of game time) */
+    private static final int DEFAULT_TICKS = 5 * 60 * 60;
+
+    /** The number of simulation threads */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /** The maximum number of ticks per level */
+    private int maxTicks = DEFAULT_TICKS;
+    /** The input script for every level */
+    private String script = ScriptedInput.DEFAULT_SCRIPT;
+    /** The keys of the levels to simulate */
+    private final Array<String> levels = new Array<>();
+    /** The level numbers of the levels to simulate (0 for custom levels) */
+    private final Array<Integer> levelNums = new Array<>();
+    /** The exit code of the run */
+    private int exitCode;
+
+    /**
+     * Classic main method that all Java programmers know.
+     *
+     * @param arg Command line arguments
+     */
+    public static void main(String[] arg) {
+        HeadlessLauncher launcher = new HeadlessLauncher();
+        try {
+            launcher.parseArgs(arg);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: HeadlessLauncher [-threads N] [-ticks T] [-script FILE] [LEVEL ...]");
+            System.exit(2);
+        }
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // Do all of the work in create; never call render
+        config.updatesPerSecond = -1;
+        new HeadlessApplication(launcher, config);
+    }
+
+    /**
+     * Reads the command line arguments into this launcher.
+     *
+     * @param arg Command line arguments
+     */
+    private void parseArgs(String[] arg) {
+        try {
+            for (int ii = 0; ii < arg.length; ii++) {
+                if (arg[ii].equals("-threads")) {
+                    threads = Math.max(1, Integer.parseInt(arg[++ii]));
+                } else if (arg[ii].equals("-ticks")) {
+                    maxTicks = Math.max(1, Integer.parseInt(arg[++ii]));
+                } else if (arg[ii].equals("-script")) {
+                    script = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(arg[++ii])), "UTF-8");
+                } else if (arg[ii].startsWith("-")) {
+                    throw new IllegalArgumentException("Unknown option " + arg[ii]);
+                } else {
+                    addLevel(arg[ii]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Missing value for " + arg[arg.length - 1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + e.getMessage());
+        } catch (java.io.IOException e) {
+            throw new IllegalArgumentException("Could not read script: " + e.getMessage());
+        }
+        if (levels.size == 0) {
+            for (int ii = 1; ii <= GameController.NUM_LEVELS; ii++) {
+                addLevel(Integer.toString(ii));
+            }
+        }
+    }
+
+    /**
+     * Adds a level to simulate.
+     *
+     * @param level a level number or level key
+     */
+    private void addLevel(String level) {
+        int num;
+        try {
+            num = Integer.parseInt(level);
+            level = "level" + num;
+        } catch (NumberFormatException e) {
+            num = level.matches("level\\d+") ? Integer.parseInt(level.substring(5)) : 0;
+        }
+        levels.add(level);
+        levelNums.add(num);
+    }
+
+    @Override
+    public void create() {
+        GL20 gl = NullGL.create();
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+
+        AssetDirectory directory = new AssetDirectory(ASSET_FILE);
+        Array<AssetParser<?>> parsers = new Array<>(directory.getParsers());
+        for (AssetParser<?> parser : parsers) {
+            Class<?> type = parser.getType();
+            if (type == Sound.class || type == Music.class || type == SoundEffect.class
+                    || type == MusicQueue.class || type == AudioSource.class) {
+                directory.removeParser(parser);
+            }
+        }
+        long start = System.nanoTime();
+        directory.loadAssets();
+        directory.finishLoading();
+        System.out.printf("Loaded assets in %.1f ms; simulating %d levels on %d threads%n",
+                (System.nanoTime() - start) / 1e6, levels.size, threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Array<Future<SimulationResult>> futures = new Array<>();
+        for (int ii = 0; ii < levels.size; ii++) {
+            // Build each level here, while the ones already submitted run
+            LevelSimulation simulation = new LevelSimulation(levels.get(ii), levelNums.get(ii), script, maxTicks);
+            simulation.load(directory);
+            futures.add(pool.submit(simulation));
+        }
+        pool.shutdown();
+
+        start = System.nanoTime();
+        long totalTicks = 0;
+        System.out.println(SimulationResult.header());
+        for (int ii = 0; ii < futures.size; ii++) {
+            SimulationResult result;
+            try {
+                result = futures.get(ii).get();
+            } catch (InterruptedException | ExecutionException e) {
+                result = new SimulationResult(levels.get(ii));
+                result.outcome = SimulationResult.Outcome.ERROR;
+                result.error = e;
+            }
+            if (result.outcome == SimulationResult.Outcome.ERROR) {
+                exitCode = 1;
+            }
+            totalTicks += result.ticks;
+            System.out.println(result);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d ticks in %.2f s (%.0f ticks/s overall)%n", totalTicks, seconds, totalTicks / seconds);
+
+        directory.unloadAssets();
+        directory.dispose();
+        Gdx.app.exit();
+    }
+
+    @Override
+    public void dispose() {
+        System.exit(exitCode);
+    }
+}
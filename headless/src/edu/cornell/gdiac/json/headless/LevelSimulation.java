@@ -0,0 +1,211 @@
+/*
+ * LevelSimulation.java
+ *
+ * Runs one level without a canvas, as fast as the CPU allows. The level is
+ * played by the same LevelController as GameController, minus everything that
+ * only affects presentation (camera, HUD, minimap, sound, and drawing).
+ *
+ * Simulations always run in deterministic mode: gameplay time comes from the
+ * simulation clock and randomness from the level seed, so running the same
+ * level with the same script twice yields the same final state hash.
+ */
+package edu.cornell.gdiac.json.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.bubblegumbandit.controllers.LevelController;
+import edu.cornell.gdiac.bubblegumbandit.controllers.LevelController.Phase;
+import edu.cornell.gdiac.bubblegumbandit.controllers.PlayerController;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelBlueprint;
+import edu.cornell.gdiac.bubblegumbandit.models.level.LevelModel;
+import edu.cornell.gdiac.bubblegumbandit.models.player.BanditModel;
+import edu.cornell.gdiac.bubblegumbandit.view.GameCamera;
+import edu.cornell.gdiac.json.headless.SimulationResult.Outcome;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.RandomController;
+import edu.cornell.gdiac.util.SimClock;
+
+import java.util.concurrent.Callable;
+
+import static edu.cornell.gdiac.bubblegumbandit.controllers.GameController.*;
+
+/**
+ * A single headless level simulation.
+ *
+ * The level is built by {@link #load} on the thread that loaded the asset directory,
+ * as the directory loads some entries on demand and the level creates GL objects
+ * (such as its lights). After that, the simulation owns its level (and so its Box2D
+ * World), its controllers, and its input, and never reads the directory again, so
+ * any number of them may run on separate threads.
+ */
+public class LevelSimulation implements Callable<SimulationResult> {
+    /** The size of the (unused) camera viewport */
+    private static final float CAMERA_WIDTH = 1280;
+    private static final float CAMERA_HEIGHT = 720;
+
+    /** The key of the level to simulate */
+    private final String levelKey;
+    /** The level number (for the shooting tutorial levels) */
+    private final int levelNum;
+    /** The maximum number of ticks to simulate */
+    private final int maxTicks;
+    /** The scripted input */
+    private final ScriptedInput input;
+    /** Plays the level */
+    private final LevelController controller;
+    /** The report of the simulation, started by {@link #load} */
+    private final SimulationResult result;
+
+    /** Cache for the aim target */
+    private final Vector2 target = new Vector2();
+
+    /**
+     * Creates a simulation of the given level.
+     *
+     * @param levelKey  the key of the level JSON in the asset directory
+     * @param levelNum  the level number, or 0 for a custom level
+     * @param script    the input script (see {@link ScriptedInput})
+     * @param maxTicks  the maximum number of ticks to simulate
+     */
+    public LevelSimulation(String levelKey, int levelNum, String script, int maxTicks) {
+        this.levelKey = levelKey;
+        this.levelNum = levelNum;
+        this.maxTicks = maxTicks;
+        input = new ScriptedInput(script);
+        controller = new LevelController();
+        result = new SimulationResult(levelKey);
+    }
+
+    /**
+     * Builds the level from the given directory, on the calling thread.
+     *
+     * This must be called on the thread that loaded the directory, before the
+     * simulation is submitted. If the level cannot be built, the simulation reports
+     * the error instead of running.
+     *
+     * @param directory the loaded asset directory
+     */
+    public void load(AssetDirectory directory) {
+        PlayerController.setThreadInstance(input);
+        SimClock.setDeterministic(true);
+        try {
+            long start = System.nanoTime();
+            String file = directory.getFile(levelKey, JsonValue.class);
+            if (file == null) {
+                throw new IllegalArgumentException("No level named " + levelKey);
+            }
+            JsonValue constantsJson = directory.getEntry("constants", JsonValue.class);
+            JsonValue tilesetJson = directory.getEntry("tileset", JsonValue.class);
+            // Built the same way as LevelPrebuilder, but on this thread
+            float[] pSize = constantsJson.get("physicsSize").asFloatArray();
+            LevelBlueprint blueprint = new LevelBlueprint(levelKey, Gdx.files.internal(file).readBytes(),
+                    new Vector2(pSize[0], pSize[1]));
+            boolean disableShooting = levelNum > 0 && levelNum <= disableGumMaxLevel;
+
+            GameCamera camera = new GameCamera(CAMERA_WIDTH, CAMERA_HEIGHT);
+            controller.load(directory, blueprint, constantsJson, tilesetJson, disableShooting, camera);
+            result.loadNanos = System.nanoTime() - start;
+        } catch (Throwable e) {
+            result.outcome = Outcome.ERROR;
+            result.error = e;
+        } finally {
+            PlayerController.setThreadInstance(null);
+            SimClock.setDeterministic(false);
+        }
+    }
+
+    /**
+     * Runs the simulation to completion on the calling thread.
+     *
+     * @return the result of the simulation
+     */
+    @Override
+    public SimulationResult call() {
+        if (result.outcome == Outcome.ERROR) {
+            controller.dispose();
+            return result;
+        }
+        PlayerController.setThreadInstance(input);
+        // The level was built on another thread, so this thread's clock and random
+        // numbers start from the beginning of the level, as they do on a retry
+        SimClock.setDeterministic(true);
+        RandomController.setSeed(controller.getLevel().getSeed());
+        controller.setPhaseTimes(result.phaseNanos);
+        try {
+            long start = System.nanoTime();
+            while (result.ticks < maxTicks) {
+                Outcome outcome = tick();
+                result.ticks++;
+                if (outcome != null) {
+                    result.outcome = outcome;
+                    break;
+                }
+            }
+            result.runNanos = System.nanoTime() - start;
+            result.stateHash = hashState();
+        } catch (Throwable e) {
+            result.outcome = Outcome.ERROR;
+            result.error = e;
+        } finally {
+            controller.dispose();
+            PlayerController.setThreadInstance(null);
+            SimClock.setDeterministic(false);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a hash of the physical state of every object in the level.
+     *
+     * Positions, velocities and angles are hashed bit for bit, so any divergence
+     * between two runs changes the hash.
+     *
+     * @return a hash of the physical state of every object in the level.
+     */
+    private long hashState() {
+        LevelModel level = controller.getLevel();
+        long hash = 17;
+        for (Obstacle obj : level.getObjects()) {
+            hash = 31 * hash + Float.floatToIntBits(obj.getX());
+            hash = 31 * hash + Float.floatToIntBits(obj.getY());
+            hash = 31 * hash + Float.floatToIntBits(obj.getVX());
+            hash = 31 * hash + Float.floatToIntBits(obj.getVY());
+            hash = 31 * hash + Float.floatToIntBits(obj.getAngle());
+        }
+        BanditModel bandit = level.getBandit();
+        hash = 31 * hash + Float.floatToIntBits(bandit.getHealth());
+        hash = 31 * hash + bandit.getAmmo();
+        return hash;
+    }
+
+    /**
+     * Advances the simulation by one fixed step.
+     *
+     * @return the outcome if the simulation has ended, or null to continue
+     */
+    private Outcome tick() {
+        long time = System.nanoTime();
+        BanditModel bandit = controller.getLevel().getBandit();
+        SimClock.step(WORLD_STEP);
+
+        // End conditions, as in GameController.preUpdate
+        input.readInput();
+        controller.updateOrbCountdown(WORLD_STEP, false, false);
+        if (bandit.getHealth() <= 0) {
+            return Outcome.DIED;
+        }
+        if (bandit.winConditionMet()) {
+            return Outcome.WON;
+        }
+
+        // The scripted crosshair is an offset from the bandit in world units
+        Vector2 cross = input.getCrossHair();
+        target.set(bandit.getX() + cross.x, bandit.getY() + cross.y);
+        result.phaseNanos[Phase.INPUT.ordinal()] += System.nanoTime() - time;
+
+        controller.update(WORLD_STEP, input, target, true, true);
+        return null;
+    }
+}
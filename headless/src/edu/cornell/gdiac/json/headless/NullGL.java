@@ -0,0 +1,80 @@
+/*
+ * NullGL.java
+ *
+ * The headless backend has no OpenGL context, but loading textures, shaders and
+ * lights still issues GL calls. This class builds a GL20 that accepts every call
+ * and reports success, so the game models can be created without a window.
+ */
+package edu.cornell.gdiac.json.headless;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * Factory for a GL20 implementation that does nothing.
+ *
+ * Object names (textures, buffers, shaders, programs) are all 1, shader compiles
+ * and program links always succeed, and framebuffers are always complete. Every
+ * other query returns zero, false, an empty string, or null.
+ */
+public class NullGL implements InvocationHandler {
+
+    /**
+     * Returns a new GL20 that ignores all calls.
+     *
+     * @return a new GL20 that ignores all calls.
+     */
+    public static GL20 create() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(),
+                new Class<?>[]{GL20.class}, new NullGL());
+    }
+
+    /** Use {@link #create()} instead */
+    private NullGL() {}
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        Class<?> type = method.getReturnType();
+
+        if (method.getDeclaringClass() == Object.class) {
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return "NullGL";
+        }
+
+        if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+            int pname = (Integer) args[1];
+            if (pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS) {
+                ((IntBuffer) args[2]).put(0, 1);
+            }
+            return null;
+        }
+        if (name.equals("glCheckFramebufferStatus")) {
+            return GL20.GL_FRAMEBUFFER_COMPLETE;
+        }
+        if (name.startsWith("glGen") || name.equals("glCreateShader") || name.equals("glCreateProgram")) {
+            return 1;
+        }
+
+        if (type == Void.TYPE) {
+            return null;
+        } else if (type == Integer.TYPE) {
+            return 0;
+        } else if (type == Boolean.TYPE) {
+            return false;
+        } else if (type == Float.TYPE) {
+            return 0f;
+        } else if (type == String.class) {
+            return "";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * ScriptedInput.java
+ *
+ * Input for headless simulations. Instead of polling the keyboard, this replays
+ * a simple text script, one step per line:
+ *
+ *     <ticks> [left] [right] [up] [down] [shoot] [reload] [aim <x> <y>]
+ *
+ * Each step holds its actions for the given number of ticks. Aim coordinates
+ * are an offset from the bandit in world (physics) units, and the script loops
+ * when it reaches the end.
+ * Blank lines and lines starting with # are ignored. There is no unstick
+ * action, as unsticking depends on the aim highlight, which needs a canvas.
+ */
+package edu.cornell.gdiac.json.headless;
+
+import com.badlogic.gdx.utils.Array;
+import edu.cornell.gdiac.bubblegumbandit.controllers.PlayerController;
+
+/**
+ * A player controller that replays a fixed input script.
+ *
+ * Each simulation owns its own instance, installed on the simulation thread
+ * with {@link PlayerController#setThreadInstance}.
+ */
+public class ScriptedInput extends PlayerController {
+
+    /** The script used when none is provided: wander back and forth, flipping and shooting */
+    public static final String DEFAULT_SCRIPT =
+            "120 right\n" +
+            "1 right up\n" +
+            "90 right\n" +
+            "1 shoot aim 10 0\n" +
+            "120 left\n" +
+            "1 left down\n" +
+            "90 left\n" +
+            "1 shoot aim -10 0\n" +
+            "30 reload\n";
+
+    /** A single step of the script */
+    private static class Step {
+        int ticks;
+        float horizontal;
+        boolean up;
+        boolean down;
+        boolean shoot;
+        boolean reload;
+        boolean aim;
+        float aimX;
+        float aimY;
+    }
+
+    /** The parsed script */
+    private final Array<Step> steps;
+    /** The current step */
+    private int step;
+    /** The number of ticks left in the current step */
+    private int remaining;
+    /** The last aim offset from the bandit */
+    private float aimX;
+    private float aimY;
+
+    /**
+     * Creates scripted input from the given script text.
+     *
+     * @param script the script text
+     */
+    public ScriptedInput(String script) {
+        super(true);
+        steps = parse(script);
+        if (steps.size == 0) {
+            throw new IllegalArgumentException("Input script has no steps");
+        }
+        step = 0;
+        remaining = steps.get(0).ticks;
+    }
+
+    /**
+     * Returns the steps of the given script.
+     *
+     * @param script the script text
+     * @return the steps of the given script.
+     */
+    private static Array<Step> parse(String script) {
+        Array<Step> result = new Array<>();
+        String[] lines = script.split("\n");
+        for (int ii = 0; ii < lines.length; ii++) {
+            String line = lines[ii].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            Step s = new Step();
+            try {
+                s.ticks = Math.max(1, Integer.parseInt(tokens[0]));
+                for (int jj = 1; jj < tokens.length; jj++) {
+                    String token = tokens[jj];
+                    if (token.equals("left")) {
+                        s.horizontal -= 1.0f;
+                    } else if (token.equals("right")) {
+                        s.horizontal += 1.0f;
+                    } else if (token.equals("up")) {
+                        s.up = true;
+                    } else if (token.equals("down")) {
+                        s.down = true;
+                    } else if (token.equals("shoot")) {
+                        s.shoot = true;
+                    } else if (token.equals("reload")) {
+                        s.reload = true;
+                    } else if (token.equals("aim")) {
+                        s.aim = true;
+                        s.aimX = Float.parseFloat(tokens[++jj]);
+                        s.aimY = Float.parseFloat(tokens[++jj]);
+                    } else {
+                        throw new IllegalArgumentException("Unknown action '" + token + "' on script line " + (ii + 1));
+                    }
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Malformed script line " + (ii + 1) + ": " + line, e);
+            }
+            result.add(s);
+        }
+        return result;
+    }
+
+    /**
+     * Advances the script by one tick.
+     *
+     * Buttons are only held for the ticks of their step, so a one tick step with
+     * "shoot" fires exactly once.
+     */
+    @Override
+    protected void pollInput() {
+        if (remaining <= 0) {
+            step = (step + 1) % steps.size;
+            remaining = steps.get(step).ticks;
+        }
+        Step s = steps.get(step);
+        if (s.aim) {
+            aimX = s.aimX;
+            aimY = s.aimY;
+        }
+        setInputState(s.horizontal, s.up, s.down, s.shoot, false, s.reload, aimX, aimY);
+        remaining--;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * SimulationResult.java
+ *
+ * The outcome and timing of a single headless level simulation.
+ */
+package edu.cornell.gdiac.json.headless;
+
+import edu.cornell.gdiac.bubblegumbandit.controllers.LevelController.Phase;
+
+/**
+ * The report for one level simulation.
+ *
+ * Phase timings are the total nanoseconds spent in each phase of the tick
+ * (see {@link Phase}), summed over the whole run.
+ */
+public class SimulationResult {
+
+    /** How a simulation ended */
+    public enum Outcome {
+        /** The bandit met the win condition */
+        WON,
+        /** The bandit died */
+        DIED,
+        /** The tick limit was reached first */
+        TIMEOUT,
+        /** The simulation threw an exception */
+        ERROR
+    }
+
+    /** The level that was simulated */
+    public final String level;
+    /** How the simulation ended */
+    public Outcome outcome = Outcome.TIMEOUT;
+    /** The number of ticks simulated */
+    public int ticks;
+    /** The time spent loading the level, in nanoseconds */
+    public long loadNanos;
+    /** The time spent simulating, in nanoseconds */
+    public long runNanos;
+    /** The time spent in each phase, in nanoseconds */
+    public final long[] phaseNanos = new long[Phase.values().length];
+    /** A hash of the final state, for comparing deterministic runs */
+    public long stateHash;
+    /** The exception thrown, if the outcome is an error */
+    public Throwable error;
+
+    /**
+     * Creates an empty result for the given level.
+     *
+     * @param level the level key (e.g. "level3")
+     */
+    public SimulationResult(String level) {
+        this.level = level;
+    }
+
+    /**
+     * Returns the number of ticks simulated per second of wall time.
+     *
+     * @return the number of ticks simulated per second of wall time.
+     */
+    public double getTicksPerSecond() {
+        return runNanos == 0 ? 0 : ticks * 1e9 / runNanos;
+    }
+
+    /**
+     * Returns the column headers for {@link #toString()}.
+     *
+     * @return the column headers for {@link #toString()}.
+     */
+    public static String header() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-10s %-8s %8s %10s %8s %16s", "level", "outcome", "ticks", "ticks/s", "load ms", "state"));
+        for (Phase phase : Phase.values()) {
+            builder.append(String.format(" %11s", phase.name().toLowerCase() + " us"));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns a single report line, with phase timings as microseconds per tick.
+     *
+     * @return a single report line
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-10s %-8s %8d %10.0f %8.1f %016x", level, outcome, ticks,
+                getTicksPerSecond(), loadNanos / 1e6, stateHash));
+        for (Phase phase : Phase.values()) {
+            double perTick = ticks == 0 ? 0 : phaseNanos[phase.ordinal()] / 1e3 / ticks;
+            builder.append(String.format(" %11.2f", perTick));
+        }
+        if (error != null) {
+            builder.append("  ").append(error);
+        }
+        return builder.toString();
+    }
+}